@@ -0,0 +1,88 @@
+package com.resolveit.config;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects Hikari's per-pool metrics (connection wait, usage and timeouts) alongside
+ * the live pool state, for the admin pool endpoint.
+ */
+public class ConnectionPoolMetrics implements MetricsTrackerFactory {
+
+    private final ConcurrentHashMap<String, PoolTracker> trackers = new ConcurrentHashMap<>();
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        PoolTracker tracker = new PoolTracker(poolStats);
+        trackers.put(poolName, tracker);
+        return tracker;
+    }
+
+    /**
+     * Current state and counters of every pool, ordered by pool name
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> pools = new ArrayList<>();
+        trackers.keySet().stream().sorted().forEach(name -> pools.add(trackers.get(name).toMap(name)));
+        return pools;
+    }
+
+    private static class PoolTracker implements IMetricsTracker {
+        private final PoolStats stats;
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder acquiredNanos = new LongAdder();
+        private final LongAccumulator maxAcquiredNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder usageMillis = new LongAdder();
+        private final LongAccumulator maxUsageMillis = new LongAccumulator(Math::max, 0);
+        private final LongAdder timeouts = new LongAdder();
+
+        PoolTracker(PoolStats stats) {
+            this.stats = stats;
+        }
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquired.increment();
+            acquiredNanos.add(elapsedAcquiredNanos);
+            maxAcquiredNanos.accumulate(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            usageMillis.add(elapsedBorrowedMillis);
+            maxUsageMillis.accumulate(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+
+        Map<String, Object> toMap(String name) {
+            long count = acquired.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("pool", name);
+            map.put("active", stats.getActiveConnections());
+            map.put("idle", stats.getIdleConnections());
+            map.put("total", stats.getTotalConnections());
+            map.put("max", stats.getMaxConnections());
+            map.put("waitingThreads", stats.getPendingThreads());
+            map.put("acquired", count);
+            map.put("avgAcquireMillis", count == 0 ? 0.0 : acquiredNanos.sum() / 1_000_000.0 / count);
+            map.put("maxAcquireMillis", maxAcquiredNanos.get() / 1_000_000.0);
+            map.put("avgUsageMillis", count == 0 ? 0.0 : (double) usageMillis.sum() / count);
+            map.put("maxUsageMillis", maxUsageMillis.get());
+            map.put("timeouts", timeouts.sum());
+            return map;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.resolveit.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Primary pools from spring.datasource.* (one per workload), optional read replica pools from
+ * app.datasource.*, and the routing DataSource the rest of the application uses.
+ * With no replica URLs configured every connection comes from the primary.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    @Value("${app.datasource.replica-urls:}")
+    private String replicaUrls;
+
+    @Value("${app.datasource.replica-username:${spring.datasource.username}}")
+    private String replicaUsername;
+
+    @Value("${app.datasource.replica-password:${spring.datasource.password}}")
+    private String replicaPassword;
+
+    @Value("${app.datasource.replica-lag-query:SHOW REPLICA STATUS}")
+    private String replicaLagQuery;
+
+    @Value("${app.datasource.replica-max-lag-seconds:5}")
+    private long replicaMaxLagSeconds;
+
+    @Value("${app.datasource.sticky-seconds:10}")
+    private long stickySeconds;
+
+    // Connections per primary pool: logins and pages, scheduled jobs and imports, report exports
+    @Value("${app.datasource.pools.interactive-size:10}")
+    private int interactivePoolSize;
+
+    @Value("${app.datasource.pools.batch-size:3}")
+    private int batchPoolSize;
+
+    @Value("${app.datasource.pools.reporting-size:3}")
+    private int reportingPoolSize;
+
+    // How long a request waits for a connection before failing, per workload
+    @Value("${app.datasource.pools.interactive-timeout-ms:5000}")
+    private long interactiveTimeoutMs;
+
+    @Value("${app.datasource.pools.batch-timeout-ms:30000}")
+    private long batchTimeoutMs;
+
+    @Value("${app.datasource.pools.reporting-timeout-ms:60000}")
+    private long reportingTimeoutMs;
+
+    // Record per-statement latency statistics for the admin query endpoints
+    @Value("${app.query-stats.enabled:true}")
+    private boolean queryStatsEnabled;
+
+    // Executions at least this slow are sampled with their bind parameters
+    @Value("${app.query-stats.slow-threshold-ms:200}")
+    private long slowQueryThresholdMs;
+
+    // Fraction of slow executions sampled (1.0 = all)
+    @Value("${app.query-stats.slow-sample-rate:1.0}")
+    private double slowQuerySampleRate;
+
+    // Most recent slow samples kept
+    @Value("${app.query-stats.max-slow-samples:100}")
+    private int maxSlowQuerySamples;
+
+    // Also print each sampled slow query to the console
+    @Value("${app.query-stats.log-slow-queries:false}")
+    private boolean logSlowQueries;
+
+    @Bean
+    public QueryStatistics queryStatistics() {
+        return new QueryStatistics(slowQueryThresholdMs, slowQuerySampleRate, maxSlowQuerySamples, logSlowQueries);
+    }
+
+    @Bean
+    public ConnectionPoolMetrics connectionPoolMetrics() {
+        return new ConnectionPoolMetrics();
+    }
+
+    /**
+     * Settings shared by every pool: connection details plus spring.datasource.hikari.*
+     * (including the driver's data-source-properties)
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariConfig basePoolConfig(DataSourceProperties properties, ConnectionPoolMetrics connectionPoolMetrics) {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(properties.determineUrl());
+        config.setUsername(properties.determineUsername());
+        config.setPassword(properties.determinePassword());
+        config.setDriverClassName(properties.determineDriverClassName());
+        config.setMetricsTrackerFactory(connectionPoolMetrics);
+        return config;
+    }
+
+    @Bean
+    public WorkloadRoutingDataSource primaryDataSource(HikariConfig basePoolConfig) {
+        EnumMap<PoolWorkload, HikariDataSource> pools = new EnumMap<>(PoolWorkload.class);
+        pools.put(PoolWorkload.INTERACTIVE, createPool(basePoolConfig, "interactive", interactivePoolSize, interactiveTimeoutMs));
+        pools.put(PoolWorkload.BATCH, createPool(basePoolConfig, "batch", batchPoolSize, batchTimeoutMs));
+        pools.put(PoolWorkload.REPORTING, createPool(basePoolConfig, "reporting", reportingPoolSize, reportingTimeoutMs));
+        return new WorkloadRoutingDataSource(pools);
+    }
+
+    private HikariDataSource createPool(HikariConfig base, String name, int size, long timeoutMs) {
+        HikariConfig config = new HikariConfig();
+        base.copyStateTo(config);
+        config.setPoolName(name);
+        config.setMaximumPoolSize(size);
+        config.setMinimumIdle(Math.min(size, Math.max(1, size / 2)));
+        config.setConnectionTimeout(timeoutMs);
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(WorkloadRoutingDataSource primaryDataSource,
+                                                             HikariConfig basePoolConfig) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        int index = 0;
+        for (String url : replicaUrls.split(",")) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariConfig config = new HikariConfig();
+            basePoolConfig.copyStateTo(config);
+            config.setPoolName("replica-" + index);
+            config.setJdbcUrl(url.trim());
+            config.setUsername(replicaUsername);
+            config.setPassword(replicaPassword);
+            config.setReadOnly(true);
+            replicas.put("replica-" + index++, new HikariDataSource(config));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, replicaLagQuery, replicaMaxLagSeconds, stickySeconds);
+    }
+
+    /**
+     * The lazy proxy defers picking a target until the first statement, when the transaction's read-only flag is set
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource, QueryStatistics queryStatistics) {
+        DataSource target = queryStatsEnabled
+            ? new QueryStatsDataSource(replicaRoutingDataSource, queryStatistics)
+            : replicaRoutingDataSource;
+        return new LazyConnectionDataSourceProxy(target);
+    }
+}
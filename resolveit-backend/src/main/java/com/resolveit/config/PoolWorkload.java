@@ -0,0 +1,52 @@
+package com.resolveit.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Which connection pool the current thread's database work should use.
+ *
+ * Request threads default to INTERACTIVE. Scheduler threads are bound to BATCH and report
+ * workers to REPORTING when they start; code running a long export on a request thread binds
+ * REPORTING around it with bind/restore.
+ */
+public enum PoolWorkload {
+    INTERACTIVE,
+    BATCH,
+    REPORTING;
+
+    private static final ThreadLocal<PoolWorkload> CURRENT = new ThreadLocal<>();
+
+    public static PoolWorkload current() {
+        PoolWorkload workload = CURRENT.get();
+        return workload != null ? workload : INTERACTIVE;
+    }
+
+    /**
+     * Bind a workload to the current thread and return the previous one for restore
+     */
+    public static PoolWorkload bind(PoolWorkload workload) {
+        PoolWorkload previous = CURRENT.get();
+        CURRENT.set(workload);
+        return previous;
+    }
+
+    public static void restore(PoolWorkload previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Run work with this workload bound to the current thread
+     */
+    public <T> T call(Supplier<T> work) {
+        PoolWorkload previous = bind(this);
+        try {
+            return work.get();
+        } finally {
+            restore(previous);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.resolveit.config;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Per-statement latency statistics and a sample of slow executions with their bind parameters.
+ *
+ * Statements are keyed by their SQL text (literals replaced by ? for plain statements), each with
+ * a count, total and max time and a fixed-bucket latency histogram. The number of distinct
+ * statements tracked is capped; anything beyond the cap is counted under OTHER_STATEMENTS.
+ */
+public class QueryStatistics {
+
+    public static final String OTHER_STATEMENTS = "(other statements)";
+
+    // Upper bounds of the histogram buckets in milliseconds; the last bucket is open-ended
+    private static final long[] BUCKET_BOUNDS_MS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    private static final int MAX_STATEMENTS = 2000;
+    private static final int MAX_SQL_LENGTH = 2000;
+    private static final int MAX_BIND_LENGTH = 100;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+
+    private final long slowThresholdNanos;
+    private final double slowSampleRate;
+    private final int maxSlowSamples;
+    private final boolean logSlowQueries;
+
+    private final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final ArrayDeque<Map<String, Object>> slowSamples = new ArrayDeque<>();
+
+    public QueryStatistics(long slowThresholdMs, double slowSampleRate, int maxSlowSamples, boolean logSlowQueries) {
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+        this.slowSampleRate = slowSampleRate;
+        this.maxSlowSamples = maxSlowSamples;
+        this.logSlowQueries = logSlowQueries;
+    }
+
+    /**
+     * Record one execution; prepared is false for plain statements whose SQL carries literals
+     */
+    public void record(String sql, boolean prepared, List<Object> binds, int batchSize, long elapsedNanos) {
+        String key = prepared ? sql : normalize(sql);
+        if (key.length() > MAX_SQL_LENGTH) {
+            key = key.substring(0, MAX_SQL_LENGTH);
+        }
+
+        StatementStats stats = statements.get(key);
+        if (stats == null) {
+            stats = statements.size() < MAX_STATEMENTS
+                ? statements.computeIfAbsent(key, k -> new StatementStats())
+                : statements.computeIfAbsent(OTHER_STATEMENTS, k -> new StatementStats());
+        }
+        stats.add(elapsedNanos);
+
+        if (elapsedNanos >= slowThresholdNanos && ThreadLocalRandom.current().nextDouble() < slowSampleRate) {
+            sampleSlow(sql, binds, batchSize, elapsedNanos);
+        }
+    }
+
+    private void sampleSlow(String sql, List<Object> binds, int batchSize, long elapsedNanos) {
+        List<String> bindValues = new ArrayList<>(binds.size());
+        for (Object value : binds) {
+            String text = String.valueOf(value);
+            bindValues.add(text.length() > MAX_BIND_LENGTH ? text.substring(0, MAX_BIND_LENGTH) + "..." : text);
+        }
+
+        Map<String, Object> sample = new LinkedHashMap<>();
+        sample.put("sql", sql.length() > MAX_SQL_LENGTH ? sql.substring(0, MAX_SQL_LENGTH) : sql);
+        sample.put("binds", bindValues);
+        sample.put("batchSize", batchSize);
+        sample.put("elapsedMillis", elapsedNanos / 1_000_000.0);
+        sample.put("thread", Thread.currentThread().getName());
+        sample.put("workload", PoolWorkload.current().name());
+        sample.put("executedAt", LocalDateTime.now());
+
+        synchronized (slowSamples) {
+            if (slowSamples.size() >= maxSlowSamples) {
+                slowSamples.removeFirst();
+            }
+            slowSamples.addLast(sample);
+        }
+
+        if (logSlowQueries) {
+            System.err.println("Slow query (" + sample.get("elapsedMillis") + " ms): " + sample.get("sql") + " binds=" + bindValues);
+        }
+    }
+
+    private static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        return NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+    }
+
+    /**
+     * The statements with the highest value of sortBy (total, avg, max or count), highest first
+     */
+    public List<Map<String, Object>> top(int limit, String sortBy) {
+        Comparator<Map<String, Object>> order = switch (sortBy != null ? sortBy.toLowerCase() : "total") {
+            case "total" -> Comparator.comparingDouble(m -> (Double) m.get("totalMillis"));
+            case "avg" -> Comparator.comparingDouble(m -> (Double) m.get("avgMillis"));
+            case "max" -> Comparator.comparingDouble(m -> (Double) m.get("maxMillis"));
+            case "count" -> Comparator.comparingLong(m -> (Long) m.get("count"));
+            default -> throw new RuntimeException("Unsupported sort: " + sortBy + " (use total, avg, max or count)");
+        };
+
+        List<Map<String, Object>> rows = new ArrayList<>(statements.size());
+        statements.forEach((sql, stats) -> rows.add(stats.toMap(sql)));
+        rows.sort(order.reversed());
+        return rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    /**
+     * Sampled slow executions, most recent first
+     */
+    public List<Map<String, Object>> slowSamples() {
+        synchronized (slowSamples) {
+            List<Map<String, Object>> samples = new ArrayList<>(slowSamples);
+            Collections.reverse(samples);
+            return samples;
+        }
+    }
+
+    public void reset() {
+        statements.clear();
+        synchronized (slowSamples) {
+            slowSamples.clear();
+        }
+    }
+
+    private static class StatementStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_BOUNDS_MS.length + 1);
+
+        void add(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+
+            long millis = elapsedNanos / 1_000_000L;
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MS.length && millis >= BUCKET_BOUNDS_MS[bucket]) {
+                bucket++;
+            }
+            buckets.incrementAndGet(bucket);
+        }
+
+        Map<String, Object> toMap(String sql) {
+            long n = count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+
+            Map<String, Object> histogram = new LinkedHashMap<>();
+            long[] counts = new long[buckets.length()];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets.get(i);
+                String label = i < BUCKET_BOUNDS_MS.length ? "<" + BUCKET_BOUNDS_MS[i] + "ms" : ">=" + BUCKET_BOUNDS_MS[i - 1] + "ms";
+                histogram.put(label, counts[i]);
+            }
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("sql", sql);
+            map.put("count", n);
+            map.put("totalMillis", totalMillis);
+            map.put("avgMillis", n == 0 ? 0.0 : totalMillis / n);
+            map.put("maxMillis", maxNanos.get() / 1_000_000.0);
+            map.put("p95Millis", percentileBound(counts, 0.95));
+            map.put("histogram", histogram);
+            return map;
+        }
+
+        /**
+         * Upper bound of the bucket holding the given percentile (the last bound for the open bucket)
+         */
+        private static long percentileBound(long[] counts, double percentile) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            long rank = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && seen > 0) {
+                    return i < BUCKET_BOUNDS_MS.length ? BUCKET_BOUNDS_MS[i] : BUCKET_BOUNDS_MS[BUCKET_BOUNDS_MS.length - 1];
+                }
+            }
+            return 0;
+        }
+    }
+}
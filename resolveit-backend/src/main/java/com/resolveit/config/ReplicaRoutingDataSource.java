@@ -0,0 +1,213 @@
+package com.resolveit.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Sends read-only transactions to a healthy replica and everything else to the primary.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy so the lookup happens once the
+ * transaction's read-only flag is known. A replica is skipped while it is unreachable or
+ * lagging more than maxLagSeconds, and a client who has just committed a write reads from
+ * the primary for stickySeconds so they see their own changes. Clients are signed-in users,
+ * or IP addresses for anonymous requests (e.g. an anonymous complaint submission). Work
+ * run through onPrimary reads from the primary regardless.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    // Marks a read-write transaction whose client has already been scheduled to stick to the primary
+    private static final Object STICKY_MARKER = new Object();
+
+    // Set while the current thread's reads must see every committed write
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final List<String> replicaKeys;
+    private final Map<String, DataSource> replicas;
+    private final String lagQuery;
+    private final long maxLagSeconds;
+    private final long stickyMillis;
+
+    private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Long> stickyUntil = new ConcurrentHashMap<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery,
+                                    long maxLagSeconds, long stickySeconds) {
+        this.replicaKeys = new ArrayList<>(replicas.keySet());
+        this.replicas = replicas;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+        this.stickyMillis = stickySeconds * 1000;
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    /**
+     * Run work with its read-only transactions sent to the primary, e.g. to fill a cache that
+     * must not take in a row a replica has not caught up with yet
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        Boolean previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            }
+        }
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+    }
+
+    /**
+     * Close the replica pools on shutdown (the primary pools are closed by their own bean)
+     */
+    public void close() {
+        for (DataSource replica : replicas.values()) {
+            if (replica instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    System.err.println("Failed to close replica pool: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String client = currentClient();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            markStickyAfterCommit(client);
+            return PRIMARY;
+        }
+
+        if (FORCE_PRIMARY.get() != null) {
+            return PRIMARY;
+        }
+
+        if (client != null) {
+            Long until = stickyUntil.get(client);
+            if (until != null) {
+                if (until > System.currentTimeMillis()) {
+                    return PRIMARY;
+                }
+                stickyUntil.remove(client, until);
+            }
+        }
+
+        return pickReplica();
+    }
+
+    private String pickReplica() {
+        int count = replicaKeys.size();
+        for (int i = 0; i < count; i++) {
+            String key = replicaKeys.get(Math.floorMod(nextReplica.getAndIncrement(), count));
+            if (healthyReplicas.contains(key)) {
+                return key;
+            }
+        }
+        return PRIMARY;
+    }
+
+    /**
+     * Once a read-write transaction commits, route that client's reads to the primary for a while
+     */
+    private void markStickyAfterCommit(String client) {
+        if (client != null) {
+            AfterCommit.runOnce(STICKY_MARKER, () -> stickyUntil.put(client, System.currentTimeMillis() + stickyMillis));
+        }
+    }
+
+    /**
+     * The signed-in user, else the address of the request being served (the client's own address
+     * behind a proxy when server.forward-headers-strategy is set); null outside requests
+     */
+    private String currentClient() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes request) {
+            return "ip:" + request.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+
+    /**
+     * Re-check every replica's reachability and lag every 5 seconds
+     */
+    @Scheduled(fixedDelay = 5000)
+    public void checkReplicas() {
+        for (String key : replicaKeys) {
+            if (isHealthy(key, replicas.get(key))) {
+                healthyReplicas.add(key);
+            } else if (healthyReplicas.remove(key)) {
+                System.err.println("Replica " + key + " taken out of read rotation");
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        stickyUntil.values().removeIf(until -> until <= now);
+    }
+
+    /**
+     * A replica is healthy when it answers the lag query (or SELECT 1 without one) and reports
+     * a lag within the limit. MySQL's replica status reports NULL lag when replication is stopped.
+     */
+    private boolean isHealthy(String key, DataSource replica) {
+        String query = lagQuery == null || lagQuery.isBlank() ? "SELECT 1" : lagQuery;
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(query)) {
+            if (lagQuery == null || lagQuery.isBlank()) {
+                return rs.next();
+            }
+            if (!rs.next()) {
+                return false;
+            }
+
+            ResultSetMetaData meta = rs.getMetaData();
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                String column = meta.getColumnLabel(i);
+                if ("Seconds_Behind_Source".equalsIgnoreCase(column) || "Seconds_Behind_Master".equalsIgnoreCase(column)) {
+                    long lag = rs.getLong(i);
+                    return !rs.wasNull() && lag <= maxLagSeconds;
+                }
+            }
+            // Custom lag query: first column is the lag in seconds
+            long lag = rs.getLong(1);
+            return !rs.wasNull() && lag <= maxLagSeconds;
+        } catch (Exception e) {
+            System.err.println("Replica " + key + " health check failed: " + e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.resolveit.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * Scheduler for the @Scheduled jobs; its threads use the batch connection pool
+ */
+@Configuration
+public class SchedulingConfig {
+
+    // Threads running scheduled jobs, so the nightly rebuilds do not hold up the frequent checks
+    @Value("${spring.task.scheduling.pool.size:2}")
+    private int poolSize;
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        CustomizableThreadFactory threads = new CustomizableThreadFactory("scheduling-");
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadFactory(runnable -> threads.newThread(() -> {
+            PoolWorkload.bind(PoolWorkload.BATCH);
+            runnable.run();
+        }));
+        return scheduler;
+    }
+}
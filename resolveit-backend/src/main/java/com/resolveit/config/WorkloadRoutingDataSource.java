@@ -0,0 +1,34 @@
+package com.resolveit.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The primary database behind one pool per workload, so a long report export or the
+ * hourly escalation job cannot take the connections that logins and complaint pages need.
+ */
+public class WorkloadRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<PoolWorkload, HikariDataSource> pools;
+
+    public WorkloadRoutingDataSource(EnumMap<PoolWorkload, HikariDataSource> pools) {
+        this.pools = pools;
+        setTargetDataSources(new HashMap<>(pools));
+        setDefaultTargetDataSource(pools.get(PoolWorkload.INTERACTIVE));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return PoolWorkload.current();
+    }
+
+    public void close() {
+        for (HikariDataSource pool : pools.values()) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.resolveit.controller;
+
+import com.resolveit.config.ConnectionPoolMetrics;
+import com.resolveit.config.PoolWorkload;
+import com.resolveit.config.QueryStatistics;
+import com.resolveit.security.PasswordHashingService;
+import com.resolveit.security.RateLimiter;
+import com.resolveit.service.SnapshotExportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "*")
+public class AdminController {
+
+    @Autowired
+    private ConnectionPoolMetrics connectionPoolMetrics;
+
+    @Autowired
+    private QueryStatistics queryStatistics;
+
+    @Autowired
+    private SnapshotExportService snapshotExportService;
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    /**
+     * Get the state and wait/usage metrics of every database connection pool
+     * Only admins can view pool metrics
+     */
+    @GetMapping("/pools")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPoolMetrics() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("status", "success");
+            response.put("message", "Connection pool metrics retrieved successfully");
+            response.put("data", connectionPoolMetrics.snapshot());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Get the top statements by total, average or max time, or by execution count
+     * Only admins can view query statistics
+     */
+    @GetMapping("/queries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getTopQueries(
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "total") String sort) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("status", "success");
+            response.put("message", "Query statistics retrieved successfully");
+            response.put("data", queryStatistics.top(Math.max(1, Math.min(limit, 100)), sort));
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Get the sampled slow executions with their bind parameters, most recent first
+     */
+    @GetMapping("/queries/slow")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSlowQueries() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("status", "success");
+            response.put("message", "Slow queries retrieved successfully");
+            response.put("data", queryStatistics.slowSamples());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Clear the query statistics and slow samples
+     */
+    @DeleteMapping("/queries")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> resetQueryStatistics() {
+        Map<String, Object> response = new HashMap<>();
+
+        queryStatistics.reset();
+        response.put("status", "success");
+        response.put("message", "Query statistics cleared");
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * List the analytics snapshot files per table
+     */
+    @GetMapping("/snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getSnapshots() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("status", "success");
+            response.put("message", "Snapshots retrieved successfully");
+            response.put("data", snapshotExportService.listSnapshots());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Append the changes since the last snapshot now instead of waiting for the nightly run
+     */
+    @PostMapping("/snapshots")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> exportSnapshots() {
+        Map<String, Object> response = new HashMap<>();
+
+        PoolWorkload previous = PoolWorkload.bind(PoolWorkload.BATCH);
+        try {
+            response.put("status", "success");
+            response.put("message", "Snapshot export completed");
+            response.put("data", snapshotExportService.exportAll());
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } finally {
+            PoolWorkload.restore(previous);
+        }
+    }
+
+    /**
+     * Get the rate limit and concurrency limit counters and the most rejected clients
+     */
+    @GetMapping("/rate-limits")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getRateLimits() {
+        Map<String, Object> response = new HashMap<>();
+
+        response.put("status", "success");
+        response.put("message", "Rate limit metrics retrieved successfully");
+        response.put("data", rateLimiter.snapshot());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the password hashing pool state, queue times and rejections
+     */
+    @GetMapping("/password-hashing")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getPasswordHashing() {
+        Map<String, Object> response = new HashMap<>();
+
+        response.put("status", "success");
+        response.put("message", "Password hashing metrics retrieved successfully");
+        response.put("data", passwordHashingService.snapshot());
+
+        return ResponseEntity.ok(response);
+    }
+}
@@ -8,14 +8,20 @@ import com.resolveit.repository.PasswordResetTokenRepository;
 import com.resolveit.repository.RoleRepository;
 import com.resolveit.repository.UserRepository;
 import com.resolveit.security.JwtService;
+import com.resolveit.security.PasswordHashingService;
+import com.resolveit.security.RefreshSessionService;
+import com.resolveit.security.TokenRevocationService;
+import com.resolveit.security.UserAuthorityService;
 import com.resolveit.service.EmailService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/auth")
@@ -32,16 +38,25 @@ public class AuthController {
     private PasswordResetTokenRepository passwordResetTokenRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private RefreshSessionService refreshSessionService;
+
+    @Autowired
+    private UserAuthorityService userAuthorityService;
+
     @Autowired
     private EmailService emailService;
 
     @PostMapping("/register")
-    public Map<String, Object> register(@RequestBody RegisterRequest req) {
+    public Map<String, Object> register(@RequestBody RegisterRequest req, HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
         
         try {
@@ -55,7 +70,7 @@ public class AuthController {
             user.setFullName(req.getName());
             user.setUsername(req.getName().toLowerCase().replaceAll("\\s+", ""));
             user.setEmail(req.getEmail());
-            user.setPassword(passwordEncoder.encode(req.getPassword()));
+            user.setPassword(passwordHashingService.encode(req.getPassword()));
 
             // Assign default USER role
             Role userRole = roleRepository.findByName("ROLE_USER")
@@ -75,6 +90,8 @@ public class AuthController {
             response.put("status", "success");
             response.put("message", "Registered Successfully");
             return response;
+        } catch (PasswordHashingService.BusyException e) {
+            return busy(httpResponse, e);
         } catch (Exception e) {
             e.printStackTrace();
             response.put("status", "error");
@@ -84,7 +101,7 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public Map<String, Object> login(@RequestBody LoginRequest req) {
+    public Map<String, Object> login(@RequestBody LoginRequest req, HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
 
         User user = userRepository.findByEmail(req.getEmail()).orElse(null);
@@ -94,23 +111,93 @@ public class AuthController {
             return response;
         }
 
-        if (!passwordEncoder.matches(req.getPassword(), user.getPassword())) {
+        try {
+            if (!passwordHashingService.matches(req.getPassword(), user.getPassword())) {
+                response.put("status", "error");
+                response.put("message", "Invalid Password");
+                return response;
+            }
+        } catch (PasswordHashingService.BusyException e) {
+            return busy(httpResponse, e);
+        }
+
+        // Bring the stored hash to the configured cost factor
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            passwordHashingService.rehashInBackground(user.getId(), req.getPassword(), user.getPassword());
+        }
+
+        return issueTokens(user, refreshSessionService.start(user.getId()), 0);
+    }
+
+    /**
+     * Exchange a refresh token for a new access and refresh token pair. Each refresh token
+     * is accepted once; using one again ends its session.
+     */
+    @PostMapping("/refresh")
+    public Map<String, Object> refresh(@RequestBody RefreshTokenRequest req) {
+        Map<String, Object> response = new HashMap<>();
+
+        JwtService.TokenIdentity identity = null;
+        JwtService.RefreshSession session = null;
+        try {
+            if (req.getRefreshToken() != null) {
+                Claims claims = jwtService.parseToken(req.getRefreshToken());
+                identity = jwtService.identify(claims, JwtService.REFRESH_TOKEN);
+                session = jwtService.refreshSession(claims);
+            }
+        } catch (JwtException | IllegalArgumentException e) {
+            identity = null;
+        }
+
+        // The in-memory epochs can miss a sign-out on another instance until the next poll
+        User user = identity != null && session != null && !tokenRevocationService.isRevokedNow(identity.userId(), identity.epoch())
+                ? userRepository.findById(identity.userId()).orElse(null)
+                : null;
+        Integer generation = user != null && !Boolean.FALSE.equals(user.getIsActive())
+                ? refreshSessionService.rotate(session.sessionId(), user.getId(), session.generation())
+                : null;
+        if (generation == null) {
             response.put("status", "error");
-            response.put("message", "Invalid Password");
+            response.put("message", "Session expired, please sign in again");
             return response;
         }
 
-        // Extract roles
-        List<String> roles = user.getRoles().stream()
-                .map(Role::getName)
-                .collect(Collectors.toList());
+        return issueTokens(user, session.sessionId(), generation);
+    }
+
+    /**
+     * Sign out everywhere: revokes every access and refresh token issued to the user
+     */
+    @PostMapping("/logout")
+    public Map<String, Object> logout(Authentication auth) {
+        Map<String, Object> response = new HashMap<>();
 
-        // Generate JWT with roles
-        String token = jwtService.generateToken(user.getEmail(), roles);
+        if (auth != null && auth.isAuthenticated()) {
+            userRepository.findIdByEmail(auth.getName()).ifPresent(tokenRevocationService::revokeAll);
+        }
 
-        // Send token & user details
+        response.put("status", "success");
+        response.put("message", "Signed out");
+        return response;
+    }
+
+    private Map<String, Object> issueTokens(User user, String sessionId, int generation) {
+        Map<String, Object> response = new HashMap<>();
+
+        // Current roles and role version
+        UserAuthorityService.UserAuthorities authorities = userAuthorityService.refresh(user.getId());
+        List<String> roles = authorities.roles();
+
+        // Generate JWTs carrying roles and the current token epoch
+        int epoch = tokenRevocationService.currentEpoch(user.getId());
+        String token = jwtService.generateAccessToken(user.getEmail(), user.getId(), epoch, roles, authorities.version());
+        String refreshToken = jwtService.generateRefreshToken(user.getEmail(), user.getId(), epoch, sessionId, generation);
+
+        // Send tokens & user details
         response.put("status", "success");
         response.put("token", token);
+        response.put("refreshToken", refreshToken);
+        response.put("expiresIn", jwtService.getAccessTtlSeconds());
         response.put("user", Map.of(
                 "id", user.getId(),
                 "name", user.getFullName(),
@@ -162,7 +249,7 @@ public class AuthController {
     }
 
     @PostMapping("/reset-password")
-    public Map<String, Object> resetPassword(@RequestBody ResetPasswordRequest req) {
+    public Map<String, Object> resetPassword(@RequestBody ResetPasswordRequest req, HttpServletResponse httpResponse) {
         Map<String, Object> response = new HashMap<>();
         
         PasswordResetToken resetToken = passwordResetTokenRepository
@@ -175,9 +262,16 @@ public class AuthController {
         }
 
         User user = resetToken.getUser();
-        user.setPassword(passwordEncoder.encode(req.getNewPassword()));
+        try {
+            user.setPassword(passwordHashingService.encode(req.getNewPassword()));
+        } catch (PasswordHashingService.BusyException e) {
+            return busy(httpResponse, e);
+        }
         userRepository.save(user);
 
+        // Sign out every session using the old password
+        tokenRevocationService.revokeAll(user.getId());
+
         // Mark token as used
         resetToken.setUsed(true);
         passwordResetTokenRepository.save(resetToken);
@@ -186,4 +280,17 @@ public class AuthController {
         response.put("message", "Password reset successfully");
         return response;
     }
+
+    /**
+     * 503 with Retry-After when the password hashing pool cannot take the request
+     */
+    private Map<String, Object> busy(HttpServletResponse httpResponse, PasswordHashingService.BusyException e) {
+        httpResponse.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        httpResponse.setHeader("Retry-After", "1");
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "error");
+        response.put("message", e.getMessage());
+        return response;
+    }
 }
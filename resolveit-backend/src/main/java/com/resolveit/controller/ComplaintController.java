@@ -5,8 +5,12 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.HashMap;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -15,14 +19,27 @@ import com.resolveit.dto.*;
 import com.resolveit.model.*;
 import com.resolveit.repository.*;
 import com.resolveit.security.JwtService;
+import com.resolveit.service.ComplaintArchiveService;
+import com.resolveit.service.ComplaintBulkService;
+import com.resolveit.service.ComplaintClaimService;
+import com.resolveit.service.ComplaintResponseCache;
+import com.resolveit.service.IdempotencyService;
+import com.resolveit.service.OfficerWorkloadService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -49,16 +66,72 @@ public class ComplaintController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private ComplaintBulkService complaintBulkService;
+
+    @Autowired
+    private OfficerWorkloadService workloadService;
+
+    @Autowired
+    private ComplaintClaimService complaintClaimService;
+
+    @Autowired
+    private ComplaintArchiveService complaintArchiveService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ComplaintResponseCache complaintResponseCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Assign new complaints to an officer on submission
+    @Value("${app.assignment.auto-assign:true}")
+    private boolean autoAssign;
+
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    /**
+     * Submit a complaint. With an Idempotency-Key header a retried submission from the same
+     * client gets the original response instead of creating the complaint and its files again.
+     */
     @PostMapping(value = "/submit", consumes = {"multipart/form-data"})
     public Map<String, Object> submitComplaint(
             @RequestPart("data") ComplaintRequest req,
-            @RequestPart(value = "files", required = false) List<MultipartFile> files
+            @RequestPart(value = "files", required = false) List<MultipartFile> files,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication auth,
+            HttpServletResponse httpResponse
     ) {
+        if (idempotencyKey == null) {
+            return createComplaint(req, files);
+        }
+
+        try {
+            IdempotencyService.Result result = idempotencyService.execute(
+                    "complaint-submit", submitter(auth), idempotencyKey, submissionFingerprint(req, files),
+                    () -> createComplaint(req, files));
+            if (result.replayed()) {
+                httpResponse.setHeader("Idempotent-Replayed", "true");
+            }
+            return result.response();
+        } catch (IdempotencyService.ConflictException e) {
+            httpResponse.setStatus(e.getStatus());
+            Map<String, Object> response = new HashMap<>();
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return response;
+        }
+    }
+
+    private Map<String, Object> createComplaint(ComplaintRequest req, List<MultipartFile> files) {
         Map<String, Object> response = new HashMap<>();
-        
+        List<Path> writtenFiles = new ArrayList<>();
+        Long officerId = null;
+
         try {
             Complaint complaint = new Complaint();
             complaint.setTitle(req.getTitle());
@@ -81,32 +154,72 @@ public class ComplaintController {
                 complaint.setUser(user);
             }
 
-            Complaint saved = complaintRepository.save(complaint);
+            // Assign to the least-loaded officer for this category
+            officerId = autoAssign ? workloadService.reserveOfficer(complaint.getCategory()) : null;
+            Long assignedOfficerId = officerId;
 
-            // Save files if present
-            if (files != null && !files.isEmpty()) {
-                saveComplaintFiles(files, saved);
-            }
+            // The complaint, its file rows and the completed Idempotency-Key commit together, so a
+            // failure leaves none of them behind and a retry can never create a second complaint
+            transactionTemplate.executeWithoutResult(status -> {
+                if (assignedOfficerId != null) {
+                    complaint.setAssignedOfficer(userRepository.getReferenceById(assignedOfficerId));
+                }
+                Complaint created = complaintRepository.save(complaint);
+                if (files != null && !files.isEmpty()) {
+                    saveComplaintFiles(files, created, writtenFiles);
+                }
 
-            response.put("status", "success");
-            response.put("complaintId", saved.getId());
-            response.put("message", "Complaint submitted successfully");
+                response.put("status", "success");
+                response.put("complaintId", created.getId());
+                response.put("message", "Complaint submitted successfully");
+                idempotencyService.completeInTransaction(response);
+            });
             
         } catch (Exception e) {
+            deleteFiles(writtenFiles);
+            response.clear();
             response.put("status", "error");
             response.put("message", "Failed to submit complaint: " + e.getMessage());
+        } finally {
+            workloadService.releaseReservation(officerId);
         }
 
         return response;
     }
 
+    /**
+     * Who an Idempotency-Key belongs to: the signed-in user, or null for an anonymous submission
+     */
+    private static String submitter(Authentication auth) {
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return "user:" + auth.getName();
+        }
+        return null;
+    }
+
+    /**
+     * Identifies the submission for its idempotency key: the form data and each file's name and size
+     */
+    private String submissionFingerprint(ComplaintRequest req, List<MultipartFile> files) {
+        List<Object> parts = new ArrayList<>(List.of(
+                String.valueOf(req.getTitle()), String.valueOf(req.getDescription()), String.valueOf(req.getCategory()),
+                String.valueOf(req.getPriority()), req.isAnonymous(), String.valueOf(req.getUserId())));
+        if (files != null) {
+            for (MultipartFile file : files) {
+                parts.add(file.getOriginalFilename() + "/" + file.getSize());
+            }
+        }
+        return IdempotencyService.fingerprint(parts.toArray());
+    }
+
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('USER') or hasRole('ADMIN')")
     public List<ComplaintResponse> getUserComplaints(@PathVariable Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Complaint> complaints = complaintRepository.findByUserOrderByCreatedAtDesc(user);
+        List<Complaint> complaints = newestFirst(complaintRepository.findByUserOrderByCreatedAtDesc(user),
+                complaintArchiveService.findArchivedComplaintsByUser(user.getId()));
         return complaints.stream().map(this::convertToResponse).collect(Collectors.toList());
     }
 
@@ -117,10 +230,22 @@ public class ComplaintController {
         User officer = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Officer not found"));
         
-        List<Complaint> complaints = complaintRepository.findByAssignedOfficerOrderByCreatedAtDesc(officer);
+        List<Complaint> complaints = newestFirst(complaintRepository.findByAssignedOfficerOrderByCreatedAtDesc(officer),
+                complaintArchiveService.findArchivedComplaintsByOfficer(officer.getId()));
         return complaints.stream().map(this::convertToResponse).collect(Collectors.toList());
     }
 
+    /**
+     * Live and archived complaints in one list, newest first
+     */
+    private List<Complaint> newestFirst(List<Complaint> live, List<Complaint> archived) {
+        List<Complaint> complaints = new ArrayList<>(live.size() + archived.size());
+        complaints.addAll(live);
+        complaints.addAll(archived);
+        complaints.sort(Comparator.comparing(Complaint::getCreatedAt, Comparator.nullsLast(Comparator.reverseOrder())));
+        return complaints;
+    }
+
     @GetMapping("/officer/unassigned")
     @PreAuthorize("hasRole('OFFICER') or hasRole('ADMIN')")
     public List<ComplaintResponse> getUnassignedComplaints() {
@@ -128,11 +253,51 @@ public class ComplaintController {
         return complaints.stream().map(this::convertToResponse).collect(Collectors.toList());
     }
 
+    /**
+     * Claim the highest-priority, oldest unassigned complaint for the calling officer
+     */
+    @PostMapping("/officer/claim-next")
+    @PreAuthorize("hasRole('OFFICER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> claimNextComplaint(Authentication auth) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            User officer = userRepository.findByEmail(auth.getName())
+                    .orElseThrow(() -> new RuntimeException("Officer not found"));
+
+            Optional<Complaint> claimed = complaintClaimService.claimNext(officer);
+            response.put("status", "success");
+            if (claimed.isPresent()) {
+                response.put("message", "Complaint claimed");
+                response.put("complaint", convertToResponse(claimed.get()));
+            } else {
+                response.put("message", "No unassigned complaints");
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", "Failed to claim complaint: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Public complaint details, served from the response cache; the ETag follows the complaint's version
+     */
     @GetMapping("/{id}")
-    public ComplaintResponse getComplaint(@PathVariable Long id) {
-        Complaint complaint = complaintRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Complaint not found"));
-        return convertToResponse(complaint);
+    public ResponseEntity<byte[]> getComplaint(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        ComplaintResponseCache.CachedResponse cached = complaintResponseCache.getOrLoad(ComplaintResponseCache.detailKey(id), () -> {
+            Complaint complaint = complaintRepository.findById(id)
+                    .or(() -> complaintArchiveService.findArchivedComplaint(id))
+                    .orElseThrow(() -> new RuntimeException("Complaint not found"));
+            String etag = "\"c" + id + "-" + complaint.getVersion() + "-"
+                    + (complaint.getUpdatedAt() != null ? complaint.getUpdatedAt().toEpochSecond(ZoneOffset.UTC) : 0) + "\"";
+            return new ComplaintResponseCache.LoadedResponse(etag, convertToResponse(complaint));
+        });
+        return cachedResponse(cached, ifNoneMatch);
     }
 
     @PutMapping("/{id}/status")
@@ -148,6 +313,11 @@ public class ComplaintController {
             Complaint complaint = complaintRepository.findById(id)
                     .orElseThrow(() -> new RuntimeException("Complaint not found"));
 
+            // Reject updates based on an outdated copy of the complaint
+            if (req.getVersion() != null && !req.getVersion().equals(complaint.getVersion())) {
+                throw new RuntimeException("Complaint was modified by someone else, please reload");
+            }
+
             // Update status
             ComplaintStatus status = statusRepository.findByCode(req.getStatusCode())
                     .orElseThrow(() -> new RuntimeException("Status not found"));
@@ -179,6 +349,9 @@ public class ComplaintController {
             response.put("status", "success");
             response.put("message", "Complaint status updated successfully");
             
+        } catch (ObjectOptimisticLockingFailureException e) {
+            response.put("status", "error");
+            response.put("message", "Failed to update status: complaint was modified by someone else, please reload");
         } catch (Exception e) {
             response.put("status", "error");
             response.put("message", "Failed to update status: " + e.getMessage());
@@ -187,6 +360,38 @@ public class ComplaintController {
         return response;
     }
 
+    /**
+     * Apply one operation (ASSIGN, STATUS or CLOSE) to many complaints at once
+     */
+    @PostMapping("/bulk")
+    @PreAuthorize("hasRole('OFFICER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> bulkUpdateComplaints(
+            @RequestBody BulkComplaintRequest req,
+            Authentication auth
+    ) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            User author = userRepository.findByEmail(auth.getName())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            List<BulkItemResult> results = complaintBulkService.applyBulkOperation(req, author);
+            long succeeded = results.stream().filter(r -> "success".equals(r.getStatus())).count();
+
+            response.put("status", "success");
+            response.put("message", succeeded + " of " + results.size() + " complaints updated");
+            response.put("succeeded", succeeded);
+            response.put("failed", results.size() - succeeded);
+            response.put("results", results);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", "Failed to apply bulk operation: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     @PostMapping("/{id}/comments")
     @PreAuthorize("hasRole('OFFICER') or hasRole('ADMIN')")
     public Map<String, Object> addComment(
@@ -223,14 +428,47 @@ public class ComplaintController {
         return response;
     }
 
+    /**
+     * Public comments, served from the response cache; the ETag follows the comment count and latest comment
+     */
     @GetMapping("/{id}/comments")
-    public List<CommentResponse> getComments(@PathVariable Long id) {
-        Complaint complaint = complaintRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Complaint not found"));
-        
-        // Only return public comments for now
-        List<Comment> comments = commentRepository.findByComplaintAndIsPrivateFalseOrderByCreatedAtAsc(complaint);
-        return comments.stream().map(this::convertCommentToResponse).collect(Collectors.toList());
+    public ResponseEntity<byte[]> getComments(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
+    ) {
+        ComplaintResponseCache.CachedResponse cached = complaintResponseCache.getOrLoad(ComplaintResponseCache.commentsKey(id), () -> {
+            Optional<Complaint> active = complaintRepository.findById(id);
+            Complaint complaint = active
+                    .or(() -> complaintArchiveService.findArchivedComplaint(id))
+                    .orElseThrow(() -> new RuntimeException("Complaint not found"));
+
+            // Only return public comments for now
+            List<Comment> comments = active.isPresent()
+                    ? commentRepository.findByComplaintAndIsPrivateFalseOrderByCreatedAtAsc(complaint)
+                    : complaintArchiveService.findArchivedPublicComments(complaint);
+            long lastId = comments.stream().mapToLong(Comment::getId).max().orElse(0);
+            String etag = "\"m" + id + "-" + comments.size() + "-" + lastId + "\"";
+            return new ComplaintResponseCache.LoadedResponse(etag,
+                    comments.stream().map(this::convertCommentToResponse).collect(Collectors.toList()));
+        });
+        return cachedResponse(cached, ifNoneMatch);
+    }
+
+    /**
+     * 304 if the client has the current version, otherwise the cached JSON; clients revalidate every time
+     */
+    private ResponseEntity<byte[]> cachedResponse(ComplaintResponseCache.CachedResponse cached, String ifNoneMatch) {
+        if (ComplaintResponseCache.matches(ifNoneMatch, cached.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(cached.etag())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(cached.etag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(cached.body());
     }
 
     private ComplaintResponse convertToResponse(Complaint complaint) {
@@ -245,6 +483,7 @@ public class ComplaintController {
         response.setStatusDisplay(complaint.getStatus().getDisplay());
         response.setCreatedAt(complaint.getCreatedAt());
         response.setUpdatedAt(complaint.getUpdatedAt());
+        response.setVersion(complaint.getVersion());
 
         if (complaint.getUser() != null) {
             response.setUser(convertUserToResponse(complaint.getUser()));
@@ -286,9 +525,9 @@ public class ComplaintController {
     // ==================== FILE MANAGEMENT METHODS ====================
 
     /**
-     * Save uploaded files for a complaint
+     * Save uploaded files for a complaint, adding each file written to disk to writtenFiles
      */
-    private void saveComplaintFiles(List<MultipartFile> files, Complaint complaint) {
+    private void saveComplaintFiles(List<MultipartFile> files, Complaint complaint, List<Path> writtenFiles) {
         try {
             // Create upload directory if it doesn't exist
             Path uploadPath = Paths.get(uploadDir);
@@ -308,6 +547,7 @@ public class ComplaintController {
                     
                     // Save file to disk
                     Path filePath = uploadPath.resolve(uniqueFilename);
+                    writtenFiles.add(filePath);
                     Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
                     
                     // Save file record to database
@@ -324,6 +564,19 @@ public class ComplaintController {
         }
     }
 
+    /**
+     * Remove files written for a complaint that was not saved
+     */
+    private void deleteFiles(List<Path> paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                System.err.println("Failed to delete orphaned upload " + path + ": " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Get files for a complaint
      */
@@ -333,6 +586,9 @@ public class ComplaintController {
         
         try {
             List<ComplaintFile> files = complaintFileRepository.findByComplaint_Id(id);
+            if (files.isEmpty()) {
+                files = complaintArchiveService.findArchivedFiles(id);
+            }
             
             List<Map<String, Object>> fileList = files.stream().map(file -> {
                 Map<String, Object> fileInfo = new HashMap<>();
@@ -361,6 +617,7 @@ public class ComplaintController {
     public ResponseEntity<Resource> downloadFile(@PathVariable Long fileId) {
         try {
             ComplaintFile complaintFile = complaintFileRepository.findById(fileId)
+                .or(() -> complaintArchiveService.findArchivedFile(fileId))
                 .orElseThrow(() -> new RuntimeException("File not found"));
             
             Path filePath = Paths.get(uploadDir).resolve(complaintFile.getFilePath());
@@ -387,6 +644,7 @@ public class ComplaintController {
     public ResponseEntity<Resource> viewFile(@PathVariable Long fileId) {
         try {
             ComplaintFile complaintFile = complaintFileRepository.findById(fileId)
+                .or(() -> complaintArchiveService.findArchivedFile(fileId))
                 .orElseThrow(() -> new RuntimeException("File not found"));
             
             Path filePath = Paths.get(uploadDir).resolve(complaintFile.getFilePath());
@@ -0,0 +1,81 @@
+package com.resolveit.controller;
+
+import com.resolveit.config.PoolWorkload;
+import com.resolveit.model.ImportCheckpoint;
+import com.resolveit.service.ComplaintImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/import")
+@CrossOrigin(origins = "*")
+public class ImportController {
+
+    @Autowired
+    private ComplaintImportService complaintImportService;
+
+    /**
+     * Import legacy complaints from a CSV or NDJSON request body.
+     * The body is streamed, so files of any size can be uploaded; re-sending the
+     * same file with the same jobId resumes after the last committed batch.
+     * Only admins can import
+     */
+    @PostMapping("/complaints")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> importComplaints(
+            @RequestParam String jobId,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            // Imports run on the batch pool so a large file does not hold interactive connections
+            PoolWorkload previous = PoolWorkload.bind(PoolWorkload.BATCH);
+            Map<String, Object> summary;
+            try {
+                summary = complaintImportService.importComplaints(jobId, format, request.getInputStream());
+            } finally {
+                PoolWorkload.restore(previous);
+            }
+
+            response.put("status", "success");
+            response.put("message", "Import completed");
+            response.put("summary", summary);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Get the progress of an import job
+     */
+    @GetMapping("/complaints/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getImportStatus(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            ImportCheckpoint checkpoint = complaintImportService.getCheckpoint(jobId);
+
+            response.put("status", "success");
+            response.put("job", checkpoint);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+}
@@ -5,12 +5,12 @@ import com.resolveit.model.User;
 import com.resolveit.repository.UserRepository;
 import com.resolveit.service.NotificationService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -25,21 +25,23 @@ public class NotificationController {
     private UserRepository userRepository;
 
     /**
-     * Get all notifications for the current user
+     * Get notifications for the current user, one page at a time
      */
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getUserNotifications(Authentication auth) {
+    public ResponseEntity<Map<String, Object>> getUserNotifications(
+            Authentication auth,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
         Map<String, Object> response = new HashMap<>();
         
         try {
             User user = userRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
-            List<Notification> notifications = notificationService.getUserNotifications(user.getId());
+            Page<Notification> notifications = notificationService.getUserNotifications(user.getId(), page, size);
             
             response.put("status", "success");
-            response.put("notifications", notifications);
-            response.put("count", notifications.size());
+            putPage(response, notifications);
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -57,10 +59,7 @@ public class NotificationController {
         Map<String, Object> response = new HashMap<>();
         
         try {
-            User user = userRepository.findByEmail(auth.getName())
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            long count = notificationService.getUnreadCount(user.getId());
+            long count = notificationService.getUnreadCount(auth.getName());
             
             response.put("status", "success");
             response.put("count", count);
@@ -74,21 +73,23 @@ public class NotificationController {
     }
 
     /**
-     * Get unread notifications
+     * Get unread notifications, one page at a time
      */
     @GetMapping("/unread")
-    public ResponseEntity<Map<String, Object>> getUnreadNotifications(Authentication auth) {
+    public ResponseEntity<Map<String, Object>> getUnreadNotifications(
+            Authentication auth,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size) {
         Map<String, Object> response = new HashMap<>();
         
         try {
             User user = userRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
-            List<Notification> notifications = notificationService.getUnreadNotifications(user.getId());
+            Page<Notification> notifications = notificationService.getUnreadNotifications(user.getId(), page, size);
             
             response.put("status", "success");
-            response.put("notifications", notifications);
-            response.put("count", notifications.size());
+            putPage(response, notifications);
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -130,10 +131,11 @@ public class NotificationController {
             User user = userRepository.findByEmail(auth.getName())
                 .orElseThrow(() -> new RuntimeException("User not found"));
             
-            notificationService.markAllAsRead(user.getId());
+            int updated = notificationService.markAllAsRead(user.getId());
             
             response.put("status", "success");
             response.put("message", "All notifications marked as read");
+            response.put("updated", updated);
             
             return ResponseEntity.ok(response);
         } catch (Exception e) {
@@ -163,4 +165,13 @@ public class NotificationController {
             return ResponseEntity.badRequest().body(response);
         }
     }
+
+    private void putPage(Map<String, Object> response, Page<Notification> page) {
+        response.put("notifications", page.getContent());
+        response.put("count", page.getNumberOfElements());
+        response.put("page", page.getNumber());
+        response.put("size", page.getSize());
+        response.put("totalElements", page.getTotalElements());
+        response.put("totalPages", page.getTotalPages());
+    }
 }
\ No newline at end of file
@@ -1,9 +1,16 @@
 package com.resolveit.controller;
 
+import com.resolveit.config.PoolWorkload;
+import com.resolveit.dto.AnalyticsQueryRequest;
 import com.resolveit.dto.CategoryReport;
 import com.resolveit.dto.ComplaintTrendReport;
+import com.resolveit.dto.ReportJob;
 import com.resolveit.dto.StatusReport;
+import com.resolveit.model.User;
+import com.resolveit.service.AnalyticsQueryService;
+import com.resolveit.service.ReportJobService;
 import com.resolveit.service.ReportService;
+import com.resolveit.service.ResolutionSketchService;
 import com.resolveit.security.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -12,8 +19,12 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -26,6 +37,15 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private AnalyticsQueryService analyticsQueryService;
+
+    @Autowired
+    private ResolutionSketchService resolutionSketchService;
+
     @Autowired
     private JwtService jwtService;
 
@@ -36,7 +56,8 @@ public class ReportController {
     @PreAuthorize("hasAnyRole('OFFICER', 'ADMIN')")
     public ResponseEntity<Map<String, Object>> getComplaintTrends(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
-            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "day") String interval) {
         
         Map<String, Object> response = new HashMap<>();
         
@@ -49,7 +70,7 @@ public class ReportController {
                 endDate = LocalDateTime.now();
             }
             
-            ComplaintTrendReport report = reportService.getComplaintTrends(startDate, endDate);
+            ComplaintTrendReport report = reportService.getComplaintTrends(startDate, endDate, interval);
             
             response.put("status", "success");
             response.put("report", report);
@@ -128,6 +149,54 @@ public class ReportController {
         }
     }
 
+    /**
+     * Get resolution-time percentiles, overall or per category, priority or officer
+     */
+    @GetMapping("/resolution-times")
+    @PreAuthorize("hasAnyRole('OFFICER', 'ADMIN')")
+    public ResponseEntity<Map<String, Object>> getResolutionTimes(@RequestParam(required = false) String dimension) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.put("status", "success");
+            if (dimension == null) {
+                response.put("data", resolutionSketchService.getOverall());
+            } else {
+                response.put("data", resolutionSketchService.getByDimension(dimension));
+            }
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Run an ad-hoc group-by query over the complaint snapshots
+     * Only admins can run analytics queries
+     */
+    @PostMapping("/query")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> runAnalyticsQuery(@RequestBody AnalyticsQueryRequest request) {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            Map<String, Object> result = analyticsQueryService.query(request);
+
+            response.put("status", "success");
+            response.put("message", "Query completed successfully");
+            response.put("data", result);
+
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
     /**
      * Export complaints as CSV
      */
@@ -146,7 +215,9 @@ public class ReportController {
                 endDate = LocalDateTime.now();
             }
             
-            String csv = reportService.generateCSVExport(startDate, endDate);
+            LocalDateTime from = startDate;
+            LocalDateTime to = endDate;
+            String csv = PoolWorkload.REPORTING.call(() -> reportService.generateCSVExport(from, to));
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType("text/csv"));
@@ -167,7 +238,7 @@ public class ReportController {
      */
     @GetMapping("/export/pdf")
     @PreAuthorize("hasAnyRole('OFFICER', 'ADMIN')")
-    public ResponseEntity<byte[]> exportPDF(
+    public ResponseEntity<StreamingResponseBody> exportPDF(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
         
@@ -180,7 +251,9 @@ public class ReportController {
                 endDate = LocalDateTime.now();
             }
             
-            byte[] pdfBytes = reportService.generatePDFReport(startDate, endDate);
+            LocalDateTime from = startDate;
+            LocalDateTime to = endDate;
+            StreamingResponseBody body = onReportingPool(out -> reportService.writePDFReport(from, to, out));
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -188,11 +261,10 @@ public class ReportController {
             
             return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(body);
                 
         } catch (Exception e) {
-            return ResponseEntity.badRequest()
-                .body(("Error generating PDF: " + e.getMessage()).getBytes());
+            return pdfError(e);
         }
     }
 
@@ -206,6 +278,7 @@ public class ReportController {
     public ResponseEntity<Map<String, Object>> getMyComplaintTrends(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "day") String interval,
             @RequestHeader("Authorization") String token) {
         
         Map<String, Object> response = new HashMap<>();
@@ -220,7 +293,7 @@ public class ReportController {
             }
             
             String userEmail = jwtService.extractUsername(token.substring(7));
-            ComplaintTrendReport report = reportService.getUserComplaintTrends(userEmail, startDate, endDate);
+            ComplaintTrendReport report = reportService.getUserComplaintTrends(userEmail, startDate, endDate, interval);
             
             response.put("status", "success");
             response.put("report", report);
@@ -322,7 +395,9 @@ public class ReportController {
             }
             
             String userEmail = jwtService.extractUsername(token.substring(7));
-            String csv = reportService.generateUserCSVExport(userEmail, startDate, endDate);
+            LocalDateTime from = startDate;
+            LocalDateTime to = endDate;
+            String csv = PoolWorkload.REPORTING.call(() -> reportService.generateUserCSVExport(userEmail, from, to));
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.parseMediaType("text/csv"));
@@ -343,7 +418,7 @@ public class ReportController {
      */
     @GetMapping("/my/export/pdf")
     @PreAuthorize("hasAnyRole('OFFICER', 'ADMIN')")
-    public ResponseEntity<byte[]> exportMyPDF(
+    public ResponseEntity<StreamingResponseBody> exportMyPDF(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestHeader("Authorization") String token) {
@@ -358,7 +433,10 @@ public class ReportController {
             }
             
             String userEmail = jwtService.extractUsername(token.substring(7));
-            byte[] pdfBytes = reportService.generateUserPDFReport(userEmail, startDate, endDate);
+            User user = reportService.getReportUser(userEmail);
+            LocalDateTime from = startDate;
+            LocalDateTime to = endDate;
+            StreamingResponseBody body = onReportingPool(out -> reportService.writeUserPDFReport(user, from, to, out));
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_PDF);
@@ -366,11 +444,150 @@ public class ReportController {
             
             return ResponseEntity.ok()
                 .headers(headers)
-                .body(pdfBytes);
+                .body(body);
                 
         } catch (Exception e) {
+            return pdfError(e);
+        }
+    }
+
+    // ==================== BACKGROUND REPORT JOB ENDPOINTS ====================
+
+    /**
+     * Queue a PDF/CSV export; identical requests share one job
+     */
+    @PostMapping("/jobs")
+    @PreAuthorize("hasAnyRole('OFFICER', 'ADMIN')")
+    public ResponseEntity<Map<String, Object>> submitReportJob(
+            @RequestParam(defaultValue = "pdf") String format,
+            @RequestParam(defaultValue = "false") boolean mine,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestHeader("Authorization") String token) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            // Default to last 30 days if not specified, to the minute so repeated clicks coalesce
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+            if (startDate == null) {
+                startDate = now.minusDays(30);
+            }
+            if (endDate == null) {
+                endDate = now;
+            }
+            
+            String officerEmail = mine ? jwtService.extractUsername(token.substring(7)) : null;
+            ReportJob job = reportJobService.submit(format, officerEmail, startDate, endDate);
+            
+            response.put("status", "success");
+            response.put("message", "Report job submitted");
+            response.put("data", toJobMap(job));
+            
+            return ResponseEntity.accepted().body(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", "Failed to submit report job: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Get the status of a report job
+     */
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('OFFICER', 'ADMIN')")
+    public ResponseEntity<Map<String, Object>> getReportJob(
+            @PathVariable String jobId,
+            @RequestHeader("Authorization") String token) {
+        
+        Map<String, Object> response = new HashMap<>();
+        
+        try {
+            String userEmail = jwtService.extractUsername(token.substring(7));
+            ReportJob job = reportJobService.getJob(jobId, userEmail);
+            
+            response.put("status", "success");
+            response.put("data", toJobMap(job));
+            
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("status", "error");
+            response.put("message", "Failed to fetch report job: " + e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    /**
+     * Download the file of a completed report job
+     */
+    @GetMapping("/jobs/{jobId}/download")
+    @PreAuthorize("hasAnyRole('OFFICER', 'ADMIN')")
+    public ResponseEntity<StreamingResponseBody> downloadReportJob(
+            @PathVariable String jobId,
+            @RequestHeader("Authorization") String token) {
+        
+        try {
+            String userEmail = jwtService.extractUsername(token.substring(7));
+            ReportJob job = reportJobService.getJob(jobId, userEmail);
+            if (job.getStatus() != ReportJob.Status.COMPLETED) {
+                throw new RuntimeException("Report is not ready (" + job.getStatus() + ")");
+            }
+            
+            boolean pdf = "pdf".equals(job.getFormat());
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(pdf ? MediaType.APPLICATION_PDF : MediaType.parseMediaType("text/csv"));
+            headers.setContentDispositionFormData("attachment",
+                (job.getOfficerEmail() != null ? "my_complaints_report." : "complaints_report.") + job.getFormat());
+            headers.setContentLength(job.getSizeBytes());
+            
+            return ResponseEntity.ok()
+                .headers(headers)
+                .body(out -> Files.copy(job.getArtifact(), out));
+                
+        } catch (Exception e) {
+            byte[] message = ("Error downloading report: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
             return ResponseEntity.badRequest()
-                .body(("Error generating PDF: " + e.getMessage()).getBytes());
+                .body(out -> out.write(message));
         }
     }
+
+    private Map<String, Object> toJobMap(ReportJob job) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("jobId", job.getJobId());
+        data.put("format", job.getFormat());
+        data.put("personal", job.getOfficerEmail() != null);
+        data.put("startDate", job.getStartDate());
+        data.put("endDate", job.getEndDate());
+        data.put("jobStatus", job.getStatus().name());
+        data.put("createdAt", job.getCreatedAt());
+        data.put("completedAt", job.getCompletedAt());
+        data.put("expiresAt", job.getExpiresAt());
+        data.put("sizeBytes", job.getSizeBytes());
+        data.put("error", job.getErrorMessage());
+        return data;
+    }
+
+    /**
+     * Stream the export using the reporting connection pool, keeping it off the interactive one
+     */
+    private StreamingResponseBody onReportingPool(StreamingResponseBody body) {
+        return out -> {
+            PoolWorkload previous = PoolWorkload.bind(PoolWorkload.REPORTING);
+            try {
+                body.writeTo(out);
+            } finally {
+                PoolWorkload.restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Plain error body for a PDF export that failed before streaming started
+     */
+    private ResponseEntity<StreamingResponseBody> pdfError(Exception e) {
+        byte[] message = ("Error generating PDF: " + e.getMessage()).getBytes(StandardCharsets.UTF_8);
+        return ResponseEntity.badRequest()
+            .body(out -> out.write(message));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package com.resolveit.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An ad-hoc report over the complaint snapshots: group the complaints matching the
+ * filters by the given dimensions and compute the metrics per group.
+ *
+ * Dimensions: category, priority, status, officer, day, week, month (of creation).
+ * Metrics: count, resolved, pending, avgResolutionHours, p50ResolutionHours,
+ * p90ResolutionHours, p95ResolutionHours, maxResolutionHours.
+ */
+public class AnalyticsQueryRequest {
+    private List<String> groupBy;
+    private List<String> metrics;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+    private List<String> categories;
+    private List<String> statusCodes;
+    private List<String> priorities;
+    private List<Long> officerIds;
+    private String orderBy;
+    private Integer limit;
+
+    // Getters and Setters
+    public List<String> getGroupBy() { return groupBy; }
+    public void setGroupBy(List<String> groupBy) { this.groupBy = groupBy; }
+
+    public List<String> getMetrics() { return metrics; }
+    public void setMetrics(List<String> metrics) { this.metrics = metrics; }
+
+    public LocalDateTime getStartDate() { return startDate; }
+    public void setStartDate(LocalDateTime startDate) { this.startDate = startDate; }
+
+    public LocalDateTime getEndDate() { return endDate; }
+    public void setEndDate(LocalDateTime endDate) { this.endDate = endDate; }
+
+    public List<String> getCategories() { return categories; }
+    public void setCategories(List<String> categories) { this.categories = categories; }
+
+    public List<String> getStatusCodes() { return statusCodes; }
+    public void setStatusCodes(List<String> statusCodes) { this.statusCodes = statusCodes; }
+
+    public List<String> getPriorities() { return priorities; }
+    public void setPriorities(List<String> priorities) { this.priorities = priorities; }
+
+    public List<Long> getOfficerIds() { return officerIds; }
+    public void setOfficerIds(List<Long> officerIds) { this.officerIds = officerIds; }
+
+    public String getOrderBy() { return orderBy; }
+    public void setOrderBy(String orderBy) { this.orderBy = orderBy; }
+
+    public Integer getLimit() { return limit; }
+    public void setLimit(Integer limit) { this.limit = limit; }
+}
@@ -0,0 +1,27 @@
+package com.resolveit.dto;
+
+import java.util.List;
+
+public class BulkComplaintRequest {
+    private List<Long> complaintIds;
+    private String operation; // ASSIGN, STATUS, CLOSE
+    private String statusCode;
+    private Long assignedOfficerId;
+    private String comment;
+
+    // Getters and Setters
+    public List<Long> getComplaintIds() { return complaintIds; }
+    public void setComplaintIds(List<Long> complaintIds) { this.complaintIds = complaintIds; }
+
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+
+    public String getStatusCode() { return statusCode; }
+    public void setStatusCode(String statusCode) { this.statusCode = statusCode; }
+
+    public Long getAssignedOfficerId() { return assignedOfficerId; }
+    public void setAssignedOfficerId(Long assignedOfficerId) { this.assignedOfficerId = assignedOfficerId; }
+
+    public String getComment() { return comment; }
+    public void setComment(String comment) { this.comment = comment; }
+}
@@ -0,0 +1,41 @@
+package com.resolveit.dto;
+
+public class BulkItemResult {
+    private Long complaintId;
+    private String status;
+    private String message;
+
+    // Constructors
+    public BulkItemResult() {}
+
+    public BulkItemResult(Long complaintId, String status, String message) {
+        this.complaintId = complaintId;
+        this.status = status;
+        this.message = message;
+    }
+
+    // Getters and Setters
+    public Long getComplaintId() {
+        return complaintId;
+    }
+
+    public void setComplaintId(Long complaintId) {
+        this.complaintId = complaintId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,79 @@
+package com.resolveit.dto;
+
+import com.resolveit.model.Complaint;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of a complaint with just the columns printed in report exports
+ */
+public class ComplaintReportRow {
+    private Long id;
+    private String title;
+    private String category;
+    private Complaint.Priority priority;
+    private String statusDisplay;
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public ComplaintReportRow() {}
+
+    public ComplaintReportRow(Long id, String title, String category, Complaint.Priority priority,
+                              String statusDisplay, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.category = category;
+        this.priority = priority;
+        this.statusDisplay = statusDisplay;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public Complaint.Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Complaint.Priority priority) {
+        this.priority = priority;
+    }
+
+    public String getStatusDisplay() {
+        return statusDisplay;
+    }
+
+    public void setStatusDisplay(String statusDisplay) {
+        this.statusDisplay = statusDisplay;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
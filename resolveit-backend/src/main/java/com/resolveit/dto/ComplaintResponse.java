@@ -15,6 +15,7 @@ public class ComplaintResponse {
     private UserResponse assignedOfficer;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Long version;
 
     // Constructors
     public ComplaintResponse() {}
@@ -132,4 +133,12 @@ public class ComplaintResponse {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
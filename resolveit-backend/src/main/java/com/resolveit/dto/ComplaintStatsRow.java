@@ -0,0 +1,79 @@
+package com.resolveit.dto;
+
+import com.resolveit.model.Complaint;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat view of a complaint with just the columns the report aggregation reads
+ */
+public class ComplaintStatsRow {
+    private Integer statusId;
+    private Complaint.Priority priority;
+    private String category;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+    private LocalDateTime resolvedAt;
+
+    // Constructors
+    public ComplaintStatsRow() {}
+
+    public ComplaintStatsRow(Integer statusId, Complaint.Priority priority, String category,
+                             LocalDateTime createdAt, LocalDateTime updatedAt, LocalDateTime resolvedAt) {
+        this.statusId = statusId;
+        this.priority = priority;
+        this.category = category;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.resolvedAt = resolvedAt;
+    }
+
+    // Getters and Setters
+    public Integer getStatusId() {
+        return statusId;
+    }
+
+    public void setStatusId(Integer statusId) {
+        this.statusId = statusId;
+    }
+
+    public Complaint.Priority getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Complaint.Priority priority) {
+        this.priority = priority;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public void setCategory(String category) {
+        this.category = category;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(LocalDateTime resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+}
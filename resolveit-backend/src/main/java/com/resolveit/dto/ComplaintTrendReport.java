@@ -11,6 +11,8 @@ public class ComplaintTrendReport {
     private Map<String, Long> complaintsByCategory;
     private Map<String, Long> complaintsByPriority;
     private Map<String, Long> dailyTrend;
+    private String trendInterval;
+    private Map<String, Long> trend;
 
     // Constructors
     public ComplaintTrendReport() {}
@@ -83,4 +85,20 @@ public class ComplaintTrendReport {
     public void setDailyTrend(Map<String, Long> dailyTrend) {
         this.dailyTrend = dailyTrend;
     }
-}
\ No newline at end of file
+
+    public String getTrendInterval() {
+        return trendInterval;
+    }
+
+    public void setTrendInterval(String trendInterval) {
+        this.trendInterval = trendInterval;
+    }
+
+    public Map<String, Long> getTrend() {
+        return trend;
+    }
+
+    public void setTrend(Map<String, Long> trend) {
+        this.trend = trend;
+    }
+}
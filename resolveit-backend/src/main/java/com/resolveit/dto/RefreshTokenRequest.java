@@ -0,0 +1,9 @@
+package com.resolveit.dto;
+
+public class RefreshTokenRequest {
+    private String refreshToken;
+
+    // Getters and Setters
+    public String getRefreshToken() { return refreshToken; }
+    public void setRefreshToken(String refreshToken) { this.refreshToken = refreshToken; }
+}
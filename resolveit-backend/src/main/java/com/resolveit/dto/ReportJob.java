@@ -0,0 +1,126 @@
+package com.resolveit.dto;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * A background PDF/CSV export. Updated by the worker thread and read by request
+ * threads, so the fields that change after submission are volatile.
+ */
+public class ReportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private final String jobId;
+    private final String key;
+    private final String format;
+    private final String officerEmail;
+    private final LocalDateTime startDate;
+    private final LocalDateTime endDate;
+    private final LocalDateTime createdAt;
+
+    private volatile Status status = Status.QUEUED;
+    private volatile String errorMessage;
+    private volatile Path artifact;
+    private volatile long sizeBytes;
+    private volatile LocalDateTime completedAt;
+    private volatile LocalDateTime expiresAt;
+
+    // Constructors
+    public ReportJob(String jobId, String key, String format, String officerEmail,
+                     LocalDateTime startDate, LocalDateTime endDate) {
+        this.jobId = jobId;
+        this.key = key;
+        this.format = format;
+        this.officerEmail = officerEmail;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    /**
+     * Finished (or failed) jobs are dropped, along with their artifact, once they expire
+     */
+    public boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public String getOfficerEmail() {
+        return officerEmail;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    public Path getArtifact() {
+        return artifact;
+    }
+
+    public void setArtifact(Path artifact) {
+        this.artifact = artifact;
+    }
+
+    public long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public void setSizeBytes(long sizeBytes) {
+        this.sizeBytes = sizeBytes;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
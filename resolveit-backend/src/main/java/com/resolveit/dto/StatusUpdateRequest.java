@@ -4,6 +4,7 @@ public class StatusUpdateRequest {
     private String statusCode;
     private String comment;
     private Long assignedOfficerId;
+    private Long version;
 
     // Getters and Setters
     public String getStatusCode() { return statusCode; }
@@ -14,4 +15,7 @@ public class StatusUpdateRequest {
     
     public Long getAssignedOfficerId() { return assignedOfficerId; }
     public void setAssignedOfficerId(Long assignedOfficerId) { this.assignedOfficerId = assignedOfficerId; }
-}
\ No newline at end of file
+    
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+}
@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 @Table(name = "attachments")
 public class Attachment {
     @Id 
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "attachments_id")
+    @TableGenerator(name = "attachments_id", table = "id_sequences", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "attachments", allocationSize = 50)
     private Long id;
 
     @ManyToOne
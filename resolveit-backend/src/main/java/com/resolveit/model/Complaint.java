@@ -4,7 +4,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "complaints")
+@Table(name = "complaints", indexes = {
+    // Claim-next queue: unassigned complaints by priority, oldest first
+    @Index(name = "idx_claim_queue", columnList = "assigned_officer_id, priority, created_at"),
+    // Officer's assigned complaints, newest first
+    @Index(name = "idx_officer_created", columnList = "assigned_officer_id, created_at"),
+    // Escalation job: old complaints per status
+    @Index(name = "idx_status_created", columnList = "status_id, created_at")
+})
 public class Complaint {
 
     public enum Priority {
@@ -12,7 +19,9 @@ public class Complaint {
     }
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "complaints_id")
+    @TableGenerator(name = "complaints_id", table = "id_sequences", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "complaints", allocationSize = 50)
     private Long id;
 
     @Column(name = "title", nullable = false)
@@ -49,15 +58,35 @@ public class Complaint {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // When the complaint entered a closed status; cleared if it is reopened
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
+    // Optimistic lock: a save based on a stale read fails instead of overwriting
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        updateResolvedAt();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        updateResolvedAt();
+    }
+
+    private void updateResolvedAt() {
+        boolean closed = status != null && ("RESOLVED".equals(status.getCode()) || "CLOSED".equals(status.getCode()));
+        if (!closed) {
+            resolvedAt = null;
+        } else if (resolvedAt == null) {
+            resolvedAt = updatedAt;
+        }
     }
 
     // Getters and Setters
@@ -148,4 +177,20 @@ public class Complaint {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(LocalDateTime resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -7,7 +7,9 @@ import jakarta.persistence.*;
 public class ComplaintFile {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "complaint_files_id")
+    @TableGenerator(name = "complaint_files_id", table = "id_sequences", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "complaint_files", allocationSize = 50)
     private Long id;
 
     private String fileName;
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 public class Escalation {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "escalations_id")
+    @TableGenerator(name = "escalations_id", table = "id_sequences", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "escalations", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -28,6 +30,9 @@ public class Escalation {
     @Column(name = "resolved")
     private Boolean resolved = false;
 
+    @Column(name = "resolved_at")
+    private LocalDateTime resolvedAt;
+
     @PrePersist
     protected void onCreate() {
         if (escalatedAt == null) {
@@ -95,4 +100,12 @@ public class Escalation {
     public void setResolved(Boolean resolved) {
         this.resolved = resolved;
     }
-}
\ No newline at end of file
+
+    public LocalDateTime getResolvedAt() {
+        return resolvedAt;
+    }
+
+    public void setResolvedAt(LocalDateTime resolvedAt) {
+        this.resolvedAt = resolvedAt;
+    }
+}
@@ -0,0 +1,129 @@
+package com.resolveit.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "import_checkpoints")
+public class ImportCheckpoint {
+
+    @Id
+    @Column(name = "job_id", length = 100)
+    private String jobId;
+
+    @Column(name = "format", length = 10)
+    private String format;
+
+    @Column(name = "records_committed")
+    private Long recordsCommitted = 0L;
+
+    @Column(name = "imported_count")
+    private Long importedCount = 0L;
+
+    @Column(name = "failed_count")
+    private Long failedCount = 0L;
+
+    @Column(length = 20)
+    private String status = "RUNNING"; // RUNNING, COMPLETED, FAILED
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        startedAt = LocalDateTime.now();
+        updatedAt = LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public ImportCheckpoint() {}
+
+    public ImportCheckpoint(String jobId, String format) {
+        this.jobId = jobId;
+        this.format = format;
+    }
+
+    // Getters and Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public Long getRecordsCommitted() {
+        return recordsCommitted;
+    }
+
+    public void setRecordsCommitted(Long recordsCommitted) {
+        this.recordsCommitted = recordsCommitted;
+    }
+
+    public Long getImportedCount() {
+        return importedCount;
+    }
+
+    public void setImportedCount(Long importedCount) {
+        this.importedCount = importedCount;
+    }
+
+    public Long getFailedCount() {
+        return failedCount;
+    }
+
+    public void setFailedCount(Long failedCount) {
+        this.failedCount = failedCount;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -8,7 +8,9 @@ import java.time.LocalDateTime;
 public class OfficerRequest {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "officer_requests_id")
+    @TableGenerator(name = "officer_requests_id", table = "id_sequences", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "officer_requests", allocationSize = 50)
     private Long id;
 
     @ManyToOne
@@ -7,7 +7,9 @@ import java.time.LocalDateTime;
 @Table(name = "password_reset_tokens")
 public class PasswordResetToken {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "password_reset_tokens_id")
+    @TableGenerator(name = "password_reset_tokens_id", table = "id_sequences", pkColumnName = "seq_name",
+            valueColumnName = "next_val", pkColumnValue = "password_reset_tokens", allocationSize = 50)
     private Long id;
 
     @ManyToOne
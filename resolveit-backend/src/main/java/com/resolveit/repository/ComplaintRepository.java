@@ -1,13 +1,22 @@
 package com.resolveit.repository;
 
+import com.resolveit.dto.ComplaintReportRow;
+import com.resolveit.dto.ComplaintStatsRow;
 import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
 import com.resolveit.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
@@ -30,7 +39,76 @@ public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
     // For reports
     List<Complaint> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
     
+    // Report aggregation: only the aggregated columns, without loading entities or their associations
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("SELECT new com.resolveit.dto.ComplaintStatsRow(c.status.id, c.priority, c.category, c.createdAt, c.updatedAt, c.resolvedAt) " +
+           "FROM Complaint c")
+    List<ComplaintStatsRow> findAllStatsRows();
+    
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("SELECT new com.resolveit.dto.ComplaintStatsRow(c.status.id, c.priority, c.category, c.createdAt, c.updatedAt, c.resolvedAt) " +
+           "FROM Complaint c WHERE c.assignedOfficer = :officer")
+    List<ComplaintStatsRow> findStatsRowsByAssignedOfficer(@Param("officer") User officer);
+    
     // User-specific report methods
     List<Complaint> findByAssignedOfficer(User officer);
     List<Complaint> findByAssignedOfficerAndCreatedAtBetween(User officer, LocalDateTime startDate, LocalDateTime endDate);
+    
+    // Streaming report exports: rows are read through a server-side cursor (MySQL streams with fetch size MIN_VALUE)
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT new com.resolveit.dto.ComplaintReportRow(c.id, c.title, c.category, c.priority, s.display, c.createdAt) " +
+           "FROM Complaint c JOIN c.status s WHERE c.createdAt BETWEEN :startDate AND :endDate ORDER BY c.createdAt")
+    Stream<ComplaintReportRow> streamReportRows(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @QueryHints({
+        @QueryHint(name = "org.hibernate.fetchSize", value = "-2147483648"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT new com.resolveit.dto.ComplaintReportRow(c.id, c.title, c.category, c.priority, s.display, c.createdAt) " +
+           "FROM Complaint c JOIN c.status s WHERE c.assignedOfficer = :officer " +
+           "AND c.createdAt BETWEEN :startDate AND :endDate ORDER BY c.createdAt")
+    Stream<ComplaintReportRow> streamReportRowsByOfficer(@Param("officer") User officer,
+                                                         @Param("startDate") LocalDateTime startDate,
+                                                         @Param("endDate") LocalDateTime endDate);
+    
+    // Report summary counts: [total, resolved]
+    @Query("SELECT COUNT(c), COALESCE(SUM(CASE WHEN s.code = 'RESOLVED' THEN 1 ELSE 0 END), 0) " +
+           "FROM Complaint c JOIN c.status s WHERE c.createdAt BETWEEN :startDate AND :endDate")
+    List<Object[]> countTotalAndResolved(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    
+    @Query("SELECT COUNT(c), COALESCE(SUM(CASE WHEN s.code = 'RESOLVED' THEN 1 ELSE 0 END), 0) " +
+           "FROM Complaint c JOIN c.status s WHERE c.assignedOfficer = :officer AND c.createdAt BETWEEN :startDate AND :endDate")
+    List<Object[]> countTotalAndResolvedByOfficer(@Param("officer") User officer,
+                                                  @Param("startDate") LocalDateTime startDate,
+                                                  @Param("endDate") LocalDateTime endDate);
+    
+    // Officer workload: [officerId, open complaint count] and [officerId, category] pairs
+    @Query("SELECT c.assignedOfficer.id, COUNT(c) FROM Complaint c " +
+           "WHERE c.assignedOfficer IS NOT NULL AND c.status.code NOT IN :closedCodes GROUP BY c.assignedOfficer.id")
+    List<Object[]> countOpenByOfficer(@Param("closedCodes") Collection<String> closedCodes);
+    
+    @Query("SELECT DISTINCT c.assignedOfficer.id, c.category FROM Complaint c " +
+           "WHERE c.assignedOfficer IS NOT NULL AND c.category IS NOT NULL")
+    List<Object[]> findOfficerCategories();
+    
+    // For bulk operations
+    @Query("SELECT c.id FROM Complaint c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Complaint c SET c.status = :status, c.updatedAt = :now, c.version = c.version + 1, " +
+           "c.resolvedAt = CASE WHEN :closed = true THEN COALESCE(c.resolvedAt, :now) ELSE NULL END WHERE c.id IN :ids")
+    int bulkUpdateStatus(@Param("ids") Collection<Long> ids, @Param("status") ComplaintStatus status,
+                         @Param("closed") boolean closed, @Param("now") LocalDateTime now);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Complaint c SET c.assignedOfficer = :officer, c.updatedAt = :now, c.version = c.version + 1 WHERE c.id IN :ids")
+    int bulkAssignOfficer(@Param("ids") Collection<Long> ids, @Param("officer") User officer, @Param("now") LocalDateTime now);
+    
+    // For imports
+    @Query("SELECT DISTINCT c.category FROM Complaint c WHERE c.category IS NOT NULL")
+    List<String> findDistinctCategories();
 }
\ No newline at end of file
@@ -1,19 +1,39 @@
 package com.resolveit.repository;
 
 import com.resolveit.model.Notification;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     
-    List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+    Page<Notification> findByUserIdOrderByCreatedAtDesc(Long userId, Pageable pageable);
     
-    List<Notification> findByUserIdAndReadFalseOrderByCreatedAtDesc(Long userId);
-    
-    List<Notification> findByUserIdAndReadFalse(Long userId);
+    Page<Notification> findByUserIdAndReadFalseOrderByCreatedAtDesc(Long userId, Pageable pageable);
     
     long countByUserIdAndReadFalse(Long userId);
-}
\ No newline at end of file
+    
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true WHERE n.user.id = :userId AND n.read = false")
+    int markAllAsReadByUserId(@Param("userId") Long userId);
+    
+    // For retention
+    @Query("SELECT n.id FROM Notification n WHERE n.read = true AND n.createdAt < :cutoff ORDER BY n.id")
+    List<Long> findReadIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+    
+    @Modifying(clearAutomatically = true)
+    @Query("DELETE FROM Notification n WHERE n.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT n.user.id, COUNT(n) FROM Notification n WHERE n.read = false AND n.user.id IN :userIds GROUP BY n.user.id")
+    List<Object[]> countUnreadGroupedByUserId(@Param("userIds") Collection<Long> userIds);
+}
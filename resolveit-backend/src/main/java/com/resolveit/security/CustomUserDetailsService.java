@@ -1,5 +1,6 @@
 package com.resolveit.security;
 
+import com.resolveit.model.Role;
 import com.resolveit.model.User;
 import com.resolveit.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,7 +25,7 @@ public class CustomUserDetailsService implements UserDetailsService {
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
                 .password(user.getPassword())
-                .authorities("USER")
+                .authorities(user.getRoles().stream().map(Role::getName).toArray(String[]::new))
                 .build();
     }
 }
\ No newline at end of file
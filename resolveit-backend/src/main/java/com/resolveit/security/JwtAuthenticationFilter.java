@@ -1,5 +1,7 @@
 package com.resolveit.security;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -22,6 +24,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private UserAuthorityService userAuthorityService;
+
     @Override
     protected void doFilterInternal(
             HttpServletRequest request,
@@ -39,23 +47,40 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtService.extractUsername(jwt);
 
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            if (jwtService.isTokenValid(jwt, userEmail)) {
-                List<String> roles = jwtService.extractRoles(jwt);
-                List<SimpleGrantedAuthority> authorities = roles.stream()
+        // An expired, forged or revoked token leaves the request anonymous
+        Claims claims;
+        try {
+            claims = jwtService.parseToken(jwt);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = claims.getSubject();
+        JwtService.TokenIdentity identity = jwtService.identify(claims, JwtService.ACCESS_TOKEN);
+
+        if (userEmail != null && identity != null && SecurityContextHolder.getContext().getAuthentication() == null
+                && !tokenRevocationService.isRevoked(identity.userId(), identity.epoch())) {
+            // The user's current roles, unless the token is newer than what this instance has loaded
+            UserAuthorityService.UserAuthorities current = userAuthorityService.get(identity.userId());
+            List<SimpleGrantedAuthority> authorities;
+            if (current != null && current.version() >= identity.roleVersion()) {
+                authorities = current.authorities();
+            } else {
+                @SuppressWarnings("unchecked")
+                List<String> roles = (List<String>) claims.get("roles");
+                authorities = roles.stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
-
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userEmail,
-                        null,
-                        authorities
-                );
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
+
+            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                    userEmail,
+                    null,
+                    authorities
+            );
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
         filterChain.doFilter(request, response);
     }
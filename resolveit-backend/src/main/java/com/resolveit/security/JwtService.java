@@ -4,6 +4,7 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import java.security.Key;
 import java.util.Date;
@@ -14,7 +15,17 @@ import java.util.function.Function;
 public class JwtService {
     
     private static final String SECRET_KEY = "mySecretKeyForJWTTokenGenerationAndValidation123456789";
-    private static final long JWT_EXPIRATION = 86400000; // 24 hours
+
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+
+    // Lifetime of access tokens; revocation takes effect at once, this only bounds a leaked token
+    @Value("${app.security.jwt.access-ttl-minutes:15}")
+    private long accessTtlMinutes;
+
+    // Lifetime of refresh tokens, i.e. how long a user stays signed in without using the app
+    @Value("${app.security.jwt.refresh-ttl-days:14}")
+    private long refreshTtlDays;
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -25,31 +36,74 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    public String generateToken(String username, List<String> roles) {
+    /**
+     * Short-lived token sent with every request, carrying the user's roles, role version and token epoch
+     */
+    public String generateAccessToken(String username, Long userId, int epoch, List<String> roles, int roleVersion) {
         return Jwts.builder()
                 .setSubject(username)
+                .claim("uid", userId)
+                .claim("ep", epoch)
+                .claim("typ", ACCESS_TOKEN)
                 .claim("roles", roles)
+                .claim("rv", roleVersion)
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + accessTtlMinutes * 60_000L))
+                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Long-lived token that is only accepted by /auth/refresh, once: it names its sign-in
+     * session and the session's generation when it was issued
+     */
+    public String generateRefreshToken(String username, Long userId, int epoch, String sessionId, int generation) {
+        return Jwts.builder()
+                .setSubject(username)
+                .claim("uid", userId)
+                .claim("ep", epoch)
+                .claim("typ", REFRESH_TOKEN)
+                .claim("sid", sessionId)
+                .claim("gen", generation)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
-                .setExpiration(new Date(System.currentTimeMillis() + JWT_EXPIRATION))
+                .setExpiration(new Date(System.currentTimeMillis() + refreshTtlDays * 86_400_000L))
                 .signWith(getSignInKey(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String generateToken(String username) {
-        return generateToken(username, List.of());
+    public long getAccessTtlSeconds() {
+        return accessTtlMinutes * 60;
     }
 
-    public boolean isTokenValid(String token, String username) {
-        final String extractedUsername = extractUsername(token);
-        return (extractedUsername.equals(username)) && !isTokenExpired(token);
+    /**
+     * Verify the signature and expiry once and return all claims; throws JwtException if invalid
+     */
+    public Claims parseToken(String token) {
+        return extractAllClaims(token);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    /**
+     * The user id, epoch and role version of a token of the given type, or null if it is
+     * another type or was issued before tokens carried an epoch
+     */
+    public TokenIdentity identify(Claims claims, String type) {
+        Number userId = claims.get("uid", Number.class);
+        Number epoch = claims.get("ep", Number.class);
+        if (!type.equals(claims.get("typ", String.class)) || userId == null || epoch == null) {
+            return null;
+        }
+        Number roleVersion = claims.get("rv", Number.class);
+        return new TokenIdentity(userId.longValue(), epoch.intValue(), roleVersion != null ? roleVersion.intValue() : 0);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    /**
+     * The session and generation of a refresh token, or null if it was issued before refresh
+     * tokens carried them
+     */
+    public RefreshSession refreshSession(Claims claims) {
+        String sessionId = claims.get("sid", String.class);
+        Number generation = claims.get("gen", Number.class);
+        return sessionId != null && generation != null ? new RefreshSession(sessionId, generation.intValue()) : null;
     }
 
     private Claims extractAllClaims(String token) {
@@ -69,4 +123,10 @@ public class JwtService {
     public List<String> extractRoles(String token) {
         return extractClaim(token, claims -> (List<String>) claims.get("roles"));
     }
-}
\ No newline at end of file
+
+    public record TokenIdentity(long userId, int epoch, int roleVersion) {
+    }
+
+    public record RefreshSession(String sessionId, int generation) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.resolveit.security;
+
+import com.resolveit.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs BCrypt hashing and verification on a small, bounded worker pool instead of the
+ * request threads, so a burst of logins cannot take every core from the other endpoints.
+ *
+ * A request waits at most app.security.password-hashing.max-wait-ms for its hash. When the
+ * queue is full or the wait runs out it fails fast with BusyException rather than queueing
+ * behind work its client has likely given up on.
+ */
+@Service
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // BCrypt cost factor for new hashes; stored hashes with another cost are rehashed on login
+    @Value("${app.security.bcrypt.strength:10}")
+    private int strength;
+
+    // Hashes computed at once; defaults to half the CPUs, leaving the rest to other requests
+    @Value("${app.security.password-hashing.threads:0}")
+    private int threads;
+
+    // Hashes allowed to wait for a worker before requests are refused
+    @Value("${app.security.password-hashing.queue-capacity:32}")
+    private int queueCapacity;
+
+    // Longest a request waits for its hash, queueing included
+    @Value("${app.security.password-hashing.max-wait-ms:2000}")
+    private long maxWaitMillis;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder rehashed = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAccumulator maxQueueNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    public void init() {
+        int workers = threads > 0 ? threads : defaultWorkers(Runtime.getRuntime().availableProcessors());
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    static int defaultWorkers(int cpus) {
+        return Math.max(1, cpus / 2);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return run(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return run(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * True if a stored BCrypt hash was made with a different cost factor than the configured one
+     */
+    public boolean needsRehash(String encodedPassword) {
+        // $2a$10$... - version, cost, salt and hash
+        if (encodedPassword == null || encodedPassword.length() < 7
+                || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != strength;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Rehash a verified password with the configured cost once a worker is free. Skipped when
+     * the queue is full; the next login tries again. The hash is only replaced if the stored
+     * one is still the one that was verified, so a concurrent password change wins.
+     */
+    public void rehashInBackground(Long userId, String rawPassword, String verifiedHash) {
+        try {
+            executor.execute(() -> {
+                try {
+                    String newHash = passwordEncoder.encode(rawPassword);
+                    if (userRepository.updatePasswordHash(userId, verifiedHash, newHash) > 0) {
+                        rehashed.increment();
+                    }
+                } catch (Exception e) {
+                    System.err.println("Failed to rehash password for user " + userId + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Busy; not worth refusing the login for
+        }
+    }
+
+    private <T> T run(Callable<T> hashing) {
+        long submittedAt = System.nanoTime();
+        FutureTask<T> task = new FutureTask<>(() -> {
+            long startedAt = System.nanoTime();
+            queueNanos.add(startedAt - submittedAt);
+            maxQueueNanos.accumulate(startedAt - submittedAt);
+            try {
+                return hashing.call();
+            } finally {
+                long elapsed = System.nanoTime() - startedAt;
+                hashNanos.add(elapsed);
+                maxHashNanos.accumulate(elapsed);
+                completed.increment();
+            }
+        });
+
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new BusyException();
+        }
+
+        try {
+            return task.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // A task still in the queue is skipped by the worker; one already hashing finishes unused
+            task.cancel(false);
+            timedOut.increment();
+            throw new BusyException();
+        } catch (InterruptedException e) {
+            task.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new BusyException();
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Pool state and counters, for the admin endpoint
+     */
+    public Map<String, Object> snapshot() {
+        long count = completed.sum();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("strength", strength);
+        map.put("threads", executor.getMaximumPoolSize());
+        map.put("active", executor.getActiveCount());
+        map.put("queued", executor.getQueue().size());
+        map.put("queueCapacity", queueCapacity);
+        map.put("maxWaitMillis", maxWaitMillis);
+        map.put("completed", count);
+        map.put("rejected", rejected.sum());
+        map.put("timedOut", timedOut.sum());
+        map.put("rehashed", rehashed.sum());
+        map.put("avgQueueMillis", count == 0 ? 0.0 : queueNanos.sum() / 1_000_000.0 / count);
+        map.put("maxQueueMillis", maxQueueNanos.get() / 1_000_000.0);
+        map.put("avgHashMillis", count == 0 ? 0.0 : hashNanos.sum() / 1_000_000.0 / count);
+        map.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+        return map;
+    }
+
+    /**
+     * Thrown when a hash could not be computed within the wait limit
+     */
+    public static class BusyException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public BusyException() {
+            super("Server is busy, please try again shortly");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.resolveit.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Rejects requests over their rate or concurrency limit with 429, before the controller
+ * runs and so before a multipart body is parsed or a password is hashed. The number of
+ * passwords hashed at once is bounded separately by PasswordHashingService.
+ *
+ * Authentication endpoints are limited per IP address; everything else per signed-in
+ * user, or per IP address for anonymous requests.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    // Use the first X-Forwarded-For address as the client; only behind a proxy that sets it
+    @Value("${app.rate-limit.trust-forwarded-for:false}")
+    private boolean trustForwardedFor;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        String path = request.getServletPath();
+        String limit;
+        String client;
+        String concurrencyLimit = null;
+
+        if (path.startsWith("/auth/")) {
+            limit = RateLimiter.AUTH;
+            client = "ip:" + clientAddress(request);
+        } else if (path.equals("/complaints/submit")) {
+            limit = RateLimiter.SUBMIT;
+            client = clientKey(request);
+            concurrencyLimit = RateLimiter.UPLOADS;
+        } else if (path.startsWith("/complaints/files/")) {
+            limit = RateLimiter.FILES;
+            client = clientKey(request);
+        } else {
+            limit = RateLimiter.API;
+            client = clientKey(request);
+        }
+
+        long waitNanos = rateLimiter.tryAcquire(limit, client);
+        if (waitNanos > 0) {
+            reject(response, (waitNanos + 999_999_999L) / 1_000_000_000L, "Too many requests, please try again later");
+            return;
+        }
+
+        if (concurrencyLimit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!rateLimiter.tryEnter(concurrencyLimit)) {
+            reject(response, 1, "Server is busy, please try again shortly");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            rateLimiter.exit(concurrencyLimit);
+        }
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated() && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        return "ip:" + clientAddress(request);
+    }
+
+    private String clientAddress(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma >= 0 ? forwarded.substring(0, comma) : forwarded).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"status\":\"error\",\"message\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,332 @@
+package com.resolveit.security;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control for the API: token buckets per client (user or IP address) and
+ * limit, plus caps on the requests running at once for the expensive endpoints.
+ *
+ * Buckets live in a ConcurrentHashMap and are updated with compare-and-set, so checking
+ * a request never blocks. Buckets that have refilled are dropped after a while; with
+ * app.rate-limit.persist the partly drained ones are also saved to rate_limit_buckets,
+ * so a restart does not hand every client a full bucket.
+ */
+@Component
+public class RateLimiter {
+
+    public static final String AUTH = "auth";
+    public static final String SUBMIT = "submit";
+    public static final String FILES = "files";
+    public static final String API = "api";
+
+    public static final String UPLOADS = "uploads";
+
+    // Full buckets idle this long are dropped
+    private static final long IDLE_NANOS = 10L * 60 * 1_000_000_000L;
+
+    // Buckets reported by the admin endpoint
+    private static final int TOP_BUCKETS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.rate-limit.auth.capacity:10}")
+    private int authCapacity;
+
+    @Value("${app.rate-limit.auth.per-minute:10}")
+    private int authPerMinute;
+
+    @Value("${app.rate-limit.submit.capacity:5}")
+    private int submitCapacity;
+
+    @Value("${app.rate-limit.submit.per-minute:5}")
+    private int submitPerMinute;
+
+    @Value("${app.rate-limit.files.capacity:60}")
+    private int filesCapacity;
+
+    @Value("${app.rate-limit.files.per-minute:120}")
+    private int filesPerMinute;
+
+    @Value("${app.rate-limit.api.capacity:120}")
+    private int apiCapacity;
+
+    @Value("${app.rate-limit.api.per-minute:600}")
+    private int apiPerMinute;
+
+    // Complaint submissions (multipart uploads) in progress at once
+    @Value("${app.rate-limit.uploads.max-concurrent:8}")
+    private int uploadsMaxConcurrent;
+
+    // Save partly drained buckets so they survive a restart
+    @Value("${app.rate-limit.persist:false}")
+    private boolean persist;
+
+    private final Map<String, Limit> limits = new LinkedHashMap<>();
+    private final Map<String, ConcurrencyLimit> concurrencyLimits = new LinkedHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        addLimit(AUTH, authCapacity, authPerMinute);
+        addLimit(SUBMIT, submitCapacity, submitPerMinute);
+        addLimit(FILES, filesCapacity, filesPerMinute);
+        addLimit(API, apiCapacity, apiPerMinute);
+
+        concurrencyLimits.put(UPLOADS, new ConcurrencyLimit(uploadsMaxConcurrent));
+
+        if (enabled && persist) {
+            loadBuckets();
+        }
+    }
+
+    private void addLimit(String name, int capacity, int perMinute) {
+        limits.put(name, new Limit(name, capacity, perMinute / 60_000_000_000.0));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Take a token from the client's bucket for a limit.
+     * Returns 0 if the request may proceed, otherwise the nanoseconds until a token is available.
+     */
+    public long tryAcquire(String limitName, String client) {
+        if (!enabled) {
+            return 0;
+        }
+        Limit limit = limits.get(limitName);
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(limitName + ":" + client, key -> new TokenBucket(limit, limit.capacity(), now));
+        return bucket.tryConsume(now);
+    }
+
+    /**
+     * Claim a slot of a concurrency limit without waiting; false if all slots are taken
+     */
+    public boolean tryEnter(String name) {
+        if (!enabled) {
+            return true;
+        }
+        ConcurrencyLimit limit = concurrencyLimits.get(name);
+        if (limit.permits.tryAcquire()) {
+            limit.admitted.increment();
+            return true;
+        }
+        limit.rejected.increment();
+        return false;
+    }
+
+    /**
+     * Release a slot claimed with tryEnter
+     */
+    public void exit(String name) {
+        if (enabled) {
+            concurrencyLimits.get(name).permits.release();
+        }
+    }
+
+    // ==================== METRICS ====================
+
+    /**
+     * Per-limit totals, concurrency limits and the most rejected client buckets
+     */
+    public Map<String, Object> snapshot() {
+        long now = System.nanoTime();
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (String name : limits.keySet()) {
+            totals.put(name, new long[3]);
+        }
+        List<Map.Entry<String, TokenBucket>> entries = new ArrayList<>(buckets.entrySet());
+        for (Map.Entry<String, TokenBucket> entry : entries) {
+            long[] total = totals.get(entry.getValue().limit.name());
+            total[0]++;
+            total[1] += entry.getValue().allowed.sum();
+            total[2] += entry.getValue().rejected.sum();
+        }
+
+        List<Map<String, Object>> limitStats = new ArrayList<>();
+        for (Limit limit : limits.values()) {
+            long[] total = totals.get(limit.name());
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("limit", limit.name());
+            stats.put("capacity", limit.capacity());
+            stats.put("perMinute", Math.round(limit.refillPerNano() * 60_000_000_000.0));
+            stats.put("activeBuckets", total[0]);
+            stats.put("allowed", total[1]);
+            stats.put("rejected", total[2]);
+            limitStats.add(stats);
+        }
+
+        List<Map<String, Object>> concurrencyStats = new ArrayList<>();
+        concurrencyLimits.forEach((name, limit) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("name", name);
+            stats.put("maxConcurrent", limit.max);
+            stats.put("inFlight", limit.max - limit.permits.availablePermits());
+            stats.put("admitted", limit.admitted.sum());
+            stats.put("rejected", limit.rejected.sum());
+            concurrencyStats.add(stats);
+        });
+
+        entries.sort(Comparator.comparingLong((Map.Entry<String, TokenBucket> entry) -> entry.getValue().rejected.sum()).reversed());
+        List<Map<String, Object>> topBuckets = new ArrayList<>();
+        for (Map.Entry<String, TokenBucket> entry : entries.subList(0, Math.min(TOP_BUCKETS, entries.size()))) {
+            TokenBucket bucket = entry.getValue();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("bucket", entry.getKey());
+            stats.put("tokens", Math.floor(bucket.available(now) * 100.0) / 100.0);
+            stats.put("allowed", bucket.allowed.sum());
+            stats.put("rejected", bucket.rejected.sum());
+            topBuckets.add(stats);
+        }
+
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("limits", limitStats);
+        snapshot.put("concurrency", concurrencyStats);
+        snapshot.put("topBuckets", topBuckets);
+        return snapshot;
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Drop buckets that have refilled and been idle, then save the rest if persistence is on
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void maintain() {
+        long now = System.nanoTime();
+        buckets.entrySet().removeIf(entry -> entry.getValue().isIdle(now));
+
+        if (enabled && persist) {
+            try {
+                saveBuckets(now);
+            } catch (Exception e) {
+                System.err.println("Failed to save rate limit buckets: " + e.getMessage());
+            }
+        }
+    }
+
+    private void saveBuckets(long now) {
+        Timestamp savedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batchArgs = new ArrayList<>();
+        buckets.forEach((key, bucket) -> {
+            double tokens = bucket.available(now);
+            if (tokens < bucket.limit.capacity()) {
+                batchArgs.add(new Object[]{key, tokens, savedAt});
+            }
+        });
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                "INSERT INTO rate_limit_buckets (bucket_key, tokens, saved_at) VALUES (?, ?, ?) " +
+                "ON DUPLICATE KEY UPDATE tokens = VALUES(tokens), saved_at = VALUES(saved_at)",
+                batchArgs);
+        }
+        // Anything older has refilled by now
+        jdbcTemplate.update("DELETE FROM rate_limit_buckets WHERE saved_at < ?",
+            Timestamp.valueOf(LocalDateTime.now().minusHours(1)));
+    }
+
+    /**
+     * Restore saved buckets, refilled for the time since they were saved
+     */
+    private void loadBuckets() {
+        long now = System.nanoTime();
+        LocalDateTime wallNow = LocalDateTime.now();
+        try {
+            jdbcTemplate.query("SELECT bucket_key, tokens, saved_at FROM rate_limit_buckets", rs -> {
+                String key = rs.getString(1);
+                Limit limit = limits.get(key.substring(0, Math.max(key.indexOf(':'), 0)));
+                if (limit != null) {
+                    long elapsedNanos = Math.max(0, Duration.between(rs.getTimestamp(3).toLocalDateTime(), wallNow).toNanos());
+                    double tokens = Math.min(limit.capacity(), rs.getDouble(2) + elapsedNanos * limit.refillPerNano());
+                    buckets.put(key, new TokenBucket(limit, tokens, now));
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("Failed to load rate limit buckets: " + e.getMessage());
+        }
+    }
+
+    private record Limit(String name, int capacity, double refillPerNano) {
+    }
+
+    private record State(double tokens, long atNanos) {
+    }
+
+    private static class TokenBucket {
+        private final Limit limit;
+        private final AtomicReference<State> state;
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        TokenBucket(Limit limit, double tokens, long now) {
+            this.limit = limit;
+            this.state = new AtomicReference<>(new State(tokens, now));
+        }
+
+        /**
+         * 0 if a token was taken, otherwise the nanoseconds until one is available
+         */
+        long tryConsume(long now) {
+            while (true) {
+                State current = state.get();
+                long at = Math.max(now, current.atNanos());
+                double tokens = refilled(current, at);
+                if (tokens < 1) {
+                    rejected.increment();
+                    return Math.max(1, (long) Math.ceil((1 - tokens) / limit.refillPerNano()));
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, at))) {
+                    allowed.increment();
+                    return 0;
+                }
+            }
+        }
+
+        double available(long now) {
+            State current = state.get();
+            return refilled(current, Math.max(now, current.atNanos()));
+        }
+
+        boolean isIdle(long now) {
+            State current = state.get();
+            return now - current.atNanos() > IDLE_NANOS && refilled(current, now) >= limit.capacity();
+        }
+
+        private double refilled(State current, long at) {
+            return Math.min(limit.capacity(), current.tokens() + (at - current.atNanos()) * limit.refillPerNano());
+        }
+    }
+
+    private static class ConcurrencyLimit {
+        private final int max;
+        private final Semaphore permits;
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        ConcurrencyLimit(int max) {
+            this.max = max;
+            this.permits = new Semaphore(max);
+        }
+    }
+}
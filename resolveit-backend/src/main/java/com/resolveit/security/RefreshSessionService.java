@@ -0,0 +1,82 @@
+package com.resolveit.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Sign-in sessions behind refresh tokens. Each sign-in starts a session; its refresh token
+ * carries the session id and a generation, and every refresh moves the session to the next
+ * generation, so each refresh token can be exchanged once.
+ *
+ * Presenting a refresh token of an earlier generation means it was copied, by the client
+ * retrying or by someone else. The session is then ended, revoking the newer token as well.
+ */
+@Service
+public class RefreshSessionService {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Sessions expire this long after their last refresh, like the refresh tokens themselves
+    @Value("${app.security.jwt.refresh-ttl-days:14}")
+    private long refreshTtlDays;
+
+    /**
+     * Start a session for a sign-in; its first refresh token has generation 0
+     */
+    public String start(long userId) {
+        String sessionId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO refresh_sessions (id, user_id, generation, created_at, expires_at) VALUES (?, ?, 0, ?, ?)",
+            sessionId, userId, Timestamp.valueOf(now), Timestamp.valueOf(now.plusDays(refreshTtlDays)));
+        return sessionId;
+    }
+
+    /**
+     * Move the session on from the presented generation. Returns the new generation, or null
+     * if the session is gone, expired or already past it, in which case it is ended.
+     */
+    public Integer rotate(String sessionId, long userId, int generation) {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = jdbcTemplate.update(
+            "UPDATE refresh_sessions SET generation = generation + 1, expires_at = ? " +
+            "WHERE id = ? AND user_id = ? AND generation = ? AND expires_at > ?",
+            Timestamp.valueOf(now.plusDays(refreshTtlDays)), sessionId, userId, generation, Timestamp.valueOf(now));
+        if (updated == 1) {
+            return generation + 1;
+        }
+
+        int ended = jdbcTemplate.update("DELETE FROM refresh_sessions WHERE id = ? AND user_id = ? AND generation > ?",
+            sessionId, userId, generation);
+        if (ended > 0) {
+            System.err.println("Refresh token of user " + userId + " was used twice, session ended");
+        }
+        return null;
+    }
+
+    /**
+     * End every session of the user. Joins the caller's transaction.
+     */
+    public void endAll(long userId) {
+        jdbcTemplate.update("DELETE FROM refresh_sessions WHERE user_id = ?", userId);
+    }
+
+    /**
+     * Drop expired sessions every hour
+     */
+    @Scheduled(fixedDelay = 3600000)
+    public void deleteExpired() {
+        try {
+            jdbcTemplate.update("DELETE FROM refresh_sessions WHERE expires_at < ?", Timestamp.valueOf(LocalDateTime.now()));
+        } catch (Exception e) {
+            System.err.println("Failed to delete expired refresh sessions: " + e.getMessage());
+        }
+    }
+}
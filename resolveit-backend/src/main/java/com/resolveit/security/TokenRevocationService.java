@@ -0,0 +1,185 @@
+package com.resolveit.security;
+
+import com.resolveit.config.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-user token epochs. Every token carries the user's epoch from when it was issued;
+ * incrementing the epoch revokes all of the user's access and refresh tokens at once.
+ *
+ * The epochs live in users.token_epoch and, for users whose epoch is not 0, in an
+ * open-addressing table of primitive arrays, so the check on every request neither
+ * queries the database nor allocates. Changes made by other instances are picked up
+ * by polling token_epoch_at.
+ */
+@Service
+public class TokenRevocationService {
+
+    // Re-read epochs changed within this window, covering clock skew and slow commits
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RefreshSessionService refreshSessionService;
+
+    private volatile EpochTable table = new EpochTable(1024);
+
+    private volatile LocalDateTime lastPoll;
+
+    @PostConstruct
+    public void init() {
+        lastPoll = LocalDateTime.now();
+        jdbcTemplate.query("SELECT id, token_epoch FROM users WHERE token_epoch > 0", rs -> {
+            update(rs.getLong(1), rs.getInt(2));
+        });
+    }
+
+    /**
+     * True if a token issued at the given epoch has been revoked since
+     */
+    public boolean isRevoked(long userId, int tokenEpoch) {
+        return tokenEpoch < table.get(userId);
+    }
+
+    /**
+     * Like isRevoked, but against the database, so a revocation on another instance counts
+     * before the next poll. For exchanges that issue new tokens, such as a refresh.
+     */
+    public boolean isRevokedNow(long userId, int tokenEpoch) {
+        return tokenEpoch < currentEpoch(userId);
+    }
+
+    /**
+     * The epoch to put in new tokens, read from the database in case another instance changed it
+     */
+    public int currentEpoch(long userId) {
+        Integer epoch = jdbcTemplate.queryForObject("SELECT token_epoch FROM users WHERE id = ?", Integer.class, userId);
+        update(userId, epoch != null ? epoch : 0);
+        return epoch != null ? epoch : 0;
+    }
+
+    /**
+     * Revoke every token issued to the user so far and end their refresh sessions. Joins the
+     * caller's transaction; requests are refused from the moment it commits.
+     */
+    public void revokeAll(Long userId) {
+        jdbcTemplate.update("UPDATE users SET token_epoch = token_epoch + 1, token_epoch_at = ? WHERE id = ?",
+            Timestamp.valueOf(LocalDateTime.now()), userId);
+        refreshSessionService.endAll(userId);
+        AfterCommit.run(() -> currentEpoch(userId));
+    }
+
+    /**
+     * Pick up epochs changed by other instances
+     */
+    @Scheduled(fixedDelayString = "${app.security.token-epochs.poll-ms:15000}")
+    public void poll() {
+        LocalDateTime since = lastPoll.minusSeconds(POLL_OVERLAP_SECONDS);
+        lastPoll = LocalDateTime.now();
+        try {
+            jdbcTemplate.query("SELECT id, token_epoch FROM users WHERE token_epoch_at >= ?", rs -> {
+                update(rs.getLong(1), rs.getInt(2));
+            }, Timestamp.valueOf(since));
+        } catch (Exception e) {
+            System.err.println("Failed to poll token epochs: " + e.getMessage());
+        }
+    }
+
+    private synchronized void update(long userId, int epoch) {
+        if (epoch <= 0) {
+            return;
+        }
+        EpochTable current = table;
+        if (!current.put(userId, epoch)) {
+            EpochTable grown = current.grow();
+            grown.put(userId, epoch);
+            table = grown;
+        }
+    }
+
+    /**
+     * Linear-probing map from user id to epoch. Readers need no lock: a slot's epoch is
+     * written before its key, and both arrays are read and written with volatile semantics.
+     * Writers are serialized by the enclosing service. User ids start at 1, so 0 marks an
+     * empty slot.
+     */
+    static class EpochTable {
+        private final AtomicLongArray keys;
+        private final AtomicIntegerArray epochs;
+        private final int mask;
+        private int size;
+
+        EpochTable(int capacity) {
+            keys = new AtomicLongArray(capacity);
+            epochs = new AtomicIntegerArray(capacity);
+            mask = capacity - 1;
+        }
+
+        int get(long userId) {
+            for (int i = slot(userId); ; i = (i + 1) & mask) {
+                long key = keys.get(i);
+                if (key == userId) {
+                    return epochs.get(i);
+                }
+                if (key == 0) {
+                    return 0;
+                }
+            }
+        }
+
+        /**
+         * Store the epoch unless a later one is already there; false if the table is too full
+         */
+        boolean put(long userId, int epoch) {
+            int i = slot(userId);
+            while (true) {
+                long key = keys.get(i);
+                if (key == userId) {
+                    if (epoch > epochs.get(i)) {
+                        epochs.set(i, epoch);
+                    }
+                    return true;
+                }
+                if (key == 0) {
+                    break;
+                }
+                i = (i + 1) & mask;
+            }
+            // Keep at least half the slots empty so probes stay short
+            if ((size + 1) * 2 > keys.length()) {
+                return false;
+            }
+            epochs.set(i, epoch);
+            keys.set(i, userId);
+            size++;
+            return true;
+        }
+
+        EpochTable grow() {
+            EpochTable grown = new EpochTable(keys.length() * 2);
+            for (int i = 0; i < keys.length(); i++) {
+                long key = keys.get(i);
+                if (key != 0) {
+                    grown.put(key, epochs.get(i));
+                }
+            }
+            return grown;
+        }
+
+        private int slot(long userId) {
+            long h = userId * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.resolveit.security;
+
+import com.resolveit.config.AfterCommit;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Every user's current roles and role version, held in memory so that requests are
+ * authorized with up-to-date roles without a database lookup.
+ *
+ * Loaded at startup, refreshed after a role change commits, and polled for changes
+ * made by other instances. Users with the same roles share one authority list.
+ */
+@Service
+public class UserAuthorityService {
+
+    // Re-read users changed within this window, covering clock skew and slow commits
+    private static final long POLL_OVERLAP_SECONDS = 60;
+
+    private static final String SELECT_USER_ROLES =
+        "SELECT u.id, u.role_version, r.name FROM users u " +
+        "LEFT JOIN user_roles ur ON ur.user_id = u.id " +
+        "LEFT JOIN roles r ON r.id = ur.role_id ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<Long, UserAuthorities> users = new ConcurrentHashMap<>();
+
+    // Role names -> shared authorities
+    private final ConcurrentHashMap<List<String>, List<SimpleGrantedAuthority>> authorityLists = new ConcurrentHashMap<>();
+
+    private volatile LocalDateTime lastPoll;
+
+    @PostConstruct
+    public void init() {
+        lastPoll = LocalDateTime.now();
+        load("", new Object[0]);
+        System.out.println("Loaded roles of " + users.size() + " users");
+    }
+
+    /**
+     * Roles and version of a user, or null if this instance has not seen the user yet
+     */
+    public UserAuthorities get(long userId) {
+        return users.get(userId);
+    }
+
+    /**
+     * Read a user's roles from the database, e.g. to issue a token
+     */
+    public UserAuthorities refresh(long userId) {
+        load("WHERE u.id = ? ", new Object[]{userId});
+        return users.get(userId);
+    }
+
+    /**
+     * Record that a user's roles were changed. Joins the caller's transaction; requests see
+     * the new roles from the moment it commits.
+     */
+    public void rolesChanged(Long userId) {
+        jdbcTemplate.update("UPDATE users SET role_version = role_version + 1, role_version_at = ? WHERE id = ?",
+            Timestamp.valueOf(LocalDateTime.now()), userId);
+        AfterCommit.run(() -> refresh(userId));
+    }
+
+    /**
+     * Pick up role changes and new users from other instances
+     */
+    @Scheduled(fixedDelayString = "${app.security.user-authorities.poll-ms:15000}")
+    public void poll() {
+        Timestamp since = Timestamp.valueOf(lastPoll.minusSeconds(POLL_OVERLAP_SECONDS));
+        lastPoll = LocalDateTime.now();
+        try {
+            load("WHERE u.role_version_at >= ? OR u.created_at >= ? ", new Object[]{since, since});
+        } catch (Exception e) {
+            System.err.println("Failed to poll user roles: " + e.getMessage());
+        }
+    }
+
+    private void load(String where, Object[] args) {
+        Map<Long, Integer> versions = new LinkedHashMap<>();
+        Map<Long, List<String>> roles = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_USER_ROLES + where + "ORDER BY u.id, r.name", rs -> {
+            long userId = rs.getLong(1);
+            versions.put(userId, rs.getInt(2));
+            List<String> userRoles = roles.computeIfAbsent(userId, id -> new ArrayList<>());
+            String role = rs.getString(3);
+            if (role != null) {
+                userRoles.add(role);
+            }
+        }, args);
+
+        versions.forEach((userId, version) -> {
+            List<String> userRoles = List.copyOf(roles.get(userId));
+            List<SimpleGrantedAuthority> authorities = authorityLists.computeIfAbsent(userRoles,
+                names -> names.stream().map(SimpleGrantedAuthority::new).toList());
+            UserAuthorities loaded = new UserAuthorities(version, userRoles, authorities);
+            // A slower concurrent load must not put back older roles
+            users.merge(userId, loaded, (existing, fresh) -> fresh.version() >= existing.version() ? fresh : existing);
+        });
+    }
+
+    public record UserAuthorities(int version, List<String> roles, List<SimpleGrantedAuthority> authorities) {
+    }
+}
@@ -0,0 +1,710 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.AnalyticsQueryRequest;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.User;
+import com.resolveit.repository.ComplaintStatusRepository;
+import com.resolveit.repository.UserRepository;
+import com.resolveit.service.ColumnarSnapshotReader.RowGroup;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Ad-hoc group-by reports for admins, answered from an in-memory columnar copy of the
+ * complaint snapshots instead of the OLTP database.
+ *
+ * The table is loaded from the snapshot part files (keeping the last version of each
+ * complaint) and reloaded when a new part appears. A query narrows a selection vector
+ * one filter column at a time, builds the group keys one dimension at a time, then
+ * aggregates in a single pass. Queries are limited in number, running time and groups,
+ * and the table in its estimated size.
+ */
+@Service
+public class AnalyticsQueryService {
+
+    public static final List<String> DIMENSIONS = List.of("category", "priority", "status", "officer", "day", "week", "month");
+
+    public static final List<String> METRICS = List.of("count", "resolved", "pending", "avgResolutionHours",
+        "p50ResolutionHours", "p90ResolutionHours", "p95ResolutionHours", "maxResolutionHours");
+
+    private static final int MAX_DIMENSIONS = 4;
+    private static final int MAX_LIMIT = 1000;
+
+    // Rows processed between deadline checks
+    private static final int CHECK_MASK = (1 << 16) - 1;
+
+    private static final double MILLIS_PER_HOUR = 3_600_000.0;
+
+    // Column array bytes per row: created, updated and resolved (long) and seven int columns
+    private static final int BYTES_PER_ROW = 3 * Long.BYTES + 7 * Integer.BYTES;
+
+    // Id -> row entry of the HashMap used while loading: node, boxed Long and Integer, table slot
+    private static final int BYTES_PER_ID = 80;
+
+    @Autowired
+    private ComplaintStatusRepository statusRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${app.snapshots.dir:snapshots}")
+    private String snapshotDir;
+
+    // Queries still running after this long are abandoned
+    @Value("${app.analytics.query-timeout-ms:5000}")
+    private long queryTimeoutMs;
+
+    // Queries allowed to run at once; more are rejected rather than queued
+    @Value("${app.analytics.max-concurrent-queries:2}")
+    private int maxConcurrentQueries;
+
+    // Upper bound on the groups one query may produce
+    @Value("${app.analytics.max-groups:10000}")
+    private int maxGroups;
+
+    // Upper bound on the estimated memory of the loaded complaints, including the id index used while loading
+    @Value("${app.analytics.max-memory-mb:1024}")
+    private long maxMemoryMb;
+
+    private Semaphore running;
+
+    private volatile ComplaintTable table;
+
+    @PostConstruct
+    public void init() {
+        running = new Semaphore(maxConcurrentQueries);
+    }
+
+    /**
+     * Run an ad-hoc query and return its rows with some execution statistics
+     */
+    public Map<String, Object> query(AnalyticsQueryRequest request) throws IOException {
+        List<String> dimensions = request.getGroupBy() != null ? request.getGroupBy() : List.of();
+        List<String> metrics = request.getMetrics() != null && !request.getMetrics().isEmpty()
+            ? request.getMetrics() : List.of("count");
+        String orderBy = request.getOrderBy() != null ? request.getOrderBy() : metrics.get(0);
+        int limit = request.getLimit() != null ? Math.max(1, Math.min(request.getLimit(), MAX_LIMIT)) : 100;
+        validate(dimensions, metrics, orderBy);
+
+        if (!running.tryAcquire()) {
+            throw new RuntimeException("Too many analytics queries are running, please try again shortly");
+        }
+        try {
+            long started = System.nanoTime();
+            long deadline = started + queryTimeoutMs * 1_000_000L;
+            ComplaintTable data = currentTable(deadline);
+
+            Map<Integer, ComplaintStatus> statuses = new HashMap<>();
+            for (ComplaintStatus status : statusRepository.findAll()) {
+                statuses.put(status.getId(), status);
+            }
+
+            int[] selection = new int[data.size];
+            int selected = selectByCreatedAt(data, request, selection, deadline);
+            if (request.getCategories() != null) {
+                selected = filter(selection, selected, data.categories, data.categoryDictionary.mask(request.getCategories()), deadline);
+            }
+            if (request.getPriorities() != null) {
+                selected = filter(selection, selected, data.priorities, data.priorityDictionary.mask(request.getPriorities()), deadline);
+            }
+            if (request.getStatusCodes() != null) {
+                selected = filter(selection, selected, data.statusIds, statusMask(statuses, request.getStatusCodes()), deadline);
+            }
+            if (request.getOfficerIds() != null) {
+                selected = filter(selection, selected, data.officers, data.officerMask(request.getOfficerIds()), deadline);
+            }
+
+            Grouping grouping = group(data, dimensions, selection, selected, resolvedStatusId(statuses),
+                metrics.stream().anyMatch(m -> m.matches("p\\d+ResolutionHours")), deadline);
+            List<Map<String, Object>> rows = grouping.toRows(data, dimensions, metrics, statuses, officerNames(data, grouping, dimensions));
+
+            rows.sort(Comparator.comparing((Map<String, Object> row) -> sortValue(row.get(orderBy)),
+                Comparator.nullsLast(Comparator.<Double>reverseOrder())));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("rows", rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows);
+            result.put("groupCount", rows.size());
+            result.put("scannedRows", data.size);
+            result.put("matchedRows", selected);
+            result.put("snapshotTakenAt", data.takenAt);
+            result.put("elapsedMs", (System.nanoTime() - started) / 1_000_000);
+            return result;
+        } finally {
+            running.release();
+        }
+    }
+
+    private static void validate(List<String> dimensions, List<String> metrics, String orderBy) {
+        if (dimensions.size() > MAX_DIMENSIONS) {
+            throw new RuntimeException("At most " + MAX_DIMENSIONS + " groupBy dimensions are allowed");
+        }
+        for (String dimension : dimensions) {
+            if (!DIMENSIONS.contains(dimension)) {
+                throw new RuntimeException("Unknown dimension: " + dimension + " (allowed: " + DIMENSIONS + ")");
+            }
+        }
+        if (new HashSet<>(dimensions).size() != dimensions.size()) {
+            throw new RuntimeException("Each dimension may only appear once in groupBy");
+        }
+        for (String metric : metrics) {
+            if (!METRICS.contains(metric)) {
+                throw new RuntimeException("Unknown metric: " + metric + " (allowed: " + METRICS + ")");
+            }
+        }
+        if (!metrics.contains(orderBy)) {
+            throw new RuntimeException("orderBy must be one of the requested metrics");
+        }
+    }
+
+    // ==================== EXECUTION ====================
+
+    private static int selectByCreatedAt(ComplaintTable data, AnalyticsQueryRequest request, int[] selection, long deadline) {
+        long from = request.getStartDate() != null ? Timestamp.valueOf(request.getStartDate()).getTime() : Long.MIN_VALUE;
+        long to = request.getEndDate() != null ? Timestamp.valueOf(request.getEndDate()).getTime() : Long.MAX_VALUE;
+        long[] created = data.created;
+
+        int selected = 0;
+        for (int row = 0; row < data.size; row++) {
+            long value = created[row];
+            if (value >= from && value < to) {
+                selection[selected++] = row;
+            }
+            if ((row & CHECK_MASK) == 0) {
+                checkDeadline(deadline);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Keep the selected rows whose code is allowed, compacting the selection in place
+     */
+    private static int filter(int[] selection, int count, int[] column, boolean[] allowed, long deadline) {
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            int row = selection[i];
+            int code = column[row];
+            if (code < allowed.length && allowed[code]) {
+                selection[kept++] = row;
+            }
+            if ((i & CHECK_MASK) == 0) {
+                checkDeadline(deadline);
+            }
+        }
+        return kept;
+    }
+
+    private Grouping group(ComplaintTable data, List<String> dimensions, int[] selection, int selected,
+                           int resolvedStatusId, boolean keepDurations, long deadline) {
+        // Mixed-radix group key, built one dimension (column) at a time
+        long[] keys = new long[selected];
+        long combinations = 1;
+        for (String dimension : dimensions) {
+            int[] codes = data.codes(dimension);
+            int radix = data.radix(dimension);
+            try {
+                combinations = Math.multiplyExact(combinations, radix);
+            } catch (ArithmeticException e) {
+                throw new RuntimeException("Too many group combinations, use fewer dimensions");
+            }
+            for (int i = 0; i < selected; i++) {
+                keys[i] = keys[i] * radix + codes[selection[i]];
+                if ((i & CHECK_MASK) == 0) {
+                    checkDeadline(deadline);
+                }
+            }
+        }
+
+        Grouping grouping = new Grouping(keepDurations, maxGroups);
+        for (int i = 0; i < selected; i++) {
+            int row = selection[i];
+            long duration = -1;
+            if (data.resolved[row] != Long.MIN_VALUE) {
+                duration = data.resolved[row] - data.created[row];
+            } else if (data.statusIds[row] == resolvedStatusId && data.updated[row] != Long.MIN_VALUE) {
+                // Parts exported before resolved_at existed
+                duration = data.updated[row] - data.created[row];
+            }
+            grouping.add(keys[i], duration);
+            if ((i & CHECK_MASK) == 0) {
+                checkDeadline(deadline);
+            }
+        }
+        return grouping;
+    }
+
+    /**
+     * Metric values are Long counts or Double hours (null without resolved complaints)
+     */
+    private static Double sortValue(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+
+    private static void checkDeadline(long deadline) {
+        if (System.nanoTime() > deadline) {
+            throw new RuntimeException("Query exceeded the time limit, narrow the filters or use fewer dimensions");
+        }
+    }
+
+    private static boolean[] statusMask(Map<Integer, ComplaintStatus> statuses, List<String> codes) {
+        int maxId = statuses.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        boolean[] mask = new boolean[maxId + 1];
+        for (ComplaintStatus status : statuses.values()) {
+            if (codes.contains(status.getCode())) {
+                mask[status.getId()] = true;
+            }
+        }
+        return mask;
+    }
+
+    private static int resolvedStatusId(Map<Integer, ComplaintStatus> statuses) {
+        for (ComplaintStatus status : statuses.values()) {
+            if ("RESOLVED".equals(status.getCode())) {
+                return status.getId();
+            }
+        }
+        return -1;
+    }
+
+    private Map<Long, String> officerNames(ComplaintTable data, Grouping grouping, List<String> dimensions) {
+        if (!dimensions.contains("officer")) {
+            return Map.of();
+        }
+        Set<Long> ids = new HashSet<>();
+        for (int slot = 0; slot < grouping.size(); slot++) {
+            int code = grouping.code(slot, dimensions, "officer", data);
+            if (code > 0) {
+                ids.add(data.officerDictionary.get(code - 1));
+            }
+        }
+        Map<Long, String> names = new HashMap<>();
+        for (User user : userRepository.findAllById(ids)) {
+            names.put(user.getId(), user.getFullName());
+        }
+        return names;
+    }
+
+    // ==================== TABLE LOADING ====================
+
+    /**
+     * The loaded table, reloaded first if the set of complaint part files has changed. The
+     * reload counts against the query's deadline.
+     */
+    private ComplaintTable currentTable(long deadline) throws IOException {
+        List<Path> parts = listParts();
+        if (parts.isEmpty()) {
+            throw new RuntimeException("No complaint snapshots yet, run the snapshot export first");
+        }
+        ComplaintTable loaded = table;
+        if (loaded != null && loaded.parts.equals(parts)) {
+            return loaded;
+        }
+        synchronized (this) {
+            if (table == null || !table.parts.equals(parts)) {
+                long started = System.currentTimeMillis();
+                table = ComplaintTable.load(parts, maxMemoryMb * 1024 * 1024, deadline);
+                System.out.println("Analytics: loaded " + table.size + " complaints from " + parts.size() +
+                    " snapshot parts in " + (System.currentTimeMillis() - started) + " ms");
+            }
+            return table;
+        }
+    }
+
+    private List<Path> listParts() throws IOException {
+        Path dir = Paths.get(snapshotDir, "complaints").toAbsolutePath().normalize();
+        List<Path> parts = new ArrayList<>();
+        if (Files.isDirectory(dir)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.rcol.gz")) {
+                files.forEach(parts::add);
+            }
+        }
+        // Part names carry the export time, so name order is export order
+        parts.sort(Comparator.comparing(path -> path.getFileName().toString()));
+        return parts;
+    }
+
+    /**
+     * Complaints as parallel column arrays. Low-cardinality columns are dictionary codes
+     * where 0 means null; times are epoch millis.
+     */
+    private static class ComplaintTable {
+        final List<Path> parts;
+        final LocalDateTime takenAt;
+        int size;
+
+        long[] created = new long[1024];
+        long[] updated = new long[1024];
+        long[] resolved = new long[1024];
+        int[] createdDay = new int[1024];
+        int[] createdWeek = new int[1024];
+        int[] createdMonth = new int[1024];
+        int[] statusIds = new int[1024];
+        int[] officers = new int[1024];
+        int[] categories = new int[1024];
+        int[] priorities = new int[1024];
+
+        final Dictionary categoryDictionary = new Dictionary();
+        final Dictionary priorityDictionary = new Dictionary();
+        final List<Long> officerDictionary = new ArrayList<>();
+        private final Map<Long, Integer> officerCodes = new HashMap<>();
+
+        int minDay = Integer.MAX_VALUE, maxDay = Integer.MIN_VALUE;
+        int minWeek = Integer.MAX_VALUE, maxWeek = Integer.MIN_VALUE;
+        int minMonth = Integer.MAX_VALUE, maxMonth = Integer.MIN_VALUE;
+        int maxStatusId;
+
+        private ComplaintTable(List<Path> parts) {
+            this.parts = parts;
+            String last = parts.get(parts.size() - 1).getFileName().toString();
+            long millis = Long.parseLong(last.substring("part-".length(), last.indexOf('.')));
+            this.takenAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        }
+
+        static ComplaintTable load(List<Path> parts, long maxBytes, long deadline) throws IOException {
+            ComplaintTable table = new ComplaintTable(parts);
+            Map<Long, Integer> rowsById = new HashMap<>();
+            ZoneId zone = ZoneId.systemDefault();
+
+            for (Path part : parts) {
+                try (InputStream file = Files.newInputStream(part);
+                     ColumnarSnapshotReader reader = new ColumnarSnapshotReader(file)) {
+                    int id = reader.indexOf("id");
+                    int createdAt = reader.indexOf("created_at");
+                    int updatedAt = reader.indexOf("updated_at");
+                    int resolvedAt = reader.indexOf("resolved_at");
+                    int statusId = reader.indexOf("status_id");
+                    int officerId = reader.indexOf("assigned_officer_id");
+                    int category = reader.indexOf("category");
+                    int priority = reader.indexOf("priority");
+
+                    RowGroup group;
+                    while ((group = reader.next()) != null) {
+                        if (System.nanoTime() > deadline) {
+                            throw new RuntimeException("Loading the complaint snapshots exceeded the query time limit, " +
+                                "raise app.analytics.query-timeout-ms");
+                        }
+                        for (int i = 0; i < group.rows; i++) {
+                            // A later part holds a newer version of the complaint; overwrite its row
+                            Integer existing = rowsById.get(group.longs[id][i]);
+                            int row;
+                            if (existing != null) {
+                                row = existing;
+                            } else {
+                                row = table.size++;
+                                table.ensureCapacity(table.size, maxBytes);
+                                rowsById.put(group.longs[id][i], row);
+                            }
+
+                            long created = group.nulls[createdAt][i] ? 0 : group.longs[createdAt][i];
+                            LocalDate day = Instant.ofEpochMilli(created).atZone(zone).toLocalDate();
+                            table.setCreated(row, created, day);
+                            table.updated[row] = group.nulls[updatedAt][i] ? Long.MIN_VALUE : group.longs[updatedAt][i];
+                            table.resolved[row] = resolvedAt < 0 || group.nulls[resolvedAt][i] ? Long.MIN_VALUE : group.longs[resolvedAt][i];
+                            table.statusIds[row] = group.nulls[statusId][i] ? 0 : (int) group.longs[statusId][i];
+                            table.maxStatusId = Math.max(table.maxStatusId, table.statusIds[row]);
+                            table.officers[row] = group.nulls[officerId][i] ? 0 : table.officerCode(group.longs[officerId][i]);
+                            table.categories[row] = table.categoryDictionary.code(group.strings[category][i]);
+                            table.priorities[row] = table.priorityDictionary.code(group.strings[priority][i]);
+                        }
+                    }
+                }
+            }
+            return table;
+        }
+
+        private void setCreated(int row, long millis, LocalDate day) {
+            int epochDay = (int) day.toEpochDay();
+            // 1970-01-05 was a Monday; weeks start on Mondays
+            int week = Math.floorDiv(epochDay + 3, 7);
+            int month = day.getYear() * 12 + day.getMonthValue() - 1;
+
+            created[row] = millis;
+            createdDay[row] = epochDay;
+            createdWeek[row] = week;
+            createdMonth[row] = month;
+            minDay = Math.min(minDay, epochDay);
+            maxDay = Math.max(maxDay, epochDay);
+            minWeek = Math.min(minWeek, week);
+            maxWeek = Math.max(maxWeek, week);
+            minMonth = Math.min(minMonth, month);
+            maxMonth = Math.max(maxMonth, month);
+        }
+
+        private int officerCode(long officerId) {
+            return officerCodes.computeIfAbsent(officerId, id -> {
+                officerDictionary.add(id);
+                return officerDictionary.size();
+            });
+        }
+
+        /**
+         * Grow the columns to hold this many rows. Neither the rows nor the spare capacity
+         * may take the columns and the id index past maxBytes.
+         */
+        private void ensureCapacity(int rows, long maxBytes) {
+            long maxCapacity = Math.min(maxBytes / (BYTES_PER_ROW + BYTES_PER_ID), Integer.MAX_VALUE - 8);
+            if (rows > maxCapacity) {
+                throw new RuntimeException("Complaint snapshots exceed app.analytics.max-memory-mb (room for " +
+                    maxCapacity + " complaints)");
+            }
+            if (rows <= created.length) {
+                return;
+            }
+            int capacity = (int) Math.min(Math.max(rows, created.length * 2L), maxCapacity);
+            created = Arrays.copyOf(created, capacity);
+            updated = Arrays.copyOf(updated, capacity);
+            resolved = Arrays.copyOf(resolved, capacity);
+            createdDay = Arrays.copyOf(createdDay, capacity);
+            createdWeek = Arrays.copyOf(createdWeek, capacity);
+            createdMonth = Arrays.copyOf(createdMonth, capacity);
+            statusIds = Arrays.copyOf(statusIds, capacity);
+            officers = Arrays.copyOf(officers, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            priorities = Arrays.copyOf(priorities, capacity);
+        }
+
+        boolean[] officerMask(List<Long> officerIds) {
+            boolean[] mask = new boolean[officerDictionary.size() + 1];
+            for (Long officerId : officerIds) {
+                Integer code = officerCodes.get(officerId);
+                if (code != null) {
+                    mask[code] = true;
+                }
+            }
+            return mask;
+        }
+
+        /**
+         * Zero-based codes of a dimension, one per row; day, week and month are offsets from the earliest
+         */
+        int[] codes(String dimension) {
+            return switch (dimension) {
+                case "category" -> categories;
+                case "priority" -> priorities;
+                case "status" -> statusIds;
+                case "officer" -> officers;
+                case "day" -> offsets(createdDay, minDay);
+                case "week" -> offsets(createdWeek, minWeek);
+                default -> offsets(createdMonth, minMonth);
+            };
+        }
+
+        int radix(String dimension) {
+            return switch (dimension) {
+                case "category" -> categoryDictionary.size() + 1;
+                case "priority" -> priorityDictionary.size() + 1;
+                case "status" -> maxStatusId + 1;
+                case "officer" -> officerDictionary.size() + 1;
+                case "day" -> maxDay - minDay + 1;
+                case "week" -> maxWeek - minWeek + 1;
+                default -> maxMonth - minMonth + 1;
+            };
+        }
+
+        Object label(String dimension, int code, Map<Integer, ComplaintStatus> statuses, Map<Long, String> officerNames) {
+            return switch (dimension) {
+                case "category" -> categoryDictionary.get(code);
+                case "priority" -> priorityDictionary.get(code);
+                case "status" -> statuses.containsKey(code) ? statuses.get(code).getDisplay() : null;
+                case "officer" -> code == 0 ? "Unassigned" : officerNames.getOrDefault(officerDictionary.get(code - 1), "Unknown");
+                case "day" -> LocalDate.ofEpochDay(minDay + code).toString();
+                case "week" -> LocalDate.ofEpochDay((long) (minWeek + code) * 7 - 3).toString();
+                default -> YearMonth.of(Math.floorDiv(minMonth + code, 12), Math.floorMod(minMonth + code, 12) + 1).toString();
+            };
+        }
+
+        private int[] offsets(int[] values, int min) {
+            int[] codes = new int[size];
+            for (int i = 0; i < size; i++) {
+                codes[i] = values[i] - min;
+            }
+            return codes;
+        }
+    }
+
+    /**
+     * String values to dense codes starting at 1; 0 is null
+     */
+    private static class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int code(String value) {
+            if (value == null) {
+                return 0;
+            }
+            return codes.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size();
+            });
+        }
+
+        String get(int code) {
+            return code == 0 ? null : values.get(code - 1);
+        }
+
+        int size() {
+            return values.size();
+        }
+
+        boolean[] mask(List<String> allowed) {
+            boolean[] mask = new boolean[values.size() + 1];
+            for (String value : allowed) {
+                Integer code = codes.get(value);
+                if (code != null) {
+                    mask[code] = true;
+                }
+            }
+            return mask;
+        }
+    }
+
+    /**
+     * Per-group counters in slot-indexed arrays, keyed by the mixed-radix group key
+     */
+    private static class Grouping {
+        private final boolean keepDurations;
+        private final int maxGroups;
+        private final Map<Long, Integer> slots = new HashMap<>();
+
+        private long[] keys = new long[64];
+        private long[] counts = new long[64];
+        private long[] resolved = new long[64];
+        private long[] durationSums = new long[64];
+        private long[] durationMax = new long[64];
+        private long[][] durations;
+
+        Grouping(boolean keepDurations, int maxGroups) {
+            this.keepDurations = keepDurations;
+            this.maxGroups = maxGroups;
+            this.durations = keepDurations ? new long[64][] : null;
+        }
+
+        void add(long key, long duration) {
+            Integer slot = slots.get(key);
+            if (slot == null) {
+                slot = newSlot(key);
+            }
+            counts[slot]++;
+            if (duration >= 0) {
+                long n = resolved[slot]++;
+                durationSums[slot] += duration;
+                durationMax[slot] = Math.max(durationMax[slot], duration);
+                if (keepDurations) {
+                    if (durations[slot] == null) {
+                        durations[slot] = new long[8];
+                    } else if (n == durations[slot].length) {
+                        durations[slot] = Arrays.copyOf(durations[slot], (int) n * 2);
+                    }
+                    durations[slot][(int) n] = duration;
+                }
+            }
+        }
+
+        private int newSlot(long key) {
+            int slot = slots.size();
+            if (slot == maxGroups) {
+                throw new RuntimeException("Query produces more than " + maxGroups + " groups, narrow the filters or use fewer dimensions");
+            }
+            if (slot == keys.length) {
+                int capacity = slot * 2;
+                keys = Arrays.copyOf(keys, capacity);
+                counts = Arrays.copyOf(counts, capacity);
+                resolved = Arrays.copyOf(resolved, capacity);
+                durationSums = Arrays.copyOf(durationSums, capacity);
+                durationMax = Arrays.copyOf(durationMax, capacity);
+                if (keepDurations) {
+                    durations = Arrays.copyOf(durations, capacity);
+                }
+            }
+            keys[slot] = key;
+            slots.put(key, slot);
+            return slot;
+        }
+
+        int size() {
+            return slots.size();
+        }
+
+        /**
+         * Code of one dimension in a group's key, undoing the mixed-radix encoding
+         */
+        int code(int slot, List<String> dimensions, String dimension, ComplaintTable data) {
+            long key = keys[slot];
+            for (int d = dimensions.size() - 1; d >= 0; d--) {
+                int radix = data.radix(dimensions.get(d));
+                if (dimensions.get(d).equals(dimension)) {
+                    return (int) (key % radix);
+                }
+                key /= radix;
+            }
+            return -1;
+        }
+
+        List<Map<String, Object>> toRows(ComplaintTable data, List<String> dimensions, List<String> metrics,
+                                         Map<Integer, ComplaintStatus> statuses, Map<Long, String> officerNames) {
+            List<Map<String, Object>> rows = new ArrayList<>(size());
+            for (int slot = 0; slot < size(); slot++) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (String dimension : dimensions) {
+                    row.put(dimension, data.label(dimension, code(slot, dimensions, dimension, data), statuses, officerNames));
+                }
+                if (keepDurations && durations[slot] != null) {
+                    Arrays.sort(durations[slot], 0, (int) resolved[slot]);
+                }
+                for (String metric : metrics) {
+                    row.put(metric, metric(slot, metric));
+                }
+                rows.add(row);
+            }
+            return rows;
+        }
+
+        private Object metric(int slot, String metric) {
+            long n = resolved[slot];
+            return switch (metric) {
+                case "count" -> counts[slot];
+                case "resolved" -> n;
+                case "pending" -> counts[slot] - n;
+                case "avgResolutionHours" -> n == 0 ? null : hours(durationSums[slot] / (double) n);
+                case "maxResolutionHours" -> n == 0 ? null : hours(durationMax[slot]);
+                case "p50ResolutionHours" -> percentile(slot, 0.50);
+                case "p90ResolutionHours" -> percentile(slot, 0.90);
+                default -> percentile(slot, 0.95);
+            };
+        }
+
+        /**
+         * Nearest-rank percentile of the sorted resolution times of a group
+         */
+        private Double percentile(int slot, double p) {
+            long n = resolved[slot];
+            if (n == 0) {
+                return null;
+            }
+            int rank = (int) Math.ceil(p * n) - 1;
+            return hours(durations[slot][Math.max(rank, 0)]);
+        }
+
+        private static Double hours(double millis) {
+            return Math.round(millis / MILLIS_PER_HOUR * 100.0) / 100.0;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.resolveit.service;
+
+import com.resolveit.service.ColumnarSnapshotWriter.Column;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the files written by {@link ColumnarSnapshotWriter} one row group at a time,
+ * decoding each column chunk into a primitive vector.
+ */
+public class ColumnarSnapshotReader implements Closeable {
+
+    private final DataInputStream in;
+    private final List<Column> columns;
+    private boolean finished;
+
+    public ColumnarSnapshotReader(InputStream source) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(source, 64 * 1024)));
+
+        byte[] magic = new byte[4];
+        in.readFully(magic);
+        if (magic[0] != 'R' || magic[1] != 'C' || magic[2] != 'O' || magic[3] != 'L') {
+            throw new IOException("Not a columnar snapshot file");
+        }
+        int version = in.readUnsignedByte();
+        if (version != 1) {
+            throw new IOException("Unsupported snapshot file version " + version);
+        }
+
+        int count = (int) readVarLong(in);
+        List<Column> read = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String name = readString(in);
+            read.add(new Column(name, (char) in.readUnsignedByte()));
+        }
+        this.columns = Collections.unmodifiableList(read);
+    }
+
+    public List<Column> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Index of the named column, or -1 if the file does not have it
+     */
+    public int indexOf(String name) {
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).name().equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The next row group, or null at the end of the file
+     */
+    public RowGroup next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        int rows = in.readInt();
+        if (rows == 0) {
+            finished = true;
+            return null;
+        }
+
+        RowGroup group = new RowGroup(rows, columns.size());
+        for (int c = 0; c < columns.size(); c++) {
+            byte[] chunk = new byte[in.readInt()];
+            in.readFully(chunk);
+            DataInputStream data = new DataInputStream(new ByteArrayInputStream(chunk));
+            if (columns.get(c).type() == Column.STRING) {
+                group.strings[c] = decodeStrings(data, rows);
+            } else {
+                group.nulls[c] = new boolean[rows];
+                group.longs[c] = decodeLongs(data, rows, group.nulls[c]);
+            }
+        }
+        return group;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private static long[] decodeLongs(DataInputStream data, int rows, boolean[] nulls) throws IOException {
+        int runCount = (int) readVarLong(data);
+        int row = 0;
+        for (int r = 0; r < runCount; r++) {
+            boolean present = data.readUnsignedByte() == 1;
+            int length = (int) readVarLong(data);
+            if (!present) {
+                Arrays.fill(nulls, row, row + length, true);
+            }
+            row += length;
+        }
+
+        long[] values = new long[rows];
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            if (!nulls[i]) {
+                previous += unzigzag(readVarLong(data));
+                values[i] = previous;
+            }
+        }
+        return values;
+    }
+
+    private static String[] decodeStrings(DataInputStream data, int rows) throws IOException {
+        String[] values = new String[rows];
+        int encoding = data.readUnsignedByte();
+        if (encoding == 1) {
+            for (int i = 0; i < rows; i++) {
+                int length = (int) readVarLong(data);
+                if (length > 0) {
+                    byte[] bytes = new byte[length - 1];
+                    data.readFully(bytes);
+                    values[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+            }
+            return values;
+        }
+
+        String[] dictionary = new String[(int) readVarLong(data)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(data);
+        }
+        int runCount = (int) readVarLong(data);
+        int row = 0;
+        for (int r = 0; r < runCount; r++) {
+            int code = (int) readVarLong(data);
+            int length = (int) readVarLong(data);
+            if (code > 0) {
+                Arrays.fill(values, row, row + length, dictionary[code - 1]);
+            }
+            row += length;
+        }
+        return values;
+    }
+
+    private static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static String readString(DataInputStream data) throws IOException {
+        byte[] bytes = new byte[(int) readVarLong(data)];
+        data.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.read();
+            if (b < 0) {
+                throw new EOFException("Truncated snapshot file");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in snapshot file");
+    }
+
+    /**
+     * One decoded row group. Long, timestamp and boolean columns are in longs (with nulls
+     * marking the missing values); string columns are in strings.
+     */
+    public static class RowGroup {
+        public final int rows;
+        public final long[][] longs;
+        public final boolean[][] nulls;
+        public final String[][] strings;
+
+        RowGroup(int rows, int columnCount) {
+            this.rows = rows;
+            this.longs = new long[columnCount][];
+            this.nulls = new boolean[columnCount][];
+            this.strings = new String[columnCount][];
+        }
+    }
+}
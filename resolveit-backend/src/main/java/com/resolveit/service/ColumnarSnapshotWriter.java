@@ -0,0 +1,225 @@
+package com.resolveit.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes rows into a gzip-compressed columnar file (".rcol.gz").
+ *
+ * Layout, after gunzip (varint = unsigned LEB128, zigzag for signed values):
+ * <pre>
+ * "RCOL" version(byte)
+ * columnCount(varint) { name(varint length + UTF-8) type(byte: 'L' long, 'T' epoch millis, 'B' 0/1, 'S' string) }
+ * row groups: rowCount(int, 0 ends the file) { chunkLength(int) chunk } per column
+ * </pre>
+ * Long, timestamp and boolean chunks hold null runs (runCount, then present(byte) + length per run)
+ * followed by the non-null values as zigzag deltas from the previous one. String chunks start
+ * with an encoding byte: 0 = dictionary (size, entries, then runs of (code, length) where code 0
+ * is null and n is entry n-1), 1 = plain (length + 1 per row, 0 for null, then the bytes).
+ */
+public class ColumnarSnapshotWriter implements Closeable {
+
+    private static final byte[] MAGIC = {'R', 'C', 'O', 'L'};
+    private static final int VERSION = 1;
+
+    private final DataOutputStream out;
+    private final List<Column> columns;
+    private final Object[][] group;
+    private int groupRows;
+    private long rowCount;
+
+    public ColumnarSnapshotWriter(OutputStream target, List<Column> columns, int rowGroupSize) throws IOException {
+        this.out = new DataOutputStream(new GZIPOutputStream(target, 64 * 1024));
+        this.columns = columns;
+        this.group = new Object[columns.size()][rowGroupSize];
+
+        out.write(MAGIC);
+        out.writeByte(VERSION);
+        writeVarLong(out, columns.size());
+        for (Column column : columns) {
+            writeString(out, column.name());
+            out.writeByte(column.type());
+        }
+    }
+
+    /**
+     * Add one row; values are in column order (Number, Timestamp, Boolean or String, null allowed)
+     */
+    public void addRow(Object[] values) throws IOException {
+        for (int c = 0; c < columns.size(); c++) {
+            group[c][groupRows] = values[c];
+        }
+        groupRows++;
+        rowCount++;
+        if (groupRows == group[0].length) {
+            flushGroup();
+        }
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flushGroup();
+        out.writeInt(0);
+        out.close();
+    }
+
+    private void flushGroup() throws IOException {
+        if (groupRows == 0) {
+            return;
+        }
+        out.writeInt(groupRows);
+        ByteArrayOutputStream chunk = new ByteArrayOutputStream();
+        for (int c = 0; c < columns.size(); c++) {
+            chunk.reset();
+            if (columns.get(c).type() == Column.STRING) {
+                encodeStrings(group[c], groupRows, chunk);
+            } else {
+                encodeLongs(group[c], groupRows, chunk);
+            }
+            out.writeInt(chunk.size());
+            chunk.writeTo(out);
+            Arrays.fill(group[c], 0, groupRows, null);
+        }
+        groupRows = 0;
+    }
+
+    private static void encodeLongs(Object[] values, int rows, ByteArrayOutputStream chunk) throws IOException {
+        DataOutputStream data = new DataOutputStream(chunk);
+        writeNullRuns(data, values, rows);
+
+        long previous = 0;
+        for (int i = 0; i < rows; i++) {
+            if (values[i] != null) {
+                long value = toLong(values[i]);
+                writeVarLong(data, zigzag(value - previous));
+                previous = value;
+            }
+        }
+        data.flush();
+    }
+
+    private static void writeNullRuns(DataOutputStream data, Object[] values, int rows) throws IOException {
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        DataOutputStream runData = new DataOutputStream(runs);
+        int runCount = 0;
+        int i = 0;
+        while (i < rows) {
+            boolean present = values[i] != null;
+            int start = i;
+            while (i < rows && (values[i] != null) == present) {
+                i++;
+            }
+            runData.writeByte(present ? 1 : 0);
+            writeVarLong(runData, i - start);
+            runCount++;
+        }
+        runData.flush();
+        writeVarLong(data, runCount);
+        runs.writeTo(data);
+    }
+
+    private static void encodeStrings(Object[] values, int rows, ByteArrayOutputStream chunk) throws IOException {
+        DataOutputStream data = new DataOutputStream(chunk);
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        int[] codes = new int[rows];
+        for (int i = 0; i < rows; i++) {
+            if (values[i] != null) {
+                Integer code = dictionary.putIfAbsent((String) values[i], dictionary.size() + 1);
+                codes[i] = code != null ? code : dictionary.size();
+            }
+        }
+
+        // Free text rarely repeats; a dictionary would only add indirection
+        if (dictionary.size() > rows / 2) {
+            data.writeByte(1);
+            for (int i = 0; i < rows; i++) {
+                if (values[i] == null) {
+                    writeVarLong(data, 0);
+                } else {
+                    byte[] bytes = ((String) values[i]).getBytes(StandardCharsets.UTF_8);
+                    writeVarLong(data, bytes.length + 1L);
+                    data.write(bytes);
+                }
+            }
+            data.flush();
+            return;
+        }
+
+        data.writeByte(0);
+        writeVarLong(data, dictionary.size());
+        for (String entry : dictionary.keySet()) {
+            writeString(data, entry);
+        }
+
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        DataOutputStream runData = new DataOutputStream(runs);
+        int runCount = 0;
+        int i = 0;
+        while (i < rows) {
+            int code = codes[i];
+            int start = i;
+            while (i < rows && codes[i] == code) {
+                i++;
+            }
+            writeVarLong(runData, code);
+            writeVarLong(runData, i - start);
+            runCount++;
+        }
+        runData.flush();
+        writeVarLong(data, runCount);
+        runs.writeTo(data);
+        data.flush();
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.getTime();
+        }
+        if (value instanceof Boolean bool) {
+            return bool ? 1 : 0;
+        }
+        return ((Number) value).longValue();
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static void writeString(DataOutputStream data, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(data, bytes.length);
+        data.write(bytes);
+    }
+
+    private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    /**
+     * A column of the file; type is one of LONG, TIMESTAMP, BOOLEAN or STRING
+     */
+    public record Column(String name, char type) {
+        public static final char LONG = 'L';
+        public static final char TIMESTAMP = 'T';
+        public static final char BOOLEAN = 'B';
+        public static final char STRING = 'S';
+    }
+}
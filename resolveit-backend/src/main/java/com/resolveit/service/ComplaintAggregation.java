@@ -0,0 +1,328 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.CategoryReport;
+import com.resolveit.dto.ComplaintStatsRow;
+import com.resolveit.dto.StatusReport;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Single-pass aggregation of complaint metrics for the dashboard, category, status and trend reports.
+ *
+ * The input is flat projection rows rather than entities, so nothing but the aggregated
+ * columns is loaded. Counts live in primitive arrays indexed by status slot, priority ordinal, category slot and
+ * epoch day, and durations are plain epoch-second arithmetic. Large inputs are split with
+ * fork/join and the partial results merged.
+ */
+public class ComplaintAggregation {
+
+    // Inputs at least this large are aggregated in parallel; also the leaf size of the split
+    public static final int PARALLEL_THRESHOLD = 20_000;
+
+    private static final Complaint.Priority[] PRIORITIES = Complaint.Priority.values();
+
+    private final StatusIndex statuses;
+    private final long recentSinceEpoch;
+
+    private long total;
+    private long resolved;
+    private long recent;
+    private long resolvedSeconds;
+    private final long[] statusCounts;
+    private final long[] priorityCounts = new long[PRIORITIES.length];
+
+    // Category slot -> counters; slots are assigned in the order categories are first seen
+    private final Map<String, Integer> categorySlots = new HashMap<>();
+    private String[] categoryNames = new String[16];
+    private long[] categoryTotals = new long[16];
+    private long[] categoryResolved = new long[16];
+    private long[] categoryResolvedSeconds = new long[16];
+
+    // Complaints per epoch day, starting at firstDay
+    private long firstDay;
+    private long[] dayCounts = new long[0];
+
+    private ComplaintAggregation(StatusIndex statuses, long recentSinceEpoch) {
+        this.statuses = statuses;
+        this.recentSinceEpoch = recentSinceEpoch;
+        this.statusCounts = new long[statuses.size()];
+    }
+
+    /**
+     * Aggregate the complaints in one pass (in parallel for large lists).
+     * Complaints created after recentSince are counted as recent.
+     */
+    public static ComplaintAggregation aggregate(List<ComplaintStatsRow> complaints, List<ComplaintStatus> statusList,
+                                                 LocalDateTime recentSince) {
+        StatusIndex index = new StatusIndex(statusList);
+        long recentEpoch = recentSince.toEpochSecond(ZoneOffset.UTC);
+
+        if (complaints.size() < PARALLEL_THRESHOLD) {
+            ComplaintAggregation result = new ComplaintAggregation(index, recentEpoch);
+            for (ComplaintStatsRow complaint : complaints) {
+                result.add(complaint);
+            }
+            return result;
+        }
+        return ForkJoinPool.commonPool().invoke(new AggregateTask(complaints, 0, complaints.size(), index, recentEpoch));
+    }
+
+    private void add(ComplaintStatsRow c) {
+        // LocalDateTime values are compared as if UTC; only differences and ordering matter
+        long created = c.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+        int status = statuses.slotOf(c.getStatusId());
+        boolean isResolved = status == statuses.resolvedSlot;
+        long resolutionSeconds = 0;
+
+        total++;
+        statusCounts[status]++;
+        if (c.getPriority() != null) {
+            priorityCounts[c.getPriority().ordinal()]++;
+        }
+        if (created > recentSinceEpoch) {
+            recent++;
+        }
+        if (isResolved) {
+            LocalDateTime resolvedAt = c.getResolvedAt() != null ? c.getResolvedAt() : c.getUpdatedAt();
+            resolutionSeconds = resolvedAt.toEpochSecond(ZoneOffset.UTC) - created;
+            resolved++;
+            resolvedSeconds += resolutionSeconds;
+        }
+        if (c.getCategory() != null) {
+            int slot = categorySlot(c.getCategory());
+            categoryTotals[slot]++;
+            if (isResolved) {
+                categoryResolved[slot]++;
+                categoryResolvedSeconds[slot] += resolutionSeconds;
+            }
+        }
+        addDays(Math.floorDiv(created, 86400L), 1);
+    }
+
+    private int categorySlot(String category) {
+        Integer slot = categorySlots.get(category);
+        if (slot != null) {
+            return slot;
+        }
+
+        int next = categorySlots.size();
+        if (next == categoryNames.length) {
+            int capacity = next * 2;
+            categoryNames = Arrays.copyOf(categoryNames, capacity);
+            categoryTotals = Arrays.copyOf(categoryTotals, capacity);
+            categoryResolved = Arrays.copyOf(categoryResolved, capacity);
+            categoryResolvedSeconds = Arrays.copyOf(categoryResolvedSeconds, capacity);
+        }
+        categoryNames[next] = category;
+        categorySlots.put(category, next);
+        return next;
+    }
+
+    private void addDays(long epochDay, long count) {
+        if (dayCounts.length == 0) {
+            firstDay = epochDay;
+            dayCounts = new long[1];
+        } else if (epochDay < firstDay) {
+            long[] grown = new long[(int) (firstDay - epochDay) + dayCounts.length];
+            System.arraycopy(dayCounts, 0, grown, (int) (firstDay - epochDay), dayCounts.length);
+            dayCounts = grown;
+            firstDay = epochDay;
+        } else if (epochDay - firstDay >= dayCounts.length) {
+            dayCounts = Arrays.copyOf(dayCounts, (int) (epochDay - firstDay) + 1);
+        }
+        dayCounts[(int) (epochDay - firstDay)] += count;
+    }
+
+    private ComplaintAggregation merge(ComplaintAggregation other) {
+        total += other.total;
+        resolved += other.resolved;
+        recent += other.recent;
+        resolvedSeconds += other.resolvedSeconds;
+        for (int i = 0; i < statusCounts.length; i++) {
+            statusCounts[i] += other.statusCounts[i];
+        }
+        for (int i = 0; i < priorityCounts.length; i++) {
+            priorityCounts[i] += other.priorityCounts[i];
+        }
+        for (int i = 0; i < other.categorySlots.size(); i++) {
+            int slot = categorySlot(other.categoryNames[i]);
+            categoryTotals[slot] += other.categoryTotals[i];
+            categoryResolved[slot] += other.categoryResolved[i];
+            categoryResolvedSeconds[slot] += other.categoryResolvedSeconds[i];
+        }
+        for (int i = 0; i < other.dayCounts.length; i++) {
+            if (other.dayCounts[i] != 0) {
+                addDays(other.firstDay + i, other.dayCounts[i]);
+            }
+        }
+        return this;
+    }
+
+    // ==================== RESULTS ====================
+
+    public long getTotal() {
+        return total;
+    }
+
+    public long getResolved() {
+        return resolved;
+    }
+
+    public long getPending() {
+        return total - resolved;
+    }
+
+    public long getEscalated() {
+        return statuses.escalatedSlot >= 0 ? statusCounts[statuses.escalatedSlot] : 0;
+    }
+
+    public long getRecent() {
+        return recent;
+    }
+
+    /**
+     * Average time from creation to resolution of resolved complaints, in hours
+     */
+    public double getAverageResolutionTimeHours() {
+        return resolved == 0 ? 0.0 : resolvedSeconds / 3600.0 / resolved;
+    }
+
+    public List<CategoryReport> toCategoryReports() {
+        List<CategoryReport> reports = new ArrayList<>(categorySlots.size());
+        for (int i = 0; i < categorySlots.size(); i++) {
+            double avgHours = categoryResolved[i] == 0 ? 0.0 : categoryResolvedSeconds[i] / 3600.0 / categoryResolved[i];
+            reports.add(new CategoryReport(categoryNames[i], categoryTotals[i], categoryResolved[i],
+                categoryTotals[i] - categoryResolved[i], avgHours));
+        }
+        return reports;
+    }
+
+    public List<StatusReport> toStatusReports() {
+        List<StatusReport> reports = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : getCountsByStatus().entrySet()) {
+            double percentage = total == 0 ? 0.0 : (entry.getValue() * 100.0) / total;
+            reports.add(new StatusReport(entry.getKey(), entry.getValue(), Math.round(percentage * 100.0) / 100.0));
+        }
+        return reports;
+    }
+
+    public Map<String, Long> getCountsByStatus() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < statusCounts.length; i++) {
+            if (statusCounts[i] > 0) {
+                counts.merge(statuses.displays[i], statusCounts[i], Long::sum);
+            }
+        }
+        return counts;
+    }
+
+    public Map<String, Long> getCountsByPriority() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Complaint.Priority priority : PRIORITIES) {
+            if (priorityCounts[priority.ordinal()] > 0) {
+                counts.put(priority.name(), priorityCounts[priority.ordinal()]);
+            }
+        }
+        return counts;
+    }
+
+    public Map<String, Long> getDailyTrend() {
+        Map<String, Long> trend = new LinkedHashMap<>();
+        for (int i = 0; i < dayCounts.length; i++) {
+            if (dayCounts[i] > 0) {
+                trend.put(LocalDate.ofEpochDay(firstDay + i).toString(), dayCounts[i]);
+            }
+        }
+        return trend;
+    }
+
+    /**
+     * Dense slots for the complaint statuses, so a status is counted with an array index
+     * rather than by comparing codes. The last slot collects unknown statuses.
+     */
+    private static class StatusIndex {
+        private final int[] slotsById;
+        private final String[] displays;
+        private final int resolvedSlot;
+        private final int escalatedSlot;
+
+        StatusIndex(List<ComplaintStatus> statusList) {
+            int maxId = 0;
+            for (ComplaintStatus status : statusList) {
+                maxId = Math.max(maxId, status.getId());
+            }
+            slotsById = new int[maxId + 1];
+            Arrays.fill(slotsById, statusList.size());
+            displays = new String[statusList.size() + 1];
+            displays[statusList.size()] = "Unknown";
+
+            int resolved = -1;
+            int escalated = -1;
+            for (int slot = 0; slot < statusList.size(); slot++) {
+                ComplaintStatus status = statusList.get(slot);
+                slotsById[status.getId()] = slot;
+                displays[slot] = status.getDisplay();
+                if ("RESOLVED".equals(status.getCode())) {
+                    resolved = slot;
+                } else if ("ESCALATED".equals(status.getCode())) {
+                    escalated = slot;
+                }
+            }
+            resolvedSlot = resolved;
+            escalatedSlot = escalated;
+        }
+
+        int size() {
+            return displays.length;
+        }
+
+        int slotOf(Integer statusId) {
+            if (statusId == null || statusId < 0 || statusId >= slotsById.length) {
+                return displays.length - 1;
+            }
+            return slotsById[statusId];
+        }
+    }
+
+    private static class AggregateTask extends RecursiveTask<ComplaintAggregation> {
+        private static final long serialVersionUID = 1L;
+
+        private final List<ComplaintStatsRow> complaints;
+        private final int from;
+        private final int to;
+        private final StatusIndex statuses;
+        private final long recentSinceEpoch;
+
+        AggregateTask(List<ComplaintStatsRow> complaints, int from, int to, StatusIndex statuses, long recentSinceEpoch) {
+            this.complaints = complaints;
+            this.from = from;
+            this.to = to;
+            this.statuses = statuses;
+            this.recentSinceEpoch = recentSinceEpoch;
+        }
+
+        @Override
+        protected ComplaintAggregation compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                ComplaintAggregation result = new ComplaintAggregation(statuses, recentSinceEpoch);
+                for (int i = from; i < to; i++) {
+                    result.add(complaints.get(i));
+                }
+                return result;
+            }
+
+            int mid = (from + to) >>> 1;
+            AggregateTask left = new AggregateTask(complaints, from, mid, statuses, recentSinceEpoch);
+            left.fork();
+            ComplaintAggregation right = new AggregateTask(complaints, mid, to, statuses, recentSinceEpoch).compute();
+            return left.join().merge(right);
+        }
+    }
+}
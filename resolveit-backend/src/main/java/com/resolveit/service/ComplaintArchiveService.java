@@ -0,0 +1,284 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.ComplaintStatsRow;
+import com.resolveit.model.Comment;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintFile;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.repository.ComplaintStatusRepository;
+import com.resolveit.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Hot/cold lifecycle for complaints.
+ *
+ * A nightly job moves resolved and closed complaints that have not changed for
+ * app.archive.after-months into the *_archive tables, together with their comments, files,
+ * attachments and escalations, one batch per transaction. Active-set queries then only
+ * touch live work, while lookups by id fall through to the archive and return read-only
+ * (detached) entities. Reports and per-user listings cover both, like the trend cube and
+ * resolution sketches do.
+ */
+@Service
+public class ComplaintArchiveService {
+
+    // Child tables moved with their complaint; archive columns are the ones the entities map
+    private static final List<ArchivedTable> CHILD_TABLES = List.of(
+        new ArchivedTable("comments", "complaint_id", "id, complaint_id, author_id, message, is_private, created_at"),
+        new ArchivedTable("complaint_files", "complaint_id", "id, file_name, file_path, complaint_id"),
+        new ArchivedTable("attachments", "complaint_id", "id, complaint_id, filename, file_path, uploaded_at"),
+        new ArchivedTable("escalations", "complaint_id", "id, complaint_id, escalated_to_role, reason, escalated_at, resolved, resolved_at")
+    );
+
+    private static final ArchivedTable COMPLAINTS = new ArchivedTable("complaints", "id",
+        "id, title, description, category, priority, anonymous, user_id, status_id, assigned_officer_id, " +
+        "created_at, updated_at, resolved_at, version");
+
+    private static final String STATS_ROWS_SQL =
+        "SELECT status_id, priority, category, created_at, updated_at, resolved_at FROM complaints_archive";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ComplaintStatusRepository statusRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Move complaints to the archive at all
+    @Value("${app.archive.enabled:true}")
+    private boolean enabled;
+
+    // Resolved/closed complaints untouched for this long are archived
+    @Value("${app.archive.after-months:12}")
+    private int afterMonths;
+
+    // Complaints moved per transaction
+    @Value("${app.archive.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Move old resolved and closed complaints to the archive.
+     * Runs daily at 4 AM, one batch per transaction so row locks are held briefly
+     */
+    @Scheduled(cron = "0 0 4 * * *")
+    public void archiveOldComplaints() {
+        if (!enabled) {
+            return;
+        }
+
+        String closedIds = closedStatusIds();
+        if (closedIds.isEmpty()) {
+            return;
+        }
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusMonths(afterMonths));
+        long totalMoved = 0;
+
+        while (true) {
+            Integer moved = transactionTemplate.execute(tx -> {
+                // SKIP LOCKED leaves complaints being edited right now for the next run
+                List<Long> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM complaints WHERE status_id IN (" + closedIds + ") AND updated_at < ? " +
+                    "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                    Long.class, cutoff, batchSize);
+                return ids.isEmpty() ? 0 : moveBatch(ids);
+            });
+            totalMoved += moved;
+            if (moved < batchSize) {
+                break;
+            }
+        }
+
+        if (totalMoved > 0) {
+            System.out.println("Complaint archive: moved " + totalMoved + " complaints resolved or closed more than " + afterMonths + " months ago");
+        }
+    }
+
+    /**
+     * Copy the complaints and their children to the archive tables, then delete them
+     * (children first, for the foreign keys)
+     */
+    private int moveBatch(List<Long> ids) {
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        Object[] args = ids.toArray();
+
+        jdbcTemplate.update(COMPLAINTS.copySql(placeholders), args);
+        for (ArchivedTable child : CHILD_TABLES) {
+            jdbcTemplate.update(child.copySql(placeholders), args);
+        }
+        for (ArchivedTable child : CHILD_TABLES) {
+            jdbcTemplate.update(child.deleteSql(placeholders), args);
+        }
+        return jdbcTemplate.update(COMPLAINTS.deleteSql(placeholders), args);
+    }
+
+    private String closedStatusIds() {
+        List<String> ids = new ArrayList<>();
+        for (ComplaintStatus status : statusRepository.findAll()) {
+            if (OfficerWorkloadService.CLOSED_STATUS_CODES.contains(status.getCode())) {
+                ids.add(String.valueOf(status.getId()));
+            }
+        }
+        return String.join(", ", ids);
+    }
+
+    // ==================== ARCHIVE READS ====================
+
+    /**
+     * An archived complaint as a detached entity, or empty if it is not in the archive
+     */
+    @Transactional(readOnly = true)
+    public Optional<Complaint> findArchivedComplaint(Long id) {
+        List<Complaint> found = jdbcTemplate.query(
+            "SELECT " + COMPLAINTS.columns() + " FROM complaints_archive WHERE id = ?",
+            (rs, rowNum) -> toComplaint(rs), id);
+        return found.stream().findFirst();
+    }
+
+    /**
+     * Archived complaints submitted by the user, newest first, as detached entities
+     */
+    @Transactional(readOnly = true)
+    public List<Complaint> findArchivedComplaintsByUser(Long userId) {
+        return jdbcTemplate.query(
+            "SELECT " + COMPLAINTS.columns() + " FROM complaints_archive WHERE user_id = ? ORDER BY created_at DESC",
+            (rs, rowNum) -> toComplaint(rs), userId);
+    }
+
+    /**
+     * Archived complaints assigned to the officer, newest first, as detached entities
+     */
+    @Transactional(readOnly = true)
+    public List<Complaint> findArchivedComplaintsByOfficer(Long officerId) {
+        return jdbcTemplate.query(
+            "SELECT " + COMPLAINTS.columns() + " FROM complaints_archive WHERE assigned_officer_id = ? ORDER BY created_at DESC",
+            (rs, rowNum) -> toComplaint(rs), officerId);
+    }
+
+    /**
+     * Report aggregation rows of every archived complaint
+     */
+    @Transactional(readOnly = true)
+    public List<ComplaintStatsRow> findArchivedStatsRows() {
+        return jdbcTemplate.query(STATS_ROWS_SQL, (rs, rowNum) -> toStatsRow(rs));
+    }
+
+    /**
+     * Report aggregation rows of the archived complaints assigned to the officer
+     */
+    @Transactional(readOnly = true)
+    public List<ComplaintStatsRow> findArchivedStatsRowsByOfficer(Long officerId) {
+        return jdbcTemplate.query(STATS_ROWS_SQL + " WHERE assigned_officer_id = ?", (rs, rowNum) -> toStatsRow(rs), officerId);
+    }
+
+    /**
+     * Public comments of an archived complaint, oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<Comment> findArchivedPublicComments(Complaint complaint) {
+        return jdbcTemplate.query(
+            "SELECT id, author_id, message, is_private, created_at FROM comments_archive " +
+            "WHERE complaint_id = ? AND is_private = 0 ORDER BY created_at",
+            (rs, rowNum) -> {
+                Comment comment = new Comment();
+                comment.setId(rs.getLong("id"));
+                comment.setComplaint(complaint);
+                long authorId = rs.getLong("author_id");
+                if (!rs.wasNull()) {
+                    comment.setAuthor(userRepository.findById(authorId).orElse(null));
+                }
+                comment.setMessage(rs.getString("message"));
+                comment.setIsPrivate(rs.getBoolean("is_private"));
+                comment.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                return comment;
+            },
+            complaint.getId());
+    }
+
+    @Transactional(readOnly = true)
+    public List<ComplaintFile> findArchivedFiles(Long complaintId) {
+        return jdbcTemplate.query(
+            "SELECT id, file_name, file_path FROM complaint_files_archive WHERE complaint_id = ? ORDER BY id",
+            (rs, rowNum) -> new ComplaintFile(rs.getLong("id"), rs.getString("file_name"), rs.getString("file_path"), null),
+            complaintId);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ComplaintFile> findArchivedFile(Long fileId) {
+        List<ComplaintFile> found = jdbcTemplate.query(
+            "SELECT id, file_name, file_path FROM complaint_files_archive WHERE id = ?",
+            (rs, rowNum) -> new ComplaintFile(rs.getLong("id"), rs.getString("file_name"), rs.getString("file_path"), null),
+            fileId);
+        return found.stream().findFirst();
+    }
+
+    private Complaint toComplaint(ResultSet rs) throws SQLException {
+        Complaint complaint = new Complaint();
+        complaint.setId(rs.getLong("id"));
+        complaint.setTitle(rs.getString("title"));
+        complaint.setDescription(rs.getString("description"));
+        complaint.setCategory(rs.getString("category"));
+        String priority = rs.getString("priority");
+        complaint.setPriority(priority != null ? Complaint.Priority.valueOf(priority) : null);
+        complaint.setAnonymous(rs.getBoolean("anonymous"));
+        complaint.setStatus(statusRepository.findById(rs.getInt("status_id"))
+            .orElseThrow(() -> new RuntimeException("Status not found")));
+
+        long userId = rs.getLong("user_id");
+        if (!rs.wasNull()) {
+            complaint.setUser(userRepository.findById(userId).orElse(null));
+        }
+        long officerId = rs.getLong("assigned_officer_id");
+        if (!rs.wasNull()) {
+            complaint.setAssignedOfficer(userRepository.findById(officerId).orElse(null));
+        }
+
+        complaint.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+        complaint.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+        complaint.setResolvedAt(toLocalDateTime(rs.getTimestamp("resolved_at")));
+        complaint.setVersion(rs.getLong("version"));
+        return complaint;
+    }
+
+    private static ComplaintStatsRow toStatsRow(ResultSet rs) throws SQLException {
+        String priority = rs.getString("priority");
+        return new ComplaintStatsRow(rs.getInt("status_id"), priority != null ? Complaint.Priority.valueOf(priority) : null,
+            rs.getString("category"), toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("updated_at")), toLocalDateTime(rs.getTimestamp("resolved_at")));
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record ArchivedTable(String table, String keyColumn, String columns) {
+
+        String copySql(String placeholders) {
+            return "INSERT INTO " + table + "_archive (" + columns + ") SELECT " + columns + " FROM " + table +
+                " WHERE " + keyColumn + " IN (" + placeholders + ")";
+        }
+
+        String deleteSql(String placeholders) {
+            return "DELETE FROM " + table + " WHERE " + keyColumn + " IN (" + placeholders + ")";
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.BulkComplaintRequest;
+import com.resolveit.dto.BulkItemResult;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.User;
+import com.resolveit.repository.ComplaintRepository;
+import com.resolveit.repository.ComplaintStatusRepository;
+import com.resolveit.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+public class ComplaintBulkService {
+
+    // Upper bound on ids accepted in a single bulk request
+    public static final int MAX_BULK_SIZE = 5000;
+
+    // Number of complaints updated per transaction
+    private static final int CHUNK_SIZE = 500;
+
+    private static final String INSERT_COMMENT_SQL =
+        "INSERT INTO comments (id, complaint_id, author_id, message, is_private, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintStatusRepository statusRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private IdAllocationService idAllocationService;
+
+    @Autowired
+    private TrendCubeService trendCubeService;
+
+    @Autowired
+    private ResolutionSketchService resolutionSketchService;
+
+    @Autowired
+    private OfficerWorkloadService workloadService;
+
+    @Autowired
+    private ComplaintResponseCache complaintResponseCache;
+
+    /**
+     * Apply one operation (ASSIGN, STATUS or CLOSE) to many complaints.
+     * Lookups are done once per request, each chunk is updated with a single
+     * set-based UPDATE in its own transaction, and comments are batch inserted.
+     */
+    public List<BulkItemResult> applyBulkOperation(BulkComplaintRequest req, User author) {
+        if (req.getComplaintIds() == null || req.getComplaintIds().isEmpty()) {
+            throw new RuntimeException("No complaint ids provided");
+        }
+
+        Set<Long> ids = new LinkedHashSet<>(req.getComplaintIds());
+        ids.remove(null);
+        if (ids.size() > MAX_BULK_SIZE) {
+            throw new RuntimeException("Bulk operations are limited to " + MAX_BULK_SIZE + " complaints");
+        }
+
+        String operation = req.getOperation() != null ? req.getOperation().toUpperCase() : "";
+        ComplaintStatus status = resolveStatus(operation, req.getStatusCode());
+        User officer = null;
+        if ("ASSIGN".equals(operation)) {
+            if (req.getAssignedOfficerId() == null) {
+                throw new RuntimeException("Officer id is required for ASSIGN");
+            }
+            officer = userRepository.findById(req.getAssignedOfficerId())
+                .orElseThrow(() -> new RuntimeException("Officer not found"));
+        }
+
+        String comment = req.getComment() != null && !req.getComment().trim().isEmpty() ? req.getComment() : null;
+
+        List<BulkItemResult> results = new ArrayList<>(ids.size());
+        List<Long> chunk = new ArrayList<>(CHUNK_SIZE);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == CHUNK_SIZE) {
+                results.addAll(processChunk(chunk, status, officer, comment, author));
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            results.addAll(processChunk(chunk, status, officer, comment, author));
+        }
+
+        return results;
+    }
+
+    /**
+     * Resolve the target status for an operation, or null when the status is left unchanged
+     */
+    private ComplaintStatus resolveStatus(String operation, String statusCode) {
+        switch (operation) {
+            case "CLOSE":
+                return statusRepository.findByCode("CLOSED")
+                    .orElseThrow(() -> new RuntimeException("Status not found"));
+            case "STATUS":
+                if (statusCode == null) {
+                    throw new RuntimeException("Status code is required for STATUS");
+                }
+                return statusRepository.findByCode(statusCode)
+                    .orElseThrow(() -> new RuntimeException("Status not found"));
+            case "ASSIGN":
+                if (statusCode == null) {
+                    return null;
+                }
+                return statusRepository.findByCode(statusCode)
+                    .orElseThrow(() -> new RuntimeException("Status not found"));
+            default:
+                throw new RuntimeException("Unsupported bulk operation: " + operation);
+        }
+    }
+
+    /**
+     * Update one chunk of complaints in a single transaction
+     */
+    private List<BulkItemResult> processChunk(List<Long> chunk, ComplaintStatus status, User officer,
+                                              String comment, User author) {
+        List<BulkItemResult> results = new ArrayList<>(chunk.size());
+        try {
+            Set<Long> existing = transactionTemplate.execute(tx -> {
+                Set<Long> found = new HashSet<>(complaintRepository.findExistingIds(chunk));
+                if (found.isEmpty()) {
+                    return found;
+                }
+
+                LocalDateTime now = LocalDateTime.now();
+                trendCubeService.recordBulkChange(found,
+                    status != null ? status.getId() : null,
+                    officer != null ? officer.getId() : null);
+                resolutionSketchService.recordBulkChange(found, status,
+                    officer != null ? officer.getId() : null, now);
+                if (status != null) {
+                    complaintRepository.bulkUpdateStatus(found, status,
+                        OfficerWorkloadService.CLOSED_STATUS_CODES.contains(status.getCode()), now);
+                }
+                if (officer != null) {
+                    complaintRepository.bulkAssignOfficer(found, officer, now);
+                }
+                if (comment != null) {
+                    insertComments(found, comment, author, now);
+                }
+                complaintResponseCache.invalidateAfterCommit(found);
+                if (status != null || officer != null) {
+                    workloadService.reloadAfterCommit();
+                }
+                return found;
+            });
+
+            for (Long id : chunk) {
+                if (existing.contains(id)) {
+                    results.add(new BulkItemResult(id, "success", "Complaint updated"));
+                } else {
+                    results.add(new BulkItemResult(id, "error", "Complaint not found"));
+                }
+            }
+        } catch (Exception e) {
+            for (Long id : chunk) {
+                results.add(new BulkItemResult(id, "error", "Failed to update complaint: " + e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Insert the same public comment on every complaint using a JDBC batch
+     */
+    private void insertComments(Collection<Long> complaintIds, String message, User author, LocalDateTime now) {
+        Long authorId = author != null ? author.getId() : null;
+        Timestamp createdAt = Timestamp.valueOf(now);
+        long nextId = idAllocationService.reserve("comments", complaintIds.size());
+
+        List<Object[]> batchArgs = new ArrayList<>(complaintIds.size());
+        for (Long complaintId : complaintIds) {
+            batchArgs.add(new Object[]{nextId++, complaintId, authorId, message, false, createdAt});
+        }
+        jdbcTemplate.batchUpdate(INSERT_COMMENT_SQL, batchArgs);
+    }
+}
@@ -0,0 +1,108 @@
+package com.resolveit.service;
+
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.User;
+import com.resolveit.repository.ComplaintRepository;
+import com.resolveit.repository.ComplaintStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * "Claim next" work queue over unassigned complaints.
+ *
+ * Each claim locks the best candidate with SELECT ... FOR UPDATE SKIP LOCKED, so officers
+ * claiming at the same time take different rows instead of waiting on each other, and the
+ * assignment itself is a conditional UPDATE that only succeeds while the complaint is unassigned.
+ */
+@Service
+public class ComplaintClaimService {
+
+    // Queue order: highest priority first, then oldest
+    private static final Complaint.Priority[] CLAIM_ORDER = {
+        Complaint.Priority.HIGH, Complaint.Priority.MEDIUM, Complaint.Priority.LOW
+    };
+
+    private static final String CLAIM_SQL =
+        "UPDATE complaints SET assigned_officer_id = ?, updated_at = ?, version = version + 1 " +
+        "WHERE id = ? AND assigned_officer_id IS NULL";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private ComplaintStatusRepository statusRepository;
+
+    @Autowired
+    private TrendCubeService trendCubeService;
+
+    @Autowired
+    private OfficerWorkloadService workloadService;
+
+    @Autowired
+    private ComplaintResponseCache complaintResponseCache;
+
+    /**
+     * Assign the next unassigned, open complaint to the officer and return it
+     */
+    public Optional<Complaint> claimNext(User officer) {
+        String openFilter = openStatusFilter();
+
+        Long claimedId = transactionTemplate.execute(tx -> {
+            for (Complaint.Priority priority : CLAIM_ORDER) {
+                // One query per priority so each is an ordered range scan of idx_claim_queue
+                List<Object[]> candidates = jdbcTemplate.query(
+                    "SELECT id, category FROM complaints WHERE assigned_officer_id IS NULL AND priority = ?" +
+                    openFilter + " ORDER BY created_at LIMIT 1 FOR UPDATE SKIP LOCKED",
+                    (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getString(2)},
+                    priority.name());
+                if (candidates.isEmpty()) {
+                    continue;
+                }
+
+                Long id = (Long) candidates.get(0)[0];
+                String category = (String) candidates.get(0)[1];
+                trendCubeService.recordBulkChange(List.of(id), null, officer.getId());
+                int updated = jdbcTemplate.update(CLAIM_SQL, officer.getId(), Timestamp.valueOf(LocalDateTime.now()), id);
+                if (updated == 1) {
+                    workloadService.adjustAfterCommit(officer.getId(), category, 1);
+                    complaintResponseCache.invalidateAfterCommit(List.of(id));
+                    return id;
+                }
+                // Guard only: the row is locked, so it cannot have been assigned since it was selected
+                tx.setRollbackOnly();
+                return null;
+            }
+            return null;
+        });
+
+        return claimedId != null ? complaintRepository.findById(claimedId) : Optional.empty();
+    }
+
+    /**
+     * SQL condition excluding resolved and closed complaints from the queue
+     */
+    private String openStatusFilter() {
+        List<String> closedIds = new ArrayList<>();
+        for (ComplaintStatus status : statusRepository.findAll()) {
+            if (OfficerWorkloadService.CLOSED_STATUS_CODES.contains(status.getCode())) {
+                closedIds.add(String.valueOf(status.getId()));
+            }
+        }
+        return closedIds.isEmpty() ? "" : " AND status_id NOT IN (" + String.join(", ", closedIds) + ")";
+    }
+}
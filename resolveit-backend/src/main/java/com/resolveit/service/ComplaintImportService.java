@@ -0,0 +1,473 @@
+package com.resolveit.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.ImportCheckpoint;
+import com.resolveit.repository.ComplaintRepository;
+import com.resolveit.repository.ComplaintStatusRepository;
+import com.resolveit.repository.ImportCheckpointRepository;
+import com.resolveit.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+@Service
+public class ComplaintImportService {
+
+    // Records written per JDBC batch / transaction (and per checkpoint)
+    private static final int BATCH_SIZE = 500;
+
+    // Only the first errors are reported back, the rest are counted
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private static final String INSERT_COMPLAINT_SQL =
+        "INSERT INTO complaints (id, title, description, category, priority, anonymous, user_id, status_id, " +
+        "assigned_officer_id, created_at, updated_at, resolved_at, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // Same format as the CSV export, so exported files can be re-imported
+    private static final DateTimeFormatter EXPORT_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TrendCubeService trendCubeService;
+
+    @Autowired
+    private ResolutionSketchService resolutionSketchService;
+
+    @Autowired
+    private OfficerWorkloadService workloadService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ImportCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private ComplaintStatusRepository statusRepository;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IdAllocationService idAllocationService;
+
+    /**
+     * Stream complaints from a CSV or NDJSON source into the database.
+     * Progress is checkpointed with every batch, so calling this again with the
+     * same job id and the same input resumes after the last committed record.
+     */
+    public Map<String, Object> importComplaints(String jobId, String format, InputStream in) {
+        if (jobId == null || jobId.trim().isEmpty()) {
+            throw new RuntimeException("Job id is required");
+        }
+        String fmt = format != null ? format.toLowerCase() : "";
+        if (!"csv".equals(fmt) && !"ndjson".equals(fmt)) {
+            throw new RuntimeException("Unsupported import format: " + format);
+        }
+
+        ImportCheckpoint checkpoint = checkpointRepository.findById(jobId)
+            .orElseGet(() -> new ImportCheckpoint(jobId, fmt));
+        if ("COMPLETED".equals(checkpoint.getStatus())) {
+            throw new RuntimeException("Import job " + jobId + " has already completed");
+        }
+        checkpoint.setStatus("RUNNING");
+        checkpoint.setLastError(null);
+        checkpoint = checkpointRepository.save(checkpoint);
+
+        long resumeAfter = checkpoint.getRecordsCommitted();
+        ImportLookups lookups = new ImportLookups();
+        List<String> errors = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        long recordIndex = 0;
+        long batchFailed = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            RecordSource source = "csv".equals(fmt) ? new CsvRecordSource(reader) : new NdjsonRecordSource(reader);
+
+            while (source.advance()) {
+                recordIndex++;
+                if (recordIndex <= resumeAfter) {
+                    continue;
+                }
+
+                try {
+                    batch.add(toRow(source.current(), lookups));
+                } catch (RuntimeException e) {
+                    batchFailed++;
+                    if (errors.size() < MAX_REPORTED_ERRORS) {
+                        errors.add("Record " + recordIndex + ": " + e.getMessage());
+                    }
+                }
+
+                if (batch.size() + batchFailed >= BATCH_SIZE) {
+                    checkpoint = commitBatch(checkpoint, batch, recordIndex, batchFailed);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    batchFailed = 0;
+                }
+            }
+
+            if (recordIndex > checkpoint.getRecordsCommitted()) {
+                checkpoint = commitBatch(checkpoint, batch, recordIndex, batchFailed);
+            }
+
+            checkpoint.setStatus("COMPLETED");
+            checkpoint = checkpointRepository.save(checkpoint);
+        } catch (Exception e) {
+            ImportCheckpoint failed = checkpointRepository.findById(jobId).orElse(checkpoint);
+            failed.setStatus("FAILED");
+            failed.setLastError(e.getMessage());
+            checkpointRepository.save(failed);
+            throw new RuntimeException("Import failed after record " + failed.getRecordsCommitted() + ": " + e.getMessage());
+        }
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("jobId", jobId);
+        summary.put("jobStatus", checkpoint.getStatus());
+        summary.put("resumedAfter", resumeAfter);
+        summary.put("recordsCommitted", checkpoint.getRecordsCommitted());
+        summary.put("importedCount", checkpoint.getImportedCount());
+        summary.put("failedCount", checkpoint.getFailedCount());
+        summary.put("errors", errors);
+        return summary;
+    }
+
+    /**
+     * Get the checkpoint of an import job
+     */
+    public ImportCheckpoint getCheckpoint(String jobId) {
+        return checkpointRepository.findById(jobId)
+            .orElseThrow(() -> new RuntimeException("Import job not found"));
+    }
+
+    /**
+     * Insert one batch and advance the checkpoint in the same transaction
+     */
+    private ImportCheckpoint commitBatch(ImportCheckpoint checkpoint, List<Object[]> batch, long recordIndex, long failed) {
+        return transactionTemplate.execute(tx -> {
+            if (!batch.isEmpty()) {
+                long nextId = idAllocationService.reserve("complaints", batch.size());
+                for (Object[] row : batch) {
+                    row[0] = nextId++;
+                }
+                jdbcTemplate.batchUpdate(INSERT_COMPLAINT_SQL, batch);
+
+                TrendCubeService.TrendChanges changes = new TrendCubeService.TrendChanges();
+                ResolutionSketchService.ResolutionChanges resolutions = new ResolutionSketchService.ResolutionChanges();
+                boolean assigned = false;
+                for (Object[] row : batch) {
+                    changes.add(((Timestamp) row[9]).toLocalDateTime(), (String) row[3], (Integer) row[7],
+                        (String) row[4], (Long) row[8], 1);
+                    if (row[11] != null) {
+                        resolutions.add(new ResolutionSketchService.Resolution(((Timestamp) row[9]).toLocalDateTime(),
+                            ((Timestamp) row[11]).toLocalDateTime(), (String) row[3], (String) row[4], (Long) row[8]), 1);
+                    }
+                    assigned |= row[8] != null;
+                }
+                trendCubeService.apply(changes);
+                resolutionSketchService.apply(resolutions);
+                if (assigned) {
+                    workloadService.reloadAfterCommit();
+                }
+            }
+            checkpoint.setRecordsCommitted(recordIndex);
+            checkpoint.setImportedCount(checkpoint.getImportedCount() + batch.size());
+            checkpoint.setFailedCount(checkpoint.getFailedCount() + failed);
+            return checkpointRepository.save(checkpoint);
+        });
+    }
+
+    /**
+     * Convert one parsed record into the parameters of INSERT_COMPLAINT_SQL.
+     * The id slot is filled in when the batch is written.
+     */
+    private Object[] toRow(Map<String, String> record, ImportLookups lookups) {
+        String title = required(record, "title");
+        String description = required(record, "description");
+        String category = lookups.category(record.get("category"));
+
+        Complaint.Priority priority = Complaint.Priority.LOW;
+        String priorityValue = record.get("priority");
+        if (priorityValue != null && !priorityValue.isBlank()) {
+            try {
+                priority = Complaint.Priority.valueOf(priorityValue.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown priority: " + priorityValue);
+            }
+        }
+
+        Integer statusId = lookups.statusId(record.get("status"));
+        boolean anonymous = Boolean.parseBoolean(record.get("anonymous"));
+        Long userId = anonymous ? null : lookups.userId(record.get("useremail"));
+        Long officerId = lookups.userId(record.get("officeremail"));
+
+        LocalDateTime createdAt = parseTime(record.get("createdat"));
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        LocalDateTime updatedAt = parseTime(record.get("updatedat"));
+        if (updatedAt == null) {
+            updatedAt = createdAt;
+        }
+        // Closed complaints are taken as resolved at their last update unless the file says otherwise
+        LocalDateTime resolvedAt = null;
+        if (lookups.isClosed(statusId)) {
+            resolvedAt = parseTime(record.get("resolvedat"));
+            if (resolvedAt == null) {
+                resolvedAt = updatedAt;
+            }
+        }
+
+        return new Object[]{
+            null, title, description, category, priority.name(), anonymous, userId, statusId, officerId,
+            Timestamp.valueOf(createdAt), Timestamp.valueOf(updatedAt),
+            resolvedAt != null ? Timestamp.valueOf(resolvedAt) : null
+        };
+    }
+
+    private String required(Map<String, String> record, String field) {
+        String value = record.get(field);
+        if (value == null || value.isBlank()) {
+            throw new RuntimeException("Missing " + field);
+        }
+        return value;
+    }
+
+    private LocalDateTime parseTime(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String trimmed = value.trim();
+        try {
+            return LocalDateTime.parse(trimmed);
+        } catch (DateTimeParseException e) {
+            try {
+                return LocalDateTime.parse(trimmed, EXPORT_FORMATTER);
+            } catch (DateTimeParseException ex) {
+                throw new RuntimeException("Invalid date: " + value);
+            }
+        }
+    }
+
+    /**
+     * Normalize field names so "user_email", "userEmail" and "User Email" all match
+     */
+    private static String normalizeKey(String key) {
+        return key.replaceAll("[\\s_\\-\\uFEFF]", "").toLowerCase();
+    }
+
+    /**
+     * In-memory lookup maps for one import run, so resolving a record does not hit the database
+     */
+    private class ImportLookups {
+        private final Map<String, Integer> statusIds = new HashMap<>();
+        private final Integer defaultStatusId;
+        private final Set<Integer> closedStatusIds = new HashSet<>();
+        private final Map<String, Optional<Long>> userIds = new HashMap<>();
+        private final Map<String, String> categories = new HashMap<>();
+
+        ImportLookups() {
+            for (ComplaintStatus status : statusRepository.findAll()) {
+                statusIds.put(status.getCode().toUpperCase(), status.getId());
+                if (status.getDisplay() != null) {
+                    statusIds.put(status.getDisplay().toUpperCase(), status.getId());
+                }
+                if (OfficerWorkloadService.CLOSED_STATUS_CODES.contains(status.getCode())) {
+                    closedStatusIds.add(status.getId());
+                }
+            }
+            defaultStatusId = statusIds.get("NEW");
+            if (defaultStatusId == null) {
+                throw new RuntimeException("Default status not found");
+            }
+
+            for (String category : complaintRepository.findDistinctCategories()) {
+                categories.putIfAbsent(category.trim().toLowerCase(), category);
+            }
+        }
+
+        Integer statusId(String value) {
+            if (value == null || value.isBlank()) {
+                return defaultStatusId;
+            }
+            Integer id = statusIds.get(value.trim().toUpperCase());
+            if (id == null) {
+                throw new RuntimeException("Unknown status: " + value);
+            }
+            return id;
+        }
+
+        boolean isClosed(Integer statusId) {
+            return closedStatusIds.contains(statusId);
+        }
+
+        Long userId(String email) {
+            if (email == null || email.isBlank()) {
+                return null;
+            }
+            String key = email.trim().toLowerCase();
+            Optional<Long> id = userIds.computeIfAbsent(key, userRepository::findIdByEmail);
+            return id.orElseThrow(() -> new RuntimeException("Unknown user: " + email));
+        }
+
+        String category(String value) {
+            if (value == null || value.isBlank()) {
+                return null;
+            }
+            String trimmed = value.trim();
+            return categories.computeIfAbsent(trimmed.toLowerCase(), k -> trimmed);
+        }
+    }
+
+    /**
+     * Incremental reader over the records of an import source
+     */
+    private interface RecordSource {
+        boolean advance() throws IOException;
+
+        Map<String, String> current();
+    }
+
+    /**
+     * RFC 4180 style CSV reader with a header row; quoted fields may contain commas and line breaks
+     */
+    private static class CsvRecordSource implements RecordSource {
+        private final BufferedReader reader;
+        private final List<String> header = new ArrayList<>();
+        private List<String> fields;
+
+        CsvRecordSource(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            List<String> headerFields = readRecord();
+            if (headerFields == null) {
+                throw new RuntimeException("CSV input is empty");
+            }
+            for (String name : headerFields) {
+                header.add(normalizeKey(name));
+            }
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            do {
+                fields = readRecord();
+            } while (fields != null && fields.size() == 1 && fields.get(0).isEmpty());
+            return fields != null;
+        }
+
+        @Override
+        public Map<String, String> current() {
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                record.put(header.get(i), fields.get(i));
+            }
+            return record;
+        }
+
+        private List<String> readRecord() throws IOException {
+            List<String> result = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean inQuotes = false;
+            boolean sawAny = false;
+            int ch;
+
+            while ((ch = reader.read()) != -1) {
+                sawAny = true;
+                char c = (char) ch;
+                if (inQuotes) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        int next = reader.read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            inQuotes = false;
+                            if (next != -1) {
+                                reader.reset();
+                            }
+                        }
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    inQuotes = true;
+                } else if (c == ',') {
+                    result.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    break;
+                } else if (c != '\r') {
+                    field.append(c);
+                }
+            }
+
+            if (!sawAny) {
+                return null;
+            }
+            result.add(field.toString());
+            return result;
+        }
+    }
+
+    /**
+     * Newline-delimited JSON reader; each non-blank line is one complaint object
+     */
+    private class NdjsonRecordSource implements RecordSource {
+        private final BufferedReader reader;
+        private String line;
+
+        NdjsonRecordSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean advance() throws IOException {
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            return line != null;
+        }
+
+        @Override
+        public Map<String, String> current() {
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(line);
+            } catch (IOException e) {
+                throw new RuntimeException("Malformed JSON");
+            }
+            if (node == null || !node.isObject()) {
+                throw new RuntimeException("Expected a JSON object");
+            }
+
+            Map<String, String> record = new HashMap<>();
+            node.fields().forEachRemaining(entry -> {
+                JsonNode value = entry.getValue();
+                record.put(normalizeKey(entry.getKey()), value.isNull() ? null : value.asText());
+            });
+            return record;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.resolveit.service;
+
+import com.resolveit.model.Complaint;
+import com.resolveit.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Records the resolution-time changes of Complaint entity writes. The sketches only
+ * take them once the writing transaction commits.
+ */
+@Component
+public class ComplaintResolutionListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ResolutionSketchService resolutionSketchService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Complaint) {
+            ResolutionSketchService.ResolutionChanges changes = new ResolutionSketchService.ResolutionChanges();
+            changes.add(toResolution(event.getPersister(), event.getState()), 1);
+            resolutionSketchService.apply(changes);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Complaint)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            // Without the loaded state the old resolution is unknown; the nightly rebuild corrects it
+            System.err.println("Resolution sketches not updated for complaint " + event.getId() + ": previous state unavailable");
+            return;
+        }
+
+        ResolutionSketchService.Resolution before = toResolution(event.getPersister(), event.getOldState());
+        ResolutionSketchService.Resolution after = toResolution(event.getPersister(), event.getState());
+        if (!before.equals(after)) {
+            ResolutionSketchService.ResolutionChanges changes = new ResolutionSketchService.ResolutionChanges();
+            changes.add(before, -1);
+            changes.add(after, 1);
+            resolutionSketchService.apply(changes);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Complaint) {
+            ResolutionSketchService.ResolutionChanges changes = new ResolutionSketchService.ResolutionChanges();
+            changes.add(toResolution(event.getPersister(), event.getDeletedState()), -1);
+            resolutionSketchService.apply(changes);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private ResolutionSketchService.Resolution toResolution(EntityPersister persister, Object[] state) {
+        List<String> properties = Arrays.asList(persister.getPropertyNames());
+        Complaint.Priority priority = (Complaint.Priority) state[properties.indexOf("priority")];
+        User officer = (User) state[properties.indexOf("assignedOfficer")];
+
+        return new ResolutionSketchService.Resolution(
+            (LocalDateTime) state[properties.indexOf("createdAt")],
+            (LocalDateTime) state[properties.indexOf("resolvedAt")],
+            (String) state[properties.indexOf("category")],
+            priority != null ? priority.name() : null,
+            officer != null ? officer.getId() : null);
+    }
+}
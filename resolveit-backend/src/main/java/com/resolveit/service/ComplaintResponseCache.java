@@ -0,0 +1,150 @@
+package com.resolveit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resolveit.config.AfterCommit;
+import com.resolveit.config.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * LRU cache of the serialized JSON of the public complaint detail and comment responses,
+ * with their ETags, so a repeated request costs neither a query nor serialization.
+ *
+ * Entries are dropped once a write to the complaint or its comments commits. A response
+ * loaded while such a write was committing is not stored, so an invalidation cannot be
+ * overtaken by the stale body it replaces. Entries also expire after a while, bounding
+ * staleness from writes the cache does not see (e.g. a role change of the user shown).
+ * Responses are loaded from the primary: a replica still behind an invalidated write would
+ * otherwise put the old body back for the whole ttl.
+ */
+@Component
+public class ComplaintResponseCache {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.response-cache.enabled:true}")
+    private boolean enabled;
+
+    // Serialized responses kept; the least recently used are dropped first
+    @Value("${app.response-cache.max-entries:10000}")
+    private int maxEntries;
+
+    // Longest a cached response is served without reloading it
+    @Value("${app.response-cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    // Incremented by every invalidation; guarded by entries
+    private long generation;
+
+    public static String detailKey(Long complaintId) {
+        return "detail:" + complaintId;
+    }
+
+    public static String commentsKey(Long complaintId) {
+        return "comments:" + complaintId;
+    }
+
+    /**
+     * The cached response for the key, or the loader's response, serialized and cached
+     */
+    public CachedResponse getOrLoad(String key, Supplier<LoadedResponse> loader) {
+        long loadGeneration;
+        synchronized (entries) {
+            CachedResponse cached = entries.get(key);
+            if (cached != null && cached.expiresAtNanos() - System.nanoTime() > 0) {
+                return cached;
+            }
+            loadGeneration = generation;
+        }
+
+        LoadedResponse loaded = ReplicaRoutingDataSource.onPrimary(loader);
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(loaded.body());
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to serialize response: " + e.getMessage(), e);
+        }
+        CachedResponse response = new CachedResponse(loaded.etag(), body, System.nanoTime() + ttlSeconds * 1_000_000_000L);
+
+        if (enabled) {
+            synchronized (entries) {
+                if (generation == loadGeneration) {
+                    entries.put(key, response);
+                }
+            }
+        }
+        return response;
+    }
+
+    /**
+     * Drop the cached responses of these complaints once the current transaction commits
+     */
+    public void invalidateAfterCommit(Collection<Long> complaintIds) {
+        List<Long> ids = new ArrayList<>(complaintIds);
+        AfterCommit.run(() -> {
+            synchronized (entries) {
+                generation++;
+                for (Long id : ids) {
+                    entries.remove(detailKey(id));
+                    entries.remove(commentsKey(id));
+                }
+            }
+        });
+    }
+
+    /**
+     * Drop every cached response once the current transaction commits, e.g. after a user changed
+     */
+    public void invalidateAllAfterCommit() {
+        AfterCommit.run(() -> {
+            synchronized (entries) {
+                generation++;
+                entries.clear();
+            }
+        });
+    }
+
+    /**
+     * True if an If-None-Match header lists the ETag (or is "*")
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A response object with its ETag, before serialization
+     */
+    public record LoadedResponse(String etag, Object body) {
+    }
+
+    public record CachedResponse(String etag, byte[] body, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.resolveit.service;
+
+import com.resolveit.model.Comment;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Invalidates cached complaint responses when a complaint, one of its comments, or a
+ * user shown in the responses is written through JPA. Bulk updates that bypass the
+ * entities invalidate the cache themselves.
+ */
+@Component
+public class ComplaintResponseCacheListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ComplaintResponseCache complaintResponseCache;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        // A new complaint has nothing cached yet
+        if (event.getEntity() instanceof Comment comment) {
+            invalidate(comment);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        invalidate(event.getEntity());
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void invalidate(Object entity) {
+        if (entity instanceof Complaint complaint) {
+            complaintResponseCache.invalidateAfterCommit(List.of(complaint.getId()));
+        } else if (entity instanceof Comment comment && comment.getComplaint() != null) {
+            complaintResponseCache.invalidateAfterCommit(List.of(comment.getComplaint().getId()));
+        } else if (entity instanceof User) {
+            complaintResponseCache.invalidateAllAfterCommit();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.resolveit.service;
+
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Keeps the trend cube in step with Complaint entity writes. Runs during flush,
+ * so the bucket changes commit or roll back with the complaint itself.
+ */
+@Component
+public class ComplaintTrendListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TrendCubeService trendCubeService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Complaint) {
+            TrendCubeService.TrendChanges changes = new TrendCubeService.TrendChanges();
+            addState(changes, event.getPersister(), event.getState(), 1);
+            trendCubeService.apply(changes);
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Complaint)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            // Without the loaded state the old bucket is unknown; the nightly rebuild corrects it
+            System.err.println("Trend cube not updated for complaint " + event.getId() + ": previous state unavailable");
+            return;
+        }
+
+        TrendCubeService.TrendChanges changes = new TrendCubeService.TrendChanges();
+        addState(changes, event.getPersister(), event.getOldState(), -1);
+        addState(changes, event.getPersister(), event.getState(), 1);
+        trendCubeService.apply(changes);
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Complaint) {
+            TrendCubeService.TrendChanges changes = new TrendCubeService.TrendChanges();
+            addState(changes, event.getPersister(), event.getDeletedState(), -1);
+            trendCubeService.apply(changes);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void addState(TrendCubeService.TrendChanges changes, EntityPersister persister, Object[] state, long delta) {
+        List<String> properties = Arrays.asList(persister.getPropertyNames());
+        LocalDateTime createdAt = (LocalDateTime) state[properties.indexOf("createdAt")];
+        String category = (String) state[properties.indexOf("category")];
+        ComplaintStatus status = (ComplaintStatus) state[properties.indexOf("status")];
+        Complaint.Priority priority = (Complaint.Priority) state[properties.indexOf("priority")];
+        User officer = (User) state[properties.indexOf("assignedOfficer")];
+
+        changes.add(createdAt, category,
+            status != null ? status.getId() : null,
+            priority != null ? priority.name() : null,
+            officer != null ? officer.getId() : null,
+            delta);
+    }
+}
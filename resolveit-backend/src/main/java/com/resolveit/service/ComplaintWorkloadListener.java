@@ -0,0 +1,103 @@
+package com.resolveit.service;
+
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Feeds Complaint entity writes (assignment and status changes) into the officer workload view
+ */
+@Component
+public class ComplaintWorkloadListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private OfficerWorkloadService workloadService;
+
+    @PostConstruct
+    public void register() {
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_INSERT, this);
+        registry.appendListeners(EventType.POST_UPDATE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Complaint) {
+            apply(event.getPersister(), null, event.getState());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Complaint)) {
+            return;
+        }
+        if (event.getOldState() == null) {
+            // Previous officer unknown; the periodic reconcile corrects the loads
+            return;
+        }
+        apply(event.getPersister(), event.getOldState(), event.getState());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Complaint) {
+            apply(event.getPersister(), event.getDeletedState(), null);
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private void apply(EntityPersister persister, Object[] oldState, Object[] newState) {
+        List<String> properties = Arrays.asList(persister.getPropertyNames());
+        int officerIndex = properties.indexOf("assignedOfficer");
+        int statusIndex = properties.indexOf("status");
+        int categoryIndex = properties.indexOf("category");
+
+        Long oldOfficer = oldState != null ? officerId(oldState[officerIndex]) : null;
+        boolean oldOpen = oldState != null && isOpen(oldState[statusIndex]);
+        Long newOfficer = newState != null ? officerId(newState[officerIndex]) : null;
+        boolean newOpen = newState != null && isOpen(newState[statusIndex]);
+
+        if (oldOfficer != null && oldOpen && !(oldOfficer.equals(newOfficer) && newOpen)) {
+            workloadService.adjustAfterCommit(oldOfficer, null, -1);
+        }
+        if (newOfficer != null) {
+            int delta = newOpen && !(newOfficer.equals(oldOfficer) && oldOpen) ? 1 : 0;
+            workloadService.adjustAfterCommit(newOfficer, (String) newState[categoryIndex], delta);
+        }
+    }
+
+    private Long officerId(Object officer) {
+        return officer != null ? ((User) officer).getId() : null;
+    }
+
+    private boolean isOpen(Object status) {
+        return status == null || !OfficerWorkloadService.CLOSED_STATUS_CODES.contains(((ComplaintStatus) status).getCode());
+    }
+}
@@ -193,7 +193,7 @@ public class EscalationService {
     }
 
     /**
-     * Resolve an escalation
+     * Resolve an escalation, recording when it was first resolved
      */
     @Transactional
     public void resolveEscalation(Long escalationId) {
@@ -201,6 +201,9 @@ public class EscalationService {
             .orElseThrow(() -> new RuntimeException("Escalation not found"));
         
         escalation.setResolved(true);
+        if (escalation.getResolvedAt() == null) {
+            escalation.setResolvedAt(LocalDateTime.now());
+        }
         escalationRepository.save(escalation);
     }
 
@@ -0,0 +1,79 @@
+package com.resolveit.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Hands out primary keys from the id_sequences table.
+ *
+ * Entities use a pooled-lo @TableGenerator on the same table, so JDBC batch
+ * writers (bulk comments, imports) reserve their ids here to stay in step with
+ * Hibernate: a reservation of n ids at value v owns [v, v + n).
+ */
+@Service
+public class IdAllocationService {
+
+    // Tables whose ids come from id_sequences (seq_name is the table name)
+    private static final List<String> SEQUENCE_TABLES = List.of(
+        "users", "complaints", "comments", "complaint_files", "attachments",
+        "escalations", "notifications", "officer_requests", "password_reset_tokens"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Injected so the migrations have run before the sequences are seeded
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private TransactionTemplate requiresNew;
+
+    /**
+     * Seed the sequence rows so that allocation starts above every existing id.
+     * Safe to run on every startup: next_val only ever moves forward.
+     */
+    @PostConstruct
+    public void initSequences() {
+        requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (String table : SEQUENCE_TABLES) {
+            jdbcTemplate.update(
+                "INSERT INTO id_sequences (seq_name, next_val) SELECT ?, COALESCE(MAX(id), 0) + 1 FROM " + table +
+                " ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val))",
+                table);
+        }
+    }
+
+    /**
+     * Reserve count consecutive ids for a table and return the first one
+     */
+    public long reserve(String table, int count) {
+        if (count <= 0) {
+            throw new RuntimeException("Id reservation size must be positive");
+        }
+
+        Long first = requiresNew.execute(tx -> {
+            List<Long> values = jdbcTemplate.queryForList(
+                "SELECT next_val FROM id_sequences WHERE seq_name = ? FOR UPDATE", Long.class, table);
+            if (values.isEmpty() || values.get(0) == null) {
+                throw new RuntimeException("Id sequence not found: " + table);
+            }
+            long next = values.get(0);
+            jdbcTemplate.update("UPDATE id_sequences SET next_val = ? WHERE seq_name = ?", next + count, table);
+            return next;
+        });
+        return first;
+    }
+}
@@ -0,0 +1,362 @@
+package com.resolveit.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays its response to retries.
+ * Keys are scoped to the signed-in user that sent them, so two users choosing the same key
+ * never see each other's responses. Anonymous keys are scoped by the key alone: a phone
+ * retrying a submission often has a new address by then.
+ *
+ * Requests with the same key are serialized on one of a fixed set of striped locks, so
+ * concurrent duplicates on one instance wait for the first and then get its response.
+ * Successful responses are kept in a bounded in-memory map and, with app.idempotency.persist,
+ * in idempotency_keys, where a claim row also makes duplicates on other instances back
+ * off. Only successful responses are kept; a failed request may be retried with the same key.
+ *
+ * An action that writes in a transaction should call completeInTransaction with its response
+ * before committing, so the claim cannot outlive the work it guards.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final int STRIPES = 256;
+
+    // 64 bits of the client's SHA-256
+    private static final int CLIENT_HASH_LENGTH = 16;
+
+    private static final String ANONYMOUS = "anonymous";
+
+    private static final String IN_PROGRESS = "IN_PROGRESS";
+    private static final String COMPLETED = "COMPLETED";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // How long a response is replayed for retries with the same key
+    @Value("${app.idempotency.ttl-minutes:1440}")
+    private long ttlMinutes;
+
+    // Responses kept in memory; older ones are still found in the database when persisting
+    @Value("${app.idempotency.max-entries:10000}")
+    private int maxEntries;
+
+    // Share keys between instances (and across restarts) through the idempotency_keys table
+    @Value("${app.idempotency.persist:true}")
+    private boolean persist;
+
+    // A claim this old is taken to be left behind by an instance that stopped mid-request
+    @Value("${app.idempotency.claim-timeout-minutes:5}")
+    private long claimTimeoutMinutes;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    // The claim of the action running on this thread, for completeInTransaction
+    private final ThreadLocal<Claim> currentClaim = new ThreadLocal<>();
+
+    // Insertion order, so the eldest entry is also the first to expire
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    public IdempotencyService() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Run the action once for scope, client and key. A response with status "success" is stored
+     * and returned to later calls from the client with the same key; a different fingerprint
+     * (request body) under the same key is refused. A null client is an anonymous one.
+     */
+    public Result execute(String scope, String client, String key, String fingerprint, Supplier<Map<String, Object>> action) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new ConflictException(400, "Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String fullKey = scope + ":" + (client != null ? clientHash(client) : ANONYMOUS) + ":" + key;
+        ReentrantLock lock = stripes[Math.floorMod(fullKey.hashCode(), STRIPES)];
+
+        lock.lock();
+        try {
+            // Whole seconds, as a MySQL TIMESTAMP stores them, so the claim can be matched on created_at
+            LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+            Entry cached = getEntry(fullKey, now);
+            if (cached != null) {
+                return replay(cached, fingerprint);
+            }
+
+            if (persist) {
+                Entry stored = claim(fullKey, fingerprint, now);
+                if (stored != null) {
+                    putEntry(fullKey, stored);
+                    return replay(stored, fingerprint);
+                }
+            }
+
+            Claim claim = new Claim(fullKey, Timestamp.valueOf(now));
+            Map<String, Object> response;
+            currentClaim.set(claim);
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(fullKey);
+                throw e;
+            } finally {
+                currentClaim.remove();
+            }
+
+            if (!"success".equals(response.get("status"))) {
+                release(fullKey);
+                return new Result(response, false);
+            }
+
+            Entry entry = new Entry(fingerprint, Collections.unmodifiableMap(new LinkedHashMap<>(response)), now.plusMinutes(ttlMinutes));
+            putEntry(fullKey, entry);
+            if (persist && !claim.completed) {
+                complete(fullKey, entry);
+            }
+            return new Result(response, false);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Store the response of the running action as completed, joining the action's transaction.
+     * A retry then finds the response whenever the action's writes are there, even if this
+     * instance stops right after the commit. Throws, rolling the action back, if the claim
+     * has meanwhile been taken over as abandoned.
+     */
+    public void completeInTransaction(Map<String, Object> response) {
+        Claim claim = currentClaim.get();
+        if (claim == null || !persist) {
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(response);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to store idempotent response: " + e.getMessage(), e);
+        }
+        int updated = jdbcTemplate.update(
+            "UPDATE idempotency_keys SET status = ?, response = ? WHERE idem_key = ? AND status = ? AND created_at = ?",
+            COMPLETED, json, claim.fullKey, IN_PROGRESS, claim.createdAt);
+        if (updated != 1) {
+            throw new ConflictException(409, "A request with this Idempotency-Key is still being processed");
+        }
+        claim.completed = true;
+    }
+
+    /**
+     * SHA-256 of the request parts, to tell a retry from a different request reusing a key
+     */
+    public static String fingerprint(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Short hash of the client, keeping the stored key within idem_key's length and out of
+     * the table's plain text
+     */
+    private static String clientHash(String client) {
+        return fingerprint(client).substring(0, CLIENT_HASH_LENGTH);
+    }
+
+    private Result replay(Entry entry, String fingerprint) {
+        if (!entry.fingerprint().equals(fingerprint)) {
+            throw new ConflictException(422, "Idempotency-Key was already used for a different request");
+        }
+        return new Result(entry.response(), true);
+    }
+
+    private Entry getEntry(String fullKey, LocalDateTime now) {
+        synchronized (entries) {
+            Entry entry = entries.get(fullKey);
+            return entry != null && entry.expiresAt().isAfter(now) ? entry : null;
+        }
+    }
+
+    private void putEntry(String fullKey, Entry entry) {
+        synchronized (entries) {
+            entries.put(fullKey, entry);
+        }
+    }
+
+    // ==================== SHARED STORE ====================
+
+    /**
+     * Claim the key in the database. Returns null if claimed, or the stored response of an
+     * earlier request; throws if another instance is still running it.
+     */
+    private Entry claim(String fullKey, String fingerprint, LocalDateTime now) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                jdbcTemplate.update(
+                    "INSERT INTO idempotency_keys (idem_key, fingerprint, status, created_at, expires_at) VALUES (?, ?, ?, ?, ?)",
+                    fullKey, fingerprint, IN_PROGRESS, Timestamp.valueOf(now), Timestamp.valueOf(now.plusMinutes(ttlMinutes)));
+                return null;
+            } catch (DuplicateKeyException e) {
+                // Held by an earlier request
+            }
+
+            List<Object[]> rows = jdbcTemplate.query(
+                "SELECT fingerprint, status, response, created_at, expires_at FROM idempotency_keys WHERE idem_key = ?",
+                (rs, rowNum) -> new Object[]{
+                    rs.getString(1), rs.getString(2), rs.getString(3),
+                    rs.getTimestamp(4).toLocalDateTime(), rs.getTimestamp(5).toLocalDateTime()},
+                fullKey);
+            if (rows.isEmpty() && attempt == 0) {
+                continue;
+            }
+            if (rows.isEmpty()) {
+                throw new ConflictException(409, "A request with this Idempotency-Key is still being processed");
+            }
+
+            Object[] row = rows.get(0);
+            String status = (String) row[1];
+            LocalDateTime createdAt = (LocalDateTime) row[3];
+            LocalDateTime expiresAt = (LocalDateTime) row[4];
+            boolean abandoned = IN_PROGRESS.equals(status) && createdAt.isBefore(now.minusMinutes(claimTimeoutMinutes));
+            if ((abandoned || !expiresAt.isAfter(now)) && attempt == 0) {
+                jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = ? AND created_at = ?",
+                    fullKey, Timestamp.valueOf(createdAt));
+                continue;
+            }
+            if (!COMPLETED.equals(status)) {
+                if (!row[0].equals(fingerprint)) {
+                    throw new ConflictException(422, "Idempotency-Key was already used for a different request");
+                }
+                throw new ConflictException(409, "A request with this Idempotency-Key is still being processed");
+            }
+            return new Entry((String) row[0], readResponse((String) row[2]), expiresAt);
+        }
+    }
+
+    private void complete(String fullKey, Entry entry) {
+        try {
+            jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, response = ? WHERE idem_key = ?",
+                COMPLETED, objectMapper.writeValueAsString(entry.response()), fullKey);
+        } catch (Exception e) {
+            // Still replayed from memory on this instance
+            System.err.println("Failed to store idempotent response for " + fullKey + ": " + e.getMessage());
+        }
+    }
+
+    private void release(String fullKey) {
+        if (!persist) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("DELETE FROM idempotency_keys WHERE idem_key = ? AND status = ?", fullKey, IN_PROGRESS);
+        } catch (Exception e) {
+            // The claim times out after claim-timeout-minutes
+            System.err.println("Failed to release idempotency key " + fullKey + ": " + e.getMessage());
+        }
+    }
+
+    private Map<String, Object> readResponse(String json) {
+        try {
+            return objectMapper.readValue(json, new TypeReference<Map<String, Object>>() {});
+        } catch (Exception e) {
+            throw new RuntimeException("Stored idempotent response is unreadable", e);
+        }
+    }
+
+    /**
+     * Drop expired responses from memory and the database every 5 minutes
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (entries) {
+            entries.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        }
+        if (persist) {
+            try {
+                jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ?", Timestamp.valueOf(now));
+            } catch (Exception e) {
+                System.err.println("Failed to delete expired idempotency keys: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * This instance's claim row; completed once the action stored its response itself
+     */
+    private static class Claim {
+        private final String fullKey;
+        private final Timestamp createdAt;
+        private boolean completed;
+
+        Claim(String fullKey, Timestamp createdAt) {
+            this.fullKey = fullKey;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private record Entry(String fingerprint, Map<String, Object> response, LocalDateTime expiresAt) {
+    }
+
+    /**
+     * A response and whether it is the replay of an earlier request
+     */
+    public record Result(Map<String, Object> response, boolean replayed) {
+    }
+
+    /**
+     * Thrown when a key cannot be used for this request; status is the HTTP status to return
+     */
+    public static class ConflictException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        private final int status;
+
+        public ConflictException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+    }
+}
@@ -3,19 +3,49 @@ package com.resolveit.service;
 import com.resolveit.model.Notification;
 import com.resolveit.model.User;
 import com.resolveit.repository.NotificationRepository;
+import com.resolveit.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 public class NotificationService {
 
+    // Largest page a client may request
+    public static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UnreadCountCache unreadCountCache;
+
+    // Email -> user id, so unread-count polls need no user lookup
+    private final ConcurrentHashMap<String, Long> userIdsByEmail = new ConcurrentHashMap<>();
+
+    // Read notifications older than this are removed by the retention job
+    @Value("${app.notifications.retention-days:90}")
+    private int retentionDays;
+
+    // Rows deleted per retention transaction
+    @Value("${app.notifications.retention-batch-size:1000}")
+    private int retentionBatchSize;
+
     /**
      * Create a new notification
      */
@@ -29,21 +59,29 @@ public class NotificationService {
         notification.setRead(false);
         notification.setCreatedAt(LocalDateTime.now());
         
-        return notificationRepository.save(notification);
+        Notification saved = notificationRepository.save(notification);
+        unreadCountCache.adjustAfterCommit(user.getId(), 1);
+        return saved;
     }
 
     /**
-     * Get all notifications for a user
+     * Get one page of a user's notifications, newest first
      */
-    public List<Notification> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    @Transactional(readOnly = true)
+    public Page<Notification> getUserNotifications(Long userId, int page, int size) {
+        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId, pageRequest(page, size));
     }
 
     /**
-     * Get unread notifications for a user
+     * Get one page of a user's unread notifications, newest first
      */
-    public List<Notification> getUnreadNotifications(Long userId) {
-        return notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(userId);
+    @Transactional(readOnly = true)
+    public Page<Notification> getUnreadNotifications(Long userId, int page, int size) {
+        return notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(userId, pageRequest(page, size));
+    }
+
+    private PageRequest pageRequest(int page, int size) {
+        return PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
     }
 
     /**
@@ -53,20 +91,22 @@ public class NotificationService {
     public void markAsRead(Long notificationId) {
         Notification notification = notificationRepository.findById(notificationId)
             .orElseThrow(() -> new RuntimeException("Notification not found"));
+        if (Boolean.TRUE.equals(notification.getRead())) {
+            return;
+        }
         notification.setRead(true);
         notificationRepository.save(notification);
+        unreadCountCache.adjustAfterCommit(notification.getUser().getId(), -1);
     }
 
     /**
      * Mark all notifications as read for a user
      */
     @Transactional
-    public void markAllAsRead(Long userId) {
-        List<Notification> notifications = notificationRepository.findByUserIdAndReadFalse(userId);
-        for (Notification notification : notifications) {
-            notification.setRead(true);
-        }
-        notificationRepository.saveAll(notifications);
+    public int markAllAsRead(Long userId) {
+        int updated = notificationRepository.markAllAsReadByUserId(userId);
+        unreadCountCache.adjustAfterCommit(userId, -updated);
+        return updated;
     }
 
     /**
@@ -74,13 +114,59 @@ public class NotificationService {
      */
     @Transactional
     public void deleteNotification(Long notificationId) {
-        notificationRepository.deleteById(notificationId);
+        notificationRepository.findById(notificationId).ifPresent(notification -> {
+            notificationRepository.delete(notification);
+            if (!Boolean.TRUE.equals(notification.getRead())) {
+                unreadCountCache.adjustAfterCommit(notification.getUser().getId(), -1);
+            }
+        });
     }
 
     /**
      * Get notification count for user
      */
     public long getUnreadCount(Long userId) {
-        return notificationRepository.countByUserIdAndReadFalse(userId);
+        return unreadCountCache.get(userId);
+    }
+
+    /**
+     * Get notification count for the user with this email, normally without touching the database
+     */
+    public long getUnreadCount(String email) {
+        Long userId = userIdsByEmail.get(email);
+        if (userId == null) {
+            userId = userRepository.findIdByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+            if (userIdsByEmail.size() < 100_000) {
+                userIdsByEmail.put(email, userId);
+            }
+        }
+        return unreadCountCache.get(userId);
+    }
+
+    /**
+     * Delete read notifications past the retention period.
+     * Runs daily at 3 AM, deleting in small batches so no transaction holds many row locks
+     */
+    @Scheduled(cron = "0 0 3 * * *")
+    public void purgeOldReadNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        PageRequest firstBatch = PageRequest.of(0, retentionBatchSize);
+        long totalDeleted = 0;
+
+        while (true) {
+            Integer deleted = transactionTemplate.execute(tx -> {
+                List<Long> ids = notificationRepository.findReadIdsCreatedBefore(cutoff, firstBatch);
+                return ids.isEmpty() ? 0 : notificationRepository.deleteByIdIn(ids);
+            });
+            totalDeleted += deleted;
+            if (deleted < retentionBatchSize) {
+                break;
+            }
+        }
+
+        if (totalDeleted > 0) {
+            System.out.println("Notification retention: deleted " + totalDeleted + " read notifications older than " + retentionDays + " days");
+        }
     }
 }
\ No newline at end of file
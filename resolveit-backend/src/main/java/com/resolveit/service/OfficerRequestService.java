@@ -6,6 +6,7 @@ import com.resolveit.model.User;
 import com.resolveit.repository.OfficerRequestRepository;
 import com.resolveit.repository.RoleRepository;
 import com.resolveit.repository.UserRepository;
+import com.resolveit.security.UserAuthorityService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +33,9 @@ public class OfficerRequestService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private UserAuthorityService userAuthorityService;
+
     /**
      * Submit a request to become an officer
      */
@@ -101,6 +105,9 @@ public class OfficerRequestService {
         user.setRoles(roles);
         userRepository.save(user);
 
+        // The new role applies to the user's existing tokens once this commits
+        userAuthorityService.rolesChanged(user.getId());
+
         // Update request status
         request.setStatus("APPROVED");
         request.setReviewedBy(admin);
@@ -0,0 +1,201 @@
+package com.resolveit.service;
+
+import com.resolveit.config.AfterCommit;
+import com.resolveit.repository.ComplaintRepository;
+import com.resolveit.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Live view of each officer's open complaint load, used to auto-assign new complaints.
+ *
+ * Officers are kept in skip-list sets ordered by (load, officer id): one for everyone and
+ * one per category the officer has handled before. The least-loaded officer is the first
+ * entry of a set, and a load change replaces the officer's entries in O(log n).
+ */
+@Service
+public class OfficerWorkloadService {
+
+    // Complaints in these statuses no longer count towards an officer's load
+    public static final Set<String> CLOSED_STATUS_CODES = Set.of("RESOLVED", "CLOSED");
+
+    private static final Comparator<OfficerLoad> LOAD_ORDER = Comparator
+        .comparingInt(OfficerLoad::load)
+        .thenComparingLong(OfficerLoad::officerId);
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ConcurrentSkipListSet<OfficerLoad> allOfficers = new ConcurrentSkipListSet<>(LOAD_ORDER);
+    private final ConcurrentHashMap<String, ConcurrentSkipListSet<OfficerLoad>> officersByCategory = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, OfficerLoad> loads = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<String>> categoriesByOfficer = new ConcurrentHashMap<>();
+
+    // Reservations not yet released, kept apart from the loads so a reload does not drop them
+    private final Map<Long, Integer> reservations = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Pick the least-loaded officer who has handled the category (any officer if none has)
+     * and count the complaint against them straight away, so concurrent submissions spread out.
+     * Returns null when there are no active officers. Call releaseReservation once the
+     * complaint is saved (or failed to save).
+     */
+    public Long reserveOfficer(String category) {
+        ensureLoaded();
+        synchronized (this) {
+            ConcurrentSkipListSet<OfficerLoad> candidates = category != null ? officersByCategory.get(category) : null;
+            if (candidates == null || candidates.isEmpty()) {
+                candidates = allOfficers;
+            }
+            OfficerLoad least = candidates.isEmpty() ? null : candidates.first();
+            if (least == null) {
+                return null;
+            }
+            reservations.merge(least.officerId(), 1, Integer::sum);
+            adjust(least.officerId(), 1);
+            return least.officerId();
+        }
+    }
+
+    /**
+     * Undo a reservation; the saved complaint is counted by ComplaintWorkloadListener instead
+     */
+    public synchronized void releaseReservation(Long officerId) {
+        if (officerId == null || !reservations.containsKey(officerId)) {
+            return;
+        }
+        reservations.computeIfPresent(officerId, (id, count) -> count > 1 ? count - 1 : null);
+        adjust(officerId, -1);
+    }
+
+    /**
+     * Change an officer's open load once the current transaction commits (or right away without one)
+     */
+    public void adjustAfterCommit(Long officerId, String category, int delta) {
+        if (officerId == null || (delta == 0 && category == null)) {
+            return;
+        }
+        AfterCommit.run(() -> {
+            if (category != null) {
+                addCategory(officerId, category);
+            }
+            adjust(officerId, delta);
+        });
+    }
+
+    /**
+     * Reload the whole view once the current transaction commits; used after set-based writes
+     */
+    public void reloadAfterCommit() {
+        if (loaded) {
+            AfterCommit.run(this::reload);
+        }
+    }
+
+    /**
+     * Re-read loads and categories from the database every 5 minutes, correcting any drift
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void reconcile() {
+        if (loaded) {
+            reload();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    reload();
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuild the view from officer ids, open complaint counts and past categories, keeping
+     * outstanding reservations on top of the counts
+     */
+    public void reload() {
+        List<Long> officerIds = userRepository.findActiveOfficerIds();
+
+        Map<Long, Integer> openCounts = new HashMap<>();
+        for (Object[] row : complaintRepository.countOpenByOfficer(CLOSED_STATUS_CODES)) {
+            openCounts.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+
+        Map<Long, Set<String>> categories = new HashMap<>();
+        for (Object[] row : complaintRepository.findOfficerCategories()) {
+            categories.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+        }
+
+        synchronized (this) {
+            allOfficers.clear();
+            officersByCategory.clear();
+            loads.clear();
+            categoriesByOfficer.clear();
+
+            for (Long officerId : officerIds) {
+                // Complaints still being saved are not in the counts yet
+                int load = openCounts.getOrDefault(officerId, 0) + reservations.getOrDefault(officerId, 0);
+                OfficerLoad entry = new OfficerLoad(officerId, load);
+                Set<String> officerCategories = ConcurrentHashMap.newKeySet();
+                officerCategories.addAll(categories.getOrDefault(officerId, Collections.emptySet()));
+
+                loads.put(officerId, entry);
+                categoriesByOfficer.put(officerId, officerCategories);
+                allOfficers.add(entry);
+                for (String category : officerCategories) {
+                    officersByCategory.computeIfAbsent(category, c -> new ConcurrentSkipListSet<>(LOAD_ORDER)).add(entry);
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    /**
+     * Replace an officer's entry with one carrying the new load; unknown ids (non-officers) are ignored
+     */
+    private synchronized void adjust(Long officerId, int delta) {
+        OfficerLoad current = loads.get(officerId);
+        if (current == null || delta == 0) {
+            return;
+        }
+
+        OfficerLoad updated = new OfficerLoad(officerId, Math.max(0, current.load() + delta));
+        Set<String> officerCategories = categoriesByOfficer.getOrDefault(officerId, Collections.emptySet());
+
+        allOfficers.remove(current);
+        allOfficers.add(updated);
+        for (String category : officerCategories) {
+            ConcurrentSkipListSet<OfficerLoad> set = officersByCategory.get(category);
+            if (set != null) {
+                set.remove(current);
+                set.add(updated);
+            }
+        }
+        loads.put(officerId, updated);
+    }
+
+    private synchronized void addCategory(Long officerId, String category) {
+        OfficerLoad current = loads.get(officerId);
+        Set<String> officerCategories = categoriesByOfficer.get(officerId);
+        if (current == null || officerCategories == null || !officerCategories.add(category)) {
+            return;
+        }
+        officersByCategory.computeIfAbsent(category, c -> new ConcurrentSkipListSet<>(LOAD_ORDER)).add(current);
+    }
+
+    private record OfficerLoad(long officerId, int load) {
+    }
+}
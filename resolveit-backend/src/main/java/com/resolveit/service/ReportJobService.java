@@ -0,0 +1,211 @@
+package com.resolveit.service;
+
+import com.resolveit.config.PoolWorkload;
+import com.resolveit.dto.ReportJob;
+import com.resolveit.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates PDF/CSV exports on a bounded worker pool and keeps the finished files
+ * on local disk for a limited time. Requests with the same parameters share one job.
+ */
+@Service
+public class ReportJobService {
+
+    @Autowired
+    private ReportService reportService;
+
+    // Directory holding finished report files
+    @Value("${app.reports.jobs.dir:report-artifacts}")
+    private String artifactDir;
+
+    // Reports generated at the same time
+    @Value("${app.reports.jobs.workers:2}")
+    private int workers;
+
+    // Jobs allowed to wait for a worker before submissions are refused
+    @Value("${app.reports.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    // How long a finished report (or a failure) is kept
+    @Value("${app.reports.jobs.ttl-minutes:30}")
+    private int ttlMinutes;
+
+    private final ConcurrentHashMap<String, ReportJob> jobsById = new ConcurrentHashMap<>();
+
+    // Parameter key -> current job, used to coalesce identical submissions
+    private final ConcurrentHashMap<String, ReportJob> jobsByKey = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    private Path artifactRoot;
+
+    /**
+     * Start the worker pool and clear artifacts left by a previous run (the job index is in memory only)
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        artifactRoot = Paths.get(artifactDir).toAbsolutePath().normalize();
+        Files.createDirectories(artifactRoot);
+        try (DirectoryStream<Path> stale = Files.newDirectoryStream(artifactRoot)) {
+            for (Path file : stale) {
+                Files.deleteIfExists(file);
+            }
+        }
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(() -> {
+                    PoolWorkload.bind(PoolWorkload.REPORTING);
+                    runnable.run();
+                }, "report-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Submit a report, or join the queued, running or finished job with the same parameters.
+     * officerEmail is null for the system-wide report.
+     */
+    public ReportJob submit(String format, String officerEmail, LocalDateTime startDate, LocalDateTime endDate) {
+        String normalizedFormat = format != null ? format.toLowerCase() : "";
+        if (!"pdf".equals(normalizedFormat) && !"csv".equals(normalizedFormat)) {
+            throw new RuntimeException("Unsupported report format: " + format);
+        }
+
+        String key = normalizedFormat + "|" + (officerEmail != null ? officerEmail : "*") + "|" + startDate + "|" + endDate;
+        LocalDateTime now = LocalDateTime.now();
+        ReportJob[] created = new ReportJob[1];
+
+        ReportJob job = jobsByKey.compute(key, (k, existing) -> {
+            if (existing != null && existing.getStatus() != ReportJob.Status.FAILED && !existing.isExpired(now)) {
+                return existing;
+            }
+            created[0] = new ReportJob(UUID.randomUUID().toString(), k, normalizedFormat, officerEmail, startDate, endDate);
+            return created[0];
+        });
+
+        if (created[0] != null) {
+            jobsById.put(job.getJobId(), job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobsByKey.remove(key, job);
+                jobsById.remove(job.getJobId());
+                throw new RuntimeException("Report queue is full, please try again later");
+            }
+        }
+        return job;
+    }
+
+    /**
+     * Look up a job; personal reports are only visible to the officer they belong to
+     */
+    public ReportJob getJob(String jobId, String requesterEmail) {
+        ReportJob job = jobsById.get(jobId);
+        if (job == null || job.isExpired(LocalDateTime.now())
+                || (job.getOfficerEmail() != null && !job.getOfficerEmail().equals(requesterEmail))) {
+            throw new RuntimeException("Report job not found");
+        }
+        return job;
+    }
+
+    /**
+     * Generate the report into a temporary file and move it into place once complete
+     */
+    private void run(ReportJob job) {
+        job.setStatus(ReportJob.Status.RUNNING);
+        Path target = artifactRoot.resolve(job.getJobId() + "." + job.getFormat());
+        Path partial = artifactRoot.resolve(job.getJobId() + ".part");
+
+        try {
+            try (OutputStream out = Files.newOutputStream(partial)) {
+                writeReport(job, out);
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            job.setArtifact(target);
+            job.setSizeBytes(Files.size(target));
+            job.setCompletedAt(LocalDateTime.now());
+            job.setStatus(ReportJob.Status.COMPLETED);
+        } catch (Exception e) {
+            System.err.println("Report job " + job.getJobId() + " failed: " + e.getMessage());
+            deleteQuietly(partial);
+            job.setErrorMessage(e.getMessage());
+            job.setCompletedAt(LocalDateTime.now());
+            job.setStatus(ReportJob.Status.FAILED);
+        }
+        job.setExpiresAt(job.getCompletedAt().plusMinutes(ttlMinutes));
+    }
+
+    private void writeReport(ReportJob job, OutputStream out) throws IOException {
+        if ("pdf".equals(job.getFormat())) {
+            if (job.getOfficerEmail() == null) {
+                reportService.writePDFReport(job.getStartDate(), job.getEndDate(), out);
+            } else {
+                User officer = reportService.getReportUser(job.getOfficerEmail());
+                reportService.writeUserPDFReport(officer, job.getStartDate(), job.getEndDate(), out);
+            }
+        } else {
+            String csv = job.getOfficerEmail() == null
+                ? reportService.generateCSVExport(job.getStartDate(), job.getEndDate())
+                : reportService.generateUserCSVExport(job.getOfficerEmail(), job.getStartDate(), job.getEndDate());
+            out.write(csv.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Drop expired jobs and delete their files every minute
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        for (ReportJob job : jobsById.values()) {
+            if (job.isExpired(now)) {
+                jobsById.remove(job.getJobId());
+                jobsByKey.remove(job.getKey(), job);
+                if (job.getArtifact() != null) {
+                    deleteQuietly(job.getArtifact());
+                }
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            System.err.println("Could not delete report file " + file + ": " + e.getMessage());
+        }
+    }
+}
@@ -3,145 +3,91 @@ package com.resolveit.service;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.layout.Document;
+import com.itextpdf.layout.Style;
 import com.itextpdf.layout.element.Paragraph;
 import com.itextpdf.layout.element.Table;
 import com.itextpdf.layout.element.Cell;
 import com.itextpdf.layout.properties.TextAlignment;
 import com.itextpdf.layout.properties.UnitValue;
+import com.resolveit.dto.ComplaintReportRow;
+import com.resolveit.dto.ComplaintStatsRow;
 import com.resolveit.dto.ComplaintTrendReport;
 import com.resolveit.dto.CategoryReport;
 import com.resolveit.dto.StatusReport;
 import com.resolveit.model.Complaint;
 import com.resolveit.model.User;
 import com.resolveit.repository.ComplaintRepository;
+import com.resolveit.repository.ComplaintStatusRepository;
 import com.resolveit.repository.UserRepository;
 import com.resolveit.security.JwtService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ReportService {
 
+    private static final DateTimeFormatter PDF_DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+    private static final DateTimeFormatter PDF_DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm");
+
+    // Rows added to a PDF details table between flushes
+    private static final int PDF_FLUSH_ROWS = 100;
+
     @Autowired
     private ComplaintRepository complaintRepository;
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ComplaintStatusRepository statusRepository;
+
+    @Autowired
+    private TrendCubeService trendCubeService;
+
+    @Autowired
+    private ResolutionSketchService resolutionSketchService;
+
+    @Autowired
+    private ComplaintArchiveService complaintArchiveService;
+
     @Autowired
     private JwtService jwtService;
 
     /**
-     * Get complaint trends by date range
+     * Get complaint trends by date range from the trend cube, bucketed by hour, day, week or month
      */
-    public ComplaintTrendReport getComplaintTrends(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Complaint> complaints = complaintRepository.findByCreatedAtBetween(startDate, endDate);
-        
-        ComplaintTrendReport report = new ComplaintTrendReport();
-        report.setStartDate(startDate);
-        report.setEndDate(endDate);
-        report.setTotalComplaints(complaints.size());
-        
-        // Group by status
-        Map<String, Long> byStatus = complaints.stream()
-            .collect(Collectors.groupingBy(
-                c -> c.getStatus().getDisplay(),
-                Collectors.counting()
-            ));
-        report.setComplaintsByStatus(byStatus);
-        
-        // Group by category
-        Map<String, Long> byCategory = complaints.stream()
-            .filter(c -> c.getCategory() != null)
-            .collect(Collectors.groupingBy(
-                Complaint::getCategory,
-                Collectors.counting()
-            ));
-        report.setComplaintsByCategory(byCategory);
-        
-        // Group by priority
-        Map<String, Long> byPriority = complaints.stream()
-            .collect(Collectors.groupingBy(
-                c -> c.getPriority().toString(),
-                Collectors.counting()
-            ));
-        report.setComplaintsByPriority(byPriority);
-        
-        // Daily trend
-        Map<String, Long> dailyTrend = complaints.stream()
-            .collect(Collectors.groupingBy(
-                c -> c.getCreatedAt().toLocalDate().toString(),
-                Collectors.counting()
-            ));
-        report.setDailyTrend(dailyTrend);
-        
-        return report;
+    @Transactional(readOnly = true)
+    public ComplaintTrendReport getComplaintTrends(LocalDateTime startDate, LocalDateTime endDate, String interval) {
+        return trendCubeService.getTrends(null, startDate, endDate, interval);
     }
 
     /**
      * Get category-wise report
      */
+    @Transactional(readOnly = true)
     public List<CategoryReport> getCategoryReport() {
-        List<Complaint> allComplaints = complaintRepository.findAll();
-        
-        Map<String, List<Complaint>> byCategory = allComplaints.stream()
-            .filter(c -> c.getCategory() != null)
-            .collect(Collectors.groupingBy(Complaint::getCategory));
-        
-        List<CategoryReport> reports = new ArrayList<>();
-        for (Map.Entry<String, List<Complaint>> entry : byCategory.entrySet()) {
-            CategoryReport report = new CategoryReport();
-            report.setCategory(entry.getKey());
-            report.setTotalCount(entry.getValue().size());
-            
-            long resolved = entry.getValue().stream()
-                .filter(c -> "RESOLVED".equals(c.getStatus().getCode()))
-                .count();
-            report.setResolvedCount(resolved);
-            report.setPendingCount(entry.getValue().size() - resolved);
-            
-            double avgResolutionTime = calculateAverageResolutionTime(entry.getValue());
-            report.setAverageResolutionTimeHours(avgResolutionTime);
-            
-            reports.add(report);
-        }
-        
-        return reports;
+        return aggregate(allStatsRows()).toCategoryReports();
     }
 
     /**
      * Get status-wise report
      */
+    @Transactional(readOnly = true)
     public List<StatusReport> getStatusReport() {
-        List<Complaint> allComplaints = complaintRepository.findAll();
-        
-        Map<String, List<Complaint>> byStatus = allComplaints.stream()
-            .collect(Collectors.groupingBy(c -> c.getStatus().getDisplay()));
-        
-        List<StatusReport> reports = new ArrayList<>();
-        for (Map.Entry<String, List<Complaint>> entry : byStatus.entrySet()) {
-            StatusReport report = new StatusReport();
-            report.setStatus(entry.getKey());
-            report.setCount(entry.getValue().size());
-            
-            double percentage = (entry.getValue().size() * 100.0) / allComplaints.size();
-            report.setPercentage(Math.round(percentage * 100.0) / 100.0);
-            
-            reports.add(report);
-        }
-        
-        return reports;
+        return aggregate(allStatsRows()).toStatusReports();
     }
 
     /**
      * Generate CSV export data
      */
+    @Transactional(readOnly = true)
     public String generateCSVExport(LocalDateTime startDate, LocalDateTime endDate) {
         List<Complaint> complaints = complaintRepository.findByCreatedAtBetween(startDate, endDate);
         
@@ -169,61 +115,44 @@ public class ReportService {
     /**
      * Get dashboard statistics
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> getDashboardStats() {
-        Map<String, Object> stats = new HashMap<>();
-        
-        List<Complaint> allComplaints = complaintRepository.findAll();
-        stats.put("totalComplaints", allComplaints.size());
-        
-        long resolved = allComplaints.stream()
-            .filter(c -> "RESOLVED".equals(c.getStatus().getCode()))
-            .count();
-        stats.put("resolvedComplaints", resolved);
-        
-        long pending = allComplaints.stream()
-            .filter(c -> !"RESOLVED".equals(c.getStatus().getCode()))
-            .count();
-        stats.put("pendingComplaints", pending);
-        
-        long escalated = allComplaints.stream()
-            .filter(c -> "ESCALATED".equals(c.getStatus().getCode()))
-            .count();
-        stats.put("escalatedComplaints", escalated);
-        
-        // Recent complaints (last 7 days)
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-        long recentComplaints = allComplaints.stream()
-            .filter(c -> c.getCreatedAt().isAfter(weekAgo))
-            .count();
-        stats.put("recentComplaints", recentComplaints);
-        
-        // Average resolution time
-        double avgResolutionTime = calculateAverageResolutionTime(allComplaints);
-        stats.put("averageResolutionTimeHours", Math.round(avgResolutionTime * 100.0) / 100.0);
-        
+        Map<String, Object> stats = toDashboardStats(aggregate(allStatsRows()));
+        stats.put("resolutionTimeHours", resolutionSketchService.getOverall());
         return stats;
     }
 
     /**
-     * Calculate average resolution time in hours
+     * Live and archived complaints, so the totals agree with the trend cube and resolution sketches
      */
-    private double calculateAverageResolutionTime(List<Complaint> complaints) {
-        List<Complaint> resolvedComplaints = complaints.stream()
-            .filter(c -> "RESOLVED".equals(c.getStatus().getCode()))
-            .collect(Collectors.toList());
-        
-        if (resolvedComplaints.isEmpty()) {
-            return 0.0;
-        }
-        
-        double totalHours = resolvedComplaints.stream()
-            .mapToDouble(c -> {
-                long seconds = java.time.Duration.between(c.getCreatedAt(), c.getUpdatedAt()).getSeconds();
-                return seconds / 3600.0; // Convert to hours
-            })
-            .sum();
-        
-        return totalHours / resolvedComplaints.size();
+    private List<ComplaintStatsRow> allStatsRows() {
+        List<ComplaintStatsRow> rows = new ArrayList<>(complaintRepository.findAllStatsRows());
+        rows.addAll(complaintArchiveService.findArchivedStatsRows());
+        return rows;
+    }
+
+    private List<ComplaintStatsRow> statsRowsByOfficer(User officer) {
+        List<ComplaintStatsRow> rows = new ArrayList<>(complaintRepository.findStatsRowsByAssignedOfficer(officer));
+        rows.addAll(complaintArchiveService.findArchivedStatsRowsByOfficer(officer.getId()));
+        return rows;
+    }
+
+    /**
+     * Aggregate complaints in one pass; complaints from the last 7 days count as recent
+     */
+    private ComplaintAggregation aggregate(List<ComplaintStatsRow> complaints) {
+        return ComplaintAggregation.aggregate(complaints, statusRepository.findAll(), LocalDateTime.now().minusDays(7));
+    }
+
+    private Map<String, Object> toDashboardStats(ComplaintAggregation aggregation) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalComplaints", aggregation.getTotal());
+        stats.put("resolvedComplaints", aggregation.getResolved());
+        stats.put("pendingComplaints", aggregation.getPending());
+        stats.put("escalatedComplaints", aggregation.getEscalated());
+        stats.put("recentComplaints", aggregation.getRecent());
+        stats.put("averageResolutionTimeHours", Math.round(aggregation.getAverageResolutionTimeHours() * 100.0) / 100.0);
+        return stats;
     }
 
     /**
@@ -237,158 +166,54 @@ public class ReportService {
     // ==================== USER-SPECIFIC REPORTS ====================
 
     /**
-     * Get user-specific complaint trends by date range
+     * Get user-specific complaint trends by date range from the trend cube
      */
-    public ComplaintTrendReport getUserComplaintTrends(String userEmail, LocalDateTime startDate, LocalDateTime endDate) {
+    @Transactional(readOnly = true)
+    public ComplaintTrendReport getUserComplaintTrends(String userEmail, LocalDateTime startDate, LocalDateTime endDate,
+                                                       String interval) {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Complaint> complaints = complaintRepository.findByAssignedOfficerAndCreatedAtBetween(user, startDate, endDate);
-        
-        ComplaintTrendReport report = new ComplaintTrendReport();
-        report.setStartDate(startDate);
-        report.setEndDate(endDate);
-        report.setTotalComplaints(complaints.size());
-        
-        // Group by status
-        Map<String, Long> byStatus = complaints.stream()
-            .collect(Collectors.groupingBy(
-                c -> c.getStatus().getDisplay(),
-                Collectors.counting()
-            ));
-        report.setComplaintsByStatus(byStatus);
-        
-        // Group by category
-        Map<String, Long> byCategory = complaints.stream()
-            .filter(c -> c.getCategory() != null)
-            .collect(Collectors.groupingBy(
-                Complaint::getCategory,
-                Collectors.counting()
-            ));
-        report.setComplaintsByCategory(byCategory);
-        
-        // Group by priority
-        Map<String, Long> byPriority = complaints.stream()
-            .collect(Collectors.groupingBy(
-                c -> c.getPriority().toString(),
-                Collectors.counting()
-            ));
-        report.setComplaintsByPriority(byPriority);
-        
-        // Daily trend
-        Map<String, Long> dailyTrend = complaints.stream()
-            .collect(Collectors.groupingBy(
-                c -> c.getCreatedAt().toLocalDate().toString(),
-                Collectors.counting()
-            ));
-        report.setDailyTrend(dailyTrend);
-        
-        return report;
+        return trendCubeService.getTrends(user.getId(), startDate, endDate, interval);
     }
 
     /**
      * Get user-specific category-wise report
      */
+    @Transactional(readOnly = true)
     public List<CategoryReport> getUserCategoryReport(String userEmail) {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Complaint> userComplaints = complaintRepository.findByAssignedOfficer(user);
-        
-        Map<String, List<Complaint>> byCategory = userComplaints.stream()
-            .filter(c -> c.getCategory() != null)
-            .collect(Collectors.groupingBy(Complaint::getCategory));
-        
-        List<CategoryReport> reports = new ArrayList<>();
-        for (Map.Entry<String, List<Complaint>> entry : byCategory.entrySet()) {
-            CategoryReport report = new CategoryReport();
-            report.setCategory(entry.getKey());
-            report.setTotalCount(entry.getValue().size());
-            
-            long resolved = entry.getValue().stream()
-                .filter(c -> "RESOLVED".equals(c.getStatus().getCode()))
-                .count();
-            report.setResolvedCount(resolved);
-            report.setPendingCount(entry.getValue().size() - resolved);
-            
-            double avgResolutionTime = calculateAverageResolutionTime(entry.getValue());
-            report.setAverageResolutionTimeHours(avgResolutionTime);
-            
-            reports.add(report);
-        }
-        
-        return reports;
+        return aggregate(statsRowsByOfficer(user)).toCategoryReports();
     }
 
     /**
      * Get user-specific status-wise report
      */
+    @Transactional(readOnly = true)
     public List<StatusReport> getUserStatusReport(String userEmail) {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        List<Complaint> userComplaints = complaintRepository.findByAssignedOfficer(user);
-        
-        Map<String, List<Complaint>> byStatus = userComplaints.stream()
-            .collect(Collectors.groupingBy(c -> c.getStatus().getDisplay()));
-        
-        List<StatusReport> reports = new ArrayList<>();
-        for (Map.Entry<String, List<Complaint>> entry : byStatus.entrySet()) {
-            StatusReport report = new StatusReport();
-            report.setStatus(entry.getKey());
-            report.setCount(entry.getValue().size());
-            
-            double percentage = userComplaints.isEmpty() ? 0.0 : 
-                (entry.getValue().size() * 100.0) / userComplaints.size();
-            report.setPercentage(Math.round(percentage * 100.0) / 100.0);
-            
-            reports.add(report);
-        }
-        
-        return reports;
+        return aggregate(statsRowsByOfficer(user)).toStatusReports();
     }
 
     /**
      * Get user-specific dashboard statistics
      */
+    @Transactional(readOnly = true)
     public Map<String, Object> getUserDashboardStats(String userEmail) {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
         
-        Map<String, Object> stats = new HashMap<>();
-        
-        List<Complaint> userComplaints = complaintRepository.findByAssignedOfficer(user);
-        stats.put("totalComplaints", userComplaints.size());
-        
-        long resolved = userComplaints.stream()
-            .filter(c -> "RESOLVED".equals(c.getStatus().getCode()))
-            .count();
-        stats.put("resolvedComplaints", resolved);
-        
-        long pending = userComplaints.stream()
-            .filter(c -> !"RESOLVED".equals(c.getStatus().getCode()))
-            .count();
-        stats.put("pendingComplaints", pending);
-        
-        long escalated = userComplaints.stream()
-            .filter(c -> "ESCALATED".equals(c.getStatus().getCode()))
-            .count();
-        stats.put("escalatedComplaints", escalated);
-        
-        // Recent complaints (last 7 days)
-        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
-        long recentComplaints = userComplaints.stream()
-            .filter(c -> c.getCreatedAt().isAfter(weekAgo))
-            .count();
-        stats.put("recentComplaints", recentComplaints);
-        
-        // Average resolution time for this user
-        double avgResolutionTime = calculateAverageResolutionTime(userComplaints);
-        stats.put("averageResolutionTimeHours", Math.round(avgResolutionTime * 100.0) / 100.0);
+        ComplaintAggregation aggregation = aggregate(statsRowsByOfficer(user));
+        Map<String, Object> stats = toDashboardStats(aggregation);
         
         // Performance metrics
-        double resolutionRate = userComplaints.isEmpty() ? 0.0 : (resolved * 100.0) / userComplaints.size();
+        double resolutionRate = aggregation.getTotal() == 0 ? 0.0 : (aggregation.getResolved() * 100.0) / aggregation.getTotal();
         stats.put("resolutionRate", Math.round(resolutionRate * 100.0) / 100.0);
+        stats.put("resolutionTimeHours", resolutionSketchService.getForOfficer(user.getId()));
         
         return stats;
     }
@@ -396,6 +221,7 @@ public class ReportService {
     /**
      * Generate user-specific CSV export data
      */
+    @Transactional(readOnly = true)
     public String generateUserCSVExport(String userEmail, LocalDateTime startDate, LocalDateTime endDate) {
         User user = userRepository.findByEmail(userEmail)
             .orElseThrow(() -> new RuntimeException("User not found"));
@@ -436,176 +262,173 @@ public class ReportService {
     // ==================== PDF GENERATION METHODS ====================
 
     /**
-     * Generate PDF report for system-wide data
+     * Write the system-wide PDF report straight to the given stream
      */
-    public byte[] generatePDFReport(LocalDateTime startDate, LocalDateTime endDate) {
+    @Transactional(readOnly = true)
+    public void writePDFReport(LocalDateTime startDate, LocalDateTime endDate, OutputStream out) {
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-
-            // Title
-            document.add(new Paragraph("ResolveIt - Complaints Report")
-                .setFontSize(20)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER));
+            Document document = openPdf(out);
+            PdfStyles styles = new PdfStyles();
 
-            document.add(new Paragraph("Generated on: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")))
+            document.add(new Paragraph("ResolveIt - Complaints Report").addStyle(styles.title));
+            document.add(new Paragraph("Generated on: " + LocalDateTime.now().format(PDF_DATE_TIME_FORMATTER))
                 .setTextAlignment(TextAlignment.CENTER));
+            addReportPeriod(document, startDate, endDate);
 
-            document.add(new Paragraph("Report Period: " + 
-                startDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")) + " to " +
-                endDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")))
-                .setTextAlignment(TextAlignment.CENTER));
-
-            document.add(new Paragraph("\n"));
+            long[] counts = totalAndResolved(complaintRepository.countTotalAndResolved(startDate, endDate));
+            long total = counts[0];
+            long resolved = counts[1];
 
-            // Get data
-            List<Complaint> complaints = complaintRepository.findByCreatedAtBetween(startDate, endDate);
-            
             // Summary Statistics
-            document.add(new Paragraph("Summary Statistics").setFontSize(16).setBold());
-            
+            document.add(new Paragraph("Summary Statistics").addStyle(styles.heading));
+
             Table summaryTable = new Table(UnitValue.createPercentArray(new float[]{1, 1}));
             summaryTable.setWidth(UnitValue.createPercentValue(100));
-            
-            summaryTable.addCell(new Cell().add(new Paragraph("Total Complaints")).setBold());
-            summaryTable.addCell(new Cell().add(new Paragraph(String.valueOf(complaints.size()))));
-            
-            long resolved = complaints.stream().filter(c -> "RESOLVED".equals(c.getStatus().getCode())).count();
-            summaryTable.addCell(new Cell().add(new Paragraph("Resolved")).setBold());
-            summaryTable.addCell(new Cell().add(new Paragraph(String.valueOf(resolved))));
-            
-            long pending = complaints.size() - resolved;
-            summaryTable.addCell(new Cell().add(new Paragraph("Pending")).setBold());
-            summaryTable.addCell(new Cell().add(new Paragraph(String.valueOf(pending))));
-            
+            addSummaryRow(summaryTable, styles, "Total Complaints", String.valueOf(total));
+            addSummaryRow(summaryTable, styles, "Resolved", String.valueOf(resolved));
+            addSummaryRow(summaryTable, styles, "Pending", String.valueOf(total - resolved));
+
             document.add(summaryTable);
             document.add(new Paragraph("\n"));
 
             // Complaints Details Table
-            document.add(new Paragraph("Complaints Details").setFontSize(16).setBold());
-            
-            Table detailsTable = new Table(UnitValue.createPercentArray(new float[]{1, 3, 2, 1, 2, 2}));
-            detailsTable.setWidth(UnitValue.createPercentValue(100));
-            
-            // Headers
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("ID")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Title")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Category")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Priority")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Status")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Created")).setBold());
-            
-            // Data rows
-            for (Complaint complaint : complaints) {
-                detailsTable.addCell(new Cell().add(new Paragraph(String.valueOf(complaint.getId()))));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getTitle())));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getCategory() != null ? complaint.getCategory() : "N/A")));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getPriority().toString())));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getStatus().getDisplay())));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getCreatedAt().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")))));
+            document.add(new Paragraph("Complaints Details").addStyle(styles.heading));
+            try (Stream<ComplaintReportRow> rows = complaintRepository.streamReportRows(startDate, endDate)) {
+                addDetailsTable(document, styles, rows);
             }
-            
-            document.add(detailsTable);
+
             document.close();
-            
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate PDF report: " + e.getMessage());
         }
     }
 
     /**
-     * Generate PDF report for user-specific data
+     * Write the PDF report of one officer's assigned complaints straight to the given stream
      */
-    public byte[] generateUserPDFReport(String userEmail, LocalDateTime startDate, LocalDateTime endDate) {
+    @Transactional(readOnly = true)
+    public void writeUserPDFReport(User user, LocalDateTime startDate, LocalDateTime endDate, OutputStream out) {
         try {
-            User user = userRepository.findByEmail(userEmail)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-            
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            PdfWriter writer = new PdfWriter(baos);
-            PdfDocument pdf = new PdfDocument(writer);
-            Document document = new Document(pdf);
-
-            // Title
-            document.add(new Paragraph("ResolveIt - Personal Complaints Report")
-                .setFontSize(20)
-                .setBold()
-                .setTextAlignment(TextAlignment.CENTER));
+            Document document = openPdf(out);
+            PdfStyles styles = new PdfStyles();
 
+            document.add(new Paragraph("ResolveIt - Personal Complaints Report").addStyle(styles.title));
             document.add(new Paragraph("Officer: " + user.getFullName())
                 .setTextAlignment(TextAlignment.CENTER));
-
-            document.add(new Paragraph("Generated on: " + LocalDateTime.now().format(DateTimeFormatter.ofPattern("MMM dd, yyyy HH:mm")))
-                .setTextAlignment(TextAlignment.CENTER));
-
-            document.add(new Paragraph("Report Period: " + 
-                startDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")) + " to " +
-                endDate.format(DateTimeFormatter.ofPattern("MMM dd, yyyy")))
+            document.add(new Paragraph("Generated on: " + LocalDateTime.now().format(PDF_DATE_TIME_FORMATTER))
                 .setTextAlignment(TextAlignment.CENTER));
+            addReportPeriod(document, startDate, endDate);
 
-            document.add(new Paragraph("\n"));
+            long[] counts = totalAndResolved(complaintRepository.countTotalAndResolvedByOfficer(user, startDate, endDate));
+            long total = counts[0];
+            long resolved = counts[1];
 
-            // Get user-specific data
-            List<Complaint> complaints = complaintRepository.findByAssignedOfficerAndCreatedAtBetween(user, startDate, endDate);
-            
             // Personal Statistics
-            document.add(new Paragraph("Personal Performance Statistics").setFontSize(16).setBold());
-            
+            document.add(new Paragraph("Personal Performance Statistics").addStyle(styles.heading));
+
             Table statsTable = new Table(UnitValue.createPercentArray(new float[]{1, 1}));
             statsTable.setWidth(UnitValue.createPercentValue(100));
-            
-            statsTable.addCell(new Cell().add(new Paragraph("Total Assigned Complaints")).setBold());
-            statsTable.addCell(new Cell().add(new Paragraph(String.valueOf(complaints.size()))));
-            
-            long resolved = complaints.stream().filter(c -> "RESOLVED".equals(c.getStatus().getCode())).count();
-            statsTable.addCell(new Cell().add(new Paragraph("Resolved")).setBold());
-            statsTable.addCell(new Cell().add(new Paragraph(String.valueOf(resolved))));
-            
-            long pending = complaints.size() - resolved;
-            statsTable.addCell(new Cell().add(new Paragraph("Pending")).setBold());
-            statsTable.addCell(new Cell().add(new Paragraph(String.valueOf(pending))));
-            
-            double resolutionRate = complaints.isEmpty() ? 0.0 : (resolved * 100.0) / complaints.size();
-            statsTable.addCell(new Cell().add(new Paragraph("Resolution Rate")).setBold());
-            statsTable.addCell(new Cell().add(new Paragraph(String.format("%.1f%%", resolutionRate))));
-            
+            addSummaryRow(statsTable, styles, "Total Assigned Complaints", String.valueOf(total));
+            addSummaryRow(statsTable, styles, "Resolved", String.valueOf(resolved));
+            addSummaryRow(statsTable, styles, "Pending", String.valueOf(total - resolved));
+            double resolutionRate = total == 0 ? 0.0 : (resolved * 100.0) / total;
+            addSummaryRow(statsTable, styles, "Resolution Rate", String.format("%.1f%%", resolutionRate));
+
             document.add(statsTable);
             document.add(new Paragraph("\n"));
 
             // Assigned Complaints Details
-            document.add(new Paragraph("Assigned Complaints Details").setFontSize(16).setBold());
-            
-            Table detailsTable = new Table(UnitValue.createPercentArray(new float[]{1, 3, 2, 1, 2, 2}));
-            detailsTable.setWidth(UnitValue.createPercentValue(100));
-            
-            // Headers
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("ID")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Title")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Category")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Priority")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Status")).setBold());
-            detailsTable.addHeaderCell(new Cell().add(new Paragraph("Created")).setBold());
-            
-            // Data rows
-            for (Complaint complaint : complaints) {
-                detailsTable.addCell(new Cell().add(new Paragraph(String.valueOf(complaint.getId()))));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getTitle())));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getCategory() != null ? complaint.getCategory() : "N/A")));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getPriority().toString())));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getStatus().getDisplay())));
-                detailsTable.addCell(new Cell().add(new Paragraph(complaint.getCreatedAt().format(DateTimeFormatter.ofPattern("MMM dd, yyyy")))));
+            document.add(new Paragraph("Assigned Complaints Details").addStyle(styles.heading));
+            try (Stream<ComplaintReportRow> rows = complaintRepository.streamReportRowsByOfficer(user, startDate, endDate)) {
+                addDetailsTable(document, styles, rows);
             }
-            
-            document.add(detailsTable);
+
             document.close();
-            
-            return baos.toByteArray();
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate user PDF report: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Look up the officer a personal report is generated for
+     */
+    public User getReportUser(String userEmail) {
+        return userRepository.findByEmail(userEmail)
+            .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+
+    /**
+     * Open a PDF document on the stream; the caller owns the stream, so closing the document leaves it open
+     */
+    private Document openPdf(OutputStream out) {
+        PdfWriter writer = new PdfWriter(out);
+        writer.setCloseStream(false);
+        return new Document(new PdfDocument(writer));
+    }
+
+    private void addReportPeriod(Document document, LocalDateTime startDate, LocalDateTime endDate) {
+        document.add(new Paragraph("Report Period: " +
+            startDate.format(PDF_DATE_FORMATTER) + " to " + endDate.format(PDF_DATE_FORMATTER))
+            .setTextAlignment(TextAlignment.CENTER));
+        document.add(new Paragraph("\n"));
+    }
+
+    private void addSummaryRow(Table table, PdfStyles styles, String label, String value) {
+        table.addCell(new Cell().add(new Paragraph(label)).addStyle(styles.bold));
+        table.addCell(new Cell().add(new Paragraph(value)));
+    }
+
+    /**
+     * Render the complaint rows as a large table that is flushed to the writer every
+     * PDF_FLUSH_ROWS rows, so memory use does not grow with the number of complaints
+     */
+    private void addDetailsTable(Document document, PdfStyles styles, Stream<ComplaintReportRow> rows) {
+        Table detailsTable = new Table(UnitValue.createPercentArray(new float[]{1, 3, 2, 1, 2, 2}), true);
+        detailsTable.setWidth(UnitValue.createPercentValue(100));
+
+        // Headers
+        for (String header : new String[]{"ID", "Title", "Category", "Priority", "Status", "Created"}) {
+            detailsTable.addHeaderCell(new Cell().add(new Paragraph(header)).addStyle(styles.bold));
+        }
+        document.add(detailsTable);
+
+        // Data rows
+        int rowCount = 0;
+        Iterator<ComplaintReportRow> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            ComplaintReportRow row = iterator.next();
+            detailsTable.addCell(new Cell().add(new Paragraph(String.valueOf(row.getId()))));
+            detailsTable.addCell(new Cell().add(new Paragraph(row.getTitle())));
+            detailsTable.addCell(new Cell().add(new Paragraph(row.getCategory() != null ? row.getCategory() : "N/A")));
+            detailsTable.addCell(new Cell().add(new Paragraph(row.getPriority().toString())));
+            detailsTable.addCell(new Cell().add(new Paragraph(row.getStatusDisplay())));
+            detailsTable.addCell(new Cell().add(new Paragraph(row.getCreatedAt().format(PDF_DATE_FORMATTER))));
+
+            if (++rowCount % PDF_FLUSH_ROWS == 0) {
+                detailsTable.flush();
+            }
+        }
+
+        detailsTable.complete();
+    }
+
+    /**
+     * Unpack the [total, resolved] row of a summary count query
+     */
+    private long[] totalAndResolved(List<Object[]> result) {
+        if (result.isEmpty() || result.get(0) == null) {
+            return new long[]{0, 0};
+        }
+        Object[] row = result.get(0);
+        return new long[]{((Number) row[0]).longValue(), ((Number) row[1]).longValue()};
+    }
+
+    /**
+     * Cell and paragraph styles shared by every element of one PDF document
+     */
+    private static class PdfStyles {
+        private final Style title = new Style().setFontSize(20).setBold().setTextAlignment(TextAlignment.CENTER);
+        private final Style heading = new Style().setFontSize(16).setBold();
+        private final Style bold = new Style().setBold();
+    }
+}
@@ -0,0 +1,502 @@
+package com.resolveit.service;
+
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.User;
+import com.resolveit.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolution-time quantile sketches (see ResolutionTimeSketch) overall and per category,
+ * priority and officer, so dashboards read p50/p90/p99 without scanning complaints.
+ *
+ * Complaint writes record their resolution changes (see ComplaintResolutionListener,
+ * ComplaintBulkService and ComplaintImportService); the changes are kept in memory once
+ * the writing transaction commits and merged into resolution_sketches under a row lock
+ * every flush interval, so several instances can share the table. Reads combine the
+ * stored sketches with the changes not yet written. A nightly rebuild from resolved_at
+ * corrects any drift.
+ *
+ * The rebuild briefly holds back transactions that record their first change, waits for
+ * those already recording to finish, and takes its snapshot and drops the pending changes
+ * in that pause, so each change is counted either by the snapshot or by pending, never by
+ * both. This holds for one instance only: changes another instance has not flushed yet are
+ * in the snapshot and are added again by its next flush, until the following rebuild.
+ */
+@Service
+public class ResolutionSketchService {
+
+    public static final List<String> DIMENSIONS = List.of("category", "priority", "officer");
+
+    private static final SketchKey OVERALL = new SketchKey("all", "");
+
+    private static final Comparator<SketchKey> KEY_ORDER = Comparator
+        .comparing(SketchKey::dimension)
+        .thenComparing(SketchKey::value);
+
+    private static final String RESOLVED_COMPLAINTS_SQL =
+        "SELECT created_at, resolved_at, category, priority, assigned_officer_id FROM complaints WHERE resolved_at IS NOT NULL " +
+        "UNION ALL " +
+        "SELECT created_at, resolved_at, category, priority, assigned_officer_id FROM complaints_archive WHERE resolved_at IS NOT NULL";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO resolution_sketches (dimension, dimension_value, sketch) VALUES (?, ?, ?)";
+
+    // How long a rebuild waits for recording transactions to finish before giving up until the next run
+    private static final long COMMIT_WAIT_MS = 10_000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // Injected so the migrations have run before the sketches are loaded
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Sketches as last read from the database
+    private volatile Map<SketchKey, ResolutionTimeSketch> persisted = Map.of();
+
+    // Committed changes not yet written; guarded by pending
+    private final Map<SketchKey, ResolutionTimeSketch> pending = new HashMap<>();
+
+    // Changes being written by the current flush, or superseded by the current rebuild; guarded by pending
+    private Map<SketchKey, ResolutionTimeSketch> inFlight = Map.of();
+
+    // Transactions that recorded changes and have not completed yet; guarded by pending
+    private int recording;
+
+    // Set while a rebuild takes its snapshot; guarded by pending
+    private boolean holding;
+
+    // Snapshot reads, so the rebuild sees the resolved complaints as of one moment
+    private TransactionTemplate snapshot;
+
+    /**
+     * Build the sketches from resolved complaints the first time, otherwise load them
+     */
+    @PostConstruct
+    public void init() {
+        snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        List<Integer> existing = jdbcTemplate.queryForList("SELECT 1 FROM resolution_sketches LIMIT 1", Integer.class);
+        if (existing.isEmpty()) {
+            rebuild();
+        } else {
+            load();
+        }
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Record resolution changes; they count once the current transaction commits
+     */
+    public void apply(ResolutionChanges changes) {
+        changes.deltas.values().removeIf(ResolutionTimeSketch::isEmpty);
+        if (changes.deltas.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (pending) {
+                addPending(changes);
+            }
+            return;
+        }
+
+        // One registration per transaction; later changes of the transaction join it
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof Recording recorded && recorded.owner() == this) {
+                recorded.changes().addAll(changes);
+                return;
+            }
+        }
+        synchronized (pending) {
+            awaitRelease();
+            recording++;
+        }
+        ResolutionChanges recorded = new ResolutionChanges();
+        recorded.addAll(changes);
+        TransactionSynchronizationManager.registerSynchronization(new Recording(this, recorded));
+    }
+
+    private void addPending(ResolutionChanges changes) {
+        changes.deltas.forEach((key, delta) -> pending.merge(key, delta.copy(), ResolutionSketchService::merged));
+    }
+
+    /**
+     * Wait while a rebuild takes its snapshot; called holding pending
+     */
+    private void awaitRelease() {
+        while (holding) {
+            try {
+                pending.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Record the resolution changes of a set-based status/officer update, ahead of the update.
+     * A null status or officer means that column is left unchanged.
+     */
+    public void recordBulkChange(Collection<Long> complaintIds, ComplaintStatus newStatus, Long newOfficerId, LocalDateTime now) {
+        if (complaintIds.isEmpty() || (newStatus == null && newOfficerId == null)) {
+            return;
+        }
+
+        Boolean closed = newStatus != null ? OfficerWorkloadService.CLOSED_STATUS_CODES.contains(newStatus.getCode()) : null;
+        String placeholders = String.join(", ", Collections.nCopies(complaintIds.size(), "?"));
+        ResolutionChanges changes = new ResolutionChanges();
+        jdbcTemplate.query(
+            "SELECT created_at, resolved_at, category, priority, assigned_officer_id FROM complaints " +
+            "WHERE id IN (" + placeholders + ") FOR UPDATE",
+            rs -> {
+                Resolution before = toResolution(rs.getTimestamp(1), rs.getTimestamp(2), rs.getString(3),
+                    rs.getString(4), rs.getObject(5, Long.class));
+
+                LocalDateTime resolvedAt = before.resolvedAt();
+                if (closed != null) {
+                    resolvedAt = closed ? (resolvedAt != null ? resolvedAt : now) : null;
+                }
+                Resolution after = new Resolution(before.createdAt(), resolvedAt, before.category(), before.priority(),
+                    newOfficerId != null ? newOfficerId : before.officerId());
+
+                changes.add(before, -1);
+                changes.add(after, 1);
+            },
+            complaintIds.toArray());
+        apply(changes);
+    }
+
+    /**
+     * Merge the committed changes into the stored sketches and re-read them
+     */
+    @Scheduled(fixedDelayString = "${app.resolution-sketches.flush-interval-ms:60000}")
+    public synchronized void flush() {
+        Map<SketchKey, ResolutionTimeSketch> batch;
+        synchronized (pending) {
+            batch = new HashMap<>(pending);
+            pending.clear();
+            inFlight = batch;
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> writeChanges(batch));
+            } catch (RuntimeException e) {
+                synchronized (pending) {
+                    batch.forEach((key, delta) -> pending.merge(key, delta, ResolutionSketchService::merged));
+                    inFlight = Map.of();
+                }
+                System.err.println("Resolution sketch flush failed, will retry: " + e.getMessage());
+                return;
+            }
+        }
+        load();
+    }
+
+    /**
+     * Lock each row in key order, add the changes and write it back
+     */
+    private void writeChanges(Map<SketchKey, ResolutionTimeSketch> batch) {
+        List<SketchKey> keys = new ArrayList<>(batch.keySet());
+        keys.sort(KEY_ORDER);
+        byte[] empty = new ResolutionTimeSketch().toBytes();
+
+        for (SketchKey key : keys) {
+            jdbcTemplate.update("INSERT IGNORE INTO resolution_sketches (dimension, dimension_value, sketch) VALUES (?, ?, ?)",
+                key.dimension(), key.value(), empty);
+            byte[] stored = jdbcTemplate.queryForObject(
+                "SELECT sketch FROM resolution_sketches WHERE dimension = ? AND dimension_value = ? FOR UPDATE",
+                byte[].class, key.dimension(), key.value());
+
+            ResolutionTimeSketch sketch = ResolutionTimeSketch.fromBytes(stored);
+            sketch.merge(batch.get(key));
+            jdbcTemplate.update("UPDATE resolution_sketches SET sketch = ? WHERE dimension = ? AND dimension_value = ?",
+                sketch.toBytes(), key.dimension(), key.value());
+        }
+    }
+
+    /**
+     * Recompute every sketch from the live and archived resolved complaints nightly, correcting any drift.
+     * Never runs together with a flush.
+     */
+    @Scheduled(cron = "0 45 2 * * *")
+    public synchronized void rebuild() {
+        try {
+            snapshot.executeWithoutResult(tx -> {
+                holdCommits();
+                try {
+                    // The first read fixes the snapshot: every change committed so far is in it and in pending
+                    jdbcTemplate.queryForList("SELECT id FROM complaints LIMIT 1", Long.class);
+                    synchronized (pending) {
+                        inFlight = new HashMap<>(pending);
+                        pending.clear();
+                    }
+                } finally {
+                    releaseCommits();
+                }
+
+                ResolutionChanges rebuilt = new ResolutionChanges();
+                jdbcTemplate.query(RESOLVED_COMPLAINTS_SQL, rs -> {
+                    rebuilt.add(toResolution(rs.getTimestamp(1), rs.getTimestamp(2), rs.getString(3),
+                        rs.getString(4), rs.getObject(5, Long.class)), 1);
+                });
+
+                List<Object[]> batchArgs = new ArrayList<>();
+                for (Map.Entry<SketchKey, ResolutionTimeSketch> entry : rebuilt.deltas.entrySet()) {
+                    batchArgs.add(new Object[]{entry.getKey().dimension(), entry.getKey().value(), entry.getValue().toBytes()});
+                }
+                jdbcTemplate.update("DELETE FROM resolution_sketches");
+                if (!batchArgs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+                }
+            });
+        } catch (RuntimeException e) {
+            // The stored sketches are unchanged, so the dropped changes still have to be written
+            synchronized (pending) {
+                inFlight.forEach((key, delta) -> pending.merge(key, delta, ResolutionSketchService::merged));
+                inFlight = Map.of();
+            }
+            throw e;
+        }
+        load();
+    }
+
+    /**
+     * Hold back transactions recording their first change and wait for the recording ones to complete
+     */
+    private void holdCommits() {
+        synchronized (pending) {
+            holding = true;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(COMMIT_WAIT_MS);
+            try {
+                while (recording > 0) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new IllegalStateException("Resolution sketch rebuild skipped: " + recording
+                            + " transactions still recording after " + COMMIT_WAIT_MS + " ms");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(pending, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                holding = false;
+                pending.notifyAll();
+                throw new IllegalStateException("Resolution sketch rebuild interrupted");
+            } catch (RuntimeException e) {
+                holding = false;
+                pending.notifyAll();
+                throw e;
+            }
+        }
+    }
+
+    private void releaseCommits() {
+        synchronized (pending) {
+            holding = false;
+            pending.notifyAll();
+        }
+    }
+
+    private void load() {
+        Map<SketchKey, ResolutionTimeSketch> loaded = new HashMap<>();
+        jdbcTemplate.query("SELECT dimension, dimension_value, sketch FROM resolution_sketches", rs -> {
+            loaded.put(new SketchKey(rs.getString(1), rs.getString(2)), ResolutionTimeSketch.fromBytes(rs.getBytes(3)));
+        });
+        synchronized (pending) {
+            persisted = loaded;
+            inFlight = Map.of();
+        }
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Resolution-time percentiles over all complaints
+     */
+    public Map<String, Object> getOverall() {
+        return summarize(current(OVERALL));
+    }
+
+    /**
+     * Resolution-time percentiles of the complaints assigned to one officer
+     */
+    public Map<String, Object> getForOfficer(Long officerId) {
+        return summarize(current(new SketchKey("officer", officerId.toString())));
+    }
+
+    /**
+     * Resolution-time percentiles per category, priority or officer, most resolved first
+     */
+    public List<Map<String, Object>> getByDimension(String dimension) {
+        if (!DIMENSIONS.contains(dimension)) {
+            throw new RuntimeException("Unsupported dimension: " + dimension);
+        }
+
+        Map<String, ResolutionTimeSketch> sketches = new HashMap<>();
+        synchronized (pending) {
+            for (Map<SketchKey, ResolutionTimeSketch> source : List.of(persisted, inFlight, pending)) {
+                source.forEach((key, sketch) -> {
+                    if (key.dimension().equals(dimension)) {
+                        sketches.merge(key.value(), sketch.copy(), ResolutionSketchService::merged);
+                    }
+                });
+            }
+        }
+
+        Map<Long, String> officerNames = new HashMap<>();
+        if ("officer".equals(dimension)) {
+            List<Long> ids = sketches.keySet().stream().map(Long::valueOf).toList();
+            for (User officer : userRepository.findAllById(ids)) {
+                officerNames.put(officer.getId(), officer.getFullName());
+            }
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Map.Entry<String, ResolutionTimeSketch> entry : sketches.entrySet()) {
+            if (entry.getValue().getCount() <= 0) {
+                continue;
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            if ("officer".equals(dimension)) {
+                Long officerId = Long.valueOf(entry.getKey());
+                result.put("officerId", officerId);
+                result.put("officer", officerNames.getOrDefault(officerId, "Unknown"));
+            } else {
+                result.put(dimension, entry.getKey());
+            }
+            result.putAll(summarize(entry.getValue()));
+            results.add(result);
+        }
+        results.sort(Comparator.comparing((Map<String, Object> result) -> (Long) result.get("resolvedCount")).reversed());
+        return results;
+    }
+
+    private ResolutionTimeSketch current(SketchKey key) {
+        ResolutionTimeSketch sketch = new ResolutionTimeSketch();
+        synchronized (pending) {
+            for (Map<SketchKey, ResolutionTimeSketch> source : List.of(persisted, inFlight, pending)) {
+                ResolutionTimeSketch part = source.get(key);
+                if (part != null) {
+                    sketch.merge(part);
+                }
+            }
+        }
+        return sketch;
+    }
+
+    private static Map<String, Object> summarize(ResolutionTimeSketch sketch) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("resolvedCount", Math.max(sketch.getCount(), 0));
+        summary.put("p50Hours", sketch.quantileHours(0.50));
+        summary.put("p90Hours", sketch.quantileHours(0.90));
+        summary.put("p99Hours", sketch.quantileHours(0.99));
+        return summary;
+    }
+
+    private static ResolutionTimeSketch merged(ResolutionTimeSketch a, ResolutionTimeSketch b) {
+        a.merge(b);
+        return a;
+    }
+
+    private static Resolution toResolution(Timestamp createdAt, Timestamp resolvedAt, String category, String priority, Long officerId) {
+        return new Resolution(createdAt != null ? createdAt.toLocalDateTime() : null,
+            resolvedAt != null ? resolvedAt.toLocalDateTime() : null, category, priority, officerId);
+    }
+
+    /**
+     * The resolution-relevant state of one complaint
+     */
+    public record Resolution(LocalDateTime createdAt, LocalDateTime resolvedAt, String category, String priority, Long officerId) {
+    }
+
+    private record SketchKey(String dimension, String value) {
+    }
+
+    /**
+     * The changes one transaction recorded; they join pending once it commits
+     */
+    private record Recording(ResolutionSketchService owner, ResolutionChanges changes) implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            synchronized (owner.pending) {
+                owner.addPending(changes);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            synchronized (owner.pending) {
+                owner.recording--;
+                owner.pending.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Sketch changes accumulated over one write; a complaint's old state is added with -1
+     * and its new state with +1, so unchanged complaints cancel out
+     */
+    public static class ResolutionChanges {
+        private final Map<SketchKey, ResolutionTimeSketch> deltas = new HashMap<>();
+
+        public void add(Resolution resolution, int delta) {
+            if (resolution == null || resolution.createdAt() == null || resolution.resolvedAt() == null) {
+                return;
+            }
+            long seconds = Math.max(0, Duration.between(resolution.createdAt(), resolution.resolvedAt()).getSeconds());
+
+            add(OVERALL, seconds, delta);
+            if (resolution.category() != null) {
+                add(new SketchKey("category", resolution.category()), seconds, delta);
+            }
+            if (resolution.priority() != null) {
+                add(new SketchKey("priority", resolution.priority()), seconds, delta);
+            }
+            if (resolution.officerId() != null) {
+                add(new SketchKey("officer", resolution.officerId().toString()), seconds, delta);
+            }
+        }
+
+        void addAll(ResolutionChanges other) {
+            other.deltas.forEach((key, delta) -> deltas.merge(key, delta.copy(), ResolutionSketchService::merged));
+        }
+
+        private void add(SketchKey key, long seconds, int delta) {
+            ResolutionTimeSketch sketch = deltas.computeIfAbsent(key, k -> new ResolutionTimeSketch());
+            if (delta > 0) {
+                sketch.add(seconds);
+            } else {
+                sketch.remove(seconds);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.resolveit.service;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Mergeable quantile sketch of resolution times with 1% relative accuracy.
+ *
+ * Durations are counted in logarithmic buckets: bucket 0 holds durations under a second
+ * and bucket i > 0 holds (GAMMA^(i-2), GAMMA^(i-1)] seconds. Counts are exact per bucket,
+ * so two sketches merge by adding counts, and a duration can be removed again (a reopened
+ * complaint) by subtracting it. Quantiles walk the fixed set of buckets, independent of
+ * how many durations were added.
+ */
+public class ResolutionTimeSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    // Longer durations (20 years) share the last bucket
+    private static final long MAX_SECONDS = 20L * 365 * 24 * 3600;
+    private static final int BUCKETS = bucketOf(MAX_SECONDS) + 1;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+
+    public void add(long seconds) {
+        add(seconds, 1);
+    }
+
+    public void remove(long seconds) {
+        add(seconds, -1);
+    }
+
+    private void add(long seconds, long n) {
+        counts[Math.min(bucketOf(seconds), BUCKETS - 1)] += n;
+        count += n;
+    }
+
+    public void merge(ResolutionTimeSketch other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+    }
+
+    public ResolutionTimeSketch copy() {
+        ResolutionTimeSketch copy = new ResolutionTimeSketch();
+        copy.merge(this);
+        return copy;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * True if every bucket nets to zero, e.g. a change sketch whose additions were all removed again
+     */
+    public boolean isEmpty() {
+        for (long bucket : counts) {
+            if (bucket != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Estimated q-quantile (0..1) in hours, or null if the sketch is empty
+     */
+    public Double quantileHours(double q) {
+        if (count <= 0) {
+            return null;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return Math.round(estimate(i) / 3600.0 * 100.0) / 100.0;
+            }
+        }
+        return Math.round(estimate(BUCKETS - 1) / 3600.0 * 100.0) / 100.0;
+    }
+
+    private static int bucketOf(long seconds) {
+        if (seconds < 1) {
+            return 0;
+        }
+        return 1 + (int) Math.ceil(Math.log(seconds) / LOG_GAMMA);
+    }
+
+    /**
+     * Value within 1% of every duration in the bucket
+     */
+    private static double estimate(int bucket) {
+        if (bucket == 0) {
+            return 0.0;
+        }
+        return 2 * Math.pow(GAMMA, bucket - 1) / (GAMMA + 1);
+    }
+
+    // ==================== SERIALIZATION ====================
+
+    /**
+     * Version byte, then (bucket gap, zigzag count) varint pairs for the non-zero buckets
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(FORMAT_VERSION);
+        int previous = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                writeVarLong(out, i - previous);
+                writeVarLong(out, (counts[i] << 1) ^ (counts[i] >> 63));
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static ResolutionTimeSketch fromBytes(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported resolution sketch format");
+        }
+        ResolutionTimeSketch sketch = new ResolutionTimeSketch();
+        int[] position = {1};
+        int bucket = 0;
+        while (position[0] < bytes.length) {
+            bucket += (int) readVarLong(bytes, position);
+            if (bucket < 0 || bucket >= BUCKETS) {
+                throw new IllegalArgumentException("Malformed resolution sketch");
+            }
+            long zigzag = readVarLong(bytes, position);
+            long n = (zigzag >>> 1) ^ -(zigzag & 1);
+            sketch.counts[bucket] += n;
+            sketch.count += n;
+        }
+        return sketch;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && position[0] < bytes.length; shift += 7) {
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed resolution sketch");
+    }
+}
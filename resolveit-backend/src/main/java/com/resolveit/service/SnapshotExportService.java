@@ -0,0 +1,267 @@
+package com.resolveit.service;
+
+import com.resolveit.service.ColumnarSnapshotWriter.Column;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Incremental snapshots of complaints, comments and escalations (live and archived) as
+ * compressed columnar files for offline analytics.
+ *
+ * Each run appends one part file per table with the rows changed since that table's
+ * watermark (change time, then id), streamed from a read-only transaction so it is served
+ * by a replica when one is configured. A row changed again later appears in a later part
+ * as well; readers keep the last version of each id.
+ */
+@Service
+public class SnapshotExportService {
+
+    private static final int ROW_GROUP_SIZE = 16_384;
+
+    private static final List<Dataset> DATASETS = List.of(
+        new Dataset("complaints", List.of("complaints", "complaints_archive"), "COALESCE(updated_at, created_at)", List.of(
+            new Column("id", Column.LONG), new Column("title", Column.STRING), new Column("description", Column.STRING),
+            new Column("category", Column.STRING), new Column("priority", Column.STRING),
+            new Column("anonymous", Column.BOOLEAN), new Column("user_id", Column.LONG),
+            new Column("status_id", Column.LONG), new Column("assigned_officer_id", Column.LONG),
+            new Column("created_at", Column.TIMESTAMP), new Column("updated_at", Column.TIMESTAMP),
+            new Column("resolved_at", Column.TIMESTAMP), new Column("version", Column.LONG))),
+        // Comments are never edited, so creation time is their change time
+        new Dataset("comments", List.of("comments", "comments_archive"), "created_at", List.of(
+            new Column("id", Column.LONG), new Column("complaint_id", Column.LONG), new Column("author_id", Column.LONG),
+            new Column("message", Column.STRING), new Column("is_private", Column.BOOLEAN),
+            new Column("created_at", Column.TIMESTAMP))),
+        // Escalations change once, when resolved, so they are exported as escalated and again as resolved
+        new Dataset("escalations", List.of("escalations", "escalations_archive"), "COALESCE(resolved_at, escalated_at)", List.of(
+            new Column("id", Column.LONG), new Column("complaint_id", Column.LONG),
+            new Column("escalated_to_role", Column.LONG), new Column("reason", Column.STRING),
+            new Column("escalated_at", Column.TIMESTAMP), new Column("resolved", Column.BOOLEAN),
+            new Column("resolved_at", Column.TIMESTAMP)))
+    );
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Directory holding one sub-directory of part files per table
+    @Value("${app.snapshots.dir:snapshots}")
+    private String snapshotDir;
+
+    @Value("${app.snapshots.enabled:true}")
+    private boolean enabled;
+
+    // Rows changed more recently than this are left for the next run, so slow transactions are not skipped
+    @Value("${app.snapshots.safety-lag-seconds:60}")
+    private long safetyLagSeconds;
+
+    /**
+     * Append the changes since the last run. Runs daily at 5 AM
+     */
+    @Scheduled(cron = "${app.snapshots.cron:0 0 5 * * *}")
+    public void scheduledExport() {
+        if (enabled) {
+            try {
+                exportAll();
+            } catch (Exception e) {
+                System.err.println("Snapshot export failed: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Export every table and return a summary per table
+     */
+    public synchronized List<Map<String, Object>> exportAll() throws IOException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Dataset dataset : DATASETS) {
+            results.add(export(dataset));
+        }
+        return results;
+    }
+
+    private Map<String, Object> export(Dataset dataset) throws IOException {
+        Path dir = Paths.get(snapshotDir, dataset.name()).toAbsolutePath().normalize();
+        Files.createDirectories(dir);
+        Watermark from = readWatermark(dir);
+        Timestamp until = Timestamp.valueOf(LocalDateTime.now().minusSeconds(safetyLagSeconds));
+
+        String runId = String.valueOf(System.currentTimeMillis());
+        Path partial = dir.resolve("part-" + runId + ".part");
+        Path target = dir.resolve("part-" + runId + ".rcol.gz");
+        Watermark[] last = {from};
+        long rows;
+
+        // Streamed with a MySQL server-side cursor; the transaction is read-only so it can use a replica
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(Integer.MIN_VALUE);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        try (OutputStream file = Files.newOutputStream(partial);
+             ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(file, dataset.columns(), ROW_GROUP_SIZE)) {
+            readOnly.executeWithoutResult(tx -> streaming.query(dataset.selectSql(), rs -> {
+                try {
+                    writer.addRow(readRow(rs, dataset.columns()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                last[0] = new Watermark(rs.getTimestamp("change_time"), rs.getLong("id"));
+            }, dataset.selectArgs(from, until)));
+            rows = writer.getRowCount();
+        } catch (UncheckedIOException e) {
+            Files.deleteIfExists(partial);
+            throw e.getCause();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(partial);
+            throw e;
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("table", dataset.name());
+        result.put("rows", rows);
+        if (rows == 0) {
+            Files.deleteIfExists(partial);
+            return result;
+        }
+
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        writeWatermark(dir, last[0]);
+        result.put("file", target.getFileName().toString());
+        result.put("sizeBytes", Files.size(target));
+        result.put("watermark", last[0].changeTime().toString());
+        return result;
+    }
+
+    private static Object[] readRow(ResultSet rs, List<Column> columns) throws SQLException {
+        Object[] values = new Object[columns.size()];
+        for (int i = 0; i < values.length; i++) {
+            int index = i + 1;
+            switch (columns.get(i).type()) {
+                case Column.LONG -> {
+                    long value = rs.getLong(index);
+                    values[i] = rs.wasNull() ? null : value;
+                }
+                case Column.BOOLEAN -> {
+                    boolean value = rs.getBoolean(index);
+                    values[i] = rs.wasNull() ? null : value;
+                }
+                case Column.TIMESTAMP -> values[i] = rs.getTimestamp(index);
+                default -> values[i] = rs.getString(index);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Part files per table with their sizes, oldest first
+     */
+    public List<Map<String, Object>> listSnapshots() throws IOException {
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (Dataset dataset : DATASETS) {
+            Path dir = Paths.get(snapshotDir, dataset.name()).toAbsolutePath().normalize();
+            List<Map<String, Object>> parts = new ArrayList<>();
+            long totalBytes = 0;
+            if (Files.isDirectory(dir)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*.rcol.gz")) {
+                    for (Path file : files) {
+                        Map<String, Object> part = new LinkedHashMap<>();
+                        part.put("file", file.getFileName().toString());
+                        part.put("sizeBytes", Files.size(file));
+                        totalBytes += Files.size(file);
+                        parts.add(part);
+                    }
+                }
+            }
+            parts.sort(Comparator.comparing(part -> (String) part.get("file")));
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("table", dataset.name());
+            result.put("parts", parts);
+            result.put("totalBytes", totalBytes);
+            Watermark watermark = Files.isDirectory(dir) ? readWatermark(dir) : Watermark.START;
+            result.put("watermark", watermark == Watermark.START ? null : watermark.changeTime().toString());
+            results.add(result);
+        }
+        return results;
+    }
+
+    private static Watermark readWatermark(Path dir) throws IOException {
+        Path file = dir.resolve("watermark.properties");
+        if (!Files.exists(file)) {
+            return Watermark.START;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            properties.load(in);
+        }
+        return new Watermark(Timestamp.valueOf(properties.getProperty("changeTime")),
+            Long.parseLong(properties.getProperty("id")));
+    }
+
+    /**
+     * Written after the part file is in place; a crash in between only re-exports that part's rows
+     */
+    private static void writeWatermark(Path dir, Watermark watermark) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("changeTime", watermark.changeTime().toString());
+        properties.setProperty("id", String.valueOf(watermark.id()));
+
+        Path temp = dir.resolve("watermark.properties.tmp");
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            properties.store(out, "Last exported row");
+        }
+        Files.move(temp, dir.resolve("watermark.properties"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private record Watermark(Timestamp changeTime, long id) {
+        static final Watermark START = new Watermark(Timestamp.valueOf("1970-01-02 00:00:00"), 0);
+    }
+
+    private record Dataset(String name, List<String> tables, String changeTimeSql, List<Column> columns) {
+
+        /**
+         * Rows of every table changed after the watermark and before the cut-off, in watermark order
+         */
+        String selectSql() {
+            String columnList = String.join(", ", columns.stream().map(Column::name).toList());
+            StringJoiner union = new StringJoiner(" UNION ALL ");
+            for (String table : tables) {
+                union.add("SELECT " + columnList + ", " + changeTimeSql + " AS change_time FROM " + table +
+                    " WHERE (" + changeTimeSql + " > ? OR (" + changeTimeSql + " = ? AND id > ?)) AND " +
+                    changeTimeSql + " < ?");
+            }
+            return union + " ORDER BY change_time, id";
+        }
+
+        Object[] selectArgs(Watermark from, Timestamp until) {
+            List<Object> args = new ArrayList<>();
+            for (int i = 0; i < tables.size(); i++) {
+                args.addAll(List.of(from.changeTime(), from.changeTime(), from.id(), until));
+            }
+            return args.toArray();
+        }
+    }
+}
@@ -0,0 +1,424 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.ComplaintTrendReport;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.repository.ComplaintStatusRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+
+/**
+ * Pre-aggregated complaint counts in hourly and daily buckets per
+ * (category, status, priority, officer), keyed by the hour a complaint was created.
+ *
+ * Complaint writes keep the buckets current in the writing transaction (see
+ * ComplaintTrendListener, ComplaintBulkService and ComplaintImportService), so trend
+ * queries merge O(days) bucket rows instead of loading every complaint in the range.
+ */
+@Service
+public class TrendCubeService {
+
+    public static final List<String> INTERVALS = List.of("hour", "day", "week", "month");
+
+    private static final DateTimeFormatter HOUR_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:00");
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO complaint_trend_buckets (granularity, bucket_start, category, status_id, priority, officer_id, complaint_count) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE complaint_count = complaint_count + VALUES(complaint_count)";
+
+    // Live and archived complaints; trends count both
+    private static final List<String> COMPLAINT_TABLES = List.of("complaints", "complaints_archive");
+
+
+    // Keeps multi-row upserts in one lock order so concurrent writers do not deadlock
+    private static final Comparator<TrendCell> CELL_ORDER = Comparator
+        .comparing(TrendCell::bucket)
+        .thenComparing(TrendCell::category)
+        .thenComparingLong(TrendCell::statusId)
+        .thenComparing(TrendCell::priority)
+        .thenComparingLong(TrendCell::officerId);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ComplaintStatusRepository statusRepository;
+
+    // Injected so the migrations have run before the cube is built
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Snapshot reads, so the complaints and the buckets of a day are seen as of one moment
+    private TransactionTemplate snapshot;
+
+    /**
+     * Fill the bucket table (created by the migrations) from existing complaints the first time
+     */
+    @PostConstruct
+    public void initCube() {
+        snapshot = new TransactionTemplate(transactionManager);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+
+        List<Integer> existing = jdbcTemplate.queryForList("SELECT 1 FROM complaint_trend_buckets LIMIT 1", Integer.class);
+        if (existing.isEmpty()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Recount every bucket from the live and archived complaints nightly, correcting any drift.
+     * Runs one day per short transaction, so complaint writes are never held up for long.
+     */
+    @Scheduled(cron = "0 30 2 * * *")
+    public void rebuild() {
+        LocalDateTime first = null;
+        LocalDateTime last = null;
+        for (String sql : List.of(
+                "SELECT MIN(created_at), MAX(created_at) FROM complaints",
+                "SELECT MIN(created_at), MAX(created_at) FROM complaints_archive",
+                "SELECT MIN(bucket_start), MAX(bucket_start) FROM complaint_trend_buckets")) {
+            Timestamp[] range = jdbcTemplate.queryForObject(sql, (rs, rowNum) -> new Timestamp[]{rs.getTimestamp(1), rs.getTimestamp(2)});
+            if (range[0] != null) {
+                first = first == null || range[0].toLocalDateTime().isBefore(first) ? range[0].toLocalDateTime() : first;
+                last = last == null || range[1].toLocalDateTime().isAfter(last) ? range[1].toLocalDateTime() : last;
+            }
+        }
+        if (first == null) {
+            return;
+        }
+
+        for (LocalDateTime day = first.truncatedTo(ChronoUnit.DAYS); !day.isAfter(last); day = day.plusDays(1)) {
+            correctDay(day);
+        }
+    }
+
+    /**
+     * Bring one day's buckets in line with its complaints. Both are read from one consistent
+     * snapshot, without locking a complaint row; a writer commits a complaint together with
+     * its bucket change, so the snapshot sees both or neither. The difference is then added
+     * to the buckets like any other change, which commutes with writers adding theirs since.
+     */
+    private void correctDay(LocalDateTime day) {
+        Timestamp from = Timestamp.valueOf(day);
+        Timestamp to = Timestamp.valueOf(day.plusDays(1));
+
+        snapshot.executeWithoutResult(tx -> {
+            TrendChanges counted = new TrendChanges();
+            for (String table : COMPLAINT_TABLES) {
+                jdbcTemplate.query(
+                    "SELECT created_at, category, status_id, priority, assigned_officer_id FROM " + table +
+                    " WHERE created_at >= ? AND created_at < ?",
+                    rs -> {
+                        counted.add(toLocalDateTime(rs.getTimestamp(1)), rs.getString(2), rs.getObject(3, Long.class),
+                            rs.getString(4), rs.getObject(5, Long.class), 1);
+                    },
+                    from, to);
+            }
+
+            Map<TrendCell, Long> hourly = new HashMap<>(counted.deltas);
+            Map<TrendCell, Long> daily = toDaily(hourly);
+            jdbcTemplate.query(
+                "SELECT granularity, bucket_start, category, status_id, priority, officer_id, complaint_count " +
+                "FROM complaint_trend_buckets WHERE granularity IN ('H', 'D') AND bucket_start >= ? AND bucket_start < ?",
+                rs -> {
+                    TrendCell cell = new TrendCell(toLocalDateTime(rs.getTimestamp(2)), rs.getString(3), rs.getLong(4),
+                        rs.getString(5), rs.getLong(6));
+                    ("H".equals(rs.getString(1)) ? hourly : daily).merge(cell, -rs.getLong(7), Long::sum);
+                },
+                from, to);
+
+            List<Object[]> batchArgs = new ArrayList<>();
+            addUpserts(batchArgs, "H", hourly);
+            addUpserts(batchArgs, "D", daily);
+            if (!batchArgs.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+                jdbcTemplate.update("DELETE FROM complaint_trend_buckets WHERE granularity IN ('H', 'D') " +
+                    "AND bucket_start >= ? AND bucket_start < ? AND complaint_count = 0", from, to);
+            }
+        });
+    }
+
+    // ==================== MAINTENANCE ====================
+
+    /**
+     * Apply bucket changes in the current transaction
+     */
+    public void apply(TrendChanges changes) {
+        Map<TrendCell, Long> daily = toDaily(changes.deltas);
+
+        List<Object[]> batchArgs = new ArrayList<>();
+        addUpserts(batchArgs, "H", changes.deltas);
+        addUpserts(batchArgs, "D", daily);
+        if (!batchArgs.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batchArgs);
+        }
+    }
+
+    private static Map<TrendCell, Long> toDaily(Map<TrendCell, Long> hourly) {
+        Map<TrendCell, Long> daily = new HashMap<>();
+        for (Map.Entry<TrendCell, Long> entry : hourly.entrySet()) {
+            daily.merge(entry.getKey().toDay(), entry.getValue(), Long::sum);
+        }
+        return daily;
+    }
+
+    private void addUpserts(List<Object[]> batchArgs, String granularity, Map<TrendCell, Long> deltas) {
+        List<TrendCell> cells = new ArrayList<>(deltas.keySet());
+        cells.sort(CELL_ORDER);
+        for (TrendCell cell : cells) {
+            long delta = deltas.get(cell);
+            if (delta != 0) {
+                batchArgs.add(new Object[]{granularity, Timestamp.valueOf(cell.bucket()), cell.category(),
+                    cell.statusId(), cell.priority(), cell.officerId(), delta});
+            }
+        }
+    }
+
+    /**
+     * Move complaints to their new cells ahead of a set-based status/officer update.
+     * A null status or officer id means that column is left unchanged.
+     */
+    public void recordBulkChange(Collection<Long> complaintIds, Integer newStatusId, Long newOfficerId) {
+        if (complaintIds.isEmpty() || (newStatusId == null && newOfficerId == null)) {
+            return;
+        }
+
+        String placeholders = String.join(", ", Collections.nCopies(complaintIds.size(), "?"));
+        TrendChanges changes = new TrendChanges();
+        jdbcTemplate.query(
+            "SELECT created_at, category, status_id, priority, assigned_officer_id FROM complaints " +
+            "WHERE id IN (" + placeholders + ") FOR UPDATE",
+            rs -> {
+                LocalDateTime createdAt = toLocalDateTime(rs.getTimestamp(1));
+                String category = rs.getString(2);
+                Long statusId = rs.getObject(3, Long.class);
+                String priority = rs.getString(4);
+                Long officerId = rs.getObject(5, Long.class);
+
+                changes.add(createdAt, category, statusId, priority, officerId, -1);
+                changes.add(createdAt, category,
+                    newStatusId != null ? Long.valueOf(newStatusId) : statusId,
+                    priority,
+                    newOfficerId != null ? newOfficerId : officerId, 1);
+            },
+            complaintIds.toArray());
+        apply(changes);
+    }
+
+    // ==================== QUERIES ====================
+
+    /**
+     * Trend report for complaints created in [startDate, endDate], optionally limited to one officer.
+     * Whole days come from daily buckets, whole hours at the edges from hourly buckets, and the
+     * partial hours at either end from the complaints table, so the counts are exact.
+     */
+    @Transactional(readOnly = true)
+    public ComplaintTrendReport getTrends(Long officerId, LocalDateTime startDate, LocalDateTime endDate, String interval) {
+        String normalizedInterval = interval != null ? interval.toLowerCase() : "day";
+        if (!INTERVALS.contains(normalizedInterval)) {
+            throw new RuntimeException("Unsupported trend interval: " + interval);
+        }
+
+        Map<Long, String> statusDisplays = new HashMap<>();
+        for (ComplaintStatus status : statusRepository.findAll()) {
+            statusDisplays.put(status.getId().longValue(), status.getDisplay());
+        }
+        TrendAccumulator acc = new TrendAccumulator(normalizedInterval, statusDisplays);
+
+        LocalDateTime firstHour = ceil(startDate, ChronoUnit.HOURS);
+        LocalDateTime lastHour = endDate.truncatedTo(ChronoUnit.HOURS);
+
+        if (!firstHour.isBefore(lastHour)) {
+            addRawComplaints(acc, officerId, startDate, endDate, true);
+        } else {
+            addRawComplaints(acc, officerId, startDate, firstHour, false);
+            addRawComplaints(acc, officerId, lastHour, endDate, true);
+
+            LocalDateTime firstDay = ceil(firstHour, ChronoUnit.DAYS);
+            LocalDateTime lastDay = lastHour.truncatedTo(ChronoUnit.DAYS);
+            if ("hour".equals(normalizedInterval) || !firstDay.isBefore(lastDay)) {
+                addBuckets(acc, officerId, "H", firstHour, lastHour);
+            } else {
+                addBuckets(acc, officerId, "H", firstHour, firstDay);
+                addBuckets(acc, officerId, "D", firstDay, lastDay);
+                addBuckets(acc, officerId, "H", lastDay, lastHour);
+            }
+        }
+
+        ComplaintTrendReport report = new ComplaintTrendReport();
+        report.setStartDate(startDate);
+        report.setEndDate(endDate);
+        report.setTotalComplaints((int) acc.total);
+        report.setComplaintsByStatus(nonZero(acc.byStatus));
+        report.setComplaintsByCategory(nonZero(acc.byCategory));
+        report.setComplaintsByPriority(nonZero(acc.byPriority));
+        report.setTrendInterval(normalizedInterval);
+        report.setTrend(nonZero(acc.trend));
+        if ("day".equals(normalizedInterval)) {
+            report.setDailyTrend(report.getTrend());
+        }
+        return report;
+    }
+
+    private void addBuckets(TrendAccumulator acc, Long officerId, String granularity,
+                            LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder(
+            "SELECT bucket_start, category, status_id, priority, SUM(complaint_count) FROM complaint_trend_buckets " +
+            "WHERE granularity = ? AND bucket_start >= ? AND bucket_start < ?");
+        List<Object> args = new ArrayList<>(List.of(granularity, Timestamp.valueOf(from), Timestamp.valueOf(to)));
+        if (officerId != null) {
+            sql.append(" AND officer_id = ?");
+            args.add(officerId);
+        }
+        sql.append(" GROUP BY bucket_start, category, status_id, priority");
+
+        jdbcTemplate.query(sql.toString(),
+            rs -> {
+                acc.add(toLocalDateTime(rs.getTimestamp(1)), rs.getString(2), rs.getLong(3), rs.getString(4), rs.getLong(5));
+            },
+            args.toArray());
+    }
+
+    private void addRawComplaints(TrendAccumulator acc, Long officerId, LocalDateTime from, LocalDateTime to,
+                                  boolean inclusiveEnd) {
+        if (from.isAfter(to) || (!inclusiveEnd && !from.isBefore(to))) {
+            return;
+        }
+
+        for (String table : COMPLAINT_TABLES) {
+            StringBuilder sql = new StringBuilder("SELECT created_at, category, status_id, priority FROM ")
+                .append(table).append(" WHERE created_at >= ? AND created_at ")
+                .append(inclusiveEnd ? "<= ?" : "< ?");
+            List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(from), Timestamp.valueOf(to)));
+            if (officerId != null) {
+                sql.append(" AND assigned_officer_id = ?");
+                args.add(officerId);
+            }
+
+            jdbcTemplate.query(sql.toString(),
+                rs -> {
+                    acc.add(toLocalDateTime(rs.getTimestamp(1)), rs.getString(2), rs.getLong(3), rs.getString(4), 1);
+                },
+                args.toArray());
+        }
+    }
+
+    private static LocalDateTime ceil(LocalDateTime time, ChronoUnit unit) {
+        LocalDateTime truncated = time.truncatedTo(unit);
+        return truncated.equals(time) ? time : truncated.plus(1, unit);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) throws SQLException {
+        if (timestamp == null) {
+            throw new SQLException("Complaint without created_at");
+        }
+        return timestamp.toLocalDateTime();
+    }
+
+    private static Map<String, Long> nonZero(Map<String, Long> counts) {
+        counts.values().removeIf(count -> count == 0);
+        return counts;
+    }
+
+    /**
+     * Bucket count changes collected by a writer and applied in one batch
+     */
+    public static class TrendChanges {
+        private final Map<TrendCell, Long> deltas = new HashMap<>();
+
+        /**
+         * Count a complaint in (delta 1) or out of (delta -1) the cell described by its columns
+         */
+        public void add(LocalDateTime createdAt, String category, Number statusId, String priority,
+                        Number officerId, long delta) {
+            if (createdAt == null || delta == 0) {
+                return;
+            }
+            TrendCell cell = new TrendCell(createdAt.truncatedTo(ChronoUnit.HOURS),
+                category != null ? category : "",
+                statusId != null ? statusId.longValue() : 0L,
+                priority != null ? priority : "",
+                officerId != null ? officerId.longValue() : 0L);
+            deltas.merge(cell, delta, Long::sum);
+        }
+
+        public boolean isEmpty() {
+            return deltas.isEmpty();
+        }
+    }
+
+    private record TrendCell(LocalDateTime bucket, String category, long statusId, String priority, long officerId) {
+        TrendCell toDay() {
+            return new TrendCell(bucket.truncatedTo(ChronoUnit.DAYS), category, statusId, priority, officerId);
+        }
+    }
+
+    /**
+     * Folds bucket rows into the report maps; empty category and priority mean "not set"
+     */
+    private static class TrendAccumulator {
+        private final String interval;
+        private final Map<Long, String> statusDisplays;
+        private long total;
+        private final Map<String, Long> byStatus = new HashMap<>();
+        private final Map<String, Long> byCategory = new HashMap<>();
+        private final Map<String, Long> byPriority = new HashMap<>();
+        private final Map<String, Long> trend = new TreeMap<>();
+
+        TrendAccumulator(String interval, Map<Long, String> statusDisplays) {
+            this.interval = interval;
+            this.statusDisplays = statusDisplays;
+        }
+
+        void add(LocalDateTime bucket, String category, long statusId, String priority, long count) {
+            if (count == 0) {
+                return;
+            }
+            total += count;
+            byStatus.merge(statusDisplays.getOrDefault(statusId, "Unknown"), count, Long::sum);
+            if (category != null && !category.isEmpty()) {
+                byCategory.merge(category, count, Long::sum);
+            }
+            if (priority != null && !priority.isEmpty()) {
+                byPriority.merge(priority, count, Long::sum);
+            }
+            trend.merge(trendKey(bucket), count, Long::sum);
+        }
+
+        private String trendKey(LocalDateTime time) {
+            switch (interval) {
+                case "hour":
+                    return time.format(HOUR_FORMATTER);
+                case "week":
+                    return time.toLocalDate().with(DayOfWeek.MONDAY).toString();
+                case "month":
+                    return YearMonth.from(time).toString();
+                default:
+                    return time.toLocalDate().toString();
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.resolveit.service;
+
+import com.resolveit.config.AfterCommit;
+import com.resolveit.config.ReplicaRoutingDataSource;
+import com.resolveit.repository.NotificationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory unread notification counters, one per user.
+ * Counters are loaded lazily from the database, adjusted by NotificationService
+ * once its transaction commits, and reconciled with the database periodically.
+ *
+ * Loads read the primary, and a loaded count is only stored if no adjustment of the
+ * user's stripe was in flight or applied while it was read; otherwise the count could
+ * miss a change, or count one twice, until the next reconcile.
+ */
+@Component
+public class UnreadCountCache {
+
+    // Beyond this many users, counts are served from the database without caching
+    private static final int MAX_ENTRIES = 100_000;
+
+    // Users reconciled per database query
+    private static final int RECONCILE_CHUNK_SIZE = 500;
+
+    // Users share adjustment stamps by stripe
+    private static final int STRIPES = 1024;
+
+    private final ConcurrentHashMap<Long, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    // Adjustments registered in a transaction that has not ended yet, per stripe
+    private final AtomicIntegerArray inFlight = new AtomicIntegerArray(STRIPES);
+
+    // Adjustments applied so far, per stripe
+    private final AtomicLongArray applied = new AtomicLongArray(STRIPES);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    /**
+     * Get the unread count for a user, loading it from the database on first use
+     */
+    public long get(Long userId) {
+        AtomicLong counter = counters.get(userId);
+        if (counter != null) {
+            return counter.get();
+        }
+
+        int stripe = stripe(userId);
+        long before = stamp(stripe);
+        long count = ReplicaRoutingDataSource.onPrimary(() -> notificationRepository.countByUserIdAndReadFalse(userId));
+        if (before >= 0 && counters.size() < MAX_ENTRIES) {
+            counters.computeIfAbsent(userId, id -> stamp(stripe) == before ? new AtomicLong(count) : null);
+        }
+        return count;
+    }
+
+    /**
+     * Adjust a user's counter once the current transaction commits (or right away without one)
+     */
+    public void adjustAfterCommit(Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        int stripe = stripe(userId);
+        inFlight.incrementAndGet(stripe);
+        AfterCommit.run(() -> adjust(userId, delta), () -> inFlight.decrementAndGet(stripe));
+    }
+
+    /**
+     * Only counters that are already cached are adjusted; others load fresh on next read.
+     * A counter that would go negative has drifted and is dropped instead.
+     */
+    private void adjust(Long userId, long delta) {
+        counters.computeIfPresent(userId, (id, counter) ->
+            counter.addAndGet(delta) < 0 ? null : counter);
+        applied.incrementAndGet(stripe(userId));
+    }
+
+    /**
+     * Forget a user's counter so the next read goes to the database
+     */
+    public void evict(Long userId) {
+        counters.remove(userId);
+    }
+
+    /**
+     * Re-read the counts of all cached users from the database every 5 minutes. A counter
+     * adjusted while it was re-read is dropped and loads again on next use.
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void reconcile() {
+        List<Long> userIds = new ArrayList<>(counters.keySet());
+
+        for (int i = 0; i < userIds.size(); i += RECONCILE_CHUNK_SIZE) {
+            List<Long> chunk = userIds.subList(i, Math.min(i + RECONCILE_CHUNK_SIZE, userIds.size()));
+
+            Map<Long, Long> before = new HashMap<>();
+            for (Long userId : chunk) {
+                before.put(userId, stamp(stripe(userId)));
+            }
+
+            Map<Long, Long> actual = new HashMap<>();
+            for (Object[] row : ReplicaRoutingDataSource.onPrimary(() -> notificationRepository.countUnreadGroupedByUserId(chunk))) {
+                actual.put((Long) row[0], (Long) row[1]);
+            }
+
+            for (Long userId : chunk) {
+                long stamp = before.get(userId);
+                if (stamp < 0) {
+                    // Being adjusted; reconciled next time
+                    continue;
+                }
+                counters.computeIfPresent(userId, (id, counter) -> {
+                    if (stamp(stripe(userId)) != stamp) {
+                        return null;
+                    }
+                    counter.set(actual.getOrDefault(userId, 0L));
+                    return counter;
+                });
+            }
+        }
+    }
+
+    private static int stripe(Long userId) {
+        return (int) Math.floorMod(userId, (long) STRIPES);
+    }
+
+    /**
+     * The stripe's applied count, or -1 while one of its adjustments is in flight
+     */
+    private long stamp(int stripe) {
+        return inFlight.get(stripe) > 0 ? -1 : applied.get(stripe);
+    }
+}
@@ -0,0 +1,23 @@
+-- =====================================================
+-- V10: REFRESH SESSIONS
+-- =====================================================
+--
+-- One row per sign-in (see RefreshSessionService). The refresh
+-- token carries the session id and generation; each refresh
+-- increments the generation, so a refresh token can be used
+-- once. A token of an older generation ends the session.
+-- Signing out everywhere or resetting the password deletes
+-- the user's sessions. Rows are deleted once expires_at has
+-- passed.
+-- =====================================================
+
+CREATE TABLE refresh_sessions (
+    id CHAR(36) NOT NULL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    generation INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_user (user_id),
+    INDEX idx_expires_at (expires_at)
+);
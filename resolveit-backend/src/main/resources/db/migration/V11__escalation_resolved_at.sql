@@ -0,0 +1,12 @@
+-- =====================================================
+-- V11: ESCALATION RESOLUTION TIME
+-- =====================================================
+--
+-- escalations.resolved_at (V1) is now set when an escalation is
+-- resolved, and the archive keeps it. The snapshot export uses
+-- COALESCE(resolved_at, escalated_at) as an escalation's change
+-- time, so a resolution is exported again. Escalations already
+-- resolved have no known resolution time and keep escalated_at.
+-- =====================================================
+
+ALTER TABLE escalations_archive ADD COLUMN resolved_at TIMESTAMP NULL AFTER resolved;
@@ -1,29 +1,14 @@
 -- =====================================================
--- RESOLVEIT - COMPLETE DATABASE SCHEMA
--- Production-Ready Database Structure Only
+-- V1: BASELINE SCHEMA
 -- =====================================================
--- 
--- This is the complete database schema for the ResolveIt
--- Complaint Management System including all features:
--- - User Management & Authentication
--- - Role-Based Access Control (USER, OFFICER, ADMIN)
--- - Complaint Management with Status Tracking
--- - File Attachments & Comments
--- - Notifications System
--- - Officer Role Requests
--- - Escalation System
--- - Password Reset Functionality
--- 
--- Author: ResolveIt Development Team
--- Version: 1.0 Final
--- Date: January 2026
+--
+-- The schema exactly as it stood before migrations were
+-- introduced (the hand-maintained schema script). Databases
+-- that already have these tables are baselined at version 1
+-- (spring.flyway.baseline-on-migrate) and skip this script,
+-- so anything added since belongs in a later version.
 -- =====================================================
 
--- Drop and recreate database for fresh installation
-DROP DATABASE IF EXISTS resolveit;
-CREATE DATABASE resolveit CHARACTER SET utf8mb4 COLLATE utf8mb4_unicode_ci;
-USE resolveit;
-
 -- =====================================================
 -- CORE SYSTEM TABLES
 -- =====================================================
@@ -226,76 +211,3 @@ INSERT INTO complaint_status (code, display, description) VALUES
 ('RESOLVED', 'Resolved', 'Complaint has been successfully resolved'),
 ('ESCALATED', 'Escalated', 'Complaint has been escalated to higher authorities'),
 ('CLOSED', 'Closed', 'Complaint has been closed without resolution');
-
--- =====================================================
--- DATABASE VERIFICATION
--- =====================================================
-
--- Verify table creation
-SELECT 
-    TABLE_NAME,
-    TABLE_ROWS,
-    CREATE_TIME
-FROM INFORMATION_SCHEMA.TABLES 
-WHERE TABLE_SCHEMA = 'resolveit' 
-ORDER BY TABLE_NAME;
-
--- =====================================================
--- PERFORMANCE INDEXES
--- =====================================================
--- All necessary indexes have been created with the tables above
--- for optimal query performance on frequently accessed columns:
---
--- Users: username, email, is_active
--- Complaints: status_id, category, priority, user_id, assigned_officer_id, created_at
--- Comments: complaint_id, author_id, created_at
--- Notifications: user_id, is_read, created_at, complaint_id
--- Officer Requests: status, user_id, requested_at
--- Escalations: complaint_id, escalated_by, resolved
--- Password Reset Tokens: token, expires_at
--- Attachments: complaint_id
-
--- =====================================================
--- FOREIGN KEY CONSTRAINTS SUMMARY
--- =====================================================
--- 
--- user_roles -> users(id), roles(id)
--- password_reset_tokens -> users(id)
--- complaints -> users(id), complaint_status(id), users(id)
--- attachments -> complaints(id)
--- comments -> complaints(id), users(id)
--- escalations -> complaints(id), users(id), roles(id), users(id)
--- notifications -> users(id), complaints(id)
--- officer_requests -> users(id), users(id)
---
--- All foreign keys use appropriate CASCADE/SET NULL actions
--- to maintain data integrity while allowing safe deletions
-
--- =====================================================
--- SETUP COMPLETE
--- =====================================================
-
-SELECT 
-    '========================================' as message
-UNION ALL
-SELECT 'RESOLVEIT DATABASE SCHEMA CREATED!' as message
-UNION ALL
-SELECT '========================================' as message
-UNION ALL
-SELECT '' as message
-UNION ALL
-SELECT 'Database: resolveit' as message
-UNION ALL
-SELECT 'Tables Created: 10' as message
-UNION ALL
-SELECT 'Master Data: Essential only' as message
-UNION ALL
-SELECT 'Sample Data: None' as message
-UNION ALL
-SELECT '' as message
-UNION ALL
-SELECT 'Ready for production deployment!' as message
-UNION ALL
-SELECT 'Create your first admin user via registration.' as message;
-
--- End of schema file
\ No newline at end of file
@@ -0,0 +1,115 @@
+-- =====================================================
+-- V2: SCHEMA ADDED BEFORE MIGRATIONS
+-- =====================================================
+--
+-- Tables, columns and indexes the application gained before
+-- its schema was managed by migrations. At that time they were
+-- created by ddl-auto=update or by the application at startup,
+-- so a database baselined at V1 may have none, some or all of
+-- them, depending on the version it last ran. Every statement
+-- here is therefore safe to run whether or not the object
+-- already exists.
+--
+-- Finally every id sequence is moved above the current highest
+-- id of its table (existing ids are kept as they are); next_val
+-- only moves forward.
+-- =====================================================
+
+-- Id allocation for entity tables (pooled-lo blocks handed out to the application,
+-- which lets Hibernate batch inserts; seq_name is the table name)
+CREATE TABLE IF NOT EXISTS id_sequences (
+    seq_name VARCHAR(255) NOT NULL PRIMARY KEY,
+    next_val BIGINT
+);
+
+-- Files uploaded with complaints (stored on disk under file.upload-dir)
+CREATE TABLE IF NOT EXISTS complaint_files (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    file_name VARCHAR(255),
+    file_path VARCHAR(255),
+    complaint_id BIGINT,
+    FOREIGN KEY (complaint_id) REFERENCES complaints(id) ON DELETE CASCADE,
+    INDEX idx_complaint (complaint_id)
+);
+
+-- Progress of legacy complaint imports (one row per import job)
+CREATE TABLE IF NOT EXISTS import_checkpoints (
+    job_id VARCHAR(100) PRIMARY KEY,
+    format VARCHAR(10),
+    records_committed BIGINT DEFAULT 0,
+    imported_count BIGINT DEFAULT 0,
+    failed_count BIGINT DEFAULT 0,
+    status VARCHAR(20) DEFAULT 'RUNNING',
+    last_error TEXT,
+    started_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+);
+
+-- Complaint counts per creation hour ('H') and day ('D') for trend reports.
+-- Empty category/priority and 0 status/officer stand for NULL in complaints.
+CREATE TABLE IF NOT EXISTS complaint_trend_buckets (
+    granularity CHAR(1) NOT NULL,
+    bucket_start DATETIME NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    status_id BIGINT NOT NULL,
+    priority VARCHAR(16) NOT NULL,
+    officer_id BIGINT NOT NULL,
+    complaint_count BIGINT NOT NULL,
+    PRIMARY KEY (granularity, bucket_start, category, status_id, priority, officer_id),
+    INDEX idx_trend_officer (officer_id, granularity, bucket_start)
+);
+
+-- MySQL has no ADD COLUMN / ADD INDEX IF NOT EXISTS: each statement below is
+-- built from information_schema and is a no-op (DO 0) when the object exists.
+
+-- Optimistic locking version of complaints (claiming and bulk updates)
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'ALTER TABLE complaints ADD COLUMN version BIGINT NOT NULL DEFAULT 0',
+    'DO 0')
+    FROM information_schema.columns
+    WHERE table_schema = DATABASE() AND table_name = 'complaints' AND column_name = 'version');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- ddl-auto=update created the column without a default
+UPDATE complaints SET version = 0 WHERE version IS NULL;
+
+-- Unassigned complaints by priority and age, for officers claiming work
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_claim_queue ON complaints (assigned_officer_id, priority, created_at)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'complaints' AND index_name = 'idx_claim_queue');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+-- Unread count, unread listing and mark-all-read of a user's notifications
+SET @ddl = (SELECT IF(COUNT(*) = 0,
+    'CREATE INDEX idx_user_read_created ON notifications (user_id, is_read, created_at)',
+    'DO 0')
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'notifications' AND index_name = 'idx_user_read_created');
+PREPARE ddl FROM @ddl;
+EXECUTE ddl;
+DEALLOCATE PREPARE ddl;
+
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'users', COALESCE(MAX(id), 0) + 1 FROM users
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'complaints', COALESCE(MAX(id), 0) + 1 FROM complaints
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'comments', COALESCE(MAX(id), 0) + 1 FROM comments
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'complaint_files', COALESCE(MAX(id), 0) + 1 FROM complaint_files
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'attachments', COALESCE(MAX(id), 0) + 1 FROM attachments
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'escalations', COALESCE(MAX(id), 0) + 1 FROM escalations
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'notifications', COALESCE(MAX(id), 0) + 1 FROM notifications
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'officer_requests', COALESCE(MAX(id), 0) + 1 FROM officer_requests
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
+INSERT INTO id_sequences (seq_name, next_val) SELECT 'password_reset_tokens', COALESCE(MAX(id), 0) + 1 FROM password_reset_tokens
+    ON DUPLICATE KEY UPDATE next_val = GREATEST(COALESCE(next_val, 0), VALUES(next_val));
@@ -0,0 +1,29 @@
+-- =====================================================
+-- V3: COMPOSITE INDEXES FOR HOT QUERIES
+-- =====================================================
+--
+-- Each index matches the equality columns and then the sort or
+-- range column of one repository query, so MySQL reads the rows
+-- in order instead of filtering and sorting:
+--
+-- complaints.idx_officer_created
+--     findByAssignedOfficerOrderByCreatedAtDesc
+--     (assigned_officer_id = ? ORDER BY created_at DESC)
+-- complaints.idx_status_created
+--     findByCreatedAtBeforeAndStatusCodeNot (escalation job; one
+--     created_at range per remaining status_id)
+-- notifications.idx_user_created
+--     findByUserIdOrderByCreatedAtDesc; the unread listing
+--     findByUserIdAndReadFalseOrderByCreatedAtDesc already has
+--     idx_user_read_created (user_id, is_read, created_at)
+-- comments.idx_complaint_private_created
+--     findByComplaintAndIsPrivateFalseOrderByCreatedAtAsc
+-- =====================================================
+
+CREATE INDEX idx_officer_created ON complaints (assigned_officer_id, created_at);
+
+CREATE INDEX idx_status_created ON complaints (status_id, created_at);
+
+CREATE INDEX idx_user_created ON notifications (user_id, created_at);
+
+CREATE INDEX idx_complaint_private_created ON comments (complaint_id, is_private, created_at);
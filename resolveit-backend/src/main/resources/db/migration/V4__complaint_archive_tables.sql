@@ -0,0 +1,74 @@
+-- =====================================================
+-- V4: COMPLAINT ARCHIVE TIER
+-- =====================================================
+--
+-- Resolved and closed complaints older than
+-- app.archive.after-months are moved here, together with their
+-- comments, files, attachments and escalations, by
+-- ComplaintArchiveService. The live tables then only hold active
+-- and recent work. Archived complaints are read-only and are
+-- still found by id.
+--
+-- Partitioning is not used because InnoDB does not allow foreign
+-- keys on partitioned tables. The archive tables have no foreign
+-- keys of their own: they keep user and status ids as they were.
+-- =====================================================
+
+CREATE TABLE complaints_archive (
+    id BIGINT PRIMARY KEY,
+    title VARCHAR(255) NOT NULL,
+    description TEXT,
+    category VARCHAR(100),
+    priority VARCHAR(16),
+    anonymous TINYINT(1) DEFAULT 0,
+    user_id BIGINT NULL,
+    status_id INT NOT NULL,
+    assigned_officer_id BIGINT NULL,
+    created_at TIMESTAMP NULL,
+    updated_at TIMESTAMP NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    archived_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_user (user_id),
+    INDEX idx_officer (assigned_officer_id),
+    INDEX idx_created (created_at)
+);
+
+CREATE TABLE comments_archive (
+    id BIGINT PRIMARY KEY,
+    complaint_id BIGINT NOT NULL,
+    author_id BIGINT NULL,
+    message TEXT,
+    is_private TINYINT(1) DEFAULT 0,
+    created_at TIMESTAMP NULL,
+    INDEX idx_complaint_created (complaint_id, created_at)
+);
+
+CREATE TABLE complaint_files_archive (
+    id BIGINT PRIMARY KEY,
+    file_name VARCHAR(255),
+    file_path VARCHAR(255),
+    complaint_id BIGINT,
+    INDEX idx_complaint (complaint_id)
+);
+
+CREATE TABLE attachments_archive (
+    id BIGINT PRIMARY KEY,
+    complaint_id BIGINT NOT NULL,
+    filename VARCHAR(255),
+    file_path VARCHAR(500),
+    uploaded_at TIMESTAMP NULL,
+    INDEX idx_complaint (complaint_id)
+);
+
+CREATE TABLE escalations_archive (
+    id BIGINT PRIMARY KEY,
+    complaint_id BIGINT NOT NULL,
+    escalated_to_role BIGINT NOT NULL,
+    reason TEXT,
+    escalated_at TIMESTAMP NULL,
+    resolved TINYINT(1) DEFAULT 0,
+    INDEX idx_complaint (complaint_id)
+);
+
+-- Lets the mover find old resolved/closed complaints per status without scanning the table
+CREATE INDEX idx_status_updated ON complaints (status_id, updated_at);
@@ -0,0 +1,34 @@
+-- =====================================================
+-- V5: RESOLUTION TIME
+-- =====================================================
+--
+-- resolved_at records when a complaint entered a closed status
+-- (RESOLVED or CLOSED). Unlike updated_at it does not move when
+-- a closed complaint is edited again, and it is cleared when the
+-- complaint is reopened. Existing closed complaints are
+-- backfilled with updated_at, the best time available.
+--
+-- resolution_sketches holds one serialized quantile sketch of
+-- resolution times per dimension value (see
+-- ResolutionSketchService), so dashboards read percentiles
+-- without scanning complaints.
+-- =====================================================
+
+ALTER TABLE complaints ADD COLUMN resolved_at TIMESTAMP NULL AFTER updated_at;
+ALTER TABLE complaints_archive ADD COLUMN resolved_at TIMESTAMP NULL AFTER updated_at;
+
+-- Assigning updated_at to itself stops ON UPDATE CURRENT_TIMESTAMP from bumping it
+UPDATE complaints c JOIN complaint_status s ON s.id = c.status_id
+    SET c.resolved_at = c.updated_at, c.updated_at = c.updated_at
+    WHERE s.code IN ('RESOLVED', 'CLOSED');
+UPDATE complaints_archive c JOIN complaint_status s ON s.id = c.status_id
+    SET c.resolved_at = c.updated_at
+    WHERE s.code IN ('RESOLVED', 'CLOSED');
+
+CREATE TABLE resolution_sketches (
+    dimension VARCHAR(16) NOT NULL,
+    dimension_value VARCHAR(255) NOT NULL,
+    sketch BLOB NOT NULL,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (dimension, dimension_value)
+);
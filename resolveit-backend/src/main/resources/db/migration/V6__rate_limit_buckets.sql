@@ -0,0 +1,16 @@
+-- =====================================================
+-- V6: RATE LIMIT BUCKETS
+-- =====================================================
+--
+-- Partly drained token buckets, saved by RateLimiter when
+-- app.rate-limit.persist is on so that a restart does not
+-- reset every client's limit. Rows older than an hour are
+-- deleted; those buckets would be full again anyway.
+-- =====================================================
+
+CREATE TABLE rate_limit_buckets (
+    bucket_key VARCHAR(320) NOT NULL PRIMARY KEY,
+    tokens DOUBLE NOT NULL,
+    saved_at TIMESTAMP NOT NULL,
+    INDEX idx_saved_at (saved_at)
+);
@@ -0,0 +1,16 @@
+-- =====================================================
+-- V7: TOKEN EPOCHS
+-- =====================================================
+--
+-- Every access and refresh token carries the user's token_epoch
+-- from when it was issued. Incrementing the epoch (logout,
+-- password reset, role change) revokes all of the user's tokens
+-- at once. TokenRevocationService keeps the non-zero epochs in
+-- memory and polls token_epoch_at for changes made by other
+-- instances.
+-- =====================================================
+
+ALTER TABLE users
+    ADD COLUMN token_epoch INT NOT NULL DEFAULT 0,
+    ADD COLUMN token_epoch_at TIMESTAMP NULL,
+    ADD INDEX idx_token_epoch_at (token_epoch_at);
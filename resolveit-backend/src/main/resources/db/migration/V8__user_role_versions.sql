@@ -0,0 +1,19 @@
+-- =====================================================
+-- V8: ROLE VERSIONS
+-- =====================================================
+--
+-- role_version is incremented whenever a user's roles change.
+-- Access tokens carry the version they were issued with, and
+-- UserAuthorityService keeps every user's current roles and
+-- version in memory. A token with an older version is given
+-- the user's current roles rather than the ones it was issued
+-- with, so a role change applies without signing in again.
+-- Other instances poll role_version_at for changes and
+-- created_at for new users.
+-- =====================================================
+
+ALTER TABLE users
+    ADD COLUMN role_version INT NOT NULL DEFAULT 0,
+    ADD COLUMN role_version_at TIMESTAMP NULL,
+    ADD INDEX idx_role_version_at (role_version_at),
+    ADD INDEX idx_created_at (created_at);
@@ -0,0 +1,22 @@
+-- =====================================================
+-- V9: IDEMPOTENCY KEYS
+-- =====================================================
+--
+-- Requests sent with an Idempotency-Key header, shared by all
+-- instances (see IdempotencyService). A row is claimed as
+-- IN_PROGRESS before the request runs and holds the response
+-- once it succeeds, so a retry on any instance gets the
+-- original response instead of running the request again.
+-- A failed request deletes its row so it can be retried.
+-- Rows are deleted once expires_at has passed.
+-- =====================================================
+
+CREATE TABLE idempotency_keys (
+    idem_key VARCHAR(300) NOT NULL PRIMARY KEY,
+    fingerprint CHAR(64) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    response TEXT NULL,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    INDEX idx_expires_at (expires_at)
+);
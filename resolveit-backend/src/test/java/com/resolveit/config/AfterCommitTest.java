@@ -0,0 +1,102 @@
+package com.resolveit.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AfterCommitTest {
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void runsRightAwayWithoutATransaction() {
+        AfterCommit.run(runs::incrementAndGet);
+
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void waitsForTheCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run(runs::incrementAndGet);
+        assertThat(runs.get()).isZero();
+
+        commit();
+
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void doesNotRunOnRollback() {
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run(runs::incrementAndGet);
+
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    void afterCompletionRunsOnCommitAndRollback() {
+        AtomicInteger completions = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run(runs::incrementAndGet, completions::incrementAndGet);
+        commit();
+
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.run(runs::incrementAndGet, completions::incrementAndGet);
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        AfterCommit.run(runs::incrementAndGet, completions::incrementAndGet);
+
+        assertThat(runs.get()).isEqualTo(2);
+        assertThat(completions.get()).isEqualTo(3);
+    }
+
+    @Test
+    void runOnceRegistersOncePerTransaction() {
+        Object key = new Object();
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.runOnce(key, runs::incrementAndGet);
+        AfterCommit.runOnce(key, runs::incrementAndGet);
+
+        commit();
+        assertThat(runs.get()).isEqualTo(1);
+
+        // The next transaction registers it again
+        TransactionSynchronizationManager.initSynchronization();
+        AfterCommit.runOnce(key, runs::incrementAndGet);
+        commit();
+        assertThat(runs.get()).isEqualTo(2);
+    }
+
+    @Test
+    void runOnceDoesNothingWithoutATransaction() {
+        AfterCommit.runOnce(new Object(), runs::incrementAndGet);
+
+        assertThat(runs.get()).isZero();
+    }
+
+    private static void commit() {
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), status);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
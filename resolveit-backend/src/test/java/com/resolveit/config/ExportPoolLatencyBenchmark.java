@@ -0,0 +1,164 @@
+package com.resolveit.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of an interactive query (borrow a connection, look up one complaint by id) while
+ * report exports stream the whole complaints table back to back on an in-memory database.
+ * With "shared" every connection comes from one pool of 10, as before the split; with
+ * "perWorkload" the exports run on the reporting pool and the query on the interactive pool
+ * built by DataSourceConfig with its default sizes. More exports run than either pool has
+ * connections, as when export requests pile up. Compare the percentiles.
+ *
+ * Run from resolveit-backend with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.resolveit.config.ExportPoolLatencyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportPoolLatencyBenchmark {
+
+    private static final int COMPLAINTS = 20_000;
+
+    // Concurrent exports, more than the shared pool has connections
+    private static final int EXPORT_THREADS = 12;
+
+    @Param({"shared", "perWorkload"})
+    private String pools;
+
+    private final List<Thread> exports = new ArrayList<>();
+    private volatile boolean running;
+
+    private DataSource dataSource;
+    private AutoCloseable closeable;
+
+    @Setup(Level.Trial)
+    public void startExports() throws SQLException {
+        HikariConfig base = new HikariConfig();
+        base.setJdbcUrl("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        base.setUsername("sa");
+        base.setPassword("");
+
+        if ("shared".equals(pools)) {
+            HikariConfig config = new HikariConfig();
+            base.copyStateTo(config);
+            config.setPoolName("shared");
+            config.setMaximumPoolSize(10);
+            config.setConnectionTimeout(30_000);
+            HikariDataSource shared = new HikariDataSource(config);
+            dataSource = shared;
+            closeable = shared;
+        } else {
+            DataSourceConfig config = new DataSourceConfig();
+            ReflectionTestUtils.setField(config, "interactivePoolSize", 10);
+            ReflectionTestUtils.setField(config, "batchPoolSize", 3);
+            ReflectionTestUtils.setField(config, "reportingPoolSize", 3);
+            ReflectionTestUtils.setField(config, "interactiveTimeoutMs", 5000L);
+            ReflectionTestUtils.setField(config, "batchTimeoutMs", 30_000L);
+            ReflectionTestUtils.setField(config, "reportingTimeoutMs", 60_000L);
+            WorkloadRoutingDataSource routing = config.primaryDataSource(base);
+            routing.afterPropertiesSet();
+            dataSource = routing;
+            closeable = routing::close;
+        }
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE complaints (id BIGINT PRIMARY KEY, title VARCHAR(255), description TEXT, " +
+                "category VARCHAR(100), created_at TIMESTAMP)");
+            statement.execute("INSERT INTO complaints SELECT x, CONCAT('Complaint ', x), REPEAT('Details of the problem. ', 10), " +
+                "'Roads', CURRENT_TIMESTAMP FROM SYSTEM_RANGE(1, " + COMPLAINTS + ")");
+        }
+
+        running = true;
+        for (int i = 0; i < EXPORT_THREADS; i++) {
+            Thread export = new Thread(() -> PoolWorkload.REPORTING.call(() -> {
+                while (running) {
+                    streamExport();
+                }
+                return null;
+            }), "export-" + i);
+            export.setDaemon(true);
+            export.start();
+            exports.add(export);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopExports() throws Exception {
+        running = false;
+        for (Thread export : exports) {
+            export.join();
+        }
+        closeable.close();
+    }
+
+    @Benchmark
+    public String interactiveQuery() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("SELECT title FROM complaints WHERE id = ?")) {
+            statement.setLong(1, ThreadLocalRandom.current().nextLong(1, COMPLAINTS + 1));
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Read every complaint, holding the connection until the last row, like a PDF or CSV export
+     */
+    private void streamExport() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT id, title, description, category, created_at FROM complaints ORDER BY id")) {
+            long length = 0;
+            while (rs.next() && running) {
+                length += rs.getString(3).length();
+            }
+            if (length < 0) {
+                throw new IllegalStateException();
+            }
+        } catch (SQLException e) {
+            if (running) {
+                System.err.println("Export failed: " + e.getMessage());
+            }
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ExportPoolLatencyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
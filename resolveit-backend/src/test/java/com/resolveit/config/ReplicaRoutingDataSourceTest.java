@@ -0,0 +1,188 @@
+package com.resolveit.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Routing between two in-memory databases, each of which reports its own name, so every
+ * read shows whether it went to the primary or the replica.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private DataSource primary;
+    private DataSource replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary", 0);
+        replica = database("replica", 0);
+        route(new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica),
+            "SELECT lag_seconds FROM replica_lag", 5, 10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void readOnlyTransactionsGoToTheReplica() {
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+        assertThat(readWriteServedBy()).isEqualTo("primary");
+    }
+
+    @Test
+    void signedInUserReadsFromPrimaryAfterTheirWrite() {
+        signIn("alice@example.com");
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+
+        write();
+        assertThat(readOnlyServedBy()).isEqualTo("primary");
+
+        signIn("bob@example.com");
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void anonymousClientReadsFromPrimaryAfterTheirWrite() {
+        // An anonymous complaint submission followed by a lookup of the new complaint
+        fromAddress("203.0.113.7");
+        write();
+        assertThat(readOnlyServedBy()).isEqualTo("primary");
+
+        fromAddress("198.51.100.20");
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void rolledBackWriteDoesNotStick() {
+        signIn("alice@example.com");
+        readWrite.executeWithoutResult(tx -> {
+            jdbcTemplate.update("UPDATE db_name SET name = name");
+            tx.setRollbackOnly();
+        });
+
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void stickinessExpires() throws InterruptedException {
+        route(new ReplicaRoutingDataSource(primary, Map.of("replica-0", replica),
+            "SELECT lag_seconds FROM replica_lag", 5, 0));
+        signIn("alice@example.com");
+        write();
+        Thread.sleep(5);
+
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void onPrimaryReadsFromThePrimary() {
+        assertThat(ReplicaRoutingDataSource.onPrimary(this::readOnlyServedBy)).isEqualTo("primary");
+
+        // Still forced after a nested call returns
+        assertThat(ReplicaRoutingDataSource.onPrimary(() -> {
+            ReplicaRoutingDataSource.onPrimary(this::readOnlyServedBy);
+            return readOnlyServedBy();
+        })).isEqualTo("primary");
+
+        assertThat(readOnlyServedBy()).isEqualTo("replica");
+    }
+
+    @Test
+    void laggingOrUnreachableReplicaIsSkipped() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", database("lagging", 30));
+        replicas.put("replica-1", new DriverManagerDataSource("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", ""));
+        route(new ReplicaRoutingDataSource(primary, replicas, "SELECT lag_seconds FROM replica_lag", 5, 10));
+
+        assertThat(readOnlyServedBy()).isEqualTo("primary");
+    }
+
+    @Test
+    void replicaRejoinsOnceCaughtUp() {
+        DataSource lagging = database("lagging", 30);
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, Map.of("replica-0", lagging),
+            "SELECT lag_seconds FROM replica_lag", 5, 10);
+        route(routing);
+        assertThat(readOnlyServedBy()).isEqualTo("primary");
+
+        new JdbcTemplate(lagging).update("UPDATE replica_lag SET lag_seconds = 1");
+        routing.checkReplicas();
+
+        assertThat(readOnlyServedBy()).isEqualTo("lagging");
+    }
+
+    private void route(ReplicaRoutingDataSource routing) {
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String readOnlyServedBy() {
+        return readOnly.execute(tx -> servedBy());
+    }
+
+    private String readWriteServedBy() {
+        return readWrite.execute(tx -> servedBy());
+    }
+
+    private String servedBy() {
+        return jdbcTemplate.queryForObject("SELECT name FROM db_name", String.class);
+    }
+
+    private void write() {
+        readWrite.executeWithoutResult(tx -> jdbcTemplate.update("UPDATE db_name SET name = name"));
+    }
+
+    private void signIn(String email) {
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(email, null, AuthorityUtils.createAuthorityList("ROLE_USER")));
+    }
+
+    private void fromAddress(String address) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/complaints/1");
+        request.setRemoteAddr(address);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private static DataSource database(String name, int lagSeconds) {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:routing-" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE db_name (name VARCHAR(20))");
+        jdbc.update("INSERT INTO db_name VALUES (?)", name);
+        jdbc.execute("CREATE TABLE replica_lag (lag_seconds INT)");
+        jdbc.update("INSERT INTO replica_lag VALUES (?)", lagSeconds);
+        return dataSource;
+    }
+}
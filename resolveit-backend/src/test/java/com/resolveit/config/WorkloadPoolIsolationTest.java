@@ -0,0 +1,112 @@
+package com.resolveit.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The per-workload primary pools built by DataSourceConfig, on an in-memory database:
+ * exhausting one workload's pool leaves the others' connections available.
+ */
+class WorkloadPoolIsolationTest {
+
+    private WorkloadRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        DataSourceConfig config = new DataSourceConfig();
+        ReflectionTestUtils.setField(config, "interactivePoolSize", 4);
+        ReflectionTestUtils.setField(config, "batchPoolSize", 2);
+        ReflectionTestUtils.setField(config, "reportingPoolSize", 2);
+        ReflectionTestUtils.setField(config, "interactiveTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(config, "batchTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(config, "reportingTimeoutMs", 500L);
+
+        HikariConfig base = new HikariConfig();
+        base.setJdbcUrl("jdbc:h2:mem:pools;DB_CLOSE_DELAY=-1");
+        base.setUsername("sa");
+        base.setPassword("");
+        dataSource = config.primaryDataSource(base);
+        dataSource.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void saturatedReportingPoolDoesNotBlockInteractiveConnections() throws Exception {
+        ExecutorService reportWorkers = Executors.newFixedThreadPool(3);
+        List<Connection> held = new ArrayList<>();
+        try {
+            // Long report exports hold every REPORTING connection
+            for (int i = 0; i < 2; i++) {
+                held.add(reportWorkers.submit(() -> PoolWorkload.REPORTING.call(this::connect)).get());
+            }
+            // A further export waits for one of them and gives up after the reporting timeout
+            Future<Connection> queued = reportWorkers.submit(() -> PoolWorkload.REPORTING.call(this::connect));
+
+            // Request threads still get a connection at once
+            for (int i = 0; i < 4; i++) {
+                long start = System.nanoTime();
+                Connection connection = connect();
+                long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                assertThat(connection.isValid(1)).isTrue();
+                assertThat(elapsedMillis).isLessThan(250);
+                held.add(connection);
+            }
+            try (Connection batch = PoolWorkload.BATCH.call(this::connect)) {
+                assertThat(batch.isValid(1)).isTrue();
+            }
+
+            assertThatThrownBy(queued::get).hasRootCauseInstanceOf(SQLException.class);
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+            reportWorkers.shutdownNow();
+        }
+    }
+
+    @Test
+    void saturatedInteractivePoolDoesNotBlockReports() throws Exception {
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < 4; i++) {
+                held.add(connect());
+            }
+            assertThatThrownBy(this::connect).hasCauseInstanceOf(SQLException.class);
+
+            try (Connection report = PoolWorkload.REPORTING.call(this::connect)) {
+                assertThat(report.isValid(1)).isTrue();
+            }
+        } finally {
+            for (Connection connection : held) {
+                connection.close();
+            }
+        }
+    }
+
+    private Connection connect() {
+        try {
+            return dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.resolveit.controller;
+
+import com.resolveit.dto.LoginRequest;
+import com.resolveit.dto.RefreshTokenRequest;
+import com.resolveit.model.User;
+import com.resolveit.repository.UserRepository;
+import com.resolveit.security.JwtService;
+import com.resolveit.security.PasswordHashingService;
+import com.resolveit.security.RefreshSessionService;
+import com.resolveit.security.TokenRevocationService;
+import com.resolveit.security.UserAuthorityService;
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Sign in, then refresh: each refresh token works once, a reused one ends the session,
+ * and a sign-out recorded by another instance is honoured before this one has polled it.
+ * Tokens, sessions and epochs are real; the users' epochs and sessions live in H2.
+ */
+@ExtendWith(MockitoExtension.class)
+class AuthControllerRefreshTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private UserAuthorityService userAuthorityService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private JwtService jwtService;
+
+    private TokenRevocationService tokenRevocationService;
+
+    private AuthController authController;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // The users columns V1 and V7 create; neither script parses on H2, V7 for its multi-clause ALTER
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, token_epoch INT NOT NULL DEFAULT 0, token_epoch_at TIMESTAMP NULL)");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V10__refresh_sessions.sql")).execute(dataSource);
+        jdbcTemplate.update("INSERT INTO users (id) VALUES (1)");
+
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "accessTtlMinutes", 15L);
+        ReflectionTestUtils.setField(jwtService, "refreshTtlDays", 14L);
+
+        RefreshSessionService refreshSessionService = new RefreshSessionService();
+        ReflectionTestUtils.setField(refreshSessionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(refreshSessionService, "refreshTtlDays", 14L);
+
+        tokenRevocationService = new TokenRevocationService();
+        ReflectionTestUtils.setField(tokenRevocationService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(tokenRevocationService, "refreshSessionService", refreshSessionService);
+        tokenRevocationService.init();
+
+        authController = new AuthController();
+        ReflectionTestUtils.setField(authController, "userRepository", userRepository);
+        ReflectionTestUtils.setField(authController, "passwordHashingService", passwordHashingService);
+        ReflectionTestUtils.setField(authController, "jwtService", jwtService);
+        ReflectionTestUtils.setField(authController, "tokenRevocationService", tokenRevocationService);
+        ReflectionTestUtils.setField(authController, "refreshSessionService", refreshSessionService);
+        ReflectionTestUtils.setField(authController, "userAuthorityService", userAuthorityService);
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("citizen@example.com");
+        user.setFullName("Citizen");
+        user.setPassword("$2a$10$hash");
+        user.setIsActive(true);
+        lenient().when(userRepository.findByEmail("citizen@example.com")).thenReturn(Optional.of(user));
+        lenient().when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        lenient().when(passwordHashingService.matches(any(), any())).thenReturn(true);
+        lenient().when(userAuthorityService.refresh(anyLong()))
+            .thenReturn(new UserAuthorityService.UserAuthorities(0, List.of("ROLE_USER"), List.of()));
+    }
+
+    @Test
+    void refreshRotatesTheRefreshToken() {
+        String first = signIn();
+
+        Map<String, Object> response = refresh(first);
+
+        assertThat(response).containsEntry("status", "success").containsKey("token");
+        String second = (String) response.get("refreshToken");
+        Claims firstClaims = jwtService.parseToken(first);
+        Claims secondClaims = jwtService.parseToken(second);
+        assertThat(jwtService.refreshSession(secondClaims).sessionId()).isEqualTo(jwtService.refreshSession(firstClaims).sessionId());
+        assertThat(jwtService.refreshSession(secondClaims).generation()).isEqualTo(1);
+        assertThat(refresh(second)).containsEntry("status", "success");
+    }
+
+    @Test
+    void reusedRefreshTokenEndsTheSession() {
+        String first = signIn();
+        String second = (String) refresh(first).get("refreshToken");
+
+        assertThat(refresh(first)).containsEntry("status", "error");
+
+        // Whoever holds the newer token is signed out as well
+        assertThat(refresh(second)).containsEntry("status", "error");
+    }
+
+    @Test
+    void otherSessionsSurviveAReuse() {
+        String phone = signIn();
+        String laptop = signIn();
+        refresh(phone);
+        refresh(phone);
+
+        assertThat(refresh(laptop)).containsEntry("status", "success");
+    }
+
+    @Test
+    void signOutOnAnotherInstanceIsHonouredBeforeThePoll() {
+        String refreshToken = signIn();
+
+        // What revokeAll on another instance writes; this instance has not polled it yet
+        jdbcTemplate.update("UPDATE users SET token_epoch = token_epoch + 1, token_epoch_at = CURRENT_TIMESTAMP WHERE id = 1");
+
+        assertThat(refresh(refreshToken)).containsEntry("status", "error");
+    }
+
+    @Test
+    void signOutEndsTheSessions() {
+        String refreshToken = signIn();
+        tokenRevocationService.revokeAll(1L);
+
+        assertThat(refresh(refreshToken)).containsEntry("status", "error");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_sessions", Integer.class)).isZero();
+    }
+
+    @Test
+    void deactivatedUserCannotRefresh() {
+        String refreshToken = signIn();
+        user.setIsActive(false);
+
+        assertThat(refresh(refreshToken)).containsEntry("status", "error");
+    }
+
+    @Test
+    void accessTokenIsNotARefreshToken() {
+        LoginRequest login = loginRequest();
+        String accessToken = (String) authController.login(login, null).get("token");
+
+        assertThat(refresh(accessToken)).containsEntry("status", "error");
+    }
+
+    private String signIn() {
+        Map<String, Object> response = authController.login(loginRequest(), null);
+        assertThat(response).containsEntry("status", "success");
+        return (String) response.get("refreshToken");
+    }
+
+    private Map<String, Object> refresh(String refreshToken) {
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken(refreshToken);
+        return authController.refresh(request);
+    }
+
+    private static LoginRequest loginRequest() {
+        LoginRequest login = new LoginRequest();
+        login.setEmail("citizen@example.com");
+        login.setPassword("secret");
+        return login;
+    }
+}
@@ -0,0 +1,221 @@
+package com.resolveit.repository;
+
+import com.resolveit.config.QueryStatistics;
+import com.resolveit.config.QueryStatsDataSource;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The hot repository queries use the composite indexes made for them. Each query is run
+ * through its repository against MySQL with the migrated schema and sample data, and the
+ * SQL Hibernate sent is EXPLAINed with the same bind values. Needs Docker; skipped without it.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class QueryPlanTest {
+
+    private static final int USERS = 20;
+    private static final int COMPLAINTS = 4000;
+    private static final int COMMENTS = 8000;
+    private static final int NOTIFICATIONS = 8000;
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+
+    @Container
+    private static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0");
+
+    // Statements sent while capturing, with their binds
+    private static final List<Statement> statements = new ArrayList<>();
+    private static volatile boolean capturing;
+    private static boolean seeded;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @DynamicPropertySource
+    static void mysqlProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", mysql::getJdbcUrl);
+        registry.add("spring.datasource.username", mysql::getUsername);
+        registry.add("spring.datasource.password", mysql::getPassword);
+        registry.add("spring.flyway.enabled", () -> "true");
+    }
+
+    @TestConfiguration
+    static class StatementCapture {
+        @Bean
+        static BeanPostProcessor captureStatements() {
+            QueryStatistics statistics = new QueryStatistics(Long.MAX_VALUE / 1_000_000L, 0, 0, false) {
+                @Override
+                public void record(String sql, boolean prepared, List<Object> binds, int batchSize, long elapsedNanos) {
+                    if (capturing) {
+                        synchronized (statements) {
+                            statements.add(new Statement(sql, new ArrayList<>(binds)));
+                        }
+                    }
+                }
+            };
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof QueryStatsDataSource)
+                        ? new QueryStatsDataSource(dataSource, statistics) : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void seed() {
+        if (seeded) {
+            return;
+        }
+        List<Object[]> users = new ArrayList<>();
+        for (int i = 1; i <= USERS; i++) {
+            users.add(new Object[]{i, "user" + i, "x", "User " + i});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, username, password_hash, full_name) VALUES (?, ?, ?, ?)", users);
+
+        // Mostly recent complaints; every 50th is a month old and due for escalation
+        List<Object[]> complaints = new ArrayList<>();
+        for (int i = 1; i <= COMPLAINTS; i++) {
+            LocalDateTime createdAt = i % 50 == 0 ? NOW.minusDays(30).minusMinutes(i) : NOW.minusMinutes(i);
+            complaints.add(new Object[]{i, "Complaint " + i, "Description", 1 + i % 6, 1 + i % USERS,
+                1 + (i * 7) % USERS, Timestamp.valueOf(createdAt)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO complaints (id, title, description, status_id, user_id, " +
+            "assigned_officer_id, created_at) VALUES (?, ?, ?, ?, ?, ?, ?)", complaints);
+
+        List<Object[]> comments = new ArrayList<>();
+        for (int i = 1; i <= COMMENTS; i++) {
+            comments.add(new Object[]{i, 1 + i % COMPLAINTS, 1 + i % USERS, "Comment " + i, i % 3 == 0,
+                Timestamp.valueOf(NOW.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO comments (id, complaint_id, author_id, message, is_private, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?)", comments);
+
+        // Most notifications have been read
+        List<Object[]> notifications = new ArrayList<>();
+        for (int i = 1; i <= NOTIFICATIONS; i++) {
+            notifications.add(new Object[]{i, 1 + i % USERS, "Notification " + i, i % 10 != 0,
+                Timestamp.valueOf(NOW.minusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO notifications (id, user_id, title, is_read, created_at) " +
+            "VALUES (?, ?, ?, ?, ?)", notifications);
+
+        jdbcTemplate.execute("ANALYZE TABLE users, complaints, complaint_status, comments, notifications");
+        seeded = true;
+    }
+
+    @Test
+    void officerComplaintsUseOfficerCreatedIndex() {
+        User officer = userRepository.findById(3L).orElseThrow();
+
+        Statement query = capture(() -> complaintRepository.findByAssignedOfficerOrderByCreatedAtDesc(officer));
+
+        assertThat(keysUsed(query)).contains("idx_officer_created");
+    }
+
+    @Test
+    void escalationCandidatesUseCreatedAtRange() {
+        Statement query = capture(() -> complaintRepository.findByCreatedAtBeforeAndStatusCodeNot(
+            NOW.minusDays(7), "RESOLVED"));
+
+        assertThat(keysUsed(query)).containsAnyOf("idx_status_created", "idx_created");
+    }
+
+    @Test
+    void notificationsUseUserCreatedIndex() {
+        Statement query = capture(() -> notificationRepository.findByUserIdOrderByCreatedAtDesc(5L, PageRequest.of(0, 20)));
+
+        assertThat(keysUsed(query)).contains("idx_user_created");
+    }
+
+    @Test
+    void unreadNotificationsUseUserReadCreatedIndex() {
+        Statement query = capture(() -> notificationRepository.findByUserIdAndReadFalseOrderByCreatedAtDesc(5L, PageRequest.of(0, 20)));
+
+        assertThat(keysUsed(query)).contains("idx_user_read_created");
+    }
+
+    @Test
+    void publicCommentsUseComplaintPrivateCreatedIndex() {
+        Complaint complaint = complaintRepository.findById(42L).orElseThrow();
+
+        Statement query = capture(() -> commentRepository.findByComplaintAndIsPrivateFalseOrderByCreatedAtAsc(complaint));
+
+        assertThat(keysUsed(query)).contains("idx_complaint_private_created");
+    }
+
+    /**
+     * The first SELECT the action sends, i.e. the repository query itself
+     */
+    private Statement capture(Runnable action) {
+        synchronized (statements) {
+            statements.clear();
+        }
+        capturing = true;
+        try {
+            action.run();
+        } finally {
+            capturing = false;
+        }
+        synchronized (statements) {
+            return statements.stream()
+                .filter(statement -> statement.sql().trim().toLowerCase().startsWith("select"))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No SELECT was sent"));
+        }
+    }
+
+    private List<String> keysUsed(Statement statement) {
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + statement.sql(), statement.binds().toArray());
+        return plan.stream()
+            .map(row -> (String) row.get("key"))
+            .filter(Objects::nonNull)
+            .toList();
+    }
+
+    private record Statement(String sql, List<Object> binds) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.resolveit.repository;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * A new database and one created from the pre-migration schema (and baselined at V1)
+ * end up with the same schema objects, and V2 can be re-applied to a database that
+ * already has them. Needs Docker; skipped without it.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+class SchemaMigrationTest {
+
+    @Container
+    private static final MySQLContainer<?> mysql = new MySQLContainer<>("mysql:8.0").withUsername("root");
+
+    @Test
+    void newDatabaseGetsEverySchemaObject() {
+        DataSource dataSource = createDatabase("fresh");
+
+        flyway(dataSource).migrate();
+
+        assertSchemaComplete(new JdbcTemplate(dataSource));
+    }
+
+    @Test
+    void baselinedDatabaseGetsObjectsAddedBeforeMigrations() {
+        DataSource dataSource = createDatabase("legacy");
+        // What a database created from the schema script looks like; ddl-auto=update
+        // may also have added the version column, without a default
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V1__baseline_schema.sql")).execute(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("ALTER TABLE complaints ADD COLUMN version BIGINT");
+        jdbcTemplate.update("INSERT INTO users (username, password_hash) VALUES ('legacy', 'x')");
+        jdbcTemplate.update("INSERT INTO complaints (title, user_id) VALUES ('before migrations', 1)");
+
+        flyway(dataSource).migrate();
+
+        assertSchemaComplete(jdbcTemplate);
+        assertThat(jdbcTemplate.queryForObject("SELECT version FROM complaints", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT type FROM flyway_schema_history WHERE version = '1'", String.class)).isEqualTo("BASELINE");
+    }
+
+    @Test
+    void schemaAddedBeforeMigrationsCanBeReapplied() {
+        DataSource dataSource = createDatabase("reapplied");
+        flyway(dataSource).migrate();
+
+        new ResourceDatabasePopulator(
+            new ClassPathResource("db/migration/V2__schema_added_before_migrations.sql")).execute(dataSource);
+
+        assertSchemaComplete(new JdbcTemplate(dataSource));
+    }
+
+    private static void assertSchemaComplete(JdbcTemplate jdbcTemplate) {
+        assertThat(columnExists(jdbcTemplate, "complaints", "version")).isTrue();
+        assertThat(tableExists(jdbcTemplate, "import_checkpoints")).isTrue();
+        assertThat(tableExists(jdbcTemplate, "id_sequences")).isTrue();
+        assertThat(tableExists(jdbcTemplate, "complaint_files")).isTrue();
+        assertThat(tableExists(jdbcTemplate, "complaint_trend_buckets")).isTrue();
+        assertThat(indexExists(jdbcTemplate, "complaints", "idx_claim_queue")).isTrue();
+        assertThat(indexExists(jdbcTemplate, "notifications", "idx_user_read_created")).isTrue();
+        assertThat(indexExists(jdbcTemplate, "complaints", "idx_officer_created")).isTrue();
+    }
+
+    private static boolean tableExists(JdbcTemplate jdbcTemplate, String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.tables " +
+            "WHERE table_schema = DATABASE() AND table_name = ?", Integer.class, table) > 0;
+    }
+
+    private static boolean columnExists(JdbcTemplate jdbcTemplate, String table, String column) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns " +
+            "WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?", Integer.class, table, column) > 0;
+    }
+
+    private static boolean indexExists(JdbcTemplate jdbcTemplate, String table, String index) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.statistics " +
+            "WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?", Integer.class, table, index) > 0;
+    }
+
+    private static Flyway flyway(DataSource dataSource) {
+        // As configured in application.properties
+        return Flyway.configure()
+            .dataSource(dataSource)
+            .locations("classpath:db/migration")
+            .baselineOnMigrate(true)
+            .baselineVersion("1")
+            .load();
+    }
+
+    private static DataSource createDatabase(String name) {
+        new JdbcTemplate(new DriverManagerDataSource(mysql.getJdbcUrl(), mysql.getUsername(), mysql.getPassword()))
+            .execute("CREATE DATABASE " + name);
+        String url = "jdbc:mysql://" + mysql.getHost() + ":" + mysql.getMappedPort(MySQLContainer.MYSQL_PORT) + "/" + name;
+        return new DriverManagerDataSource(url, mysql.getUsername(), mysql.getPassword());
+    }
+}
@@ -0,0 +1,155 @@
+package com.resolveit.security;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * However many requests hash at once, only the pool's workers use a CPU for it; the rest
+ * wait in the bounded queue or are refused. PasswordHashingStormBenchmark measures what
+ * that means for the latency of other requests.
+ */
+class PasswordHashingServiceTest {
+
+    private final BlockingEncoder encoder = new BlockingEncoder();
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        encoder.release.countDown();
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void defaultsToHalfTheCpus() {
+        assertThat(PasswordHashingService.defaultWorkers(1)).isEqualTo(1);
+        assertThat(PasswordHashingService.defaultWorkers(2)).isEqualTo(1);
+        assertThat(PasswordHashingService.defaultWorkers(8)).isEqualTo(4);
+        assertThat(PasswordHashingService.defaultWorkers(13)).isEqualTo(6);
+
+        service = service(0, 4, 1000);
+        assertThat(service.snapshot()).containsEntry("threads", Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+    }
+
+    @Test
+    void loginStormHashesOnlyOnTheWorkers() throws Exception {
+        service = service(2, 3, 5000);
+        ExecutorService requests = Executors.newFixedThreadPool(20);
+        try {
+            List<Future<Boolean>> logins = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                logins.add(requests.submit(() -> service.matches("secret", "hash")));
+            }
+            assertThat(encoder.started.await(5, TimeUnit.SECONDS)).isTrue();
+            // The two workers are busy, three requests are queued and the other fifteen were refused
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while ((Long) service.snapshot().get("rejected") < 15 || encoder.running.get() < 2) {
+                assertThat(System.nanoTime()).isLessThan(deadline);
+                Thread.sleep(10);
+            }
+            assertThat(service.snapshot()).containsEntry("active", 2).containsEntry("queued", 3);
+
+            encoder.release.countDown();
+            int succeeded = 0;
+            int busy = 0;
+            for (Future<Boolean> login : logins) {
+                try {
+                    login.get(5, TimeUnit.SECONDS);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(PasswordHashingService.BusyException.class);
+                    busy++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(5);
+            assertThat(busy).isEqualTo(15);
+            assertThat(encoder.maxConcurrent.get()).isEqualTo(2);
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    @Test
+    void requestGivesUpAfterTheWaitLimit() throws Exception {
+        service = service(1, 4, 100);
+
+        long started = System.nanoTime();
+        assertThatThrownBy(() -> service.matches("secret", "hash"))
+            .isInstanceOf(PasswordHashingService.BusyException.class);
+
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(2000);
+        assertThat(service.snapshot()).containsEntry("timedOut", 1L);
+    }
+
+    @Test
+    void needsRehashComparesTheCost() {
+        service = service(1, 4, 1000);
+
+        assertThat(service.needsRehash("$2a$10$abcdefghijklmnopqrstuv")).isFalse();
+        assertThat(service.needsRehash("$2a$12$abcdefghijklmnopqrstuv")).isTrue();
+        assertThat(service.needsRehash("plain")).isFalse();
+        assertThat(service.needsRehash(null)).isFalse();
+    }
+
+    private PasswordHashingService service(int threads, int queueCapacity, long maxWaitMillis) {
+        PasswordHashingService hashing = new PasswordHashingService();
+        ReflectionTestUtils.setField(hashing, "passwordEncoder", encoder);
+        ReflectionTestUtils.setField(hashing, "strength", 10);
+        ReflectionTestUtils.setField(hashing, "threads", threads);
+        ReflectionTestUtils.setField(hashing, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(hashing, "maxWaitMillis", maxWaitMillis);
+        hashing.init();
+        return hashing;
+    }
+
+    /**
+     * Stands in for BCrypt: holds every hash until released and records how many ran at once
+     */
+    private static class BlockingEncoder implements PasswordEncoder {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+
+        @Override
+        public String encode(CharSequence rawPassword) {
+            hash();
+            return "hash";
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            hash();
+            return true;
+        }
+
+        private void hash() {
+            maxConcurrent.accumulateAndGet(running.incrementAndGet(), Math::max);
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.resolveit.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of a light request (serializing a page of complaints) while a login storm runs:
+ * many request threads each verifying BCrypt passwords back to back. With "requestThreads"
+ * every login hashes on its own thread, as before PasswordHashingService; with "pool" the
+ * logins go through the service and its default worker count. Compare the percentiles.
+ *
+ * Run from resolveit-backend with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.resolveit.security.PasswordHashingStormBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordHashingStormBenchmark {
+
+    // Concurrent logins, like a Tomcat pool full of them
+    private static final int LOGIN_THREADS = 32;
+
+    @Param({"requestThreads", "pool"})
+    private String hashing;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Map<String, Object>> page = new ArrayList<>();
+    private final List<Thread> storm = new ArrayList<>();
+    private volatile boolean running;
+
+    private PasswordHashingService service;
+
+    @Setup(Level.Trial)
+    public void startStorm() {
+        for (int i = 0; i < 20; i++) {
+            Map<String, Object> complaint = new LinkedHashMap<>();
+            complaint.put("id", (long) i);
+            complaint.put("title", "Street light out on block " + i);
+            complaint.put("category", "Roads");
+            complaint.put("status", "IN_PROGRESS");
+            complaint.put("createdAt", "2024-05-01T08:00:00");
+            page.add(complaint);
+        }
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(10);
+        String hash = encoder.encode("correct horse");
+        service = new PasswordHashingService();
+        ReflectionTestUtils.setField(service, "passwordEncoder", encoder);
+        ReflectionTestUtils.setField(service, "strength", 10);
+        ReflectionTestUtils.setField(service, "threads", 0);
+        ReflectionTestUtils.setField(service, "queueCapacity", 32);
+        ReflectionTestUtils.setField(service, "maxWaitMillis", 2000L);
+        service.init();
+
+        running = true;
+        for (int i = 0; i < LOGIN_THREADS; i++) {
+            Thread login = new Thread(() -> {
+                while (running) {
+                    if ("pool".equals(hashing)) {
+                        try {
+                            service.matches("correct horse", hash);
+                        } catch (PasswordHashingService.BusyException e) {
+                            // 503; the client retries a little later
+                            sleep(10);
+                        }
+                    } else {
+                        encoder.matches("correct horse", hash);
+                    }
+                }
+            }, "login-" + i);
+            login.setDaemon(true);
+            login.start();
+            storm.add(login);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopStorm() throws InterruptedException {
+        running = false;
+        for (Thread login : storm) {
+            login.join();
+        }
+        service.shutdown();
+    }
+
+    @Benchmark
+    public byte[] otherRequest() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PasswordHashingStormBenchmark.class.getSimpleName()).build()).run();
+    }
+}
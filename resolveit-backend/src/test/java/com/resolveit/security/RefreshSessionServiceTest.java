@@ -0,0 +1,105 @@
+package com.resolveit.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Refresh sessions against H2 in MySQL mode, with the refresh_sessions table created by V10
+ */
+class RefreshSessionServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private RefreshSessionService refreshSessionService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Only the users the sessions refer to; the baseline schema does not run on H2
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY)");
+        jdbcTemplate.update("INSERT INTO users (id) VALUES (1), (2)");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V10__refresh_sessions.sql")).execute(dataSource);
+
+        refreshSessionService = new RefreshSessionService();
+        ReflectionTestUtils.setField(refreshSessionService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(refreshSessionService, "refreshTtlDays", 14L);
+    }
+
+    @Test
+    void eachGenerationRotatesOnce() {
+        String session = refreshSessionService.start(1);
+
+        assertThat(refreshSessionService.rotate(session, 1, 0)).isEqualTo(1);
+        assertThat(refreshSessionService.rotate(session, 1, 1)).isEqualTo(2);
+        assertThat(refreshSessionService.rotate(session, 1, 2)).isEqualTo(3);
+    }
+
+    @Test
+    void reusedTokenEndsTheSession() {
+        String session = refreshSessionService.start(1);
+        assertThat(refreshSessionService.rotate(session, 1, 0)).isEqualTo(1);
+
+        // The generation 0 token again, e.g. a stolen copy
+        assertThat(refreshSessionService.rotate(session, 1, 0)).isNull();
+
+        // The newer token no longer works either
+        assertThat(refreshSessionService.rotate(session, 1, 1)).isNull();
+        assertThat(sessionCount()).isZero();
+    }
+
+    @Test
+    void tokenFromTheFutureDoesNotEndTheSession() {
+        String session = refreshSessionService.start(1);
+
+        assertThat(refreshSessionService.rotate(session, 1, 5)).isNull();
+        assertThat(refreshSessionService.rotate(session, 1, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void sessionOfAnotherUserIsRefused() {
+        String session = refreshSessionService.start(1);
+
+        assertThat(refreshSessionService.rotate(session, 2, 0)).isNull();
+        assertThat(refreshSessionService.rotate(session, 1, 0)).isEqualTo(1);
+    }
+
+    @Test
+    void expiredSessionIsRefusedAndDeleted() {
+        String session = refreshSessionService.start(1);
+        jdbcTemplate.update("UPDATE refresh_sessions SET expires_at = TIMESTAMPADD(MINUTE, -1, CURRENT_TIMESTAMP)");
+
+        assertThat(refreshSessionService.rotate(session, 1, 0)).isNull();
+
+        refreshSessionService.deleteExpired();
+        assertThat(sessionCount()).isZero();
+    }
+
+    @Test
+    void endAllEndsOnlyThatUsersSessions() {
+        String first = refreshSessionService.start(1);
+        String second = refreshSessionService.start(1);
+        String other = refreshSessionService.start(2);
+
+        refreshSessionService.endAll(1);
+
+        assertThat(refreshSessionService.rotate(first, 1, 0)).isNull();
+        assertThat(refreshSessionService.rotate(second, 1, 0)).isNull();
+        assertThat(refreshSessionService.rotate(other, 2, 0)).isEqualTo(1);
+    }
+
+    private int sessionCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM refresh_sessions", Integer.class);
+    }
+}
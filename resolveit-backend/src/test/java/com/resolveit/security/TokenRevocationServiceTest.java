@@ -0,0 +1,126 @@
+package com.resolveit.security;
+
+import com.resolveit.security.TokenRevocationService.EpochTable;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationServiceTest {
+
+    private static final String EPOCH_SQL = "SELECT token_epoch FROM users WHERE id = ?";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private RefreshSessionService refreshSessionService;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    // ==================== EPOCH TABLE ====================
+
+    @Test
+    void missingUsersHaveEpochZero() {
+        EpochTable table = new EpochTable(16);
+        table.put(5, 3);
+
+        assertThat(table.get(6)).isZero();
+        assertThat(table.get(5)).isEqualTo(3);
+    }
+
+    @Test
+    void probingFindsEveryUserOfAHalfFullTable() {
+        EpochTable table = new EpochTable(1024);
+        // Consecutive and strided ids, so some share a home slot and probe past each other
+        for (long userId = 1; userId <= 256; userId++) {
+            assertThat(table.put(userId, (int) userId)).isTrue();
+            assertThat(table.put(userId * 1024, (int) userId + 1)).isTrue();
+        }
+
+        for (long userId = 1; userId <= 256; userId++) {
+            assertThat(table.get(userId)).isEqualTo((int) userId);
+            assertThat(table.get(userId * 1024)).isEqualTo((int) userId + 1);
+        }
+        assertThat(table.get(257)).isZero();
+    }
+
+    @Test
+    void epochsOnlyMoveForward() {
+        EpochTable table = new EpochTable(16);
+        table.put(7, 4);
+
+        table.put(7, 2);
+        assertThat(table.get(7)).isEqualTo(4);
+
+        table.put(7, 5);
+        assertThat(table.get(7)).isEqualTo(5);
+    }
+
+    @Test
+    void tableRefusesNewUsersOnceHalfFull() {
+        EpochTable table = new EpochTable(8);
+        for (long userId = 1; userId <= 4; userId++) {
+            assertThat(table.put(userId, 1)).isTrue();
+        }
+
+        assertThat(table.put(5, 1)).isFalse();
+        assertThat(table.get(5)).isZero();
+        // Users already present can still be updated
+        assertThat(table.put(3, 2)).isTrue();
+        assertThat(table.get(3)).isEqualTo(2);
+    }
+
+    @Test
+    void growKeepsEveryEpoch() {
+        EpochTable table = new EpochTable(8);
+        for (long userId = 1; userId <= 4; userId++) {
+            table.put(userId, (int) userId * 10);
+        }
+
+        EpochTable grown = table.grow();
+
+        assertThat(grown.put(5, 50)).isTrue();
+        for (long userId = 1; userId <= 5; userId++) {
+            assertThat(grown.get(userId)).isEqualTo((int) userId * 10);
+        }
+    }
+
+    // ==================== SERVICE ====================
+
+    @Test
+    void tableGrowsAsRevokedUsersAreAdded() {
+        when(jdbcTemplate.queryForObject(eq(EPOCH_SQL), eq(Integer.class), anyLong())).thenReturn(1);
+
+        // Past the initial capacity of 1024, i.e. several times past half full
+        for (long userId = 1; userId <= 3000; userId++) {
+            tokenRevocationService.currentEpoch(userId);
+        }
+
+        for (long userId = 1; userId <= 3000; userId++) {
+            assertThat(tokenRevocationService.isRevoked(userId, 0)).isTrue();
+            assertThat(tokenRevocationService.isRevoked(userId, 1)).isFalse();
+        }
+        assertThat(tokenRevocationService.isRevoked(3001, 0)).isFalse();
+    }
+
+    @Test
+    void isRevokedNowSeesRevocationsNotYetPolled() {
+        // Another instance revoked the user's tokens; this one has not polled yet
+        assertThat(tokenRevocationService.isRevoked(42, 0)).isFalse();
+        when(jdbcTemplate.queryForObject(EPOCH_SQL, Integer.class, 42L)).thenReturn(1);
+
+        assertThat(tokenRevocationService.isRevokedNow(42, 0)).isTrue();
+        assertThat(tokenRevocationService.isRevoked(42, 0)).isTrue();
+        assertThat(tokenRevocationService.isRevokedNow(42, 1)).isFalse();
+    }
+}
@@ -0,0 +1,248 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.AnalyticsQueryRequest;
+import com.resolveit.model.ComplaintStatus;
+import com.resolveit.model.User;
+import com.resolveit.repository.ComplaintStatusRepository;
+import com.resolveit.repository.UserRepository;
+import com.resolveit.service.ColumnarSnapshotWriter.Column;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Group-by queries over complaint snapshot parts written with ColumnarSnapshotWriter
+ */
+@ExtendWith(MockitoExtension.class)
+class AnalyticsQueryServiceTest {
+
+    private static final List<Column> COLUMNS = List.of(
+        new Column("id", Column.LONG), new Column("category", Column.STRING), new Column("priority", Column.STRING),
+        new Column("status_id", Column.LONG), new Column("assigned_officer_id", Column.LONG),
+        new Column("created_at", Column.TIMESTAMP), new Column("updated_at", Column.TIMESTAMP),
+        new Column("resolved_at", Column.TIMESTAMP));
+
+    private static final int NEW = 1;
+    private static final int RESOLVED = 4;
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    @TempDir
+    Path snapshotDir;
+
+    @Mock
+    private ComplaintStatusRepository statusRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private AnalyticsQueryService analyticsQueryService;
+
+    private long partTime = 1_700_000_000_000L;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(analyticsQueryService, "snapshotDir", snapshotDir.toString());
+        ReflectionTestUtils.setField(analyticsQueryService, "queryTimeoutMs", 5000L);
+        ReflectionTestUtils.setField(analyticsQueryService, "maxConcurrentQueries", 2);
+        ReflectionTestUtils.setField(analyticsQueryService, "maxGroups", 10000);
+        ReflectionTestUtils.setField(analyticsQueryService, "maxMemoryMb", 64L);
+        analyticsQueryService.init();
+        Files.createDirectories(snapshotDir.resolve("complaints"));
+
+        lenient().when(statusRepository.findAll()).thenReturn(List.of(
+            new ComplaintStatus(NEW, "NEW", "New"), new ComplaintStatus(RESOLVED, "RESOLVED", "Resolved")));
+    }
+
+    @Test
+    void groupsAndOrdersByMetric() throws Exception {
+        writePart(List.of(
+            row(1, "Roads", "HIGH", RESOLVED, null, START, START.plusHours(10)),
+            row(2, "Roads", "LOW", RESOLVED, null, START, START.plusHours(20)),
+            row(3, "Roads", "LOW", NEW, null, START, null),
+            row(4, "Water", "HIGH", RESOLVED, null, START, START.plusHours(2)),
+            row(5, null, "LOW", NEW, null, START, null)));
+
+        List<Map<String, Object>> rows = rows(request(List.of("category"), List.of("count", "resolved", "avgResolutionHours"), "count"));
+
+        assertThat(rows).hasSize(3);
+        assertThat(rows.get(0)).containsEntry("category", "Roads").containsEntry("count", 3L)
+            .containsEntry("resolved", 2L).containsEntry("avgResolutionHours", 15.0);
+        assertThat(rows).extracting(row -> row.get("category")).containsExactlyInAnyOrder("Roads", "Water", null);
+    }
+
+    @Test
+    void groupsWithoutResolvedComplaintsSortLast() throws Exception {
+        writePart(List.of(
+            row(1, "Roads", "LOW", NEW, null, START, null),
+            row(2, "Water", "LOW", RESOLVED, null, START, START.plusHours(1)),
+            row(3, "Parks", "LOW", RESOLVED, null, START, START.plusHours(5))));
+
+        List<Map<String, Object>> rows = rows(request(List.of("category"), List.of("avgResolutionHours"), null));
+
+        assertThat(rows).extracting(row -> row.get("category")).containsExactly("Parks", "Water", "Roads");
+        assertThat(rows.get(2).get("avgResolutionHours")).isNull();
+    }
+
+    @Test
+    void laterPartReplacesEarlierVersionOfComplaint() throws Exception {
+        writePart(List.of(
+            row(1, "Roads", "LOW", NEW, null, START, null),
+            row(2, "Roads", "LOW", NEW, null, START, null)));
+        writePart(List.<Object[]>of(row(1, "Roads", "LOW", RESOLVED, null, START, START.plusHours(4))));
+
+        List<Map<String, Object>> rows = rows(request(List.of("status"), List.of("count"), null));
+
+        assertThat(rows).containsExactlyInAnyOrder(
+            Map.of("status", "New", "count", 1L),
+            Map.of("status", "Resolved", "count", 1L));
+    }
+
+    @Test
+    void filtersNarrowTheSelection() throws Exception {
+        writePart(List.of(
+            row(1, "Roads", "HIGH", RESOLVED, 7L, START, START.plusHours(1)),
+            row(2, "Roads", "LOW", RESOLVED, 7L, START, START.plusHours(1)),
+            row(3, "Water", "HIGH", RESOLVED, 7L, START, START.plusHours(1)),
+            row(4, "Roads", "HIGH", NEW, 7L, START, null),
+            row(5, "Roads", "HIGH", RESOLVED, 8L, START, START.plusHours(1)),
+            row(6, "Roads", "HIGH", RESOLVED, 7L, START.plusDays(40), START.plusDays(41))));
+
+        AnalyticsQueryRequest request = request(List.of(), List.of("count"), null);
+        request.setCategories(List.of("Roads"));
+        request.setPriorities(List.of("HIGH"));
+        request.setStatusCodes(List.of("RESOLVED"));
+        request.setOfficerIds(List.of(7L));
+        request.setStartDate(START.minusDays(1));
+        request.setEndDate(START.plusDays(1));
+        Map<String, Object> result = analyticsQueryService.query(request);
+
+        assertThat(result).containsEntry("matchedRows", 1).containsEntry("scannedRows", 6);
+    }
+
+    @Test
+    void percentilesUseNearestRank() throws Exception {
+        List<Object[]> part = new ArrayList<>();
+        for (int i = 1; i <= 100; i++) {
+            part.add(row(i, "Roads", "LOW", RESOLVED, null, START, START.plusHours(i)));
+        }
+        writePart(part);
+
+        List<Map<String, Object>> rows = rows(request(List.of(),
+            List.of("p50ResolutionHours", "p90ResolutionHours", "maxResolutionHours"), null));
+
+        assertThat(rows.get(0)).containsEntry("p50ResolutionHours", 50.0)
+            .containsEntry("p90ResolutionHours", 90.0).containsEntry("maxResolutionHours", 100.0);
+    }
+
+    @Test
+    void officerGroupsAreLabelledWithNames() throws Exception {
+        writePart(List.of(
+            row(1, "Roads", "LOW", NEW, 7L, START, null),
+            row(2, "Roads", "LOW", NEW, null, START, null)));
+        User officer = new User();
+        officer.setId(7L);
+        officer.setFullName("Officer Seven");
+        when(userRepository.findAllById(any())).thenReturn(List.of(officer));
+
+        List<Map<String, Object>> rows = rows(request(List.of("officer"), List.of("count"), null));
+
+        assertThat(rows).extracting(row -> row.get("officer")).containsExactlyInAnyOrder("Officer Seven", "Unassigned");
+    }
+
+    @Test
+    void tooManyGroupsAreRefused() throws Exception {
+        ReflectionTestUtils.setField(analyticsQueryService, "maxGroups", 2);
+        writePart(List.of(
+            row(1, "Roads", "LOW", NEW, null, START, null),
+            row(2, "Water", "LOW", NEW, null, START, null),
+            row(3, "Parks", "LOW", NEW, null, START, null)));
+
+        assertThatThrownBy(() -> analyticsQueryService.query(request(List.of("category"), List.of("count"), null)))
+            .hasMessageContaining("more than 2 groups");
+    }
+
+    @Test
+    void tableLargerThanMemoryBudgetIsRefused() throws Exception {
+        ReflectionTestUtils.setField(analyticsQueryService, "maxMemoryMb", 1L);
+        // The column arrays and the id index take over 100 bytes per complaint
+        List<Object[]> part = new ArrayList<>();
+        for (int i = 1; i <= 10_000; i++) {
+            part.add(row(i, "Roads", "LOW", NEW, null, START, null));
+        }
+        writePart(part);
+
+        assertThatThrownBy(() -> analyticsQueryService.query(request(List.of(), List.of("count"), null)))
+            .hasMessageContaining("app.analytics.max-memory-mb");
+    }
+
+    @Test
+    void reloadCountsAgainstQueryDeadline() throws Exception {
+        ReflectionTestUtils.setField(analyticsQueryService, "queryTimeoutMs", 0L);
+        writePart(List.<Object[]>of(row(1, "Roads", "LOW", NEW, null, START, null)));
+
+        assertThatThrownBy(() -> analyticsQueryService.query(request(List.of(), List.of("count"), null)))
+            .hasMessageContaining("Loading the complaint snapshots exceeded");
+
+        ReflectionTestUtils.setField(analyticsQueryService, "queryTimeoutMs", 5000L);
+        assertThat(rows(request(List.of(), List.of("count"), null)).get(0)).containsEntry("count", 1L);
+    }
+
+    @Test
+    void unknownDimensionIsRejected() {
+        assertThatThrownBy(() -> analyticsQueryService.query(request(List.of("colour"), List.of("count"), null)))
+            .hasMessageContaining("Unknown dimension");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> rows(AnalyticsQueryRequest request) throws Exception {
+        return (List<Map<String, Object>>) analyticsQueryService.query(request).get("rows");
+    }
+
+    private static AnalyticsQueryRequest request(List<String> groupBy, List<String> metrics, String orderBy) {
+        AnalyticsQueryRequest request = new AnalyticsQueryRequest();
+        request.setGroupBy(groupBy);
+        request.setMetrics(metrics);
+        request.setOrderBy(orderBy);
+        return request;
+    }
+
+    private static Object[] row(long id, String category, String priority, int statusId, Long officerId,
+                                LocalDateTime createdAt, LocalDateTime resolvedAt) {
+        Timestamp resolved = resolvedAt != null ? Timestamp.valueOf(resolvedAt) : null;
+        return new Object[]{id, category, priority, statusId, officerId, Timestamp.valueOf(createdAt),
+            resolved != null ? resolved : Timestamp.valueOf(createdAt), resolved};
+    }
+
+    private void writePart(List<Object[]> rows) throws Exception {
+        // Part names carry the export time, which orders them
+        Path part = snapshotDir.resolve("complaints").resolve("part-" + partTime++ + ".rcol.gz");
+        try (OutputStream file = Files.newOutputStream(part);
+             ColumnarSnapshotWriter writer = new ColumnarSnapshotWriter(file, COLUMNS, 1000)) {
+            for (Object[] row : rows) {
+                writer.addRow(row);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.resolveit.service;
+
+import com.resolveit.config.QueryStatistics;
+import com.resolveit.config.QueryStatsDataSource;
+import com.resolveit.model.Notification;
+import com.resolveit.model.User;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Entities take their ids from id_sequences in blocks, so Hibernate sends their inserts
+ * as JDBC batches instead of one statement per row, and ids reserved by the JDBC batch
+ * writers never collide with the ones Hibernate hands out.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("test")
+class BatchedInsertTest {
+
+    private static final int ROWS = 120;
+
+    // Rows per executed INSERT INTO notifications, in order
+    private static final List<Integer> notificationBatches = new ArrayList<>();
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private IdAllocationService idAllocationService;
+
+    private User user;
+
+    @TestConfiguration
+    static class StatementCapture {
+        @Bean
+        static BeanPostProcessor captureStatements() {
+            QueryStatistics statistics = new QueryStatistics(Long.MAX_VALUE / 1_000_000L, 0, 0, false) {
+                @Override
+                public void record(String sql, boolean prepared, List<Object> binds, int batchSize, long elapsedNanos) {
+                    if (sql.toLowerCase().startsWith("insert into notifications")) {
+                        synchronized (notificationBatches) {
+                            notificationBatches.add(Math.max(batchSize, 1));
+                        }
+                    }
+                }
+            };
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof QueryStatsDataSource)
+                        ? new QueryStatsDataSource(dataSource, statistics) : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        // initSequences seeds with MySQL-only SQL; Hibernate creates the sequence rows here
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        idAllocationService = new IdAllocationService();
+        ReflectionTestUtils.setField(idAllocationService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(idAllocationService, "requiresNew", requiresNew);
+
+        user = new User();
+        user.setUsername("batch-user");
+        user.setEmail("batch@example.com");
+        user.setPassword("x");
+        user.setFullName("Batch User");
+        entityManager.persist(user);
+        entityManager.flush();
+        synchronized (notificationBatches) {
+            notificationBatches.clear();
+        }
+    }
+
+    @Test
+    void insertsAreSentInBatchesWithPreallocatedIds() {
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            notifications.add(persistNotification("Notification " + i));
+        }
+
+        // Ids are known before anything is inserted
+        assertThat(notifications).allSatisfy(n -> assertThat(n.getId()).isNotNull());
+        assertThat(notificationBatches).isEmpty();
+
+        entityManager.flush();
+
+        // hibernate.jdbc.batch_size is 50
+        assertThat(notificationBatches).containsExactly(50, 50, 20);
+
+        // pooled-lo hands out consecutive ids
+        long first = notifications.get(0).getId();
+        for (int i = 0; i < ROWS; i++) {
+            assertThat(notifications.get(i).getId()).isEqualTo(first + i);
+        }
+        Long stored = entityManager.createQuery("SELECT COUNT(n) FROM Notification n", Long.class).getSingleResult();
+        assertThat(stored).isEqualTo(ROWS);
+    }
+
+    @Test
+    void reservedIdsDoNotOverlapHibernateIds() {
+        List<Long> hibernateIds = new ArrayList<>();
+        hibernateIds.add(persistNotification("before").getId());
+
+        long reserved = idAllocationService.reserve("notifications", 200);
+
+        for (int i = 0; i < 100; i++) {
+            hibernateIds.add(persistNotification("after " + i).getId());
+        }
+        entityManager.flush();
+
+        assertThat(hibernateIds).noneMatch(id -> id >= reserved && id < reserved + 200);
+    }
+
+    private Notification persistNotification(String title) {
+        Notification notification = new Notification();
+        notification.setUser(user);
+        notification.setTitle(title);
+        notification.setMessage(title);
+        entityManager.persist(notification);
+        return notification;
+    }
+}
@@ -0,0 +1,117 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.ComplaintStatsRow;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Dashboard, category and status report figures computed the way ReportService used to
+ * (stream grouping over Complaint entities) against ComplaintAggregation over projection rows.
+ * Only the in-memory work is measured; loading rows instead of entities saves more on top.
+ *
+ * Run from resolveit-backend with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.resolveit.service.ComplaintAggregationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplaintAggregationBenchmark {
+
+    @Param({"10000", "100000"})
+    private int size;
+
+    private List<ComplaintStatsRow> rows;
+    private List<Complaint> complaints;
+    private LocalDateTime recentSince;
+
+    @Setup
+    public void setUp() {
+        rows = ComplaintAggregationTest.randomRows(size, 42);
+        recentSince = ComplaintAggregationTest.NOW.minusDays(7);
+
+        Map<Integer, ComplaintStatus> statuses = ComplaintAggregationTest.STATUSES.stream()
+            .collect(Collectors.toMap(ComplaintStatus::getId, s -> s));
+        complaints = new ArrayList<>(size);
+        for (ComplaintStatsRow row : rows) {
+            Complaint complaint = new Complaint();
+            complaint.setStatus(statuses.get(row.getStatusId()));
+            complaint.setPriority(row.getPriority());
+            complaint.setCategory(row.getCategory());
+            complaint.setCreatedAt(row.getCreatedAt());
+            complaint.setUpdatedAt(row.getUpdatedAt());
+            complaints.add(complaint);
+        }
+    }
+
+    @Benchmark
+    public void streamsOverEntities(Blackhole blackhole) {
+        long resolved = complaints.stream().filter(c -> "RESOLVED".equals(c.getStatus().getCode())).count();
+        long pending = complaints.stream().filter(c -> !"RESOLVED".equals(c.getStatus().getCode())).count();
+        long escalated = complaints.stream().filter(c -> "ESCALATED".equals(c.getStatus().getCode())).count();
+        long recent = complaints.stream().filter(c -> c.getCreatedAt().isAfter(recentSince)).count();
+        blackhole.consume(resolved + pending + escalated + recent);
+        blackhole.consume(averageResolutionHours(complaints));
+
+        Map<String, List<Complaint>> byCategory = complaints.stream()
+            .filter(c -> c.getCategory() != null)
+            .collect(Collectors.groupingBy(Complaint::getCategory));
+        for (List<Complaint> group : byCategory.values()) {
+            blackhole.consume(group.stream().filter(c -> "RESOLVED".equals(c.getStatus().getCode())).count());
+            blackhole.consume(averageResolutionHours(group));
+        }
+
+        Map<String, List<Complaint>> byStatus = complaints.stream()
+            .collect(Collectors.groupingBy(c -> c.getStatus().getDisplay()));
+        for (List<Complaint> group : byStatus.values()) {
+            blackhole.consume(group.size() * 100.0 / complaints.size());
+        }
+    }
+
+    @Benchmark
+    public void aggregationOverRows(Blackhole blackhole) {
+        ComplaintAggregation aggregation = ComplaintAggregation.aggregate(rows, ComplaintAggregationTest.STATUSES, recentSince);
+        blackhole.consume(aggregation.getResolved() + aggregation.getPending() + aggregation.getEscalated() + aggregation.getRecent());
+        blackhole.consume(aggregation.getAverageResolutionTimeHours());
+        blackhole.consume(aggregation.toCategoryReports());
+        blackhole.consume(aggregation.toStatusReports());
+    }
+
+    private static double averageResolutionHours(List<Complaint> complaints) {
+        return complaints.stream()
+            .filter(c -> "RESOLVED".equals(c.getStatus().getCode()))
+            .mapToDouble(c -> Duration.between(c.getCreatedAt(), c.getUpdatedAt()).getSeconds() / 3600.0)
+            .average()
+            .orElse(0.0);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ComplaintAggregationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,114 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.CategoryReport;
+import com.resolveit.dto.ComplaintStatsRow;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.ComplaintStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ComplaintAggregationTest {
+
+    static final List<ComplaintStatus> STATUSES = List.of(
+        new ComplaintStatus(1, "NEW", "New"),
+        new ComplaintStatus(2, "IN_PROGRESS", "In Progress"),
+        new ComplaintStatus(3, "RESOLVED", "Resolved"),
+        new ComplaintStatus(4, "ESCALATED", "Escalated"));
+
+    static final LocalDateTime NOW = LocalDateTime.of(2025, 6, 1, 12, 0);
+
+    /**
+     * Random complaints over the last year; resolved ones carry a resolution time
+     */
+    static List<ComplaintStatsRow> randomRows(int count, long seed) {
+        Random random = new Random(seed);
+        String[] categories = {"Roads", "Water", "Electricity", "Sanitation", "Noise", null};
+        Complaint.Priority[] priorities = Complaint.Priority.values();
+        List<ComplaintStatsRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int statusId = 1 + random.nextInt(4);
+            LocalDateTime created = NOW.minusMinutes(random.nextInt(365 * 24 * 60));
+            LocalDateTime updated = created.plusMinutes(random.nextInt(10_000));
+            LocalDateTime resolvedAt = statusId == 3 && random.nextBoolean() ? created.plusMinutes(random.nextInt(5_000)) : null;
+            rows.add(new ComplaintStatsRow(statusId, priorities[random.nextInt(priorities.length)],
+                categories[random.nextInt(categories.length)], created, updated, resolvedAt));
+        }
+        return rows;
+    }
+
+    @Test
+    void matchesStraightforwardCounts() {
+        assertMatchesStraightforwardCounts(randomRows(5_000, 1), NOW.minusDays(7));
+    }
+
+    @Test
+    void parallelAggregationMatchesStraightforwardCounts() {
+        assertMatchesStraightforwardCounts(randomRows(ComplaintAggregation.PARALLEL_THRESHOLD * 3 + 17, 2), NOW.minusDays(30));
+    }
+
+    @Test
+    void unknownStatusesAreCountedSeparately() {
+        List<ComplaintStatsRow> rows = List.of(
+            new ComplaintStatsRow(1, Complaint.Priority.LOW, "Roads", NOW, NOW, null),
+            new ComplaintStatsRow(99, Complaint.Priority.LOW, "Roads", NOW, NOW, null),
+            new ComplaintStatsRow(null, null, null, NOW, NOW, null));
+
+        ComplaintAggregation aggregation = ComplaintAggregation.aggregate(rows, STATUSES, NOW.minusDays(7));
+
+        assertThat(aggregation.getCountsByStatus()).containsEntry("New", 1L).containsEntry("Unknown", 2L);
+        assertThat(aggregation.getResolved()).isZero();
+        assertThat(aggregation.getCountsByPriority()).containsEntry("LOW", 2L);
+    }
+
+    private static void assertMatchesStraightforwardCounts(List<ComplaintStatsRow> rows, LocalDateTime recentSince) {
+        ComplaintAggregation aggregation = ComplaintAggregation.aggregate(rows, STATUSES, recentSince);
+
+        long resolved = rows.stream().filter(r -> r.getStatusId() == 3).count();
+        long escalated = rows.stream().filter(r -> r.getStatusId() == 4).count();
+        long recent = rows.stream().filter(r -> r.getCreatedAt().isAfter(recentSince)).count();
+        double avgHours = rows.stream().filter(r -> r.getStatusId() == 3)
+            .mapToDouble(r -> Duration.between(r.getCreatedAt(), resolvedAt(r)).getSeconds() / 3600.0)
+            .average().orElse(0);
+
+        assertThat(aggregation.getTotal()).isEqualTo(rows.size());
+        assertThat(aggregation.getResolved()).isEqualTo(resolved);
+        assertThat(aggregation.getPending()).isEqualTo(rows.size() - resolved);
+        assertThat(aggregation.getEscalated()).isEqualTo(escalated);
+        assertThat(aggregation.getRecent()).isEqualTo(recent);
+        assertThat(aggregation.getAverageResolutionTimeHours()).isCloseTo(avgHours, within(1e-9));
+
+        Map<String, long[]> byCategory = new HashMap<>();
+        for (ComplaintStatsRow row : rows) {
+            if (row.getCategory() != null) {
+                long[] counts = byCategory.computeIfAbsent(row.getCategory(), c -> new long[2]);
+                counts[0]++;
+                counts[1] += row.getStatusId() == 3 ? 1 : 0;
+            }
+        }
+        List<CategoryReport> reports = aggregation.toCategoryReports();
+        assertThat(reports).hasSize(byCategory.size());
+        for (CategoryReport report : reports) {
+            long[] counts = byCategory.get(report.getCategory());
+            assertThat(report.getTotalCount()).isEqualTo(counts[0]);
+            assertThat(report.getResolvedCount()).isEqualTo(counts[1]);
+        }
+
+        long days = rows.stream().map(r -> r.getCreatedAt().toLocalDate()).distinct().count();
+        assertThat(aggregation.getDailyTrend()).hasSize((int) days);
+        assertThat(aggregation.getDailyTrend().values().stream().mapToLong(Long::longValue).sum()).isEqualTo(rows.size());
+    }
+
+    private static LocalDateTime resolvedAt(ComplaintStatsRow row) {
+        return row.getResolvedAt() != null ? row.getResolvedAt() : row.getUpdatedAt();
+    }
+}
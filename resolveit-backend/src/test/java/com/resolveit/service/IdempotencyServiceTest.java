@@ -0,0 +1,251 @@
+package com.resolveit.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.resolveit.service.IdempotencyService.ConflictException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Idempotency keys against H2 in MySQL mode, with the idempotency_keys table created by the
+ * V9 migration. A second service on the same database stands in for another instance.
+ */
+class IdempotencyServiceTest {
+
+    private static final String SCOPE = "complaint-submit";
+    private static final String ALICE = "user:alice@example.com";
+    private static final String BOB = "user:bob@example.com";
+    private static final String FINGERPRINT = IdempotencyService.fingerprint("Pothole", "Roads");
+    private static final String OTHER_FINGERPRINT = IdempotencyService.fingerprint("Streetlight", "Roads");
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private IdempotencyService idempotencyService;
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V9__idempotency_keys.sql")).execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE submissions (id BIGINT PRIMARY KEY)");
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        idempotencyService = newInstance();
+    }
+
+    @Test
+    void retryIsReplayed() {
+        IdempotencyService.Result first = idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created);
+        IdempotencyService.Result retry = idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created);
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response()).isEqualTo(first.response());
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(storedKeys()).isEqualTo(1);
+    }
+
+    @Test
+    void retryOnAnotherInstanceIsReplayedFromTheDatabase() {
+        idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created);
+
+        IdempotencyService.Result retry = newInstance().execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created);
+
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response()).containsEntry("complaintId", 1);
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void differentRequestUnderTheSameKeyIsRefused() {
+        idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created);
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, ALICE, "key-1", OTHER_FINGERPRINT, this::created))
+            .isInstanceOfSatisfying(ConflictException.class, e -> assertThat(e.getStatus()).isEqualTo(422));
+        assertThatThrownBy(() -> newInstance().execute(SCOPE, ALICE, "key-1", OTHER_FINGERPRINT, this::created))
+            .isInstanceOfSatisfying(ConflictException.class, e -> assertThat(e.getStatus()).isEqualTo(422));
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keysAreScopedToTheClient() {
+        idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created);
+
+        IdempotencyService.Result bob = idempotencyService.execute(SCOPE, BOB, "key-1", OTHER_FINGERPRINT, this::created);
+
+        assertThat(bob.replayed()).isFalse();
+        assertThat(bob.response()).containsEntry("complaintId", 2L);
+        assertThat(storedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    void requestStillRunningElsewhereIsRefused() {
+        claimedAt(ALICE, "key-1", LocalDateTime.now().minusSeconds(10));
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created))
+            .isInstanceOfSatisfying(ConflictException.class, e -> assertThat(e.getStatus()).isEqualTo(409));
+        assertThat(runs.get()).isZero();
+    }
+
+    @Test
+    void abandonedClaimIsTakenOver() {
+        // Left by an instance that stopped mid-request, longer ago than the claim timeout
+        claimedAt(ALICE, "key-1", LocalDateTime.now().minusMinutes(10));
+
+        IdempotencyService.Result result = idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created);
+
+        assertThat(result.replayed()).isFalse();
+        assertThat(runs.get()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject("SELECT status FROM idempotency_keys", String.class)).isEqualTo("COMPLETED");
+    }
+
+    @Test
+    void failedRequestReleasesTheKey() {
+        Map<String, Object> error = idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT,
+            () -> Map.of("status", "error", "message", "Failed to submit complaint")).response();
+        assertThat(error).containsEntry("status", "error");
+        assertThat(storedKeys()).isZero();
+
+        Supplier<Map<String, Object>> throwing = () -> {
+            throw new IllegalStateException("database down");
+        };
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, throwing))
+            .isInstanceOf(IllegalStateException.class);
+        assertThat(storedKeys()).isZero();
+
+        assertThat(idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created).replayed()).isFalse();
+        assertThat(runs.get()).isEqualTo(1);
+    }
+
+    @Test
+    void responseIsCompletedWithTheActionsTransaction() {
+        idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, () -> {
+            Map<String, Object> response = submitInTransaction(false);
+            // Already stored, before this instance gets to do anything after the commit
+            assertThat(jdbcTemplate.queryForObject("SELECT status FROM idempotency_keys", String.class)).isEqualTo("COMPLETED");
+            return response;
+        });
+
+        IdempotencyService.Result retry = newInstance().execute(SCOPE, ALICE, "key-1", FINGERPRINT, () -> submitInTransaction(false));
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.response()).containsEntry("complaintId", 1);
+        assertThat(submissions()).isEqualTo(1);
+    }
+
+    @Test
+    void completionRollsBackWithTheAction() {
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, () -> submitInTransaction(true)))
+            .isInstanceOf(IllegalStateException.class);
+
+        assertThat(storedKeys()).isZero();
+        assertThat(submissions()).isZero();
+        assertThat(idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, () -> submitInTransaction(false)).replayed()).isFalse();
+        assertThat(submissions()).isEqualTo(1);
+    }
+
+    @Test
+    void actionIsRolledBackIfItsClaimWasTakenOver() {
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, () -> {
+            // Another instance took the claim as abandoned and claimed the key itself
+            jdbcTemplate.update("UPDATE idempotency_keys SET created_at = TIMESTAMPADD(MINUTE, 1, created_at)");
+            return submitInTransaction(false);
+        })).isInstanceOfSatisfying(ConflictException.class, e -> assertThat(e.getStatus()).isEqualTo(409));
+
+        assertThat(submissions()).isZero();
+    }
+
+    @Test
+    void anonymousKeysAreScopedByTheKeyAlone() {
+        idempotencyService.execute(SCOPE, null, "key-1", FINGERPRINT, this::created);
+
+        // The same phone retrying from another network
+        assertThat(newInstance().execute(SCOPE, null, "key-1", FINGERPRINT, this::created).replayed()).isTrue();
+        assertThat(idempotencyService.execute(SCOPE, ALICE, "key-1", FINGERPRINT, this::created).replayed()).isFalse();
+    }
+
+    @Test
+    void overlongKeyIsRefused() {
+        String key = "k".repeat(IdempotencyService.MAX_KEY_LENGTH + 1);
+
+        assertThatThrownBy(() -> idempotencyService.execute(SCOPE, ALICE, key, FINGERPRINT, this::created))
+            .isInstanceOfSatisfying(ConflictException.class, e -> assertThat(e.getStatus()).isEqualTo(400));
+    }
+
+    @Test
+    void longestKeyFitsTheColumn() {
+        String key = "k".repeat(IdempotencyService.MAX_KEY_LENGTH);
+
+        assertThat(idempotencyService.execute(SCOPE, "user:" + "a".repeat(300), key, FINGERPRINT, this::created).replayed()).isFalse();
+        assertThat(storedKeys()).isEqualTo(1);
+    }
+
+    private Map<String, Object> created() {
+        return Map.of("status", "success", "complaintId", (long) runs.incrementAndGet());
+    }
+
+    /**
+     * What the complaint submission does: its rows and the completed key in one transaction
+     */
+    private Map<String, Object> submitInTransaction(boolean failBeforeCommit) {
+        return transactionTemplate.execute(tx -> {
+            long id = runs.incrementAndGet();
+            jdbcTemplate.update("INSERT INTO submissions (id) VALUES (?)", id);
+            Map<String, Object> response = Map.of("status", "success", "complaintId", id);
+            idempotencyService.completeInTransaction(response);
+            if (failBeforeCommit) {
+                throw new IllegalStateException("file rows failed");
+            }
+            return response;
+        });
+    }
+
+    private int submissions() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM submissions", Integer.class);
+    }
+
+    /**
+     * An IN_PROGRESS row as another instance claims it before running the request
+     */
+    private void claimedAt(String client, String key, LocalDateTime createdAt) {
+        String storedKey = SCOPE + ":" + IdempotencyService.fingerprint(client).substring(0, 16) + ":" + key;
+        jdbcTemplate.update("INSERT INTO idempotency_keys (idem_key, fingerprint, status, created_at, expires_at) VALUES (?, ?, ?, ?, ?)",
+            storedKey, FINGERPRINT, "IN_PROGRESS",
+            Timestamp.valueOf(createdAt), Timestamp.valueOf(createdAt.plusDays(1)));
+    }
+
+    private int storedKeys() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class);
+    }
+
+    private IdempotencyService newInstance() {
+        IdempotencyService service = new IdempotencyService();
+        ReflectionTestUtils.setField(service, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttlMinutes", 1440L);
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+        ReflectionTestUtils.setField(service, "persist", true);
+        ReflectionTestUtils.setField(service, "claimTimeoutMinutes", 5L);
+        return service;
+    }
+}
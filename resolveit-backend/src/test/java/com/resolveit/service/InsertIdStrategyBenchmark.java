@@ -0,0 +1,133 @@
+package com.resolveit.service;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts per second through Hibernate with IDENTITY ids, which send one INSERT per row and
+ * read its generated key back, against the pooled-lo table generator the entities use now,
+ * which hands out ids from a block of 50 so the inserts go out as JDBC batches of 50. The
+ * settings are the ones in application.properties. The database is in-memory H2, so there is
+ * no network round trip per statement; against MySQL the difference is larger.
+ *
+ * Run from resolveit-backend with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.resolveit.service.InsertIdStrategyBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InsertIdStrategyBenchmark {
+
+    // Rows inserted per transaction
+    private static final int ROWS = 500;
+
+    @Param({"identity", "pooledLo"})
+    private String ids;
+
+    private SessionFactory sessionFactory;
+
+    @Setup(Level.Trial)
+    public void openDatabase() {
+        sessionFactory = new Configuration()
+            .addAnnotatedClass(IdentityRow.class)
+            .addAnnotatedClass(PooledLoRow.class)
+            .setProperty("hibernate.connection.url",
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+            .setProperty("hibernate.connection.username", "sa")
+            .setProperty("hibernate.connection.password", "")
+            .setProperty("hibernate.hbm2ddl.auto", "create")
+            .setProperty("hibernate.jdbc.batch_size", "50")
+            .setProperty("hibernate.order_inserts", "true")
+            .setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo")
+            .buildSessionFactory();
+    }
+
+    @TearDown(Level.Trial)
+    public void closeDatabase() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void insert() {
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            for (int i = 0; i < ROWS; i++) {
+                session.persist("identity".equals(ids) ? new IdentityRow("Notification " + i) : new PooledLoRow("Notification " + i));
+            }
+            transaction.commit();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(InsertIdStrategyBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    @Entity(name = "IdentityRow")
+    @Table(name = "identity_rows")
+    public static class IdentityRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        private Long id;
+
+        private String title;
+
+        protected IdentityRow() {
+        }
+
+        IdentityRow(String title) {
+            this.title = title;
+        }
+    }
+
+    @Entity(name = "PooledLoRow")
+    @Table(name = "pooled_lo_rows")
+    public static class PooledLoRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.TABLE, generator = "pooled_lo_rows_id")
+        @TableGenerator(name = "pooled_lo_rows_id", table = "id_sequences", pkColumnName = "seq_name",
+                valueColumnName = "next_val", pkColumnValue = "pooled_lo_rows", allocationSize = 50)
+        private Long id;
+
+        private String title;
+
+        protected PooledLoRow() {
+        }
+
+        PooledLoRow(String title) {
+            this.title = title;
+        }
+    }
+}
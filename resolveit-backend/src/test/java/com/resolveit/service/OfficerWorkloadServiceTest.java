@@ -0,0 +1,87 @@
+package com.resolveit.service;
+
+import com.resolveit.repository.ComplaintRepository;
+import com.resolveit.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
+
+/**
+ * Reservations survive a reload, so releasing them afterwards leaves the loads matching the database
+ */
+@ExtendWith(MockitoExtension.class)
+class OfficerWorkloadServiceTest {
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private OfficerWorkloadService workloadService;
+
+    private final List<Object[]> openCounts = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(userRepository.findActiveOfficerIds()).thenReturn(List.of(1L, 2L));
+        lenient().when(complaintRepository.countOpenByOfficer(any())).thenAnswer(invocation -> openCounts);
+        lenient().when(complaintRepository.findOfficerCategories()).thenReturn(List.of());
+    }
+
+    @Test
+    void reloadKeepsOutstandingReservations() {
+        setOpenCounts(1, 2);
+        assertThat(workloadService.reserveOfficer("Roads")).isEqualTo(1L);
+        assertThat(workloadService.reserveOfficer("Roads")).isEqualTo(1L);
+
+        workloadService.reconcile();
+
+        // Officer 1 is at 3 with both reservations, so officer 2 is next
+        assertThat(workloadService.reserveOfficer("Roads")).isEqualTo(2L);
+    }
+
+    @Test
+    void releaseAfterReloadDoesNotUndercount() {
+        setOpenCounts(1, 0);
+        assertThat(workloadService.reserveOfficer("Roads")).isEqualTo(2L);
+
+        // Reloaded while the complaint is being saved, then saved, counted and released
+        workloadService.reconcile();
+        workloadService.adjustAfterCommit(2L, null, 1);
+        workloadService.releaseReservation(2L);
+
+        // Both officers are at 1, as in the database; an undercount would leave officer 2 at 0
+        assertThat(workloadService.reserveOfficer("Roads")).isEqualTo(1L);
+    }
+
+    @Test
+    void releasingAnUnknownReservationChangesNothing() {
+        setOpenCounts(1, 1);
+        workloadService.reserveOfficer("Roads");
+        workloadService.releaseReservation(1L);
+
+        workloadService.releaseReservation(1L);
+
+        // Officer 1 stays at 1 rather than dropping to 0 and being picked twice in a row
+        assertThat(workloadService.reserveOfficer("Roads")).isEqualTo(1L);
+        assertThat(workloadService.reserveOfficer("Roads")).isEqualTo(2L);
+    }
+
+    private void setOpenCounts(long officerOne, long officerTwo) {
+        openCounts.clear();
+        openCounts.add(new Object[]{1L, officerOne});
+        openCounts.add(new Object[]{2L, officerTwo});
+    }
+}
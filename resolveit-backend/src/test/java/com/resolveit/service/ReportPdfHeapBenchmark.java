@@ -0,0 +1,186 @@
+package com.resolveit.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.UnitValue;
+import com.resolveit.dto.ComplaintReportRow;
+import com.resolveit.model.Complaint;
+import com.resolveit.repository.ComplaintRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Peak heap while writing the PDF report for 10k, 100k and 1M complaints. "byteArray" is the
+ * old path: every row loaded into a list, one ordinary table holding all of its cells until
+ * the document closes, and the finished PDF in a byte array. "streaming" is ReportService
+ * as it is now: rows read from a stream into a large table flushed every 100 rows and
+ * written straight to the output. Each case runs once, in its own JVM with a 1 GB heap; the
+ * peak is sampled every few milliseconds and printed after the run as "peak heap". A case
+ * that does not fit ends in OutOfMemoryError or stalls in back-to-back full collections; run
+ * the larger sizes one at a time with -p rows=... -p path=... The old path held Complaint
+ * entities, which are heavier than the report rows used for it here. 1M rows take a while.
+ *
+ * Run from resolveit-backend with:
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/test-classpath.txt -Dmdep.includeScope=test
+ * java -cp target/test-classes:target/classes:$(cat target/test-classpath.txt) com.resolveit.service.ReportPdfHeapBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class ReportPdfHeapBenchmark {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MMM dd, yyyy");
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"byteArray", "streaming"})
+    private String path;
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private volatile boolean sampling;
+    private volatile long peakBytes;
+    private Thread sampler;
+
+    private ComplaintRepository complaintRepository;
+    private ReportService reportService;
+
+    @Setup(Level.Trial)
+    public void createService() {
+        complaintRepository = mock(ComplaintRepository.class);
+        when(complaintRepository.countTotalAndResolved(any(), any()))
+            .thenAnswer(invocation -> List.<Object[]>of(new Object[]{(long) rows, 0L}));
+        when(complaintRepository.streamReportRows(any(), any())).thenAnswer(invocation -> rows());
+        reportService = new ReportService();
+        ReflectionTestUtils.setField(reportService, "complaintRepository", complaintRepository);
+    }
+
+    @Setup(Level.Iteration)
+    public void startSampling() {
+        System.gc();
+        peakBytes = memory.getHeapMemoryUsage().getUsed();
+        sampling = true;
+        sampler = new Thread(() -> {
+            while (sampling) {
+                peakBytes = Math.max(peakBytes, memory.getHeapMemoryUsage().getUsed());
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }, "heap-sampler");
+        sampler.setDaemon(true);
+        sampler.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void stopSampling() throws InterruptedException {
+        sampling = false;
+        sampler.join();
+        System.out.printf("%n%s, %d rows: peak heap %d MB%n", path, rows, peakBytes / (1024 * 1024));
+    }
+
+    @Benchmark
+    public long writeReport() {
+        if ("byteArray".equals(path)) {
+            return writeToByteArray().length;
+        }
+        CountingOutputStream out = new CountingOutputStream();
+        reportService.writePDFReport(START, START.plusYears(1), out);
+        return out.count;
+    }
+
+    /**
+     * The report as it was generated before streaming, details table only
+     */
+    private byte[] writeToByteArray() {
+        List<ComplaintReportRow> complaints;
+        try (Stream<ComplaintReportRow> loaded = rows()) {
+            complaints = loaded.toList();
+        }
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        Document document = new Document(new PdfDocument(new PdfWriter(baos)));
+        Table detailsTable = new Table(UnitValue.createPercentArray(new float[]{1, 3, 2, 1, 2, 2}));
+        detailsTable.setWidth(UnitValue.createPercentValue(100));
+        for (String header : new String[]{"ID", "Title", "Category", "Priority", "Status", "Created"}) {
+            detailsTable.addHeaderCell(new Cell().add(new Paragraph(header)).setBold());
+        }
+        for (ComplaintReportRow complaint : complaints) {
+            detailsTable.addCell(new Cell().add(new Paragraph(String.valueOf(complaint.getId()))));
+            detailsTable.addCell(new Cell().add(new Paragraph(complaint.getTitle())));
+            detailsTable.addCell(new Cell().add(new Paragraph(complaint.getCategory())));
+            detailsTable.addCell(new Cell().add(new Paragraph(complaint.getPriority().toString())));
+            detailsTable.addCell(new Cell().add(new Paragraph(complaint.getStatusDisplay())));
+            detailsTable.addCell(new Cell().add(new Paragraph(complaint.getCreatedAt().format(DATE_FORMATTER))));
+        }
+        document.add(detailsTable);
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private Stream<ComplaintReportRow> rows() {
+        return IntStream.rangeClosed(1, rows).mapToObj(i -> new ComplaintReportRow((long) i, "Complaint " + i, "Roads",
+            Complaint.Priority.MEDIUM, "Pending", START.plusMinutes(i)));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ReportPdfHeapBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * Stands in for the response stream, keeping only the byte count
+     */
+    private static class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.resolveit.service;
+
+import com.resolveit.dto.CategoryReport;
+import com.resolveit.dto.ComplaintStatsRow;
+import com.resolveit.model.Complaint;
+import com.resolveit.model.User;
+import com.resolveit.repository.ComplaintRepository;
+import com.resolveit.repository.ComplaintStatusRepository;
+import com.resolveit.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Aggregate reports count archived complaints too, as the trend cube and resolution sketches do
+ */
+@ExtendWith(MockitoExtension.class)
+class ReportServiceArchiveTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @Mock
+    private ComplaintStatusRepository statusRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ComplaintArchiveService complaintArchiveService;
+
+    @Mock
+    private ResolutionSketchService resolutionSketchService;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(statusRepository.findAll()).thenReturn(ComplaintAggregationTest.STATUSES);
+    }
+
+    @Test
+    void dashboardCountsArchivedComplaints() {
+        when(complaintRepository.findAllStatsRows()).thenReturn(List.of(row(1, "Roads", NOW.minusDays(1))));
+        when(complaintArchiveService.findArchivedStatsRows()).thenReturn(List.of(
+            row(3, "Roads", NOW.minusMonths(14)), row(3, "Water", NOW.minusMonths(20))));
+
+        Map<String, Object> stats = reportService.getDashboardStats();
+
+        assertThat(stats).containsEntry("totalComplaints", 3L).containsEntry("resolvedComplaints", 2L);
+        assertThat(reportService.getCategoryReport())
+            .extracting(CategoryReport::getCategory, CategoryReport::getTotalCount)
+            .containsExactlyInAnyOrder(tuple("Roads", 2L), tuple("Water", 1L));
+    }
+
+    @Test
+    void officerDashboardCountsTheirArchivedComplaints() {
+        User officer = new User();
+        officer.setId(7L);
+        when(userRepository.findByEmail("officer@example.com")).thenReturn(Optional.of(officer));
+        when(complaintRepository.findStatsRowsByAssignedOfficer(officer)).thenReturn(List.of(row(1, "Roads", NOW.minusDays(1))));
+        when(complaintArchiveService.findArchivedStatsRowsByOfficer(7L)).thenReturn(List.of(row(3, "Roads", NOW.minusMonths(14))));
+
+        Map<String, Object> stats = reportService.getUserDashboardStats("officer@example.com");
+
+        assertThat(stats).containsEntry("totalComplaints", 2L).containsEntry("resolutionRate", 50.0);
+    }
+
+    private static ComplaintStatsRow row(int statusId, String category, LocalDateTime createdAt) {
+        return new ComplaintStatsRow(statusId, Complaint.Priority.MEDIUM, category, createdAt, createdAt.plusDays(1),
+            statusId == 3 ? createdAt.plusDays(1) : null);
+    }
+}
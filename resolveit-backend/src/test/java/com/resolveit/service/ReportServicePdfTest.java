@@ -0,0 +1,85 @@
+package com.resolveit.service;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.resolveit.dto.ComplaintReportRow;
+import com.resolveit.model.Complaint;
+import com.resolveit.repository.ComplaintRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * The PDF report consumes its rows as a stream and writes the details table to the
+ * output as it goes, instead of building the whole document in memory first.
+ */
+@ExtendWith(MockitoExtension.class)
+class ReportServicePdfTest {
+
+    private static final int ROWS = 20_000;
+
+    @Mock
+    private ComplaintRepository complaintRepository;
+
+    @InjectMocks
+    private ReportService reportService;
+
+    @Test
+    void largeReportIsWrittenWhileRowsAreStillBeingRead() throws Exception {
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime end = start.plusYears(1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AtomicInteger rowsRead = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        // Bytes already written to the output when every 1000th row was read
+        List<Integer> bytesWrittenAtRow = new ArrayList<>();
+
+        Stream<ComplaintReportRow> rows = IntStream.rangeClosed(1, ROWS)
+            .mapToObj(i -> {
+                if (rowsRead.incrementAndGet() % 1000 == 0) {
+                    bytesWrittenAtRow.add(out.size());
+                }
+                return new ComplaintReportRow((long) i, "Complaint " + i, "Roads", Complaint.Priority.MEDIUM,
+                    "Pending", start.plusMinutes(i));
+            })
+            .onClose(() -> closed.set(true));
+
+        when(complaintRepository.countTotalAndResolved(any(), any()))
+            .thenReturn(List.<Object[]>of(new Object[]{(long) ROWS, 5_000L}));
+        when(complaintRepository.streamReportRows(start, end)).thenReturn(rows);
+
+        reportService.writePDFReport(start, end, out);
+
+        assertThat(rowsRead).hasValue(ROWS);
+        assertThat(closed).isTrue();
+
+        // The output grows steadily while rows are read rather than all at the end
+        assertThat(bytesWrittenAtRow).hasSize(ROWS / 1000);
+        assertThat(bytesWrittenAtRow.get(ROWS / 1000 / 2)).isGreaterThan(out.size() / 4);
+        assertThat(bytesWrittenAtRow).isSorted();
+
+        try (PdfDocument pdf = new PdfDocument(new PdfReader(new ByteArrayInputStream(out.toByteArray())))) {
+            assertThat(pdf.getNumberOfPages()).isGreaterThan(100);
+            String lastPage = PdfTextExtractor.getTextFromPage(pdf.getPage(pdf.getNumberOfPages()));
+            assertThat(lastPage).contains("Complaint " + ROWS);
+        }
+    }
+}
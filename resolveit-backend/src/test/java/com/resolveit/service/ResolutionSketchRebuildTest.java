@@ -0,0 +1,168 @@
+package com.resolveit.service;
+
+import com.resolveit.service.ResolutionSketchService.Resolution;
+import com.resolveit.service.ResolutionSketchService.ResolutionChanges;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+/**
+ * The nightly rebuild against H2 in MySQL mode: every committed change ends up counted once,
+ * by the rebuilt sketches or by the pending changes, whenever it commits relative to the snapshot.
+ */
+class ResolutionSketchRebuildTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 8, 0);
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private ResolutionSketchService resolutionSketchService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = spy(new JdbcTemplate(dataSource));
+        // The columns the sketches are built from; the live table's migrations do not run on H2
+        for (String table : List.of("complaints", "complaints_archive")) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT AUTO_INCREMENT PRIMARY KEY, created_at TIMESTAMP NULL, " +
+                "resolved_at TIMESTAMP NULL, category VARCHAR(100), priority VARCHAR(16), assigned_officer_id BIGINT NULL)");
+        }
+        jdbcTemplate.execute("CREATE TABLE resolution_sketches (dimension VARCHAR(16) NOT NULL, " +
+            "dimension_value VARCHAR(255) NOT NULL, sketch BLOB NOT NULL, PRIMARY KEY (dimension, dimension_value))");
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        resolutionSketchService = new ResolutionSketchService();
+        ReflectionTestUtils.setField(resolutionSketchService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(resolutionSketchService, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(resolutionSketchService, "transactionTemplate", new TransactionTemplate(transactionManager));
+        resolutionSketchService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void changesCommittedBeforeTheRebuildAreNotCountedTwice() {
+        resolve(10);
+
+        resolutionSketchService.rebuild();
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 1L);
+        resolutionSketchService.flush();
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 1L);
+    }
+
+    @Test
+    void changesCommittedAfterTheSnapshotAreKept() {
+        resolve(10);
+        doAnswer(invocation -> {
+            // Committed on another thread while the rebuild reads its snapshot
+            executor.submit(() -> resolutionSketchService.apply(changes(20))).get();
+            return invocation.callRealMethod();
+        }).when(jdbcTemplate).query(startsWith("SELECT created_at, resolved_at"), any(RowCallbackHandler.class));
+
+        resolutionSketchService.rebuild();
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 2L);
+        resolutionSketchService.flush();
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 2L);
+    }
+
+    @Test
+    void rebuildWaitsForTransactionsBetweenCommitAndAfterCommit() throws Exception {
+        CountDownLatch committed = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Future<?> writer = executor.submit(() -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                resolutionSketchService.apply(changes(10));
+                insertComplaint(10);
+                committed.countDown();
+                finish.await();
+                TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+                TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_COMMITTED);
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+            return null;
+        });
+        committed.await();
+
+        Future<?> rebuild = executor.submit(() -> resolutionSketchService.rebuild());
+        Thread.sleep(200);
+        assertThat(rebuild).isNotDone();
+
+        finish.countDown();
+        writer.get(5, TimeUnit.SECONDS);
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 1L);
+    }
+
+    @Test
+    void rolledBackTransactionsDoNotHoldUpTheRebuild() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            resolutionSketchService.apply(changes(10));
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+                TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        resolutionSketchService.rebuild();
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 0L);
+    }
+
+    /**
+     * A resolution written and recorded outside a transaction
+     */
+    private void resolve(int hours) {
+        insertComplaint(hours);
+        resolutionSketchService.apply(changes(hours));
+    }
+
+    private void insertComplaint(int hours) {
+        jdbcTemplate.update("INSERT INTO complaints (created_at, resolved_at, category, priority) VALUES (?, ?, 'Roads', 'HIGH')",
+            Timestamp.valueOf(CREATED), Timestamp.valueOf(CREATED.plusHours(hours)));
+    }
+
+    private static ResolutionChanges changes(int hours) {
+        ResolutionChanges changes = new ResolutionChanges();
+        changes.add(new Resolution(CREATED, CREATED.plusHours(hours), "Roads", "HIGH", null), 1);
+        return changes;
+    }
+}
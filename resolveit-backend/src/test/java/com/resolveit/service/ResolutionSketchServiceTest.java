@@ -0,0 +1,122 @@
+package com.resolveit.service;
+
+import com.resolveit.service.ResolutionSketchService.Resolution;
+import com.resolveit.service.ResolutionSketchService.ResolutionChanges;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Resolution changes are merged into the in-memory view once their transaction commits,
+ * and removals (reopened or reassigned complaints) take durations out again.
+ */
+@ExtendWith(MockitoExtension.class)
+class ResolutionSketchServiceTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 5, 1, 8, 0);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ResolutionSketchService resolutionSketchService;
+
+    @Test
+    void appliedResolutionsAreCountedPerDimension() {
+        ResolutionChanges changes = new ResolutionChanges();
+        changes.add(resolution(10, "Roads", "HIGH", 7L), 1);
+        changes.add(resolution(20, "Roads", "LOW", 7L), 1);
+        changes.add(resolution(30, "Water", "LOW", null), 1);
+
+        resolutionSketchService.apply(changes);
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 3L);
+        assertThat((Double) resolutionSketchService.getOverall().get("p50Hours")).isCloseTo(20.0, within(0.2));
+        assertThat(resolutionSketchService.getForOfficer(7L)).containsEntry("resolvedCount", 2L);
+        assertThat(resolutionSketchService.getByDimension("category"))
+            .extracting(row -> row.get("category"), row -> row.get("resolvedCount"))
+            .containsExactly(tuple("Roads", 2L), tuple("Water", 1L));
+    }
+
+    @Test
+    void reopenedComplaintIsRemovedAgain() {
+        ResolutionChanges resolved = new ResolutionChanges();
+        resolved.add(resolution(10, "Roads", "HIGH", 7L), 1);
+        resolutionSketchService.apply(resolved);
+
+        ResolutionChanges reopened = new ResolutionChanges();
+        reopened.add(resolution(10, "Roads", "HIGH", 7L), -1);
+        reopened.add(new Resolution(CREATED, null, "Roads", "HIGH", 7L), 1);
+        resolutionSketchService.apply(reopened);
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 0L).containsEntry("p50Hours", null);
+        assertThat(resolutionSketchService.getByDimension("priority")).isEmpty();
+    }
+
+    @Test
+    void reassignmentMovesTheDurationToTheNewOfficer() {
+        ResolutionChanges resolved = new ResolutionChanges();
+        resolved.add(resolution(10, "Roads", "HIGH", 7L), 1);
+        resolutionSketchService.apply(resolved);
+
+        ResolutionChanges reassigned = new ResolutionChanges();
+        reassigned.add(resolution(10, "Roads", "HIGH", 7L), -1);
+        reassigned.add(resolution(10, "Roads", "HIGH", 8L), 1);
+        resolutionSketchService.apply(reassigned);
+
+        assertThat(resolutionSketchService.getForOfficer(7L)).containsEntry("resolvedCount", 0L);
+        assertThat(resolutionSketchService.getForOfficer(8L)).containsEntry("resolvedCount", 1L);
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 1L);
+    }
+
+    @Test
+    void changesCountOnlyOnceTheTransactionCommits() {
+        ResolutionChanges changes = new ResolutionChanges();
+        changes.add(resolution(10, "Roads", "HIGH", 7L), 1);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            resolutionSketchService.apply(changes);
+            assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 0L);
+
+            TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 1L);
+    }
+
+    @Test
+    void failedFlushKeepsTheChanges() {
+        ResolutionChanges changes = new ResolutionChanges();
+        changes.add(resolution(10, "Roads", "HIGH", 7L), 1);
+        resolutionSketchService.apply(changes);
+        doThrow(new RuntimeException("database unavailable")).when(transactionTemplate).executeWithoutResult(any());
+
+        resolutionSketchService.flush();
+
+        assertThat(resolutionSketchService.getOverall()).containsEntry("resolvedCount", 1L);
+    }
+
+    private static Resolution resolution(int hours, String category, String priority, Long officerId) {
+        return new Resolution(CREATED, CREATED.plusHours(hours), category, priority, officerId);
+    }
+}
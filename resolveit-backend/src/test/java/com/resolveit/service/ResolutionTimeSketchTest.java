@@ -0,0 +1,160 @@
+package com.resolveit.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class ResolutionTimeSketchTest {
+
+    @Test
+    void roundTripKeepsEveryBucket() {
+        ResolutionTimeSketch sketch = sketchOf(randomDurations(10_000, 1));
+
+        byte[] bytes = sketch.toBytes();
+        ResolutionTimeSketch copy = ResolutionTimeSketch.fromBytes(bytes);
+
+        assertThat(copy.getCount()).isEqualTo(10_000);
+        assertThat(copy.toBytes()).isEqualTo(bytes);
+        for (double q : new double[]{0.0, 0.5, 0.9, 0.99, 1.0}) {
+            assertThat(copy.quantileHours(q)).isEqualTo(sketch.quantileHours(q));
+        }
+    }
+
+    @Test
+    void emptySketchIsJustTheVersion() {
+        ResolutionTimeSketch empty = ResolutionTimeSketch.fromBytes(new ResolutionTimeSketch().toBytes());
+
+        assertThat(new ResolutionTimeSketch().toBytes()).containsExactly(1);
+        assertThat(empty.isEmpty()).isTrue();
+        assertThat(empty.quantileHours(0.5)).isNull();
+    }
+
+    @Test
+    void mergeMatchesAddingEveryDuration() {
+        long[] first = randomDurations(5_000, 2);
+        long[] second = randomDurations(7_000, 3);
+        long[] both = new long[first.length + second.length];
+        System.arraycopy(first, 0, both, 0, first.length);
+        System.arraycopy(second, 0, both, first.length, second.length);
+
+        ResolutionTimeSketch merged = sketchOf(first);
+        merged.merge(sketchOf(second));
+
+        assertThat(merged.toBytes()).isEqualTo(sketchOf(both).toBytes());
+        assertThat(merged.getCount()).isEqualTo(12_000);
+    }
+
+    @Test
+    void negativeDeltasRoundTripAndCancelOnMerge() {
+        ResolutionTimeSketch stored = sketchOf(new long[]{3600, 7200, 86_400});
+
+        // A reopened complaint: its duration leaves, a new one arrives
+        ResolutionTimeSketch delta = new ResolutionTimeSketch();
+        delta.remove(7200);
+        delta.add(600);
+        ResolutionTimeSketch decoded = ResolutionTimeSketch.fromBytes(delta.toBytes());
+        assertThat(decoded.getCount()).isZero();
+        assertThat(decoded.isEmpty()).isFalse();
+
+        stored.merge(decoded);
+
+        assertThat(stored.toBytes()).isEqualTo(sketchOf(new long[]{3600, 86_400, 600}).toBytes());
+    }
+
+    @Test
+    void changesThatCancelLeaveAnEmptySketch() {
+        ResolutionTimeSketch delta = new ResolutionTimeSketch();
+        delta.add(5000);
+        delta.remove(5000);
+
+        assertThat(delta.isEmpty()).isTrue();
+        assertThat(delta.toBytes()).containsExactly(1);
+    }
+
+    @Test
+    void largeGapsAndCountsUseMultiByteVarints() {
+        ResolutionTimeSketch sketch = new ResolutionTimeSketch();
+        // Bucket ~900 is far from bucket 0, and 1000 of each needs a two-byte zigzag count
+        for (int i = 0; i < 1000; i++) {
+            sketch.add(0);
+            sketch.add(20L * 365 * 24 * 3600);
+            sketch.remove(1);
+        }
+
+        byte[] bytes = sketch.toBytes();
+        ResolutionTimeSketch copy = ResolutionTimeSketch.fromBytes(bytes);
+
+        assertThat(bytes.length).isGreaterThan(1 + 3 * 2);
+        assertThat(copy.toBytes()).isEqualTo(bytes);
+        assertThat(copy.getCount()).isEqualTo(1000);
+    }
+
+    @Test
+    void durationsBeyondTheLastBucketAreKept() {
+        ResolutionTimeSketch sketch = sketchOf(new long[]{Long.MAX_VALUE / 2, 100L * 365 * 24 * 3600});
+
+        assertThat(ResolutionTimeSketch.fromBytes(sketch.toBytes()).getCount()).isEqualTo(2);
+        assertThat(sketch.quantileHours(1.0)).isGreaterThan(19.0 * 365 * 24);
+    }
+
+    @Test
+    void malformedBytesAreRejected() {
+        assertThatThrownBy(() -> ResolutionTimeSketch.fromBytes(new byte[0]))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ResolutionTimeSketch.fromBytes(new byte[]{2}))
+            .isInstanceOf(IllegalArgumentException.class);
+        // Gap whose continuation byte is missing
+        assertThatThrownBy(() -> ResolutionTimeSketch.fromBytes(new byte[]{1, (byte) 0x85}))
+            .isInstanceOf(IllegalArgumentException.class);
+        // Gap past the last bucket
+        assertThatThrownBy(() -> ResolutionTimeSketch.fromBytes(new byte[]{1, (byte) 0xFF, (byte) 0x7F, 2}))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void quantilesAreWithinOnePercentOfExact() {
+        long[] durations = randomDurations(100_000, 4);
+        ResolutionTimeSketch sketch = sketchOf(durations);
+        long[] sorted = durations.clone();
+        Arrays.sort(sorted);
+
+        for (double q : new double[]{0.01, 0.25, 0.5, 0.75, 0.9, 0.95, 0.99, 0.999}) {
+            double exactHours = sorted[(int) Math.floor(q * (sorted.length - 1))] / 3600.0;
+            // 1% relative error, plus the rounding to hundredths of an hour
+            assertThat(sketch.quantileHours(q)).as("q=%s", q).isCloseTo(exactHours, within(exactHours * 0.01 + 0.005));
+        }
+    }
+
+    @Test
+    void subSecondDurationsCountAsZero() {
+        ResolutionTimeSketch sketch = sketchOf(new long[]{0, 0, 0, 3600});
+
+        assertThat(sketch.quantileHours(0.5)).isEqualTo(0.0);
+        assertThat(sketch.quantileHours(1.0)).isCloseTo(1.0, within(0.01));
+    }
+
+    private static ResolutionTimeSketch sketchOf(long[] durations) {
+        ResolutionTimeSketch sketch = new ResolutionTimeSketch();
+        for (long duration : durations) {
+            sketch.add(duration);
+        }
+        return sketch;
+    }
+
+    /**
+     * Log-normal resolution times from minutes to months, like real complaints
+     */
+    private static long[] randomDurations(int count, long seed) {
+        Random random = new Random(seed);
+        long[] durations = new long[count];
+        for (int i = 0; i < count; i++) {
+            durations[i] = 60 + (long) Math.exp(11 + 2 * random.nextGaussian());
+        }
+        return durations;
+    }
+}
@@ -0,0 +1,116 @@
+package com.resolveit.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The nightly recount against H2 in MySQL mode, with the columns of the complaint tables
+ * the cube is built from
+ */
+class TrendCubeServiceTest {
+
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2024, 3, 4, 9, 15);
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TrendCubeService trendCubeService;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        for (String table : List.of("complaints", "complaints_archive")) {
+            jdbcTemplate.execute("CREATE TABLE " + table + " (id BIGINT PRIMARY KEY, created_at TIMESTAMP NULL, " +
+                "category VARCHAR(255) NULL, status_id BIGINT NULL, priority VARCHAR(16) NULL, assigned_officer_id BIGINT NULL)");
+        }
+        jdbcTemplate.execute("CREATE TABLE complaint_trend_buckets (granularity CHAR(1) NOT NULL, bucket_start DATETIME NOT NULL, " +
+            "category VARCHAR(255) NOT NULL, status_id BIGINT NOT NULL, priority VARCHAR(16) NOT NULL, officer_id BIGINT NOT NULL, " +
+            "complaint_count BIGINT NOT NULL, PRIMARY KEY (granularity, bucket_start, category, status_id, priority, officer_id))");
+
+        trendCubeService = new TrendCubeService();
+        ReflectionTestUtils.setField(trendCubeService, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(trendCubeService, "transactionManager", new DataSourceTransactionManager(dataSource));
+    }
+
+    @Test
+    void firstStartFillsTheCubeFromLiveAndArchivedComplaints() {
+        complaint("complaints", 1, MONDAY, "Roads", 1L, 7L);
+        complaint("complaints", 2, MONDAY.plusMinutes(20), "Roads", 1L, 7L);
+        complaint("complaints", 3, MONDAY.plusHours(3), "Water", 2L, null);
+        complaint("complaints_archive", 4, MONDAY.minusDays(400), "Roads", 3L, 7L);
+
+        trendCubeService.initCube();
+
+        assertThat(buckets("H")).containsOnly(
+            Map.entry(MONDAY.withMinute(0) + " Roads 1 7", 2L),
+            Map.entry(MONDAY.withMinute(0).plusHours(3) + " Water 2 0", 1L),
+            Map.entry(MONDAY.minusDays(400).withMinute(0) + " Roads 3 7", 1L));
+        assertThat(buckets("D")).containsOnly(
+            Map.entry(MONDAY.toLocalDate().atStartOfDay() + " Roads 1 7", 2L),
+            Map.entry(MONDAY.toLocalDate().atStartOfDay() + " Water 2 0", 1L),
+            Map.entry(MONDAY.minusDays(400).toLocalDate().atStartOfDay() + " Roads 3 7", 1L));
+    }
+
+    @Test
+    void rebuildCorrectsDrift() {
+        complaint("complaints", 1, MONDAY, "Roads", 1L, 7L);
+        complaint("complaints", 2, MONDAY.plusDays(2), "Water", 1L, 7L);
+        trendCubeService.initCube();
+        Map<String, Long> hourly = buckets("H");
+        Map<String, Long> daily = buckets("D");
+
+        // A missed update, a cell left behind by a status change, and a lost insert
+        jdbcTemplate.update("UPDATE complaint_trend_buckets SET complaint_count = 5 WHERE category = 'Roads'");
+        jdbcTemplate.update("INSERT INTO complaint_trend_buckets VALUES ('H', ?, 'Water', 9, '', 7, 1)",
+            Timestamp.valueOf(MONDAY.plusDays(2).withMinute(0)));
+        jdbcTemplate.update("DELETE FROM complaint_trend_buckets WHERE category = 'Water' AND granularity = 'D'");
+
+        trendCubeService.rebuild();
+
+        assertThat(buckets("H")).isEqualTo(hourly);
+        assertThat(buckets("D")).isEqualTo(daily);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM complaint_trend_buckets WHERE complaint_count = 0",
+            Integer.class)).isZero();
+    }
+
+    @Test
+    void bucketsOfDeletedComplaintsAreDropped() {
+        complaint("complaints", 1, MONDAY, "Roads", 1L, 7L);
+        trendCubeService.initCube();
+
+        jdbcTemplate.update("DELETE FROM complaints");
+        trendCubeService.rebuild();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM complaint_trend_buckets", Integer.class)).isZero();
+    }
+
+    private void complaint(String table, long id, LocalDateTime createdAt, String category, Long statusId, Long officerId) {
+        jdbcTemplate.update("INSERT INTO " + table + " (id, created_at, category, status_id, priority, assigned_officer_id) " +
+            "VALUES (?, ?, ?, ?, NULL, ?)", id, Timestamp.valueOf(createdAt), category, statusId, officerId);
+    }
+
+    private Map<String, Long> buckets(String granularity) {
+        Map<String, Long> buckets = new HashMap<>();
+        jdbcTemplate.query("SELECT bucket_start, category, status_id, officer_id, complaint_count FROM complaint_trend_buckets " +
+            "WHERE granularity = ?", rs -> {
+                buckets.put(rs.getTimestamp(1).toLocalDateTime() + " " + rs.getString(2) + " " + rs.getLong(3) + " " + rs.getLong(4),
+                    rs.getLong(5));
+            }, granularity);
+        return buckets;
+    }
+}
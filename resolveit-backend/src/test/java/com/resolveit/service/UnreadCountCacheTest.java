@@ -0,0 +1,127 @@
+package com.resolveit.service;
+
+import com.resolveit.repository.NotificationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UnreadCountCacheTest {
+
+    @Mock
+    private NotificationRepository notificationRepository;
+
+    @InjectMocks
+    private UnreadCountCache unreadCountCache;
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void countIsCachedAndAdjusted() {
+        when(notificationRepository.countByUserIdAndReadFalse(1L)).thenReturn(3L);
+
+        assertThat(unreadCountCache.get(1L)).isEqualTo(3);
+        unreadCountCache.adjustAfterCommit(1L, 1);
+
+        assertThat(unreadCountCache.get(1L)).isEqualTo(4);
+        verify(notificationRepository, times(1)).countByUserIdAndReadFalse(1L);
+    }
+
+    @Test
+    void loadOverlappingAnAdjustmentIsNotCached() {
+        // A notification committed and applied while the count was being read
+        when(notificationRepository.countByUserIdAndReadFalse(1L)).thenAnswer(invocation -> {
+            unreadCountCache.adjustAfterCommit(1L, 1);
+            return 3L;
+        }).thenReturn(4L);
+
+        assertThat(unreadCountCache.get(1L)).isEqualTo(3);
+
+        assertThat(unreadCountCache.get(1L)).isEqualTo(4);
+        assertThat(unreadCountCache.get(1L)).isEqualTo(4);
+        verify(notificationRepository, times(2)).countByUserIdAndReadFalse(1L);
+    }
+
+    @Test
+    void loadWhileAnAdjustmentIsUncommittedIsNotCached() {
+        when(notificationRepository.countByUserIdAndReadFalse(1L)).thenReturn(3L, 4L);
+        TransactionSynchronizationManager.initSynchronization();
+        unreadCountCache.adjustAfterCommit(1L, 1);
+
+        // Whether this read sees the notification depends on when the transaction commits
+        assertThat(unreadCountCache.get(1L)).isEqualTo(3);
+        commit();
+
+        assertThat(unreadCountCache.get(1L)).isEqualTo(4);
+        assertThat(unreadCountCache.get(1L)).isEqualTo(4);
+        verify(notificationRepository, times(2)).countByUserIdAndReadFalse(1L);
+    }
+
+    @Test
+    void reconcileCorrectsDrift() {
+        when(notificationRepository.countByUserIdAndReadFalse(1L)).thenReturn(3L);
+        unreadCountCache.get(1L);
+        when(notificationRepository.countUnreadGroupedByUserId(anyCollection()))
+            .thenReturn(List.<Object[]>of(new Object[]{1L, 5L}));
+
+        unreadCountCache.reconcile();
+
+        assertThat(unreadCountCache.get(1L)).isEqualTo(5);
+    }
+
+    @Test
+    void reconcileDropsCountersAdjustedMeanwhile() {
+        when(notificationRepository.countByUserIdAndReadFalse(1L)).thenReturn(3L, 5L);
+        unreadCountCache.get(1L);
+        when(notificationRepository.countUnreadGroupedByUserId(anyCollection())).thenAnswer(invocation -> {
+            unreadCountCache.adjustAfterCommit(1L, 1);
+            return List.<Object[]>of(new Object[]{1L, 4L});
+        });
+
+        unreadCountCache.reconcile();
+
+        // Neither the stale 4 nor 4 + 1 is kept; the counter loads again
+        assertThat(unreadCountCache.get(1L)).isEqualTo(5);
+    }
+
+    @Test
+    void rolledBackAdjustmentDoesNotBlockCaching() {
+        when(notificationRepository.countByUserIdAndReadFalse(1L)).thenReturn(3L);
+        TransactionSynchronizationManager.initSynchronization();
+        unreadCountCache.adjustAfterCommit(1L, 1);
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+            TransactionSynchronization.STATUS_ROLLED_BACK);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        unreadCountCache.get(1L);
+        unreadCountCache.get(1L);
+
+        verify(notificationRepository, times(1)).countByUserIdAndReadFalse(1L);
+    }
+
+    private static void commit() {
+        TransactionSynchronizationUtils.invokeAfterCommit(TransactionSynchronizationManager.getSynchronizations());
+        TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(),
+            TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+}
@@ -1,4 +1,5 @@
 import { createContext, useState } from "react";
+import api from "../services/api";
 
 export const AuthContext = createContext();
 
@@ -8,14 +9,20 @@ export default function AuthProvider({ children }) {
     user: JSON.parse(localStorage.getItem("user")) || null
   });
 
-  const login = (token, user) => {
+  const login = (token, user, refreshToken) => {
     localStorage.setItem("token", token);
+    localStorage.setItem("refreshToken", refreshToken);
     localStorage.setItem("user", JSON.stringify(user));
     setAuth({ token, user });
   };
 
   const logout = () => {
+    // Revoke the session's tokens on the server too
+    if (localStorage.getItem("token")) {
+      api.post("/auth/logout").catch(() => {});
+    }
     localStorage.removeItem("token");
+    localStorage.removeItem("refreshToken");
     localStorage.removeItem("user");
     setAuth({ token: null, user: null });
   };
@@ -1,4 +1,4 @@
-import { useState, useContext } from "react";
+import { useState, useContext, useEffect } from "react";
 import api from "../services/api";
 import { useNavigate } from "react-router-dom";
 import { AuthContext } from "../context/AuthContext";
@@ -22,6 +22,10 @@ export default function ComplaintForm() {
 
   const [files, setFiles] = useState([]);
 
+  // One key per version of the form, so a retried submission is only stored once
+  const [idempotencyKey, setIdempotencyKey] = useState(() => crypto.randomUUID());
+  useEffect(() => setIdempotencyKey(crypto.randomUUID()), [data, files]);
+
   const submit = async (e) => {
     e.preventDefault();
     uiState.setLoading();
@@ -35,7 +39,7 @@ export default function ComplaintForm() {
 
     try {
       const res = await api.post("/complaints/submit", formData, {
-        headers: { "Content-Type": "multipart/form-data" }
+        headers: { "Content-Type": "multipart/form-data", "Idempotency-Key": idempotencyKey }
       });
 
       if (res.data.status === "success") {
@@ -26,7 +26,7 @@ export default function Login() {
       if (res.data.status === "success") {
         uiState.setSuccess("Login successful! Redirecting...");
         
-        login(res.data.token, res.data.user);
+        login(res.data.token, res.data.user, res.data.refreshToken);
         
         // Role-based redirect after brief success display
         setTimeout(() => {
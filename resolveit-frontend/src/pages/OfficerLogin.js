@@ -28,7 +28,7 @@ export default function OfficerLogin() {
         // Check if user has officer or admin role
         if (userRoles.includes("ROLE_OFFICER") || userRoles.includes("ROLE_ADMIN")) {
           uiState.setSuccess("Access granted! Redirecting to officer dashboard...");
-          login(res.data.token, res.data.user);
+          login(res.data.token, res.data.user, res.data.refreshToken);
           setTimeout(() => nav("/officer-dashboard"), 1500);
         } else {
           uiState.setError("Access denied. Officer credentials required.");
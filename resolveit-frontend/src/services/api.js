@@ -15,4 +15,61 @@ api.interceptors.request.use((config) => {
   return config;
 });
 
+// Access tokens are short-lived: on 401/403, get a new one with the refresh token and retry once.
+// Concurrent failures share a single refresh call.
+let refreshing = null;
+
+const refreshTokens = () => {
+  if (!refreshing) {
+    const refreshToken = localStorage.getItem("refreshToken");
+    refreshing = axios
+      .post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken })
+      .then((res) => {
+        if (res.data.status !== "success") {
+          throw new Error(res.data.message);
+        }
+        localStorage.setItem("token", res.data.token);
+        localStorage.setItem("refreshToken", res.data.refreshToken);
+        // Roles may have changed since sign-in
+        localStorage.setItem("user", JSON.stringify(res.data.user));
+        return res.data.token;
+      })
+      .finally(() => {
+        refreshing = null;
+      });
+  }
+  return refreshing;
+};
+
+api.interceptors.response.use(
+  (response) => response,
+  async (error) => {
+    const config = error.config;
+    const status = error.response?.status;
+
+    if (
+      config &&
+      !config._retried &&
+      (status === 401 || status === 403) &&
+      localStorage.getItem("refreshToken") &&
+      !config.url?.startsWith("/auth/")
+    ) {
+      config._retried = true;
+      try {
+        const token = await refreshTokens();
+        config.headers.Authorization = `Bearer ${token}`;
+        return api(config);
+      } catch (refreshError) {
+        // Session revoked or expired: sign out
+        localStorage.removeItem("token");
+        localStorage.removeItem("refreshToken");
+        localStorage.removeItem("user");
+        window.location.href = "/";
+      }
+    }
+
+    return Promise.reject(error);
+  }
+);
+
 export default api;